@@ -0,0 +1,166 @@
+package data;
+
+import com.dua3.utility.data.Cache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Cleaner;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * JMH benchmarks comparing the removal of collected entries in {@link Cache} through a reference queue with the
+ * previous implementation that registered a {@link Cleaner} action for every cached value.
+ * <p>
+ * Run with {@code -prof gc} to also compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx512m")
+public class CacheBenchmark {
+
+    private static final int RETAINED_ENTRIES = 100_000;
+
+    /**
+     * The cache implementation to benchmark.
+     */
+    public enum Implementation {
+        /** The current implementation that polls a reference queue during cache operations. */
+        REFERENCE_QUEUE,
+        /** The previous implementation that registers a Cleaner action for each value. */
+        CLEANER
+    }
+
+    @Param({"REFERENCE_QUEUE", "CLEANER"})
+    public Implementation implementation;
+
+    private Function<Integer, byte[]> cache;
+    private int nextKey;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        cache = createCache(implementation);
+        nextKey = 0;
+    }
+
+    private static Function<Integer, byte[]> createCache(Implementation implementation) {
+        Function<Integer, byte[]> compute = k -> new byte[64];
+        return switch (implementation) {
+            case REFERENCE_QUEUE -> new Cache<>(Cache.ReferenceType.WEAK_REFERENCES, compute)::get;
+            case CLEANER -> new CleanerCache<>(compute)::get;
+        };
+    }
+
+    /**
+     * Every request is a miss and the previously cached values become unreachable immediately, so this measures
+     * the cost of adding and removing entries.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void churn(Blackhole blackhole) {
+        blackhole.consume(cache.apply(nextKey++));
+    }
+
+    /**
+     * Counters reported by {@link #retainedHeap(HeapCounters)}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounters {
+        /** Heap in bytes retained per cached entry while the values are strongly reachable. */
+        public long bytesPerEntry;
+    }
+
+    /**
+     * Fill a cache with values that are kept reachable and measure the heap retained per entry, including the
+     * bookkeeping for removing entries once the values are collected.
+     * <p>
+     * The retained heap is determined as the amount of memory that is released after the cache and the values
+     * have been dropped, so that cleanup work still pending from earlier iterations does not distort the result.
+     *
+     * @param counters the counters to update
+     * @throws InterruptedException if interrupted while waiting for the heap to settle
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void retainedHeap(HeapCounters counters) throws InterruptedException {
+        byte[][] values = new byte[RETAINED_ENTRIES][];
+        Function<Integer, byte[]> c = createCache(implementation);
+        for (int i = 0; i < RETAINED_ENTRIES; i++) {
+            values[i] = c.apply(i);
+        }
+
+        long filled = settledHeapUsage();
+        Reference.reachabilityFence(values);
+        Reference.reachabilityFence(c);
+
+        // drop cache and values; the cleanup of the cache entries must finish before the heap is measured again
+        values = null;
+        c = null;
+        long released = settledHeapUsage();
+
+        // subtract the values themselves and the array holding them
+        long valueBytes = (long) RETAINED_ENTRIES * (16 + 64 + 4);
+        counters.bytesPerEntry = Math.max(0, filled - released - valueBytes) / RETAINED_ENTRIES;
+    }
+
+    private static long settledHeapUsage() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * The previous implementation of {@link Cache#get(Object)} for weak references, kept for comparison.
+     */
+    private static final class CleanerCache<K, V> {
+        private static final Cleaner CLEANER = Cleaner.create();
+
+        private final Function<? super K, ? extends V> compute;
+        private final Map<K, Reference<V>> items = new ConcurrentHashMap<>();
+
+        CleanerCache(Function<? super K, ? extends V> compute) {
+            this.compute = compute;
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(K key) {
+            Reference<V> ref = items.get(key);
+            V item = ref == null ? null : ref.get();
+            if (item != null) {
+                return item;
+            }
+
+            Object[] holder = new Object[1];
+            items.compute(key, (k, currentRef) -> {
+                V val = currentRef == null ? null : currentRef.get();
+                if (val != null) {
+                    holder[0] = val;
+                    return currentRef;
+                }
+
+                val = compute.apply(k);
+                holder[0] = val;
+                Reference<V> newRef = new WeakReference<>(val);
+                CLEANER.register(val, () -> items.remove(k, newRef));
+                return newRef;
+            });
+
+            return (V) holder[0];
+        }
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * This package contains JMH benchmarks for the data utility classes.
+ */
+@NullMarked
+package data;
+
+import org.jspecify.annotations.NullMarked;
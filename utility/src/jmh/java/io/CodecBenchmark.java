@@ -0,0 +1,150 @@
+package io;
+
+import com.dua3.utility.io.BinaryCodec;
+import com.dua3.utility.io.BinaryCodecs;
+import com.dua3.utility.io.Codec;
+import com.dua3.utility.io.Codecs;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing the {@link DataOutputStream} based {@link Codec} implementations from {@link Codecs} with
+ * the buffer based {@link BinaryCodec} implementations from {@link BinaryCodecs}.
+ * <p>
+ * The benchmarks encode and decode a list of records containing strings, numbers, a list, and a map. The
+ * {@code Codec} for the record is written by hand, the {@code BinaryCodec} is derived from the record class.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CodecBenchmark {
+
+    /**
+     * The record type used in the benchmark.
+     *
+     * @param id     the id
+     * @param name   the name
+     * @param score  the score
+     * @param tags   the tags
+     * @param counts the counts
+     */
+    public record Item(long id, String name, int score, List<String> tags, Map<String, Integer> counts) {}
+
+    @Param({"10", "1000"})
+    public int size;
+
+    private List<Item> items;
+    private Codec<List<Item>> dataCodec;
+    private BinaryCodec<List<Item>> binaryCodec;
+    private byte[] dataEncoded;
+    private byte[] binaryEncoded;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(
+                    random.nextInt(1_000_000),
+                    "item-" + i,
+                    random.nextInt(200) - 100,
+                    List.of("tag" + random.nextInt(10), "tag" + random.nextInt(10)),
+                    Map.of("views", random.nextInt(10_000), "likes", random.nextInt(100))
+            ));
+        }
+
+        Codecs codecs = new Codecs();
+        Codec<String> stringCodec = codecs.get(String.class).orElseThrow();
+        Codec<Integer> intCodec = codecs.get(Integer.class).orElseThrow();
+        Codec<List<String>> tagsCodec = Codecs.collectionCodec("tags", stringCodec, ArrayList::new);
+        Codec<Map<String, Integer>> countsCodec = Codecs.mapCodec(stringCodec, intCodec, HashMap::new);
+        Codec<Item> itemCodec = Codecs.createCodec(
+                "Item",
+                (DataOutputStream os, Item item) -> {
+                    os.writeLong(item.id());
+                    os.writeUTF(item.name());
+                    os.writeInt(item.score());
+                    tagsCodec.encode(os, item.tags());
+                    countsCodec.encode(os, item.counts());
+                },
+                (DataInputStream is) -> new Item(
+                        is.readLong(),
+                        is.readUTF(),
+                        is.readInt(),
+                        tagsCodec.decode(is),
+                        countsCodec.decode(is)
+                )
+        );
+        dataCodec = Codecs.collectionCodec("items", itemCodec, ArrayList::new);
+        binaryCodec = BinaryCodecs.collectionCodec("items", BinaryCodecs.forClass(Item.class), ArrayList::new);
+
+        dataEncoded = encodeDataOutputStream();
+        binaryEncoded = encodeBinary();
+    }
+
+    @Benchmark
+    public byte[] encodeDataOutputStream() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream os = new DataOutputStream(baos)) {
+            dataCodec.encode(os, items);
+        }
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binaryCodec.encode(items);
+    }
+
+    @Benchmark
+    public List<Item> decodeDataOutputStream() throws IOException {
+        try (DataInputStream is = new DataInputStream(new ByteArrayInputStream(dataEncoded))) {
+            return dataCodec.decode(is);
+        }
+    }
+
+    @Benchmark
+    public List<Item> decodeBinary() throws IOException {
+        return binaryCodec.decode(binaryEncoded);
+    }
+
+    /**
+     * Counters reported by {@link #encodedSize(SizeCounters)}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SizeCounters {
+        /** The size of the data encoded using {@link DataOutputStream}. */
+        public long dataOutputBytes;
+        /** The size of the data encoded using {@link BinaryCodec}. */
+        public long binaryBytes;
+    }
+
+    /**
+     * Reports the encoded sizes of both formats as auxiliary counters.
+     *
+     * @param counters the counters
+     * @return the encoded size
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public int encodedSize(SizeCounters counters) {
+        counters.dataOutputBytes = dataEncoded.length;
+        counters.binaryBytes = binaryEncoded.length;
+        return dataEncoded.length + binaryEncoded.length;
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * This package contains JMH benchmarks for the I/O utility classes.
+ */
+@NullMarked
+package io;
+
+import org.jspecify.annotations.NullMarked;
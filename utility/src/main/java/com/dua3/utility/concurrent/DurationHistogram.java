@@ -0,0 +1,134 @@
+package com.dua3.utility.concurrent;
+
+import com.dua3.utility.lang.LangUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of durations, for example the time tasks spend waiting in a queue.
+ * <p>
+ * Durations are counted in buckets whose bounds are powers of two nanoseconds, so that recording is cheap and the
+ * relative error of the reported percentiles is at most a factor of two.
+ */
+public final class DurationHistogram {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs a new, empty histogram.
+     */
+    public DurationHistogram() {
+        // nothing to do
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos the duration in nanoseconds; negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        long n = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(n));
+        total.add(n);
+        max.accumulate(n);
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param duration the duration
+     */
+    public void record(Duration duration) {
+        record(duration.toNanos());
+    }
+
+    private static int bucket(long nanos) {
+        return BUCKETS - Long.numberOfLeadingZeros(nanos);
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    /**
+     * Get a snapshot of the current histogram data.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        List<Bucket> buckets = new ArrayList<>();
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = counts.get(i);
+            if (n > 0) {
+                buckets.add(new Bucket(Duration.ofNanos(upperBound(i)), n));
+                count += n;
+            }
+        }
+        return new Snapshot(count, Duration.ofNanos(total.sum()), Duration.ofNanos(max.get()), List.copyOf(buckets));
+    }
+
+    /**
+     * A histogram bucket.
+     *
+     * @param upperBound the largest duration counted in this bucket
+     * @param count      the number of durations counted in this bucket
+     */
+    public record Bucket(Duration upperBound, long count) {}
+
+    /**
+     * A snapshot of the histogram data.
+     *
+     * @param count   the number of recorded durations
+     * @param total   the sum of all recorded durations
+     * @param max     the largest recorded duration
+     * @param buckets the non-empty buckets in ascending order
+     */
+    public record Snapshot(long count, Duration total, Duration max, List<Bucket> buckets) {
+        /**
+         * A snapshot of a histogram without any recorded durations.
+         */
+        public static final Snapshot EMPTY = new Snapshot(0, Duration.ZERO, Duration.ZERO, List.of());
+
+        /**
+         * Get the mean of the recorded durations.
+         *
+         * @return the mean duration, or {@link Duration#ZERO} if no durations were recorded
+         */
+        public Duration mean() {
+            return count == 0 ? Duration.ZERO : total.dividedBy(count);
+        }
+
+        /**
+         * Get an estimate of a percentile.
+         * <p>
+         * The value returned is the upper bound of the bucket containing the percentile, limited to the maximum
+         * recorded duration.
+         *
+         * @param p the percentile, a value between 0 and 100
+         * @return the estimated percentile, or {@link Duration#ZERO} if no durations were recorded
+         * @throws IllegalArgumentException if {@code p} is not between 0 and 100
+         */
+        public Duration percentile(double p) {
+            LangUtil.checkArg(p >= 0 && p <= 100, "percentile must be between 0 and 100: %f", p);
+
+            long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+            long seen = 0;
+            for (Bucket bucket : buckets) {
+                seen += bucket.count();
+                if (seen >= rank) {
+                    return bucket.upperBound().compareTo(max) < 0 ? bucket.upperBound() : max;
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.dua3.utility.concurrent;
 
 import com.dua3.utility.lang.LangUtil;
 
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -10,6 +11,29 @@ import java.util.concurrent.TimeUnit;
  * A generic interface to control different kinds of task processors.
  */
 public interface TaskProcessor {
+    /**
+     * Determines what happens when a task is submitted to a processor whose queue is full.
+     */
+    enum OverflowPolicy {
+        /**
+         * The submitting thread blocks until there is room in the queue.
+         */
+        BLOCK,
+        /**
+         * The task is rejected by throwing a {@link TaskRejectedException}.
+         */
+        REJECT,
+        /**
+         * The task is executed directly by the submitting thread.
+         */
+        CALLER_RUNS,
+        /**
+         * The oldest queued task is dropped to make room; its future completes exceptionally with a
+         * {@link TaskRejectedException}.
+         */
+        DROP_OLDEST
+    }
+
     /**
      * Get name of processor.
      * @return the task processor's name
@@ -60,6 +84,22 @@ public interface TaskProcessor {
      */
     <T> CompletableFuture<T> submit(Callable<? extends T> task);
 
+    /**
+     * Submit a task if it can be accepted without waiting.
+     * <p>
+     * Unlike {@link #submit(Callable)}, this method never blocks and never applies the {@link OverflowPolicy} of a
+     * processor with a bounded queue. The default implementation is suitable for processors with unbounded queues and
+     * always accepts the task.
+     *
+     * @param <T> the task result type
+     * @param task the task to execute
+     * @return an {@link Optional} holding the {@link CompletableFuture} for the task, or an empty {@code Optional} if the
+     * task was not accepted because the queue is full
+     */
+    default <T> Optional<CompletableFuture<T>> trySubmit(Callable<? extends T> task) {
+        return Optional.of(submit(task));
+    }
+
     /**
      * Submit a task that returns a CompletableFuture.
      *
@@ -3,23 +3,41 @@ package com.dua3.utility.concurrent;
 import com.dua3.utility.lang.LangUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
 
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * {@link TaskProcessor} implementation where tasks are executed asynchronous using an {@link ExecutorService}.
  * <p>
- * When an instance is created, the number of maximum parallel tasks can be passed in.
+ * When an instance is created, the number of maximum parallel tasks can be passed in. By default, tasks that cannot
+ * be started immediately are queued without limit. To protect against bursts of submissions exhausting the heap, a
+ * queue capacity and an {@link OverflowPolicy} that is applied when the queue is full can be passed in as well.
  */
 public class TaskProcessorAsync extends TaskProcessorBase {
     private static final Logger LOG = LogManager.getLogger(TaskProcessorAsync.class);
 
-    private final ExecutorService executor;
+    /**
+     * Set while {@link #trySubmit(Callable)} hands a task to the executor, so that the task is rejected instead of
+     * applying the overflow policy.
+     */
+    private static final ThreadLocal<Boolean> TRYING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ThreadPoolExecutor executor;
+    private final @Nullable OverflowPolicy overflowPolicy;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
 
     /**
      * Constructor.
@@ -30,13 +48,76 @@ public class TaskProcessorAsync extends TaskProcessorBase {
     public TaskProcessorAsync(String name, int maxThreads) {
         super(name);
         LangUtil.checkArg(maxThreads > 0, "maxThreads must be a positive integer: %d", maxThreads);
-        executor = Executors.newFixedThreadPool(maxThreads, newThreadFactory());
+        this.overflowPolicy = null;
+        this.executor = new ThreadPoolExecutor(
+                maxThreads, maxThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), newThreadFactory()
+        );
+    }
+
+    /**
+     * Constructor for a processor with a bounded queue.
+     *
+     * @param name           this processor's name
+     * @param maxThreads     maximal number of tasks that are executed parallel
+     * @param queueCapacity  maximal number of tasks waiting to be executed
+     * @param overflowPolicy the policy to apply when a task is submitted while the queue is full
+     */
+    public TaskProcessorAsync(String name, int maxThreads, int queueCapacity, OverflowPolicy overflowPolicy) {
+        super(name);
+        LangUtil.checkArg(maxThreads > 0, "maxThreads must be a positive integer: %d", maxThreads);
+        LangUtil.checkArg(queueCapacity > 0, "queueCapacity must be a positive integer: %d", queueCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.executor = new ThreadPoolExecutor(
+                maxThreads, maxThreads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                newThreadFactory(), new OverflowHandler(overflowPolicy)
+        );
+    }
+
+    /**
+     * Get the overflow policy.
+     *
+     * @return an {@link Optional} holding the overflow policy, or an empty {@code Optional} if the queue is unbounded
+     */
+    public Optional<OverflowPolicy> getOverflowPolicy() {
+        return Optional.ofNullable(overflowPolicy);
+    }
+
+    /**
+     * Get the number of tasks waiting to be executed.
+     *
+     * @return the current queue depth
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Get the number of tasks that were not accepted because the queue was full, including tasks refused by
+     * {@link #trySubmit(Callable)}.
+     *
+     * @return the number of rejected tasks
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Get the number of queued tasks that were dropped because of the {@link OverflowPolicy#DROP_OLDEST} policy.
+     *
+     * @return the number of dropped tasks
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
     }
 
     @Override
     public void shutdownAndAbort() {
         super.shutdownAndAbort();
-        executor.shutdownNow();
+        for (Runnable r : executor.shutdownNow()) {
+            if (r instanceof Task<?> task) {
+                task.reject(new TaskRejectedException("'" + getName() + "' - aborted"));
+            }
+        }
     }
 
     @Override
@@ -63,23 +144,134 @@ public class TaskProcessorAsync extends TaskProcessorBase {
         if (callingClassLoader == null) {
             callingClassLoader = getClass().getClassLoader(); // Fallback insurance
         }
-        final ClassLoader classLoaderToUse = callingClassLoader;
 
-        return CompletableFuture.supplyAsync(() -> {
+        Task<T> t = new Task<>(id, task, callingClassLoader);
+        try {
+            executor.execute(t);
+        } catch (TaskRejectedException e) {
+            t.reject(e);
+            throw e;
+        }
+        return t.future;
+    }
+
+    @Override
+    public <T> Optional<CompletableFuture<T>> trySubmit(Callable<? extends T> task) {
+        if (overflowPolicy == null) {
+            return Optional.of(submit(task));
+        }
+
+        TRYING.set(Boolean.TRUE);
+        try {
+            return Optional.of(submit(task));
+        } catch (TaskRejectedException e) {
+            return Optional.empty();
+        } finally {
+            TRYING.remove();
+        }
+    }
+
+    /**
+     * A submitted task.
+     *
+     * @param <T> the task result type
+     */
+    private final class Task<T> implements Runnable {
+        private final long id;
+        private final Callable<? extends T> task;
+        private final ClassLoader classLoader;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Task(long id, Callable<? extends T> task, ClassLoader classLoader) {
+            this.id = id;
+            this.task = task;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public void run() {
+            @Nullable T result = null;
+            @Nullable Throwable failure = null;
             Thread currentThread = Thread.currentThread();
             ClassLoader originalClassLoader = currentThread.getContextClassLoader();
             try {
                 // 2. Temporarily assign the correct ClassLoader to the background thread
-                currentThread.setContextClassLoader(classLoaderToUse);
-                return task.call();
-            } catch (Exception e) {
-                throw new CompletionException(e);
+                currentThread.setContextClassLoader(classLoader);
+                result = task.call();
+            } catch (Throwable e) {
+                failure = e;
             } finally {
                 // 3. Restore the original ClassLoader to keep the thread pool clean
                 currentThread.setContextClassLoader(originalClassLoader);
                 LOG.debug("'{}' - task {} completed", getName(), id);
                 unregisterId(id);
             }
-        }, executor);
+
+            if (failure == null) {
+                future.complete(result);
+            } else {
+                // wrap the failure like CompletableFuture.supplyAsync() does, so that dependent stages see a CompletionException
+                future.completeExceptionally(new CompletionException(failure));
+            }
+        }
+
+        void reject(TaskRejectedException e) {
+            LOG.debug("'{}' - task {} rejected: {}", getName(), id, e.getMessage());
+            unregisterId(id);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Applies the {@link OverflowPolicy} when the queue is full.
+     */
+    private final class OverflowHandler implements RejectedExecutionHandler {
+        private final OverflowPolicy policy;
+
+        OverflowHandler(OverflowPolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+            if (e.isShutdown()) {
+                throw new TaskRejectedException("'" + getName() + "' - executor has been shut down");
+            }
+
+            if (TRYING.get()) {
+                rejected.increment();
+                throw new TaskRejectedException("'" + getName() + "' - queue is full");
+            }
+
+            switch (policy) {
+                case BLOCK -> {
+                    BlockingQueue<Runnable> queue = e.getQueue();
+                    try {
+                        queue.put(r);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        rejected.increment();
+                        throw new TaskRejectedException("'" + getName() + "' - interrupted while waiting for queue", ex);
+                    }
+                    // the executor might have been shut down while waiting, make sure the task is not lost
+                    if (e.isShutdown() && queue.remove(r)) {
+                        throw new TaskRejectedException("'" + getName() + "' - executor has been shut down");
+                    }
+                }
+                case REJECT -> {
+                    rejected.increment();
+                    throw new TaskRejectedException("'" + getName() + "' - queue is full");
+                }
+                case CALLER_RUNS -> r.run();
+                case DROP_OLDEST -> {
+                    Runnable oldest = e.getQueue().poll();
+                    if (oldest instanceof Task<?> task) {
+                        dropped.increment();
+                        task.reject(new TaskRejectedException("'" + getName() + "' - dropped to make room for a newer task"));
+                    }
+                    e.execute(r);
+                }
+            }
+        }
     }
 }
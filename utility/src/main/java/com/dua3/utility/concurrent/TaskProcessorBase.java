@@ -35,6 +35,8 @@ public abstract class TaskProcessorBase implements TaskProcessor {
 
     private final AtomicInteger tasksSubmitted = new AtomicInteger(0);
     private final AtomicInteger tasksCompleted = new AtomicInteger(0);
+    private final DurationHistogram queueWait = new DurationHistogram();
+    private final DurationHistogram runTime = new DurationHistogram();
 
     private final List<WeakReference<Consumer<TaskProcessor>>> listeners = new ArrayList<>();
 
@@ -83,20 +85,56 @@ public abstract class TaskProcessorBase implements TaskProcessor {
 
     /**
      * A record that represents the statistics of tasks processed by a {@code TaskProcessorBase}.
+     * <p>
+     * Timings are only available for implementations that record them, see {@link #recordQueueWait(long)} and
+     * {@link #recordRunTime(long)}; otherwise, the histograms are empty.
      *
      * @param owner     the {@link TaskProcessor} instance this belongs to
      * @param submitted the total number of tasks that have been submitted
      * @param completed the total number of tasks that have been completed so far
      * @param state     the current state of the task processor, represented as a {@link State} enum
+     * @param queueWait the time tasks waited between submission and start of execution
+     * @param runTime   the time tasks took to execute
      */
-    public record Stats(TaskProcessor owner, int submitted, int completed, State state) {}
+    public record Stats(TaskProcessor owner, int submitted, int completed, State state,
+                        DurationHistogram.Snapshot queueWait, DurationHistogram.Snapshot runTime) {
+        /**
+         * Constructor for statistics without timings.
+         *
+         * @param owner     the {@link TaskProcessor} instance this belongs to
+         * @param submitted the total number of tasks that have been submitted
+         * @param completed the total number of tasks that have been completed so far
+         * @param state     the current state of the task processor, represented as a {@link State} enum
+         */
+        public Stats(TaskProcessor owner, int submitted, int completed, State state) {
+            this(owner, submitted, completed, state, DurationHistogram.Snapshot.EMPTY, DurationHistogram.Snapshot.EMPTY);
+        }
+    }
 
     /**
      * Retrieves the statistics of tasks processed by this task processor.
      * @return a {@code Stats} record containing current stats for this processor
      */
     public Stats getStats() {
-        return new Stats(this, tasksSubmitted.get(), tasksCompleted.get(), getState());
+        return new Stats(this, tasksSubmitted.get(), tasksCompleted.get(), getState(), queueWait.snapshot(), runTime.snapshot());
+    }
+
+    /**
+     * Record the time a task waited between submission and start of execution.
+     *
+     * @param nanos the waiting time in nanoseconds
+     */
+    protected void recordQueueWait(long nanos) {
+        queueWait.record(nanos);
+    }
+
+    /**
+     * Record the time a task took to execute.
+     *
+     * @param nanos the execution time in nanoseconds
+     */
+    protected void recordRunTime(long nanos) {
+        runTime.record(nanos);
     }
 
     /**
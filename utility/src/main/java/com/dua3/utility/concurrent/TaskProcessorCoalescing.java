@@ -0,0 +1,401 @@
+package com.dua3.utility.concurrent;
+
+import com.dua3.utility.lang.LangUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A {@link TaskProcessor} implementation that merges submissions having the same key.
+ * <p>
+ * This is intended for tasks like refreshing or recomputing data that become obsolete when the next task for the
+ * same key is submitted. For each key, at most one task is pending and at most one task is running at any time.
+ * When a task is submitted while another task for the same key is pending, the pending task is replaced by the new
+ * one, and all callers receive the same {@link CompletableFuture} that completes with the result of the task that is
+ * finally executed. A task submitted while another task for the same key is running is started after the running task
+ * has completed.
+ * <p>
+ * Optionally, pending tasks can be delayed:
+ * <ul>
+ *     <li><strong>debounce:</strong> a task is started only after no further task for the same key has been submitted
+ *     for the given duration;
+ *     <li><strong>throttle:</strong> tasks for the same key are started at most once within the given duration.
+ * </ul>
+ * <p>
+ * Tasks are executed by the {@link TaskProcessor} passed to the constructor. That processor is not shut down by this
+ * class and can be shared between instances.
+ *
+ * @param <K> the key type
+ */
+public class TaskProcessorCoalescing<K> extends TaskProcessorBase {
+    private static final Logger LOG = LogManager.getLogger(TaskProcessorCoalescing.class);
+
+    private final TaskProcessor processor;
+    private final Function<Object, K> getKey;
+    private final long debounceNanos;
+    private final long throttleNanos;
+    private final @Nullable ScheduledExecutorService scheduler;
+
+    private final Map<K, Slot> slots = new ConcurrentHashMap<>();
+    private final LongAdder merged = new LongAdder();
+
+    /**
+     * The state for a key. Only accessed from within {@code slots.compute()}.
+     */
+    private static final class Slot {
+        private @Nullable Callable<?> pending;
+        private @Nullable CompletableFuture<Object> pendingFuture;
+        private long pendingId;
+        private boolean pendingRegistered;
+        private boolean running;
+        private boolean timerScheduled;
+        private long lastSubmit;
+        private boolean hasStarted;
+        private long lastStart;
+    }
+
+    /**
+     * Constructor for a processor that merges submissions without delaying them.
+     *
+     * @param name      the name of the processor
+     * @param processor the processor used to execute tasks
+     * @param getKey    key determination function
+     */
+    public TaskProcessorCoalescing(String name, TaskProcessor processor, Function<Object, K> getKey) {
+        this(name, processor, getKey, Duration.ZERO, Duration.ZERO);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name      the name of the processor
+     * @param processor the processor used to execute tasks
+     * @param getKey    key determination function
+     * @param debounce  the time without further submissions for a key before its pending task is started,
+     *                  or {@link Duration#ZERO}
+     * @param throttle  the minimum time between the starts of two tasks for the same key, or {@link Duration#ZERO}
+     */
+    public TaskProcessorCoalescing(String name, TaskProcessor processor, Function<Object, K> getKey, Duration debounce, Duration throttle) {
+        super(name);
+        LangUtil.checkArg(!debounce.isNegative(), "debounce must not be negative: %s", debounce);
+        LangUtil.checkArg(!throttle.isNegative(), "throttle must not be negative: %s", throttle);
+        this.processor = processor;
+        this.getKey = getKey;
+        this.debounceNanos = debounce.toNanos();
+        this.throttleNanos = throttle.toNanos();
+        this.scheduler = debounceNanos > 0 || throttleNanos > 0
+                ? Executors.newSingleThreadScheduledExecutor(newThreadFactory())
+                : null;
+    }
+
+    /**
+     * Get the number of submissions that were merged into an already pending submission.
+     *
+     * @return the number of merged submissions
+     */
+    public long getMergedCount() {
+        return merged.sum();
+    }
+
+    /**
+     * Get the number of keys that currently have a pending or running task, or are in a throttle window.
+     *
+     * @return the number of active keys
+     */
+    public int getActiveKeyCount() {
+        return slots.size();
+    }
+
+    @Override
+    public void shutdownAndAbort() {
+        super.shutdownAndAbort();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+
+        for (K key : List.copyOf(slots.keySet())) {
+            CompletableFuture<?>[] aborted = {null};
+            long[] id = {0};
+            boolean[] registered = {false};
+            slots.computeIfPresent(key, (k, slot) -> {
+                aborted[0] = slot.pendingFuture;
+                id[0] = slot.pendingId;
+                registered[0] = slot.pendingRegistered;
+                slot.pending = null;
+                slot.pendingFuture = null;
+                return slot.running ? slot : null;
+            });
+            if (aborted[0] != null) {
+                // tasks not yet registered are unregistered by the submitting thread
+                if (registered[0]) {
+                    unregisterId(id[0]);
+                }
+                aborted[0].completeExceptionally(new CancellationException("'" + getName() + "' - aborted"));
+            }
+        }
+    }
+
+    @Override
+    public boolean waitForCompletion(long timeout, TimeUnit timeUnit) {
+        boolean rc = super.waitForCompletion(timeout, timeUnit);
+        if (rc && scheduler != null) {
+            LOG.trace("'{}' - shutting down scheduler", getName());
+            scheduler.shutdown();
+        }
+        return rc;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Callable<? extends T> task) {
+        return submit(getKey.apply(task), task);
+    }
+
+    @Override
+    public void submit(LangUtil.RunnableThrows<Exception> task) {
+        submit(getKey.apply(task), () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LOG.warn("'{}' - task failed with exception", getName(), e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Submit a task for the given key.
+     * <p>
+     * If a task for the same key is pending, it is replaced by this task and the future of the pending task is
+     * returned. All tasks submitted for the same key must therefore return results of the same type.
+     *
+     * @param <T>  the task result type
+     * @param key  the key
+     * @param task the task to execute
+     * @return a {@link CompletableFuture} that completes with the result of the task that is finally executed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submit(K key, Callable<? extends T> task) {
+        ensureOpen();
+
+        CompletableFuture<?>[] future = {null};
+        long[] newId = {0};
+        boolean[] fireNow = {false};
+        slots.compute(key, (k, s) -> {
+            Slot slot = s != null ? s : new Slot();
+            if (slot.pendingFuture == null) {
+                long id = nextId();
+                LOG.debug("'{}' - submitting new task {} for key {}", getName(), id, k);
+                slot.pendingFuture = new CompletableFuture<>();
+                slot.pendingId = id;
+                slot.pendingRegistered = false;
+                newId[0] = id;
+            } else {
+                LOG.trace("'{}' - merged submission for key {}", getName(), k);
+                merged.increment();
+            }
+            slot.pending = task;
+            slot.lastSubmit = System.nanoTime();
+            future[0] = slot.pendingFuture;
+            if (slot.pendingRegistered && !slot.running && !slot.timerScheduled) {
+                fireNow[0] = schedule(k, slot, slot.lastSubmit);
+            }
+            return slot;
+        });
+
+        if (newId[0] != 0) {
+            fireNow[0] = register(key, newId[0]);
+        }
+
+        if (fireNow[0]) {
+            fire(key);
+        }
+
+        return (CompletableFuture<T>) future[0];
+    }
+
+    /**
+     * Register a new pending task. This is done outside {@code slots.compute()} because listeners are notified and
+     * might submit tasks themselves. The task is not started before it has been registered.
+     *
+     * @return true, if the task may be started immediately
+     */
+    private boolean register(K key, long id) {
+        try {
+            registerId(id);
+        } catch (RuntimeException e) {
+            CompletableFuture<?>[] removed = {null};
+            slots.computeIfPresent(key, (k, slot) -> {
+                if (slot.pendingFuture == null || slot.pendingId != id) {
+                    return slot;
+                }
+                removed[0] = slot.pendingFuture;
+                slot.pending = null;
+                slot.pendingFuture = null;
+                return slot.running ? slot : null;
+            });
+            if (removed[0] != null) {
+                removed[0].completeExceptionally(e);
+            }
+            throw e;
+        }
+
+        boolean[] fireNow = {false};
+        boolean[] aborted = {true};
+        slots.computeIfPresent(key, (k, slot) -> {
+            if (slot.pendingFuture != null && slot.pendingId == id) {
+                aborted[0] = false;
+                slot.pendingRegistered = true;
+                if (!slot.running && !slot.timerScheduled) {
+                    fireNow[0] = schedule(k, slot, System.nanoTime());
+                }
+            }
+            return slot;
+        });
+
+        if (aborted[0]) {
+            // the task was aborted before it was registered
+            unregisterId(id);
+        }
+        return fireNow[0];
+    }
+
+    /**
+     * Determine when the pending task for a slot may be started. If it must be delayed, a timer is scheduled.
+     *
+     * @return true, if the task may be started immediately
+     */
+    private boolean schedule(K key, Slot slot, long now) {
+        long delay = 0;
+        if (debounceNanos > 0) {
+            delay = Math.max(delay, slot.lastSubmit + debounceNanos - now);
+        }
+        if (throttleNanos > 0 && slot.hasStarted) {
+            delay = Math.max(delay, slot.lastStart + throttleNanos - now);
+        }
+
+        if (delay <= 0 || scheduler == null) {
+            return true;
+        }
+
+        try {
+            scheduler.schedule(() -> {
+                boolean[] fireNow = {false};
+                slots.computeIfPresent(key, (k, s) -> {
+                    s.timerScheduled = false;
+                    fireNow[0] = s.pending != null && !s.running;
+                    return s;
+                });
+                if (fireNow[0]) {
+                    fire(key);
+                }
+            }, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // the processor is being aborted; start the task so that its future is completed
+            LOG.debug("'{}' - could not schedule task for key {}, starting immediately", getName(), key, e);
+            return true;
+        }
+        slot.timerScheduled = true;
+        return false;
+    }
+
+    /**
+     * Start the pending task for a key, unless it has to be delayed.
+     */
+    @SuppressWarnings("unchecked")
+    private void fire(K key) {
+        Callable<Object>[] task = new Callable[1];
+        CompletableFuture<Object>[] future = new CompletableFuture[1];
+        long[] id = {0};
+        boolean[] fireNow = {false};
+        slots.computeIfPresent(key, (k, slot) -> {
+            if (slot.pending == null || !slot.pendingRegistered || slot.running || slot.timerScheduled) {
+                return slot;
+            }
+            long now = System.nanoTime();
+            if (!schedule(k, slot, now)) {
+                return slot;
+            }
+            task[0] = (Callable<Object>) slot.pending;
+            future[0] = slot.pendingFuture;
+            id[0] = slot.pendingId;
+            slot.pending = null;
+            slot.pendingFuture = null;
+            slot.running = true;
+            slot.hasStarted = true;
+            slot.lastStart = now;
+            return slot;
+        });
+
+        if (task[0] == null || future[0] == null) {
+            return;
+        }
+
+        LOG.trace("'{}' - starting task {} for key {}", getName(), id[0], key);
+        CompletableFuture<Object> result = future[0];
+        long taskId = id[0];
+        try {
+            processor.submit(task[0]).whenComplete((v, e) -> finished(key, taskId, result, v, e));
+        } catch (RuntimeException e) {
+            finished(key, taskId, result, null, e);
+        }
+    }
+
+    /**
+     * Called when a task has completed. Starts the next pending task for the key or removes the key when idle.
+     */
+    private void finished(K key, long id, CompletableFuture<Object> result, @Nullable Object value, @Nullable Throwable failure) {
+        boolean[] fireNext = {false};
+        boolean[] keepForThrottle = {false};
+        slots.computeIfPresent(key, (k, slot) -> {
+            slot.running = false;
+            if (slot.pending != null) {
+                fireNext[0] = !slot.timerScheduled;
+                return slot;
+            }
+            // keep the slot while the throttle window is open so that the next task is delayed
+            if (throttleNanos > 0 && System.nanoTime() - slot.lastStart < throttleNanos && scheduler != null && !scheduler.isShutdown()) {
+                keepForThrottle[0] = true;
+                return slot;
+            }
+            return null;
+        });
+
+        LOG.debug("'{}' - task {} completed", getName(), id);
+        unregisterId(id);
+        if (failure == null) {
+            result.complete(value);
+        } else {
+            result.completeExceptionally(failure);
+        }
+
+        if (keepForThrottle[0] && scheduler != null) {
+            try {
+                scheduler.schedule(
+                        () -> slots.computeIfPresent(key, (k, s) -> s.pending == null && !s.running && !s.timerScheduled ? null : s),
+                        throttleNanos, TimeUnit.NANOSECONDS
+                );
+            } catch (RejectedExecutionException e) {
+                LOG.trace("'{}' - scheduler shut down, removing key {}", getName(), key, e);
+                slots.computeIfPresent(key, (k, s) -> s.pending == null && !s.running && !s.timerScheduled ? null : s);
+            }
+        }
+
+        if (fireNext[0]) {
+            fire(key);
+        }
+    }
+}
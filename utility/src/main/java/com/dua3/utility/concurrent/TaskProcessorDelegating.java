@@ -3,6 +3,7 @@ package com.dua3.utility.concurrent;
 import com.dua3.utility.lang.LangUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -12,11 +13,20 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * A {@link TaskProcessor} implementation that delegates tasks to other processors.
+ * <p>
+ * In keyed serial mode, created by {@link #TaskProcessorDelegating(String, Function, int)}, no delegate processors
+ * are created. Instead, all tasks are executed on a single shared thread pool: tasks having the same key are executed
+ * one after another in submission order, while tasks having different keys are executed in parallel. The tasks for
+ * each key are chained using {@link CompletableFuture} instances, and keys without pending tasks are removed
+ * automatically, so that memory use does not grow with the number of keys.
  *
  * @param <K> class of the key that determines which delegate to use
  */
@@ -27,6 +37,10 @@ public class TaskProcessorDelegating<K> extends TaskProcessorBase {
     private final Function<K, ? extends TaskProcessor> createDelegate;
     private final Function<Object, K> getDelegateKey;
 
+    // keyed serial mode: the last task submitted for each key that has pending tasks
+    private final Map<K, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+    private final @Nullable ExecutorService sharedExecutor;
+
     /**
      * Constructor.
      * @param name the name of the processor
@@ -37,6 +51,36 @@ public class TaskProcessorDelegating<K> extends TaskProcessorBase {
         super(name);
         this.createDelegate = createDelegate;
         this.getDelegateKey = getDelegateKey;
+        this.sharedExecutor = null;
+    }
+
+    /**
+     * Constructor for a processor in keyed serial mode.
+     * <p>
+     * Tasks with the same key are executed sequentially in submission order; tasks with different keys are executed
+     * in parallel on a shared pool.
+     *
+     * @param name           the name of the processor
+     * @param getDelegateKey key determination function
+     * @param parallelism    the number of threads of the shared pool
+     */
+    public TaskProcessorDelegating(String name, Function<Object, K> getDelegateKey, int parallelism) {
+        super(name);
+        LangUtil.checkArg(parallelism > 0, "parallelism must be a positive integer: %d", parallelism);
+        this.createDelegate = k -> {
+            throw new IllegalStateException("'" + name + "' - no delegates are created in keyed serial mode");
+        };
+        this.getDelegateKey = getDelegateKey;
+        this.sharedExecutor = Executors.newFixedThreadPool(parallelism, newThreadFactory());
+    }
+
+    /**
+     * Get the number of keys that currently have pending tasks in keyed serial mode.
+     *
+     * @return the number of active keys, or the number of delegates if not in keyed serial mode
+     */
+    public int getActiveKeyCount() {
+        return sharedExecutor == null ? delegates.size() : tails.size();
     }
 
     @Override
@@ -50,6 +94,9 @@ public class TaskProcessorDelegating<K> extends TaskProcessorBase {
         super.shutdown();
         delegates.values().forEach(TaskProcessor::shutdownAndAbort);
         terminate();
+        if (sharedExecutor != null) {
+            sharedExecutor.shutdownNow();
+        }
     }
 
     @Override
@@ -80,7 +127,12 @@ public class TaskProcessorDelegating<K> extends TaskProcessorBase {
 
         Instant now = Instant.now();
         Duration maxWait = Duration.between(now, deadline);
-        return super.waitForCompletion(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        boolean rc = super.waitForCompletion(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        if (rc && sharedExecutor != null) {
+            LOG.trace("'{}' - shutting down shared executor", getName());
+            sharedExecutor.shutdown();
+        }
+        return rc;
     }
 
     /**
@@ -98,6 +150,9 @@ public class TaskProcessorDelegating<K> extends TaskProcessorBase {
     @Override
     public <T> CompletableFuture<T> submit(Callable<? extends T> task) {
         K key = getDelegateKey.apply(task);
+        if (sharedExecutor != null) {
+            return submitSerial(sharedExecutor, key, task);
+        }
         TaskProcessor delegate = getDelegate(key);
         LOG.trace("'{}' - submitting callable task to delegate {}", getName(), delegate);
         return delegate.submit(task);
@@ -106,9 +161,77 @@ public class TaskProcessorDelegating<K> extends TaskProcessorBase {
     @Override
     public void submit(LangUtil.RunnableThrows<Exception> task) {
         K key = getDelegateKey.apply(task);
+        if (sharedExecutor != null) {
+            submitSerial(sharedExecutor, key, () -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    LOG.warn("'{}' - task failed with exception", getName(), e);
+                }
+                return null;
+            });
+            return;
+        }
         TaskProcessor delegate = getDelegate(key);
         LOG.trace("'{}' - submitting runnable task to delegate {}", getName(), delegate);
         delegate.submit(task);
     }
 
+    /**
+     * Submit a task in keyed serial mode. The task is chained to the last task submitted for the same key.
+     */
+    private <T> CompletableFuture<T> submitSerial(ExecutorService executor, K key, Callable<? extends T> task) {
+        long id = nextId();
+        LOG.trace("'{}' - submitting task {} for key {}", getName(), id, key);
+        registerId(id);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable run = () -> {
+            @Nullable T value = null;
+            @Nullable Throwable failure = null;
+            try {
+                value = task.call();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                unregisterId(id);
+            }
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        };
+
+        CompletableFuture<?>[] next = {null};
+        try {
+            tails.compute(key, (k, tail) -> {
+                next[0] = tail == null
+                        ? CompletableFuture.runAsync(run, executor)
+                        : tail.handleAsync((v, e) -> {
+                            run.run();
+                            return null;
+                        }, executor);
+                return next[0];
+            });
+        } catch (RejectedExecutionException e) {
+            unregisterId(id);
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        CompletableFuture<?> stage = next[0];
+        stage.whenComplete((v, e) -> {
+            // remove the key once its last task has run
+            tails.remove(key, stage);
+            // the task was not run because the executor rejected it
+            if (e != null && !result.isDone()) {
+                unregisterId(id);
+                result.completeExceptionally(e);
+            }
+        });
+
+        return result;
+    }
+
 }
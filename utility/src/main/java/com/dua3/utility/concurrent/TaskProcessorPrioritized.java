@@ -0,0 +1,245 @@
+package com.dua3.utility.concurrent;
+
+import com.dua3.utility.lang.LangUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link TaskProcessor} implementation that executes tasks by priority using a work-stealing {@link ForkJoinPool}.
+ * <p>
+ * Each task can be submitted with a priority and a deadline. Pending tasks are started in order of descending
+ * priority; tasks having the same priority are started in order of their deadlines and then in submission order.
+ * Tasks that have not been started when their deadline passes are dropped, and their future is completed
+ * exceptionally with a {@link TimeoutException}.
+ * <p>
+ * The time tasks wait before being started and the time they take to execute are recorded and reported by
+ * {@link #getStats()}.
+ */
+public class TaskProcessorPrioritized extends TaskProcessorBase {
+    private static final Logger LOG = LogManager.getLogger(TaskProcessorPrioritized.class);
+
+    /**
+     * The priority used by {@link #submit(Callable)}. Tasks with a higher priority are started first.
+     */
+    public static final int PRIORITY_NORMAL = 0;
+
+    private static final Duration MAX_DEADLINE = Duration.ofNanos(Long.MAX_VALUE / 4);
+
+    private final ForkJoinPool pool;
+    private final PriorityBlockingQueue<Entry<?>> queue = new PriorityBlockingQueue<>();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param name        this processor's name
+     * @param parallelism maximal number of tasks that are executed parallel
+     */
+    public TaskProcessorPrioritized(String name, int parallelism) {
+        super(name);
+        LangUtil.checkArg(parallelism > 0, "parallelism must be a positive integer: %d", parallelism);
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName(t.getName() + " [" + name + "]");
+            return t;
+        };
+        this.pool = new ForkJoinPool(parallelism, factory, null, true);
+    }
+
+    /**
+     * Get the number of tasks that were dropped because their deadline passed before they could be started.
+     *
+     * @return the number of expired tasks
+     */
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    @Override
+    public void shutdownAndAbort() {
+        super.shutdownAndAbort();
+        pool.shutdownNow();
+
+        Entry<?> entry;
+        while ((entry = queue.poll()) != null) {
+            entry.future.completeExceptionally(new CancellationException("'" + getName() + "' - aborted"));
+            unregisterId(entry.id);
+        }
+    }
+
+    @Override
+    public boolean waitForCompletion(final long timeout, final TimeUnit timeUnit) {
+        boolean rc = super.waitForCompletion(timeout, timeUnit);
+        if (rc) {
+            LOG.trace("'{}' - shutting down pool", getName());
+            pool.shutdown();
+        } else {
+            LOG.trace("'{}' - timeout waiting for tasks to complete", getName());
+        }
+        return rc;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Callable<? extends T> task) {
+        return submit(PRIORITY_NORMAL, task);
+    }
+
+    /**
+     * Submit a task with the given priority.
+     *
+     * @param <T>      the task result type
+     * @param priority the priority; tasks with a higher priority are started first
+     * @param task     the task to execute
+     * @return a {@link CompletableFuture} for the task
+     */
+    public <T> CompletableFuture<T> submit(int priority, Callable<? extends T> task) {
+        return submit(priority, null, task);
+    }
+
+    /**
+     * Submit a task with the given priority and deadline.
+     *
+     * @param <T>      the task result type
+     * @param priority the priority; tasks with a higher priority are started first
+     * @param deadline the maximum time to wait for the task to be started, or {@code null} to wait indefinitely;
+     *                 if the task has not been started when the deadline passes, it is dropped and the returned
+     *                 future completes exceptionally with a {@link TimeoutException}
+     * @param task     the task to execute
+     * @return a {@link CompletableFuture} for the task
+     */
+    public <T> CompletableFuture<T> submit(int priority, @Nullable Duration deadline, Callable<? extends T> task) {
+        long id = nextId();
+        LOG.debug("'{}' - submitting new task {} with priority {}", getName(), id, priority);
+        registerId(id);
+
+        // capture the ClassLoader of the calling thread, see TaskProcessorAsync
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = getClass().getClassLoader();
+        }
+
+        Entry<T> entry = new Entry<>(id, priority, deadline, task, classLoader);
+        queue.add(entry);
+        // each submission schedules one execution that picks the pending task with the highest priority
+        try {
+            pool.execute(this::runNext);
+        } catch (RejectedExecutionException e) {
+            // the pool was shut down after the task was registered
+            if (queue.remove(entry)) {
+                unregisterId(id);
+                entry.future.completeExceptionally(e);
+            }
+            throw e;
+        }
+        return entry.future;
+    }
+
+    private void runNext() {
+        Entry<?> entry = queue.poll();
+        if (entry != null) {
+            entry.run();
+        }
+    }
+
+    private static long toNanos(Duration d) {
+        // limit the value so that differences of System.nanoTime() based values do not overflow
+        if (d.isNegative()) {
+            return 0;
+        }
+        return d.compareTo(MAX_DEADLINE) < 0 ? d.toNanos() : MAX_DEADLINE.toNanos();
+    }
+
+    /**
+     * A pending task.
+     *
+     * @param <T> the task result type
+     */
+    private final class Entry<T> implements Comparable<Entry<?>> {
+        private final long id;
+        private final int priority;
+        private final long submitted;
+        private final boolean hasDeadline;
+        private final long deadline;
+        private final Callable<? extends T> task;
+        private final ClassLoader classLoader;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Entry(long id, int priority, @Nullable Duration deadline, Callable<? extends T> task, ClassLoader classLoader) {
+            this.id = id;
+            this.priority = priority;
+            this.submitted = System.nanoTime();
+            this.hasDeadline = deadline != null;
+            this.deadline = deadline != null ? submitted + toNanos(deadline) : 0;
+            this.task = task;
+            this.classLoader = classLoader;
+        }
+
+        void run() {
+            long start = System.nanoTime();
+            recordQueueWait(start - submitted);
+
+            if (hasDeadline && start - deadline > 0) {
+                LOG.debug("'{}' - task {} dropped, deadline passed", getName(), id);
+                expired.increment();
+                unregisterId(id);
+                future.completeExceptionally(new TimeoutException("'" + getName() + "' - deadline passed before task " + id + " was started"));
+                return;
+            }
+
+            if (future.isDone()) {
+                // cancelled by the caller
+                unregisterId(id);
+                return;
+            }
+
+            @Nullable T result = null;
+            @Nullable Throwable failure = null;
+            Thread currentThread = Thread.currentThread();
+            ClassLoader originalClassLoader = currentThread.getContextClassLoader();
+            try {
+                currentThread.setContextClassLoader(classLoader);
+                result = task.call();
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                currentThread.setContextClassLoader(originalClassLoader);
+                recordRunTime(System.nanoTime() - start);
+                LOG.debug("'{}' - task {} completed", getName(), id);
+                unregisterId(id);
+            }
+
+            if (failure == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        }
+
+        @Override
+        public int compareTo(Entry<?> o) {
+            if (priority != o.priority) {
+                return Integer.compare(o.priority, priority);
+            }
+            if (hasDeadline != o.hasDeadline) {
+                return hasDeadline ? -1 : 1;
+            }
+            if (hasDeadline && deadline != o.deadline) {
+                return Long.signum(deadline - o.deadline);
+            }
+            return Long.compare(id, o.id);
+        }
+    }
+}
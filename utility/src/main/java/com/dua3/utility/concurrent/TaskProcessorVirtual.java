@@ -0,0 +1,110 @@
+package com.dua3.utility.concurrent;
+
+import com.dua3.utility.lang.LangUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TaskProcessor} implementation where each task is executed on its own virtual thread.
+ * <p>
+ * This implementation is suited for tasks that spend most of their time blocking on I/O. Optionally, the number of
+ * tasks that are executed in parallel can be limited; tasks exceeding the limit wait for a permit on their virtual
+ * thread without occupying a platform thread.
+ * <p>
+ * Virtual threads are created by the thread calling {@code submit()} and inherit its context class loader, so
+ * unlike {@link TaskProcessorAsync}, the class loader does not have to be set and restored for each task.
+ */
+public class TaskProcessorVirtual extends TaskProcessorBase {
+    private static final Logger LOG = LogManager.getLogger(TaskProcessorVirtual.class);
+
+    private final ExecutorService executor;
+    private final @Nullable Semaphore permits;
+
+    /**
+     * Constructor for a processor that does not limit the number of tasks executed in parallel.
+     *
+     * @param name this processor's name
+     */
+    public TaskProcessorVirtual(String name) {
+        super(name);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-virtual-", 0).factory());
+        this.permits = null;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name           this processor's name
+     * @param maxConcurrency maximal number of tasks that are executed parallel
+     */
+    public TaskProcessorVirtual(String name, int maxConcurrency) {
+        super(name);
+        LangUtil.checkArg(maxConcurrency > 0, "maxConcurrency must be a positive integer: %d", maxConcurrency);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-virtual-", 0).factory());
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void shutdownAndAbort() {
+        super.shutdownAndAbort();
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean waitForCompletion(final long timeout, final TimeUnit timeUnit) {
+        boolean rc = super.waitForCompletion(timeout, timeUnit);
+        if (rc) {
+            LOG.trace("'{}' - shutting down executor", getName());
+            executor.shutdown();
+        } else {
+            LOG.trace("'{}' - timeout waiting for tasks to complete", getName());
+        }
+        return rc;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(Callable<? extends T> task) {
+        long id = nextId();
+        LOG.debug("'{}' - submitting new task {}", getName(), id);
+        registerId(id);
+
+        Semaphore semaphore = permits;
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                boolean acquired = false;
+                try {
+                    if (semaphore != null) {
+                        semaphore.acquire();
+                        acquired = true;
+                    }
+                    return task.call();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                } finally {
+                    if (semaphore != null && acquired) {
+                        semaphore.release();
+                    }
+                    LOG.debug("'{}' - task {} completed", getName(), id);
+                    unregisterId(id);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            // the executor was shut down after the task was registered
+            unregisterId(id);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.dua3.utility.concurrent;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Signals that a task was not accepted by a {@link TaskProcessor} because its queue is full, or that a queued task
+ * was dropped to make room for a newer task.
+ *
+ * @see TaskProcessor.OverflowPolicy
+ */
+public class TaskRejectedException extends RejectedExecutionException {
+    /**
+     * Constructs a new {@code TaskRejectedException} with the specified detail message.
+     *
+     * @param message the detail message
+     */
+    public TaskRejectedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new {@code TaskRejectedException} with the specified detail message and cause.
+     *
+     * @param message the detail message
+     * @param cause   the cause
+     */
+    public TaskRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
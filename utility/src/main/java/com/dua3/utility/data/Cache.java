@@ -15,17 +15,49 @@
  */
 package com.dua3.utility.data;
 
-import java.lang.ref.Cleaner;
+import com.dua3.utility.concurrent.TaskProcessor;
+import com.dua3.utility.lang.LangUtil;
+import org.jspecify.annotations.Nullable;
+
 import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
 
 /**
  * A simple cache implementation.
  * <p>
+ * The cache either holds its values through soft or weak references, leaving it to the garbage collector to remove
+ * entries, or it holds strong references and limits its size by evicting entries when a maximum size or weight is
+ * exceeded. Entries can additionally expire a fixed time after they were written or last accessed. Use
+ * {@link #builder()} to create a cache with a size limit or expiration.
+ * <p>
+ * The compute function is called at most once per key at a time; threads requesting a key that is currently being
+ * computed wait for the result. Values are computed without holding a lock, so a slow computation does not block
+ * access to other keys. Use {@link #getAsync(Object)} to compute values on the executor of the cache, which by default
+ * starts a virtual thread for each computation, and {@link #getAll(Collection)} to compute several values in a single
+ * call of the bulk compute function.
+ * <p>
  * NOTE: This class is not intended as a replacement for {@code JCache} (JSR 107).
  *
  * @param <K> key class
@@ -33,11 +65,36 @@ import java.util.function.Function;
  */
 public class Cache<K, V> {
 
-    private static final Cleaner CLEANER = Cleaner.create();
+    private static final Executor VIRTUAL_THREAD_EXECUTOR = task -> Thread.ofVirtual().name("Cache-loader").start(task);
 
-    private final Function<V, Reference<V>> newReference;
+    private final ReferenceType referenceType;
     private final Function<? super K, ? extends V> compute;
-    private final Map<K, Reference<V>> items = new ConcurrentHashMap<>();
+    private final @Nullable Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkCompute;
+    private final Executor executor;
+    private final Map<K, Entry<K, V>> items = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final ReferenceQueue<V> referenceQueue = new ReferenceQueue<>();
+
+    private final long maximumWeight;
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+    private final EvictionPolicy evictionPolicy;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final LongSupplier ticker;
+
+    // eviction state, guarded by evictionLock
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> main = new AccessOrderDeque<>();
+    private final long windowMaximumWeight;
+    private final @Nullable FrequencySketch sketch;
+
+    // statistics
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
 
     /**
      * Constructs a new Cache object with the given type and compute function.
@@ -46,54 +103,567 @@ public class Cache<K, V> {
      * @param compute a function that computes the value for the given key if it is not already present in the cache
      */
     public Cache(ReferenceType type, Function<? super K, ? extends V> compute) {
+        this(new Builder<K, V>().referenceType(type), compute);
+    }
+
+    /**
+     * Constructs a new Cache from a builder.
+     *
+     * @param builder the builder holding the configuration
+     * @param compute the compute function
+     */
+    private Cache(Builder<K, V> builder, Function<? super K, ? extends V> compute) {
+        this.referenceType = builder.referenceType;
         this.compute = compute;
-        this.newReference = switch (type) {
-            case SOFT_REFERENCES -> SoftReference::new;
-            case WEAK_REFERENCES -> WeakReference::new;
-        };
+        this.bulkCompute = builder.bulkCompute;
+        this.executor = builder.executor;
+        this.maximumWeight = builder.maximumWeight;
+        this.weigher = builder.weigher;
+        this.evictionPolicy = builder.evictionPolicy;
+        this.expireAfterWriteNanos = builder.expireAfterWrite.toNanos();
+        this.expireAfterAccessNanos = builder.expireAfterAccess.toNanos();
+        this.ticker = builder.ticker;
+
+        if (isBounded() && evictionPolicy == EvictionPolicy.FREQUENCY) {
+            this.windowMaximumWeight = Math.max(1, maximumWeight / 100);
+            this.sketch = new FrequencySketch();
+            sketch.ensureCapacity(builder.weigher == Builder.SINGLETON_WEIGHER ? maximumWeight : 16);
+        } else {
+            this.windowMaximumWeight = 0;
+            this.sketch = null;
+        }
+    }
+
+    /**
+     * Create a new {@link Builder} instance.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return new builder
+     */
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
     }
 
     /**
      * Gets the value associated with the specified key.
+     * <p>
+     * If the value is not present, it is computed in the calling thread. If the value is already being computed by
+     * another thread, this method waits for the result.
      *
      * @param key the key whose associated value is to be retrieved
      * @return the value to which the specified key is mapped
      */
-    @SuppressWarnings("unchecked")
     public V get(K key) {
-        // Fast path: optimistic read
-        Reference<V> ref = items.get(key);
-        V item = ref == null ? null : ref.get();
+        drainReferenceQueue();
+
+        V item = getPresent(key);
         if (item != null) {
             return item;
         }
 
-        // Atomic path: use compute to lock only this key's bucket, not the whole cache
-        Object[] holder = new Object[1];
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            // the value was not cached, joining another request's computation counts as a miss
+            missCount.increment();
+            return join(inFlight);
+        }
 
-        items.compute(key, (k, currentRef) -> {
-            // 1. Check if another thread already computed it while we were waiting
-            V val = currentRef == null ? null : currentRef.get();
-            if (val != null) {
-                holder[0] = val;
-                return currentRef; // Keep existing reference
+        load(key, future);
+        return join(future);
+    }
+
+    /**
+     * Gets the value associated with the specified key asynchronously.
+     * <p>
+     * If the value is not present, it is computed using the executor of this cache. Concurrent requests for the same
+     * key share a single computation.
+     *
+     * @param key the key whose associated value is to be retrieved
+     * @return a {@link CompletableFuture} that completes with the value to which the specified key is mapped
+     */
+    public CompletableFuture<V> getAsync(K key) {
+        drainReferenceQueue();
+
+        V item = getPresent(key);
+        if (item != null) {
+            return CompletableFuture.completedFuture(item);
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            missCount.increment();
+            return inFlight.copy();
+        }
+
+        try {
+            executor.execute(() -> load(key, future));
+        } catch (RejectedExecutionException e) {
+            loading.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future.copy();
+    }
+
+    /**
+     * Gets the values associated with the specified keys.
+     * <p>
+     * All values that are not present and not already being computed by another thread are computed together in the
+     * calling thread using the bulk compute function, so that a backend can serve them in a single request. Values
+     * missing from the result of the bulk compute function, or all values if no bulk compute function has been set,
+     * are computed individually.
+     *
+     * @param keys the keys whose associated values are to be retrieved
+     * @return map of keys to values, in the iteration order of {@code keys}
+     * @see Builder#bulkCompute(Function)
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        drainReferenceQueue();
+
+        Map<K, V> present = new HashMap<>();
+        Map<K, CompletableFuture<V>> inFlight = new HashMap<>();
+        Map<K, CompletableFuture<V>> owned = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (present.containsKey(key) || inFlight.containsKey(key) || owned.containsKey(key)) {
+                continue;
             }
 
-            // 2. Compute new value
-            val = compute.apply(k);
-            holder[0] = val;
+            V item = getPresent(key);
+            if (item != null) {
+                present.put(key, item);
+                continue;
+            }
 
-            // 3. Create new reference
-            Reference<V> newRef = newReference.apply(val);
+            CompletableFuture<V> future = new CompletableFuture<>();
+            CompletableFuture<V> other = loading.putIfAbsent(key, future);
+            if (other != null) {
+                missCount.increment();
+                inFlight.put(key, other);
+            } else {
+                owned.put(key, future);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            loadAll(owned);
+        }
+
+        Map<K, V> result = LinkedHashMap.newLinkedHashMap(present.size() + inFlight.size() + owned.size());
+        for (K key : keys) {
+            V item = present.get(key);
+            if (item == null) {
+                CompletableFuture<V> future = owned.get(key);
+                item = join(future != null ? future : Objects.requireNonNull(inFlight.get(key)));
+            }
+            result.put(key, item);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the values associated with the specified keys asynchronously, using the executor of this cache.
+     *
+     * @param keys the keys whose associated values are to be retrieved
+     * @return a {@link CompletableFuture} that completes with the result of {@link #getAll(Collection)}
+     */
+    public CompletableFuture<Map<K, V>> getAllAsync(Collection<? extends K> keys) {
+        List<K> keyList = List.copyOf(keys);
+        return CompletableFuture.supplyAsync(() -> getAll(keyList), executor);
+    }
+
+    /**
+     * Get a value if it is present and has not expired, and update the hit count and access information.
+     *
+     * @param key the key
+     * @return the value or {@code null}
+     */
+    private @Nullable V getPresent(K key) {
+        Entry<K, V> entry = items.get(key);
+        V item = entry == null ? null : entry.getValue();
+        if (item != null) {
+            long now = isExpiring() ? ticker.getAsLong() : 0L;
+            if (!isExpired(entry, now)) {
+                hitCount.increment();
+                afterRead(entry, now);
+                return item;
+            }
+            // remove the expired entry so that it does not count against the size limit any longer
+            evict(entry);
+        }
+        return null;
+    }
+
+    /**
+     * Compute the value for a key and complete the future. The future must have been registered in
+     * {@link #loading} by the caller. This method does not throw; errors are reported through the future.
+     *
+     * @param key    the key
+     * @param future the future to complete
+     */
+    private void load(K key, CompletableFuture<V> future) {
+        try {
+            // the value might have been added after the caller checked
+            V item = getPresent(key);
+            if (item == null) {
+                missCount.increment();
+                long start = System.nanoTime();
+                item = Objects.requireNonNull(compute.apply(key), "compute function returned null");
+                totalLoadTime.add(System.nanoTime() - start);
+                loadCount.increment();
+                install(key, item);
+            }
+            loading.remove(key, future);
+            future.complete(item);
+        } catch (Throwable t) {
+            loading.remove(key, future);
+            future.completeExceptionally(t);
+        }
+    }
 
-            // 4. Register cleaner with SAFE removal
-            // We capture 'newRef' to ensure we only remove the entry if it still holds THIS reference
-            CLEANER.register(val, () -> items.remove(k, newRef));
+    /**
+     * Compute the values for several keys and complete the futures. The futures must have been registered in
+     * {@link #loading} by the caller. This method does not throw; errors are reported through the futures.
+     *
+     * @param futures map of keys to the futures to complete
+     */
+    private void loadAll(Map<K, CompletableFuture<V>> futures) {
+        try {
+            Set<K> keysToLoad = new LinkedHashSet<>();
+            futures.forEach((key, future) -> {
+                V item = getPresent(key);
+                if (item != null) {
+                    loading.remove(key, future);
+                    future.complete(item);
+                } else {
+                    keysToLoad.add(key);
+                }
+            });
+
+            if (keysToLoad.isEmpty()) {
+                return;
+            }
 
-            return newRef;
+            missCount.add(keysToLoad.size());
+            Map<? extends K, ? extends V> loaded = Map.of();
+            if (bulkCompute != null) {
+                long start = System.nanoTime();
+                loaded = bulkCompute.apply(Collections.unmodifiableSet(keysToLoad));
+                totalLoadTime.add(System.nanoTime() - start);
+            }
+
+            for (K key : keysToLoad) {
+                V item = loaded.get(key);
+                if (item == null) {
+                    long start = System.nanoTime();
+                    item = Objects.requireNonNull(compute.apply(key), "compute function returned null");
+                    totalLoadTime.add(System.nanoTime() - start);
+                }
+                loadCount.increment();
+                install(key, item);
+
+                CompletableFuture<V> future = futures.get(key);
+                loading.remove(key, future);
+                future.complete(item);
+            }
+        } catch (Throwable t) {
+            futures.forEach((key, future) -> {
+                if (!future.isDone()) {
+                    loading.remove(key, future);
+                    future.completeExceptionally(t);
+                }
+            });
+        }
+    }
+
+    /**
+     * Add a computed value to the cache.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    @SuppressWarnings("unchecked")
+    private void install(K key, V value) {
+        long now = isExpiring() ? ticker.getAsLong() : 0L;
+        Object[] replaced = new Object[1];
+        Entry<K, V> added = items.compute(key, (k, current) -> {
+            replaced[0] = current;
+            return newEntry(k, value, now);
         });
 
-        return (V) holder[0];
+        Entry<K, V> old = (Entry<K, V>) replaced[0];
+        if (old != null) {
+            if (old.getValue() == null || isExpired(old, now)) {
+                // the old value was either collected or has expired
+                evictionCount.increment();
+            }
+            afterRemoval(old);
+        }
+        afterWrite(added);
+    }
+
+    /**
+     * Wait for a future and rethrow unchecked exceptions thrown by the compute function unwrapped.
+     *
+     * @param future the future
+     * @return the result
+     */
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Remove the entry for a key from the cache.
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        Entry<K, V> entry = items.remove(key);
+        if (entry != null) {
+            afterRemoval(entry);
+        }
+    }
+
+    /**
+     * Remove all entries from the cache.
+     */
+    public void invalidateAll() {
+        items.keySet().forEach(this::invalidate);
+    }
+
+    /**
+     * Remove expired entries from the cache.
+     * <p>
+     * Expired entries are removed when they are accessed and, for caches with a size limit, when new entries are
+     * added. Entries whose values have been garbage collected are removed during subsequent cache operations. This
+     * method can be called to remove all of these entries at once.
+     */
+    public void cleanUp() {
+        drainReferenceQueue();
+
+        if (isExpiring()) {
+            long now = ticker.getAsLong();
+            items.values().forEach(entry -> {
+                if (isExpired(entry, now)) {
+                    evict(entry);
+                }
+            });
+        }
+    }
+
+    /**
+     * Get the approximate number of entries in this cache.
+     * <p>
+     * The returned value may include entries that have expired or whose value has been garbage collected but that
+     * have not yet been removed.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        drainReferenceQueue();
+        return items.size();
+    }
+
+    /**
+     * Get the cache statistics.
+     *
+     * @return snapshot of the statistics for this cache
+     */
+    public Stats getStats() {
+        return new Stats(
+                hitCount.sum(),
+                missCount.sum(),
+                loadCount.sum(),
+                totalLoadTime.sum(),
+                evictionCount.sum()
+        );
+    }
+
+    private boolean isBounded() {
+        return maximumWeight != Long.MAX_VALUE;
+    }
+
+    private boolean isExpiring() {
+        return expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+    }
+
+    private boolean isExpired(Entry<K, V> entry, long now) {
+        return expireAfterWriteNanos > 0 && now - entry.writeTime >= expireAfterWriteNanos
+                || expireAfterAccessNanos > 0 && now - entry.accessTime >= expireAfterAccessNanos;
+    }
+
+    private Entry<K, V> newEntry(K key, V value, long now) {
+        long weight = isBounded() ? weigher.applyAsLong(key, value) : 1;
+        LangUtil.checkArg(weight >= 0, "negative weight for key %s: %d", key, weight);
+
+        Entry<K, V> entry = switch (referenceType) {
+            case STRONG_REFERENCES -> new StrongEntry<>(key, value, weight, now);
+            case SOFT_REFERENCES -> new ReferenceEntry<>(key, value, true, referenceQueue, weight, now);
+            case WEAK_REFERENCES -> new ReferenceEntry<>(key, value, false, referenceQueue, weight, now);
+        };
+
+        return entry;
+    }
+
+    /**
+     * Remove entries whose values have been garbage collected.
+     * <p>
+     * The references to collected values are enqueued by the garbage collector and processed here during regular
+     * cache operations, so that no background thread is needed. Because the reference points back to its entry, the
+     * mapping is only removed if it still holds that entry.
+     */
+    @SuppressWarnings("unchecked")
+    private void drainReferenceQueue() {
+        Reference<? extends V> ref;
+        while ((ref = referenceQueue.poll()) != null) {
+            evict(((ValueReference<K, V>) ref).entry());
+        }
+    }
+
+    /**
+     * Remove an entry that has been evicted, has expired, or whose value has been garbage collected.
+     *
+     * @param entry the entry
+     */
+    private void evict(Entry<K, V> entry) {
+        if (items.remove(entry.key, entry)) {
+            evictionCount.increment();
+            afterRemoval(entry);
+        }
+    }
+
+    private void afterRead(Entry<K, V> entry, long now) {
+        if (expireAfterAccessNanos > 0) {
+            entry.accessTime = now;
+        }
+
+        // reordering on read is lossy: if another thread currently holds the lock, the access is not recorded
+        if (isBounded() && evictionLock.tryLock()) {
+            try {
+                if (entry.queue != null) {
+                    entry.queue.moveToBack(entry);
+                }
+                if (sketch != null) {
+                    sketch.increment(entry.key);
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void afterWrite(Entry<K, V> entry) {
+        if (!isBounded()) {
+            return;
+        }
+
+        evictionLock.lock();
+        try {
+            if (!entry.removed) {
+                AccessOrderDeque<K, V> queue = sketch != null ? window : main;
+                queue.addLast(entry);
+                if (sketch != null) {
+                    sketch.increment(entry.key);
+                }
+            }
+            expireEntries();
+            evictEntries();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void afterRemoval(Entry<K, V> entry) {
+        if (!isBounded()) {
+            entry.removed = true;
+            return;
+        }
+
+        evictionLock.lock();
+        try {
+            entry.removed = true;
+            if (entry.queue != null) {
+                entry.queue.remove(entry);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Remove expired entries from the front of the queues. Must be called while holding the eviction lock.
+     */
+    private void expireEntries() {
+        if (!isExpiring()) {
+            return;
+        }
+
+        long now = ticker.getAsLong();
+        expireEntries(window, now);
+        expireEntries(main, now);
+    }
+
+    private void expireEntries(AccessOrderDeque<K, V> queue, long now) {
+        Entry<K, V> entry;
+        while ((entry = queue.peekFirst()) != null && isExpired(entry, now)) {
+            queue.remove(entry);
+            evict(entry);
+        }
+    }
+
+    /**
+     * Evict entries until the total weight is within bounds. Must be called while holding the eviction lock.
+     */
+    private void evictEntries() {
+        if (sketch != null) {
+            sketch.ensureCapacity(items.size());
+
+            // entries that drop out of the admission window are candidates for the main area; a candidate is only
+            // admitted if it has been used more frequently than the entry it would replace
+            while (window.weight > windowMaximumWeight) {
+                Entry<K, V> candidate = window.peekFirst();
+                assert candidate != null;
+                window.remove(candidate);
+
+                long mainMaximumWeight = maximumWeight - windowMaximumWeight;
+                boolean admit = true;
+                while (main.weight + candidate.weight > mainMaximumWeight) {
+                    Entry<K, V> victim = main.peekFirst();
+                    if (victim == null || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                        admit = false;
+                        break;
+                    }
+                    main.remove(victim);
+                    evict(victim);
+                }
+
+                if (admit) {
+                    main.addLast(candidate);
+                } else {
+                    evict(candidate);
+                }
+            }
+        }
+
+        while (window.weight + main.weight > maximumWeight) {
+            AccessOrderDeque<K, V> queue = main.peekFirst() != null ? main : window;
+            Entry<K, V> victim = queue.peekFirst();
+            assert victim != null;
+            queue.remove(victim);
+            evict(victim);
+        }
     }
 
     @Override
@@ -114,6 +684,442 @@ public class Cache<K, V> {
         /**
          * Use {@link WeakReference}.
          */
-        WEAK_REFERENCES
+        WEAK_REFERENCES,
+
+        /**
+         * Use strong references. Entries are only removed when the cache size is exceeded or entries expire.
+         */
+        STRONG_REFERENCES
+    }
+
+    /**
+     * The policy used to select entries for eviction when the maximum size or weight of the cache is exceeded.
+     */
+    public enum EvictionPolicy {
+
+        /**
+         * Evict the least recently used entry.
+         */
+        LRU,
+
+        /**
+         * Evict entries based on the frequency of use. New entries are held in a small LRU window; when they
+         * leave the window, they only replace an existing entry if they have been used more often recently.
+         * This keeps frequently used entries in the cache when many entries are accessed only once.
+         */
+        FREQUENCY
+    }
+
+    /**
+     * Cache statistics.
+     *
+     * @param hitCount         the number of times a requested value was found in the cache
+     * @param missCount        the number of times a requested value was not found in the cache, including requests
+     *                         that waited for a computation started by another request
+     * @param loadCount        the number of values computed
+     * @param totalLoadTime    the total time spent computing values in nanoseconds
+     * @param evictionCount    the number of entries removed because of size limits, expiration, or garbage
+     *                         collection
+     */
+    public record Stats(long hitCount, long missCount, long loadCount, long totalLoadTime, long evictionCount) {
+        /**
+         * Get the ratio of requests that were served from the cache.
+         *
+         * @return the hit rate, or 1.0 if no requests were made
+         */
+        public double hitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+
+        /**
+         * Get the average time spent computing a value.
+         *
+         * @return the average load time in nanoseconds, or 0.0 if no values were computed
+         */
+        public double averageLoadPenalty() {
+            return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+        }
+    }
+
+    /**
+     * Builder for {@link Cache} instances.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    public static final class Builder<K, V> {
+        private static final ToLongBiFunction<Object, Object> SINGLETON_WEIGHER = (k, v) -> 1;
+
+        private ReferenceType referenceType = ReferenceType.STRONG_REFERENCES;
+        private long maximumWeight = Long.MAX_VALUE;
+        private ToLongBiFunction<? super K, ? super V> weigher = SINGLETON_WEIGHER;
+        private EvictionPolicy evictionPolicy = EvictionPolicy.FREQUENCY;
+        private Duration expireAfterWrite = Duration.ZERO;
+        private Duration expireAfterAccess = Duration.ZERO;
+        private LongSupplier ticker = System::nanoTime;
+        private @Nullable Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkCompute;
+        private Executor executor = VIRTUAL_THREAD_EXECUTOR;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the reference type used to hold values; the default is {@link ReferenceType#STRONG_REFERENCES}.
+         *
+         * @param referenceType the reference type
+         * @return this builder
+         */
+        public Builder<K, V> referenceType(ReferenceType referenceType) {
+            this.referenceType = referenceType;
+            return this;
+        }
+
+        /**
+         * Limit the number of entries in the cache.
+         *
+         * @param maximumSize the maximum number of entries
+         * @return this builder
+         */
+        public Builder<K, V> maximumSize(long maximumSize) {
+            LangUtil.checkArg(maximumSize > 0, "maximumSize must be positive: %d", maximumSize);
+            this.maximumWeight = maximumSize;
+            this.weigher = SINGLETON_WEIGHER;
+            return this;
+        }
+
+        /**
+         * Limit the total weight of the entries in the cache.
+         *
+         * @param maximumWeight the maximum total weight
+         * @param weigher       function that determines the weight of an entry; the weight of an entry is
+         *                      determined once when the entry is added to the cache and must not be negative
+         * @return this builder
+         */
+        public Builder<K, V> maximumWeight(long maximumWeight, ToLongBiFunction<? super K, ? super V> weigher) {
+            LangUtil.checkArg(maximumWeight > 0, "maximumWeight must be positive: %d", maximumWeight);
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        /**
+         * Set the policy used to select entries for eviction; the default is {@link EvictionPolicy#FREQUENCY}.
+         *
+         * @param evictionPolicy the eviction policy
+         * @return this builder
+         */
+        public Builder<K, V> evictionPolicy(EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = evictionPolicy;
+            return this;
+        }
+
+        /**
+         * Remove entries a fixed time after they have been added to the cache.
+         *
+         * @param duration the time after which entries expire
+         * @return this builder
+         */
+        public Builder<K, V> expireAfterWrite(Duration duration) {
+            LangUtil.checkArg(duration.isPositive(), "duration must be positive: %s", duration);
+            this.expireAfterWrite = duration;
+            return this;
+        }
+
+        /**
+         * Remove entries a fixed time after they have last been accessed.
+         *
+         * @param duration the time after which entries expire
+         * @return this builder
+         */
+        public Builder<K, V> expireAfterAccess(Duration duration) {
+            LangUtil.checkArg(duration.isPositive(), "duration must be positive: %s", duration);
+            this.expireAfterAccess = duration;
+            return this;
+        }
+
+        /**
+         * Set the time source used for expiration, mainly useful for testing; the default is
+         * {@link System#nanoTime()}.
+         *
+         * @param ticker supplier of the current time in nanoseconds
+         * @return this builder
+         */
+        public Builder<K, V> ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Set the function used by {@link #getAll(Collection)} to compute the values of several keys at once.
+         * <p>
+         * The function receives the keys whose values are not present in the cache and returns a map containing
+         * the computed values. Keys not contained in the returned map are computed individually using the compute
+         * function.
+         *
+         * @param bulkCompute the bulk compute function
+         * @return this builder
+         */
+        public Builder<K, V> bulkCompute(Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> bulkCompute) {
+            this.bulkCompute = bulkCompute;
+            return this;
+        }
+
+        /**
+         * Set the executor used to compute values asynchronously; by default, each computation runs in a new
+         * virtual thread.
+         *
+         * @param executor the executor
+         * @return this builder
+         */
+        public Builder<K, V> executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Compute values asynchronously using a {@link TaskProcessor}.
+         *
+         * @param taskProcessor the task processor
+         * @return this builder
+         */
+        public Builder<K, V> executor(TaskProcessor taskProcessor) {
+            this.executor = task -> taskProcessor.submit((LangUtil.RunnableThrows<Exception>) task::run);
+            return this;
+        }
+
+        /**
+         * Build the cache.
+         *
+         * @param compute a function that computes the value for the given key if it is not already present in the
+         *                cache
+         * @return new cache instance
+         */
+        public Cache<K, V> build(Function<? super K, ? extends V> compute) {
+            return new Cache<>(this, compute);
+        }
+    }
+
+    /**
+     * A cache entry.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    private abstract static sealed class Entry<K, V> permits StrongEntry, ReferenceEntry {
+        final K key;
+        final long weight;
+        final long writeTime;
+        volatile long accessTime;
+
+        // guarded by the eviction lock
+        @Nullable Entry<K, V> prev;
+        @Nullable Entry<K, V> next;
+        @Nullable AccessOrderDeque<K, V> queue;
+        boolean removed;
+
+        Entry(K key, long weight, long now) {
+            this.key = key;
+            this.weight = weight;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+
+        abstract @Nullable V getValue();
+    }
+
+    private static final class StrongEntry<K, V> extends Entry<K, V> {
+        private final V value;
+
+        StrongEntry(K key, V value, long weight, long now) {
+            super(key, weight, now);
+            this.value = value;
+        }
+
+        @Override
+        V getValue() {
+            return value;
+        }
+    }
+
+    private static final class ReferenceEntry<K, V> extends Entry<K, V> {
+        private final Reference<V> value;
+
+        ReferenceEntry(K key, V value, boolean soft, ReferenceQueue<V> queue, long weight, long now) {
+            super(key, weight, now);
+            this.value = soft
+                    ? new SoftValueReference<>(value, queue, this)
+                    : new WeakValueReference<>(value, queue, this);
+        }
+
+        @Override
+        @Nullable V getValue() {
+            return value.get();
+        }
+    }
+
+    /**
+     * A reference to a cached value that knows the entry it belongs to.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    private sealed interface ValueReference<K, V> permits SoftValueReference, WeakValueReference {
+        Entry<K, V> entry();
+    }
+
+    private static final class SoftValueReference<K, V> extends SoftReference<V> implements ValueReference<K, V> {
+        private final Entry<K, V> entry;
+
+        SoftValueReference(V value, ReferenceQueue<V> queue, Entry<K, V> entry) {
+            super(value, queue);
+            this.entry = entry;
+        }
+
+        @Override
+        public Entry<K, V> entry() {
+            return entry;
+        }
+    }
+
+    private static final class WeakValueReference<K, V> extends WeakReference<V> implements ValueReference<K, V> {
+        private final Entry<K, V> entry;
+
+        WeakValueReference(V value, ReferenceQueue<V> queue, Entry<K, V> entry) {
+            super(value, queue);
+            this.entry = entry;
+        }
+
+        @Override
+        public Entry<K, V> entry() {
+            return entry;
+        }
+    }
+
+    /**
+     * A doubly linked list of entries in access order, with the least recently used entry at the front.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    private static final class AccessOrderDeque<K, V> {
+        private @Nullable Entry<K, V> first;
+        private @Nullable Entry<K, V> last;
+        long weight;
+
+        @Nullable Entry<K, V> peekFirst() {
+            return first;
+        }
+
+        void addLast(Entry<K, V> entry) {
+            entry.queue = this;
+            entry.prev = last;
+            entry.next = null;
+            if (last == null) {
+                first = entry;
+            } else {
+                last.next = entry;
+            }
+            last = entry;
+            weight += entry.weight;
+        }
+
+        void remove(Entry<K, V> entry) {
+            if (entry.prev == null) {
+                first = entry.next;
+            } else {
+                entry.prev.next = entry.next;
+            }
+            if (entry.next == null) {
+                last = entry.prev;
+            } else {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.queue = null;
+            weight -= entry.weight;
+        }
+
+        void moveToBack(Entry<K, V> entry) {
+            if (entry != last) {
+                remove(entry);
+                addLast(entry);
+            }
+        }
+    }
+
+    /**
+     * A count-min sketch with 4-bit counters used to estimate how often keys have been accessed recently. All
+     * counters are halved periodically so that the estimate adapts to changing access patterns.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private long[] table = new long[0];
+        private int tableMask;
+        private int sampleSize;
+        private int additions;
+
+        void ensureCapacity(long maximumSize) {
+            int n = Integer.highestOneBit((int) Math.clamp(maximumSize, 16, 1 << 30) - 1) << 1;
+            if (table.length < n) {
+                table = new long[n];
+                tableMask = n - 1;
+                sampleSize = 10 * n;
+                additions = 0;
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = 15;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int count = (int) ((table[indexOf(hash, i)] >>> offsetOf(hash, i)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = indexOf(hash, i);
+                int offset = offsetOf(hash, i);
+                if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions /= 2;
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private static int offsetOf(int hash, int i) {
+            return ((hash >>> (i << 3)) & 0xf) << 2;
+        }
+
+        private static int spread(int h) {
+            h = ((h >>> 16) ^ h) * 0x45d9f3b;
+            return (h >>> 16) ^ h;
+        }
     }
 }
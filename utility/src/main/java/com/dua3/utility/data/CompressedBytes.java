@@ -3,6 +3,7 @@ package com.dua3.utility.data;
 import com.dua3.utility.lang.LangUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -10,25 +11,25 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.function.BooleanSupplier;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.InflaterInputStream;
 
 /**
  * The {@code CompressedBytes} class provides functionality to compress and decompress byte arrays
- * or input streams using the Deflate compression algorithm. Instances of this class store the
- * compressed data and offer an interface to retrieve the decompressed data through an InputStream.
+ * or input streams using the Deflate compression algorithm or another {@link CompressionCodec}. Instances of this
+ * class store the compressed data and offer an interface to retrieve the decompressed data through an InputStream.
  *
  * <p>This class is intended to be used when relatively large amounts of binary data have to be kept in memory
  * but are not frequently needed to be uncompressed.
  *
  * <p>The compressed data is stored in an internal byte array inflated on demand. If the deflated data need more space
  * than the original data, the data is stored uncompressed. The first byte of the internal array is set to 0 if
- * the data is stored uncompressed, 1 otherwise.
+ * the data is stored uncompressed, 1 if it is compressed using Deflate. Other values identify the other codecs
+ * described in {@link CompressionCodec}.
  */
 public final class CompressedBytes {
     private static final Logger LOG = LogManager.getLogger(CompressedBytes.class);
 
     private final byte[] data;
+    private final byte @Nullable [] dictionary;
 
     /**
      * Compresses the given byte array using the Deflate compression algorithm.
@@ -37,7 +38,18 @@ public final class CompressedBytes {
      * @return a {@code CompressedBytes} instance containing the compressed data
      */
     public static CompressedBytes compress(byte[] data) {
-        return new CompressedBytes(data, false);
+        return compress(data, CompressionCodec.deflate());
+    }
+
+    /**
+     * Compresses the given byte array using the given codec.
+     *
+     * @param data  the byte array to be compressed
+     * @param codec the codec to use
+     * @return a {@code CompressedBytes} instance containing the compressed data
+     */
+    public static CompressedBytes compress(byte[] data, CompressionCodec codec) {
+        return new CompressedBytes(data, codec);
     }
 
     /**
@@ -48,7 +60,19 @@ public final class CompressedBytes {
      * @return a {@code CompressedBytes} instance that contains the compressed data
      */
     public static CompressedBytes compress(InputStream data) {
-        return new CompressedBytes(data);
+        return compress(data, CompressionCodec.deflate());
+    }
+
+    /**
+     * Compresses the data from the given InputStream using the given codec and
+     * returns a {@code CompressedBytes} instance containing the compressed data.
+     *
+     * @param data  the InputStream containing the data to be compressed
+     * @param codec the codec to use
+     * @return a {@code CompressedBytes} instance that contains the compressed data
+     */
+    public static CompressedBytes compress(InputStream data, CompressionCodec codec) {
+        return new CompressedBytes(data, codec);
     }
 
     /**
@@ -62,6 +86,18 @@ public final class CompressedBytes {
         return loadCompressedData(in.readAllBytes());
     }
 
+    /**
+     * Loads compressed data from the given InputStream and returns a {@code CompressedBytes} instance.
+     *
+     * @param in    the InputStream containing the compressed data to be loaded
+     * @param codec the codec providing the dictionary used when the data was compressed
+     * @return a {@code CompressedBytes} instance representing the loaded compressed data
+     * @throws IOException if an I/O error occurs while reading from the InputStream
+     */
+    public static CompressedBytes loadCompressedData(InputStream in, CompressionCodec codec) throws IOException {
+        return loadCompressedData(in.readAllBytes(), codec);
+    }
+
     /**
      * Loads a compressed representation of the given byte array and wraps it in a {@code CompressedBytes} instance.
      *
@@ -70,10 +106,25 @@ public final class CompressedBytes {
      * @throws IllegalArgumentException if the input data is empty
      */
     public static CompressedBytes loadCompressedData(byte[] data) {
+        return loadCompressedData(data, CompressionCodec.deflate());
+    }
+
+    /**
+     * Loads a compressed representation of the given byte array and wraps it in a {@code CompressedBytes} instance.
+     * <p>
+     * The codec used for compression is determined from the data itself. The codec passed to this method is only
+     * needed to provide the dictionary for data that has been compressed using a preset dictionary.
+     *
+     * @param data  the byte array containing the compressed data
+     * @param codec the codec providing the dictionary used when the data was compressed
+     * @return a {@code CompressedBytes} instance wrapping the given compressed data
+     * @throws IllegalArgumentException if the input data is empty
+     */
+    public static CompressedBytes loadCompressedData(byte[] data, CompressionCodec codec) {
         if (data.length < 1) {
             throw new IllegalArgumentException("data is empty");
         }
-        CompressedBytes compressedBytes = new CompressedBytes(data, true);
+        CompressedBytes compressedBytes = new CompressedBytes(data, codec.dictionary());
 
         assert ((BooleanSupplier) () -> {
             try {
@@ -87,33 +138,36 @@ public final class CompressedBytes {
         return compressedBytes;
     }
 
+    /**
+     * Constructs a {@code CompressedBytes} instance from data that is already compressed.
+     *
+     * @param data       the compressed data
+     * @param dictionary the dictionary to use for decompression, or {@code null}
+     */
+    private CompressedBytes(byte[] data, byte @Nullable [] dictionary) {
+        LangUtil.checkArg(data.length > 0, "compressed data cannot have length 0", data.length);
+        this.data = data;
+        this.dictionary = dictionary;
+    }
+
     /**
      * Constructs a CompressedBytes instance by either compressing the given data
-     * using the Deflate algorithm or storing it uncompressed if compression is not
-     * efficient. This constructor handles compression based on the provided flag.
+     * using the given codec or storing it uncompressed if compression is not
+     * efficient.
      *
-     * @param data the byte array to be compressed or stored uncompressed
-     * @param isCompressed a flag indicating whether the provided data is already compressed
+     * @param data  the byte array to be compressed or stored uncompressed
+     * @param codec the codec to use
      * @throws IllegalArgumentException if the data size exceeds allowed limits
      * @throws IllegalStateException if an I/O error occurs during compression
      */
-    private CompressedBytes(byte[] data, boolean isCompressed) {
-        if (isCompressed) {
-            LangUtil.checkArg(data.length > 0, "compressed data cannot have length 0", data.length);
-            this.data = data;
-            return;
-        }
-
+    private CompressedBytes(byte[] data, CompressionCodec codec) {
         if (data.length > Integer.MAX_VALUE - 5) {
             throw new IllegalArgumentException("data is too large");
         }
 
         byte[] compressedData;
         try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            bos.write(1); // add marker for compressed data
-            try (DeflaterOutputStream dos = new DeflaterOutputStream(bos)) {
-                dos.write(data);
-            }
+            codec.encode(new ByteArrayInputStream(data), bos);
             compressedData = bos.toByteArray();
         } catch (IOException e) {
             throw new IllegalStateException(e);
@@ -127,24 +181,23 @@ public final class CompressedBytes {
             assert this.data[0] == 0 : "unexpected uninitialized marker";
             System.arraycopy(data, 0, this.data, 1, data.length);
         }
+        this.dictionary = codec.dictionary();
         logCompressionRatio(data.length);
     }
 
     /**
      * Constructs a {@code CompressedBytes} instance by compressing the data
-     * from the provided InputStream using the Deflate compression algorithm.
+     * from the provided InputStream using the given codec.
      *
-     * @param in the InputStream containing the data to be compressed
+     * @param in    the InputStream containing the data to be compressed
+     * @param codec the codec to use
      * @throws IllegalStateException if an I/O error occurs during compression
      */
-    private CompressedBytes(InputStream in) {
+    private CompressedBytes(InputStream in, CompressionCodec codec) {
         try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            bos.write(1); // add marker for compressed data
-            long nBytes;
-            try (DeflaterOutputStream dos = new DeflaterOutputStream(bos)) {
-                nBytes = in.transferTo(dos) + 1;
-            }
+            long nBytes = codec.encode(in, bos) + 1;
             this.data = bos.toByteArray();
+            this.dictionary = codec.dictionary();
             logCompressionRatio(nBytes);
         } catch (IOException e) {
             // this should never happen for in-memory data
@@ -176,22 +229,13 @@ public final class CompressedBytes {
     }
 
     /**
-     * Provides an InputStream that decompresses the internal byte array using the Inflate algorithm.
+     * Provides an InputStream that decompresses the internal byte array using the codec identified by the marker byte.
      *
      * @return an InputStream that allows reading the original data
+     * @throws IllegalStateException if the data is invalid or was compressed using a dictionary that is not available
      */
     public InputStream inputStream() {
-        InputStream in = new ByteArrayInputStream(data);
-        try {
-            return switch (in.read()) {
-                case 0 -> in;
-                case 1 -> new InflaterInputStream(in);
-                default -> throw new IllegalStateException("invalid marker in compressed data");
-            };
-        } catch (IOException e) {
-            // this should never happen for in-memory data
-            throw new IllegalStateException(e);
-        }
+        return CompressionCodec.decode(data, dictionary);
     }
 
     /**
@@ -27,7 +27,18 @@ public final class CompressedCharacters {
      * @return a {@code CompressedCharacters} instance containing the compressed representation of the input
      */
     public static CompressedCharacters compress(CharSequence s) {
-        return new CompressedCharacters(s);
+        return compress(s, CompressionCodec.deflate());
+    }
+
+    /**
+     * Compresses the given {@link CharSequence} into a {@code CompressedCharacters} instance using the given codec.
+     *
+     * @param s     the {@link CharSequence} to compress
+     * @param codec the codec to use
+     * @return a {@code CompressedCharacters} instance containing the compressed representation of the input
+     */
+    public static CompressedCharacters compress(CharSequence s, CompressionCodec codec) {
+        return new CompressedCharacters(CompressedBytes.compress(s.toString().getBytes(StandardCharsets.UTF_8), codec));
     }
 
     /**
@@ -39,16 +50,20 @@ public final class CompressedCharacters {
      * @throws IOException if an I/O error occurs during the compression process
      */
     public static CompressedCharacters compress(Reader r) throws IOException {
-        return new CompressedCharacters(CompressedBytes.compress(IoUtil.getInputStream(r)));
+        return compress(r, CompressionCodec.deflate());
     }
 
     /**
-     * Constructs a {@code CompressedCharacters} instance by compressing the given {@link CharSequence}.
+     * Compresses the content provided by the given {@link Reader} into a
+     * {@code CompressedCharacters} object using the given codec.
      *
-     * @param s the {@link CharSequence} to be compressed
+     * @param r     the {@code link} containing the characters to be compressed
+     * @param codec the codec to use
+     * @return a {@code CompressedCharacters} instance representing the compressed data
+     * @throws IOException if an I/O error occurs during the compression process
      */
-    private CompressedCharacters(CharSequence s) {
-        this.data = CompressedBytes.compress(s.toString().getBytes(StandardCharsets.UTF_8));
+    public static CompressedCharacters compress(Reader r, CompressionCodec codec) throws IOException {
+        return new CompressedCharacters(CompressedBytes.compress(IoUtil.getInputStream(r), codec));
     }
 
     /**
@@ -0,0 +1,439 @@
+package com.dua3.utility.data;
+
+import com.dua3.utility.lang.LangUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The compression method used by {@link CompressedBytes} and {@link CompressedCharacters}.
+ * <p>
+ * The following codecs are available:
+ * <ul>
+ *     <li>{@link #none()} stores data uncompressed,
+ *     <li>{@link #deflate(int)} uses the Deflate algorithm with a selectable compression level,
+ *     <li>{@link #lz()} uses a fast LZ77 variant that trades compression ratio for speed.
+ * </ul>
+ * <p>
+ * The Deflate and LZ codecs can be used with a preset dictionary. A dictionary containing byte sequences that are
+ * common in the data improves the compression of many small, similar payloads. Data compressed using a dictionary
+ * can only be decompressed when the same dictionary is provided.
+ * <p>
+ * The codec is identified by the first byte of the compressed data, so that compressed data can be decompressed
+ * without knowing the codec used to compress it (except for the dictionary):
+ * <ul>
+ *     <li>{@code 0}: uncompressed,
+ *     <li>{@code 1}: Deflate in zlib format; a dictionary is indicated in the zlib header,
+ *     <li>{@code 2}: LZ,
+ *     <li>{@code 3}: LZ using a dictionary; the Adler-32 checksum of the dictionary follows the marker.
+ * </ul>
+ */
+public final class CompressionCodec {
+
+    private static final byte MARKER_NONE = 0;
+    private static final byte MARKER_DEFLATE = 1;
+    private static final byte MARKER_LZ = 2;
+    private static final byte MARKER_LZ_DICTIONARY = 3;
+
+    private static final CompressionCodec NONE = new CompressionCodec(Method.NONE, 0, null);
+    private static final CompressionCodec DEFLATE = new CompressionCodec(Method.DEFLATE, Deflater.DEFAULT_COMPRESSION, null);
+    private static final CompressionCodec LZ = new CompressionCodec(Method.LZ, 0, null);
+
+    private enum Method {NONE, DEFLATE, LZ}
+
+    private final Method method;
+    private final int level;
+    private final byte @Nullable [] dictionary;
+
+    private CompressionCodec(Method method, int level, byte @Nullable [] dictionary) {
+        this.method = method;
+        this.level = level;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Get the codec that stores data uncompressed.
+     *
+     * @return the codec
+     */
+    public static CompressionCodec none() {
+        return NONE;
+    }
+
+    /**
+     * Get the Deflate codec using the default compression level.
+     *
+     * @return the codec
+     */
+    public static CompressionCodec deflate() {
+        return DEFLATE;
+    }
+
+    /**
+     * Get the Deflate codec using the given compression level.
+     *
+     * @param level the compression level (0-9), or {@link Deflater#DEFAULT_COMPRESSION}
+     * @return the codec
+     */
+    public static CompressionCodec deflate(int level) {
+        checkLevel(level);
+        return level == Deflater.DEFAULT_COMPRESSION ? DEFLATE : new CompressionCodec(Method.DEFLATE, level, null);
+    }
+
+    /**
+     * Get the Deflate codec using the given compression level and a preset dictionary.
+     *
+     * @param level      the compression level (0-9), or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param dictionary the dictionary
+     * @return the codec
+     */
+    public static CompressionCodec deflate(int level, byte[] dictionary) {
+        checkLevel(level);
+        return new CompressionCodec(Method.DEFLATE, level, dictionary.clone());
+    }
+
+    /**
+     * Get the fast LZ codec.
+     *
+     * @return the codec
+     */
+    public static CompressionCodec lz() {
+        return LZ;
+    }
+
+    /**
+     * Get the fast LZ codec using a preset dictionary. Only the last 64 KiB of the dictionary are used.
+     *
+     * @param dictionary the dictionary
+     * @return the codec
+     */
+    public static CompressionCodec lz(byte[] dictionary) {
+        int from = Math.max(0, dictionary.length - Lz.MAX_OFFSET);
+        return new CompressionCodec(Method.LZ, 0, Arrays.copyOfRange(dictionary, from, dictionary.length));
+    }
+
+    private static void checkLevel(int level) {
+        LangUtil.checkArg(level == Deflater.DEFAULT_COMPRESSION || level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION,
+                "invalid compression level: %d", level);
+    }
+
+    /**
+     * Test whether this codec uses a preset dictionary.
+     *
+     * @return true, if this codec uses a preset dictionary
+     */
+    public boolean hasDictionary() {
+        return dictionary != null;
+    }
+
+    /**
+     * Compress data and write the marker byte followed by the compressed data.
+     *
+     * @param in  the data to compress
+     * @param out the stream to write to
+     * @return the number of bytes read from {@code in}
+     * @throws IOException if an I/O error occurs
+     */
+    long encode(InputStream in, ByteArrayOutputStream out) throws IOException {
+        switch (method) {
+            case NONE -> {
+                out.write(MARKER_NONE);
+                return in.transferTo(out);
+            }
+            case DEFLATE -> {
+                out.write(MARKER_DEFLATE);
+                Deflater deflater = new Deflater(level);
+                try {
+                    if (dictionary != null) {
+                        deflater.setDictionary(dictionary);
+                    }
+                    try (DeflaterOutputStream dos = new DeflaterOutputStream(out, deflater)) {
+                        return in.transferTo(dos);
+                    }
+                } finally {
+                    deflater.end();
+                }
+            }
+            case LZ -> {
+                byte[] data = in.readAllBytes();
+                if (dictionary == null) {
+                    out.write(MARKER_LZ);
+                    Lz.compress(data, new byte[0], out);
+                } else {
+                    out.write(MARKER_LZ_DICTIONARY);
+                    int id = dictionaryId(dictionary);
+                    for (int shift = 24; shift >= 0; shift -= 8) {
+                        out.write(id >>> shift);
+                    }
+                    Lz.compress(data, dictionary, out);
+                }
+                return data.length;
+            }
+            default -> throw new IllegalStateException("unknown method: " + method);
+        }
+    }
+
+    /**
+     * Create an {@link InputStream} that decompresses data. The first byte of {@code data} identifies the codec
+     * used to compress the data.
+     *
+     * @param data       the compressed data, including the marker byte
+     * @param dictionary the dictionary, or {@code null} if no dictionary is available
+     * @return an input stream that allows reading the original data
+     * @throws IllegalStateException if the data is invalid or needs a dictionary that has not been provided
+     */
+    static InputStream decode(byte[] data, byte @Nullable [] dictionary) {
+        return switch (data[0]) {
+            case MARKER_NONE -> new ByteArrayInputStream(data, 1, data.length - 1);
+            case MARKER_DEFLATE -> inflate(data, dictionary);
+            case MARKER_LZ -> new ByteArrayInputStream(Lz.decompress(data, 1, new byte[0]));
+            case MARKER_LZ_DICTIONARY -> {
+                LangUtil.check(data.length >= 5, "invalid compressed data");
+                int id = ((data[1] & 0xff) << 24) | ((data[2] & 0xff) << 16) | ((data[3] & 0xff) << 8) | (data[4] & 0xff);
+                LangUtil.check(dictionary != null, "compressed data requires a preset dictionary");
+                LangUtil.check(dictionaryId(dictionary) == id, "dictionary does not match compressed data");
+                yield new ByteArrayInputStream(Lz.decompress(data, 5, dictionary));
+            }
+            default -> throw new IllegalStateException("invalid marker in compressed data");
+        };
+    }
+
+    /**
+     * Get the dictionary of this codec.
+     *
+     * @return the dictionary or {@code null}
+     */
+    byte @Nullable [] dictionary() {
+        return dictionary;
+    }
+
+    private static InputStream inflate(byte[] data, byte @Nullable [] dictionary) {
+        InputStream in = new ByteArrayInputStream(data, 1, data.length - 1);
+
+        // check the FDICT flag of the zlib header
+        boolean needsDictionary = data.length > 2 && (data[2] & 0x20) != 0;
+        if (!needsDictionary) {
+            return new InflaterInputStream(in);
+        }
+
+        LangUtil.check(dictionary != null, "compressed data requires a preset dictionary");
+        Inflater inflater = new Inflater();
+        inflater.setInput(data, 1, data.length - 1);
+        try {
+            int n = inflater.inflate(new byte[1]);
+            LangUtil.check(n == 0 && inflater.needsDictionary(), "invalid compressed data");
+            inflater.setDictionary(dictionary);
+        } catch (DataFormatException | IllegalArgumentException e) {
+            inflater.end();
+            throw new IllegalStateException("dictionary does not match compressed data", e);
+        }
+
+        // all input has already been passed to the inflater
+        return new InflaterInputStream(InputStream.nullInputStream(), inflater) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                inflater.end();
+            }
+        };
+    }
+
+    private static int dictionaryId(byte[] dictionary) {
+        Adler32 adler = new Adler32();
+        adler.update(dictionary);
+        return (int) adler.getValue();
+    }
+
+    @Override
+    public String toString() {
+        return switch (method) {
+            case NONE -> "none";
+            case DEFLATE -> "deflate(" + level + (dictionary != null ? ", dictionary" : "") + ")";
+            case LZ -> "lz(" + (dictionary != null ? "dictionary" : "") + ")";
+        };
+    }
+
+    /**
+     * A simple and fast LZ77 compressor in the spirit of LZ4.
+     * <p>
+     * Compressed data consists of the uncompressed length, encoded as a variable length integer, followed by a list
+     * of sequences. Each sequence starts with a token byte; the upper four bits hold the number of literal bytes,
+     * the lower four bits the match length minus 4. A value of 15 in either field means that additional length bytes
+     * follow, each adding its value to the length, until a byte less than 255 is read. The token and the literal
+     * length are followed by the literal bytes, the two byte little endian match offset and the match length bytes.
+     * The last sequence only contains literals.
+     */
+    private static final class Lz {
+        static final int MAX_OFFSET = 0xffff;
+        private static final int MIN_MATCH = 4;
+        private static final int HASH_LOG = 14;
+
+        private Lz() {
+        }
+
+        static void compress(byte[] data, byte[] dictionary, ByteArrayOutputStream out) {
+            byte[] src;
+            int start = dictionary.length;
+            if (start == 0) {
+                src = data;
+            } else {
+                src = Arrays.copyOf(dictionary, start + data.length);
+                System.arraycopy(data, 0, src, start, data.length);
+            }
+            int end = src.length;
+
+            writeVarInt(out, data.length);
+
+            int[] table = new int[1 << HASH_LOG]; // positions + 1, 0 marks empty slots
+            for (int p = 0; p + MIN_MATCH <= start; p++) {
+                table[hash(readInt(src, p))] = p + 1;
+            }
+
+            int anchor = start;
+            int p = start;
+            while (p + MIN_MATCH <= end) {
+                int sequence = readInt(src, p);
+                int h = hash(sequence);
+                int ref = table[h] - 1;
+                table[h] = p + 1;
+
+                if (ref < 0 || p - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+                    // skip faster through data that does not compress
+                    p += 1 + ((p - anchor) >>> 6);
+                    continue;
+                }
+
+                int length = MIN_MATCH;
+                while (p + length < end && src[ref + length] == src[p + length]) {
+                    length++;
+                }
+
+                writeSequence(out, src, anchor, p - anchor, p - ref, length);
+                p += length;
+                anchor = p;
+
+                if (p - 2 >= start && p + 2 <= end) {
+                    table[hash(readInt(src, p - 2))] = p - 1;
+                }
+            }
+
+            writeSequence(out, src, anchor, end - anchor, 0, 0);
+        }
+
+        static byte[] decompress(byte[] data, int offset, byte[] dictionary) {
+            try {
+                int[] pos = {offset};
+                int length = readVarInt(data, pos);
+                int ip = pos[0];
+
+                int start = dictionary.length;
+                byte[] dst = Arrays.copyOf(dictionary, start + length);
+                int op = start;
+                int end = dst.length;
+                while (true) {
+                    int token = data[ip++] & 0xff;
+
+                    int literals = token >>> 4;
+                    if (literals == 15) {
+                        int b;
+                        do {
+                            b = data[ip++] & 0xff;
+                            literals += b;
+                        } while (b == 255);
+                    }
+                    System.arraycopy(data, ip, dst, op, literals);
+                    ip += literals;
+                    op += literals;
+
+                    if (op == end) {
+                        break;
+                    }
+
+                    int distance = (data[ip] & 0xff) | ((data[ip + 1] & 0xff) << 8);
+                    ip += 2;
+                    int matchLength = (token & 0xf) + MIN_MATCH;
+                    if (matchLength == 15 + MIN_MATCH) {
+                        int b;
+                        do {
+                            b = data[ip++] & 0xff;
+                            matchLength += b;
+                        } while (b == 255);
+                    }
+
+                    int ref = op - distance;
+                    LangUtil.check(distance > 0 && ref >= 0 && op + matchLength <= end, "invalid compressed data");
+                    for (int i = 0; i < matchLength; i++) {
+                        dst[op++] = dst[ref++];
+                    }
+                }
+
+                LangUtil.check(ip == data.length, "invalid compressed data");
+                return start == 0 ? dst : Arrays.copyOfRange(dst, start, end);
+            } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+                throw new IllegalStateException("invalid compressed data", e);
+            }
+        }
+
+        private static void writeSequence(ByteArrayOutputStream out, byte[] src, int literalStart, int literals, int distance, int matchLength) {
+            int ml = matchLength == 0 ? 0 : matchLength - MIN_MATCH;
+            out.write((Math.min(literals, 15) << 4) | Math.min(ml, 15));
+            if (literals >= 15) {
+                writeLength(out, literals - 15);
+            }
+            out.write(src, literalStart, literals);
+            if (matchLength > 0) {
+                out.write(distance);
+                out.write(distance >>> 8);
+                if (ml >= 15) {
+                    writeLength(out, ml - 15);
+                }
+            }
+        }
+
+        private static void writeLength(ByteArrayOutputStream out, int length) {
+            while (length >= 255) {
+                out.write(255);
+                length -= 255;
+            }
+            out.write(length);
+        }
+
+        private static void writeVarInt(ByteArrayOutputStream out, int value) {
+            while ((value & ~0x7f) != 0) {
+                out.write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+
+        private static int readVarInt(byte[] data, int[] pos) {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = data[pos[0]++];
+                value |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("invalid compressed data");
+        }
+
+        private static int readInt(byte[] b, int p) {
+            return (b[p] & 0xff) | ((b[p + 1] & 0xff) << 8) | ((b[p + 2] & 0xff) << 16) | ((b[p + 3] & 0xff) << 24);
+        }
+
+        private static int hash(int sequence) {
+            return (sequence * -1640531535) >>> (32 - HASH_LOG);
+        }
+    }
+}
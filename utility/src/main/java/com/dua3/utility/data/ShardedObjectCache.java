@@ -0,0 +1,366 @@
+package com.dua3.utility.data;
+
+import com.dua3.utility.lang.LangUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * An object cache for deduplicating instances of classes with value semantics that is optimized for concurrent use.
+ * <p>
+ * Like {@link ObjectCache}, {@link #get(Object)} returns a previously cached instance that is equal to the argument
+ * if there is one, and otherwise caches and returns the argument. The cache is split into a number of shards, each
+ * guarded by its own lock, so that threads interning different objects rarely contend.
+ * <p>
+ * Two storage variants are available:
+ * <ul>
+ *     <li>{@link #create()} holds instances through weak references, like {@link ObjectCache}. Instances are removed
+ *     after they are no longer referenced elsewhere.
+ *     <li>{@link #createFixedCapacity(int)} stores instances in fixed-size open addressing tables without allocating a
+ *     reference object per entry. When the slots an instance can be stored in are all taken, the instance replaces
+ *     the one in its preferred slot. Instances are held strongly until replaced, and equal instances returned before
+ *     and after a replacement are not necessarily identical.
+ * </ul>
+ * <p>
+ * Use {@link #getStats()} to check how many requests were served with a cached instance.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ *     ShardedObjectCache cache = ShardedObjectCache.create();
+ *     T a = cache.get(new A()); // will return the previously cached instance of A if it exists in the cache
+ * }</pre>
+ */
+public final class ShardedObjectCache {
+
+    /**
+     * The maximum number of slots probed when looking up an instance in a fixed capacity table.
+     */
+    private static final int MAX_PROBES = 8;
+
+    private final Shard[] shards;
+    private final int shardBits;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    private ShardedObjectCache(int shardCount, IntFunction<Shard> createShard) {
+        int n = shardCount <= 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        this.shardBits = Integer.numberOfTrailingZeros(n);
+        this.shards = new Shard[n];
+        Arrays.setAll(shards, createShard::apply);
+    }
+
+    /**
+     * Create a cache that holds instances through weak references, using a number of shards suitable for the
+     * number of available processors.
+     *
+     * @return new cache instance
+     */
+    public static ShardedObjectCache create() {
+        return create(defaultShardCount());
+    }
+
+    /**
+     * Create a cache that holds instances through weak references.
+     *
+     * @param shardCount the number of shards; rounded up to the next power of two
+     * @return new cache instance
+     */
+    public static ShardedObjectCache create(int shardCount) {
+        LangUtil.checkArg(shardCount > 0, "shardCount must be positive: %d", shardCount);
+        return new ShardedObjectCache(shardCount, i -> new WeakShard());
+    }
+
+    /**
+     * Create a cache that stores instances in fixed capacity open addressing tables, using a number of shards
+     * suitable for the number of available processors.
+     *
+     * @param capacity the total capacity; rounded up so that each shard has a capacity that is a power of two
+     * @return new cache instance
+     */
+    public static ShardedObjectCache createFixedCapacity(int capacity) {
+        return createFixedCapacity(defaultShardCount(), capacity);
+    }
+
+    /**
+     * Create a cache that stores instances in fixed capacity open addressing tables.
+     *
+     * @param shardCount the number of shards; rounded up to the next power of two
+     * @param capacity   the total capacity; rounded up so that each shard has a capacity that is a power of two
+     * @return new cache instance
+     */
+    public static ShardedObjectCache createFixedCapacity(int shardCount, int capacity) {
+        LangUtil.checkArg(shardCount > 0, "shardCount must be positive: %d", shardCount);
+        LangUtil.checkArg(capacity > 0, "capacity must be positive: %d", capacity);
+        int shardCapacity = Math.max(MAX_PROBES, capacity / shardCount + (capacity % shardCount == 0 ? 0 : 1));
+        return new ShardedObjectCache(shardCount, i -> new FixedCapacityShard(shardCapacity));
+    }
+
+    private static int defaultShardCount() {
+        return 4 * Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Retrieves an item from the cache.
+     *
+     * @param <T>  the type of the item to retrieve from the cache
+     * @param item the item to retrieve from the cache
+     * @return the cached instance equal to {@code item}, or {@code item} itself if no such instance was cached
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(T item) {
+        int hash = spread(item.hashCode());
+        Object cached = shards[hash & (shards.length - 1)].intern(item, hash >>> shardBits);
+
+        requests.increment();
+        if (cached != item) {
+            hits.increment();
+        }
+        return (T) cached;
+    }
+
+    /**
+     * Get the number of shards.
+     *
+     * @return the number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Get the number of cached instances.
+     * <p>
+     * For caches using weak references, the result may include instances that are no longer referenced elsewhere
+     * but have not yet been removed.
+     *
+     * @return the number of cached instances
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * Get the cache statistics.
+     *
+     * @return snapshot of the statistics for this cache
+     */
+    public Stats getStats() {
+        return new Stats(requests.sum(), hits.sum(), size());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ShardedObjectCache [%d shards, %d entries]", shards.length, size());
+    }
+
+    private static int spread(int h) {
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        return (h >>> 16) ^ h;
+    }
+
+    /**
+     * Cache statistics.
+     *
+     * @param requests the number of calls to {@link #get(Object)}
+     * @param hits     the number of calls that returned a cached instance instead of the argument
+     * @param size     the number of cached instances
+     */
+    public record Stats(long requests, long hits, int size) {
+        /**
+         * Get the ratio of requests that returned a cached instance, i.e., the fraction of instances passed to
+         * {@link #get(Object)} that can be discarded by the caller.
+         *
+         * @return the deduplication ratio, or 0.0 if no requests were made
+         */
+        public double dedupRatio() {
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    /**
+     * A shard of the cache.
+     */
+    private sealed interface Shard permits WeakShard, FixedCapacityShard {
+        /**
+         * Look up an item and add it if no equal instance is present.
+         *
+         * @param item the item
+         * @param hash the hash value of the item, without the bits used for shard selection
+         * @return the cached instance
+         */
+        Object intern(Object item, int hash);
+
+        /**
+         * Get the number of instances in this shard.
+         *
+         * @return the number of instances
+         */
+        int size();
+    }
+
+    /**
+     * A shard holding its instances through weak references in a chained hash table.
+     */
+    private static final class WeakShard implements Shard {
+        private static final float LOAD_FACTOR = 0.75f;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        private @Nullable WeakEntry[] table = new WeakEntry[16];
+        private int size;
+
+        @Override
+        public Object intern(Object item, int hash) {
+            lock.lock();
+            try {
+                expungeStaleEntries();
+
+                int index = hash & (table.length - 1);
+                for (WeakEntry e = table[index]; e != null; e = e.next) {
+                    if (e.hash == hash) {
+                        Object cached = e.get();
+                        if (cached != null && cached.equals(item)) {
+                            return cached;
+                        }
+                    }
+                }
+
+                table[index] = new WeakEntry(item, hash, table[index], queue);
+                if (++size > LOAD_FACTOR * table.length) {
+                    resize();
+                }
+                return item;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.lock();
+            try {
+                expungeStaleEntries();
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void expungeStaleEntries() {
+            Reference<?> ref;
+            while ((ref = queue.poll()) != null) {
+                WeakEntry stale = (WeakEntry) ref;
+                int index = stale.hash & (table.length - 1);
+                @Nullable WeakEntry prev = null;
+                for (WeakEntry e = table[index]; e != null; prev = e, e = e.next) {
+                    if (e == stale) {
+                        if (prev == null) {
+                            table[index] = e.next;
+                        } else {
+                            prev.next = e.next;
+                        }
+                        size--;
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void resize() {
+            @Nullable WeakEntry[] newTable = new WeakEntry[2 * table.length];
+            int mask = newTable.length - 1;
+            for (WeakEntry head : table) {
+                @Nullable WeakEntry e = head;
+                while (e != null) {
+                    WeakEntry next = e.next;
+                    int index = e.hash & mask;
+                    e.next = newTable[index];
+                    newTable[index] = e;
+                    e = next;
+                }
+            }
+            table = newTable;
+        }
+    }
+
+    /**
+     * A weak reference to a cached instance that also serves as hash table entry.
+     */
+    private static final class WeakEntry extends WeakReference<Object> {
+        final int hash;
+        @Nullable WeakEntry next;
+
+        WeakEntry(Object referent, int hash, @Nullable WeakEntry next, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /**
+     * A shard storing its instances in a fixed capacity open addressing table.
+     */
+    private static final class FixedCapacityShard implements Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final @Nullable Object[] slots;
+        private final int[] hashes;
+        private final int probes;
+        private int size;
+
+        FixedCapacityShard(int capacity) {
+            int n = Integer.highestOneBit(capacity - 1) << 1;
+            this.slots = new Object[n];
+            this.hashes = new int[n];
+            this.probes = Math.min(MAX_PROBES, n);
+        }
+
+        @Override
+        public Object intern(Object item, int hash) {
+            lock.lock();
+            try {
+                int mask = slots.length - 1;
+                int home = hash & mask;
+                for (int p = 0; p < probes; p++) {
+                    int index = (home + p) & mask;
+                    Object cached = slots[index];
+                    if (cached == null) {
+                        slots[index] = item;
+                        hashes[index] = hash;
+                        size++;
+                        return item;
+                    }
+                    if (hashes[index] == hash && cached.equals(item)) {
+                        return cached;
+                    }
+                }
+
+                // all candidate slots are taken: replace the instance in the preferred slot
+                slots[home] = item;
+                hashes[home] = hash;
+                return item;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.lang.LangUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Loads many resources concurrently.
+ * <p>
+ * Loading is done in two phases. First, the leading bytes of all resources are read in parallel and each resource
+ * is classified, for example by determining the {@link FileType} or {@link Loader} to use. Then the resources are
+ * loaded grouped by classification, so that resources of the same type are loaded together. At most
+ * {@code parallelism} resources are sniffed or loaded at the same time.
+ * <p>
+ * Results are delivered in completion order. A failure to classify or load a resource, including errors thrown by the
+ * classifier or reader, is reported as a {@link LoadResult.Failure} for that resource and does not affect the other
+ * resources.
+ */
+final class BatchLoader {
+    private static final Logger LOG = LogManager.getLogger(BatchLoader.class);
+
+    /**
+     * Determines how a resource is to be loaded.
+     *
+     * @param <K> the classification type
+     */
+    @FunctionalInterface
+    interface Classifier<K> {
+        /**
+         * Classify a resource.
+         *
+         * @param uri   the URI of the resource
+         * @param magic the first eight bytes of the resource, see {@link Payload#magic8Bytes()}
+         * @return the classification, used to group resources and passed to the reader
+         * @throws IOException if the resource is not supported
+         */
+        K classify(URI uri, long magic) throws IOException;
+    }
+
+    /**
+     * Loads a classified resource.
+     *
+     * @param <K> the classification type
+     * @param <T> the type of the loaded objects
+     */
+    @FunctionalInterface
+    interface Reader<K, T> {
+        /**
+         * Load a resource.
+         *
+         * @param key the classification of the resource
+         * @param uri the URI of the resource
+         * @return the loaded object
+         * @throws IOException if the resource could not be loaded
+         */
+        T read(K key, URI uri) throws IOException;
+    }
+
+    private BatchLoader() {
+        // utility class
+    }
+
+    /**
+     * Load resources concurrently.
+     * <p>
+     * The returned stream must be closed to cancel pending work when not all results are consumed.
+     *
+     * @param uris        the resources to load
+     * @param parallelism the maximum number of resources to sniff or load concurrently
+     * @param classifier  determines how each resource is loaded
+     * @param reader      loads a classified resource
+     * @param <K>         the classification type
+     * @param <T>         the type of the loaded objects
+     * @return a stream of results, one per resource, in completion order
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    static <K, T> Stream<LoadResult<T>> loadAll(Collection<URI> uris, int parallelism, Classifier<K> classifier, Reader<K, T> reader) {
+        LangUtil.checkArg(parallelism > 0, "parallelism must be positive: %d", parallelism);
+
+        Batch<K, T> batch = new Batch<>(List.copyOf(uris), parallelism, classifier, reader);
+        batch.start();
+        return StreamSupport.stream(
+                Spliterators.spliterator(batch, batch.uris.size(), Spliterator.NONNULL | Spliterator.IMMUTABLE),
+                false
+        ).onClose(batch::cancel);
+    }
+
+    private static final class Batch<K, T> implements Iterator<LoadResult<T>> {
+        private final List<URI> uris;
+        private final Classifier<K> classifier;
+        private final Reader<K, T> reader;
+        private final Semaphore permits;
+        private final BlockingQueue<LoadResult<T>> results;
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        private int delivered;
+
+        Batch(List<URI> uris, int parallelism, Classifier<K> classifier, Reader<K, T> reader) {
+            this.uris = uris;
+            this.classifier = classifier;
+            this.reader = reader;
+            this.permits = new Semaphore(parallelism);
+            this.results = new ArrayBlockingQueue<>(2 * parallelism);
+        }
+
+        void start() {
+            if (uris.isEmpty()) {
+                executor.shutdown();
+                return;
+            }
+            executor.execute(this::run);
+        }
+
+        void cancel() {
+            executor.shutdownNow();
+        }
+
+        private void run() {
+            try {
+                List<@Nullable K> keys = sniff();
+                load(keys);
+            } catch (InterruptedException e) {
+                LOG.debug("batch load cancelled");
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Read the leading bytes of all resources in parallel and classify them.
+         */
+        private List<@Nullable K> sniff() throws InterruptedException {
+            int n = uris.size();
+            List<@Nullable K> keys = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                keys.add(null);
+            }
+
+            CountDownLatch done = new CountDownLatch(n);
+            for (int i = 0; i < n; i++) {
+                int index = i;
+                URI uri = uris.get(i);
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        long magic;
+                        try (Payload payload = Payload.fromUri(uri)) {
+                            magic = payload.magic8Bytes();
+                        }
+                        K key = classifier.classify(uri, magic);
+                        synchronized (keys) {
+                            keys.set(index, key);
+                        }
+                    } catch (Throwable e) {
+                        emit(new LoadResult.Failure<>(uri, asIOException(uri, e)));
+                    } finally {
+                        permits.release();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            synchronized (keys) {
+                return keys;
+            }
+        }
+
+        /**
+         * Load all classified resources, grouped by their classification.
+         */
+        private void load(List<@Nullable K> keys) throws InterruptedException {
+            Map<K, List<URI>> groups = new LinkedHashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                K key = keys.get(i);
+                if (key != null) {
+                    groups.computeIfAbsent(key, k -> new ArrayList<>()).add(uris.get(i));
+                }
+            }
+
+            for (Map.Entry<K, List<URI>> group : groups.entrySet()) {
+                K key = group.getKey();
+                for (URI uri : group.getValue()) {
+                    permits.acquire();
+                    executor.execute(() -> {
+                        try {
+                            emit(new LoadResult.Success<>(uri, reader.read(key, uri)));
+                        } catch (Throwable e) {
+                            emit(new LoadResult.Failure<>(uri, asIOException(uri, e)));
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+        }
+
+        private static IOException asIOException(URI uri, Throwable e) {
+            LOG.debug("failed to load {}", uri, e);
+            return e instanceof IOException ioe ? ioe : new IOException("failed to load " + uri, e);
+        }
+
+        private void emit(LoadResult<T> result) {
+            try {
+                results.put(result);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delivered < uris.size();
+        }
+
+        @Override
+        public LoadResult<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                LoadResult<T> result = results.take();
+                if (++delivered == uris.size()) {
+                    executor.shutdown();
+                }
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new IllegalStateException("interrupted while waiting for load results", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.lang.ResourcePool;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Codec interface for writing objects to a {@link BinaryWriter} and reading them from a {@link BinaryReader}.
+ * <p>
+ * Unlike {@link Codec}, which writes through {@link DataOutputStream}, binary codecs encode into in-memory buffers
+ * using variable-length integers and length-prefixed UTF-8 text. Use {@link BinaryCodecs} to obtain codecs for
+ * standard types, collections, and records.
+ *
+ * @param <T> the object type
+ */
+public interface BinaryCodec<T> {
+
+    /**
+     * The codec name, usually corresponds to the object type.
+     *
+     * @return name
+     */
+    String name();
+
+    /**
+     * Write an instance to a writer.
+     *
+     * @param out   the writer
+     * @param value the instance to write
+     */
+    void encode(BinaryWriter out, T value);
+
+    /**
+     * Read an instance from a reader.
+     *
+     * @param in the reader
+     * @return the instance read
+     * @throws IOException if the data is truncated or invalid
+     */
+    T decode(BinaryReader in) throws IOException;
+
+    /**
+     * Encode an instance into a new byte array, using a pooled buffer.
+     *
+     * @param value the instance
+     * @return the encoded data
+     */
+    default byte[] encode(T value) {
+        ResourcePool.Lease<BinaryWriter> lease = BinaryWriter.acquire();
+        if (lease == null) {
+            BinaryWriter out = new BinaryWriter();
+            encode(out, value);
+            return out.toByteArray();
+        }
+        try (lease) {
+            BinaryWriter out = lease.get();
+            encode(out, value);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Encode an instance and write it to a channel, using a pooled buffer.
+     *
+     * @param value   the instance
+     * @param channel the channel to write to
+     * @throws IOException if an I/O error occurs
+     */
+    default void encode(T value, WritableByteChannel channel) throws IOException {
+        ResourcePool.Lease<BinaryWriter> lease = BinaryWriter.acquire();
+        if (lease == null) {
+            BinaryWriter out = new BinaryWriter();
+            encode(out, value);
+            out.writeTo(channel);
+            return;
+        }
+        try (lease) {
+            BinaryWriter out = lease.get();
+            encode(out, value);
+            out.writeTo(channel);
+        }
+    }
+
+    /**
+     * Decode an instance from a buffer.
+     * <p>
+     * Decoding starts at the buffer's position. On success, the position is advanced past the decoded data.
+     *
+     * @param buffer the buffer
+     * @return the instance read
+     * @throws IOException if the data is truncated or invalid
+     */
+    default T decode(ByteBuffer buffer) throws IOException {
+        BinaryReader in = new BinaryReader(buffer);
+        T value = decode(in);
+        in.commitPosition();
+        return value;
+    }
+
+    /**
+     * Decode an instance from a byte array.
+     *
+     * @param data the encoded data
+     * @return the instance read
+     * @throws IOException if the data is truncated or invalid
+     */
+    default T decode(byte[] data) throws IOException {
+        return decode(new BinaryReader(data));
+    }
+
+    /**
+     * Get a {@link Codec} that stores the binary encoding of instances in a {@link DataOutputStream}.
+     * <p>
+     * Each instance is written as the length of its encoding followed by the encoded data.
+     *
+     * @return a codec that can be used wherever a {@link Codec} is expected
+     */
+    default Codec<T> asCodec() {
+        return Codecs.createCodec(
+                name(),
+                (DataOutputStream os, T t) -> {
+                    byte[] data = encode(t);
+                    os.writeInt(data.length);
+                    os.write(data);
+                },
+                (DataInputStream is) -> {
+                    int n = is.readInt();
+                    if (n < 0) {
+                        throw new IOException("invalid length: " + n);
+                    }
+                    return decode(is.readNBytes(n));
+                }
+        );
+    }
+}
@@ -0,0 +1,457 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.lang.LangUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+/**
+ * Factory methods for {@link BinaryCodec} instances.
+ * <p>
+ * Codecs for primitive types and their wrappers, {@link String}, {@code byte[]}, enums, and records are obtained
+ * through {@link #forClass(Class)}. Record codecs are derived from the record components; component types can be any
+ * type supported by {@link #forClass(Class)} as well as {@link List}, {@link Set}, {@link Map}, {@link Optional}, and
+ * their sorted variants with supported type arguments. Record components of reference types may be {@code null}.
+ * <p>
+ * Object identity is not preserved, i.e., an object referenced multiple times is encoded multiple times, and cyclic
+ * object graphs are not supported.
+ */
+public final class BinaryCodecs {
+
+    private static final BinaryCodec<String> STRING = createCodec("String", BinaryWriter::writeString, BinaryReader::readString);
+    private static final BinaryCodec<Boolean> BOOLEAN = createCodec("Boolean", BinaryWriter::writeBoolean, BinaryReader::readBoolean);
+    private static final BinaryCodec<Byte> BYTE = createCodec("Byte", (BinaryWriter out, Byte v) -> out.writeByte(v), BinaryReader::readByte);
+    private static final BinaryCodec<Short> SHORT = createCodec("Short", (BinaryWriter out, Short v) -> out.writeVarInt(v), in -> (short) in.readVarInt());
+    private static final BinaryCodec<Character> CHARACTER = createCodec("Character", (BinaryWriter out, Character v) -> out.writeUnsignedVarInt(v), in -> (char) in.readUnsignedVarInt());
+    private static final BinaryCodec<Integer> INTEGER = createCodec("Integer", BinaryWriter::writeVarInt, BinaryReader::readVarInt);
+    private static final BinaryCodec<Long> LONG = createCodec("Long", BinaryWriter::writeVarLong, BinaryReader::readVarLong);
+    private static final BinaryCodec<Float> FLOAT = createCodec("Float", BinaryWriter::writeFloat, BinaryReader::readFloat);
+    private static final BinaryCodec<Double> DOUBLE = createCodec("Double", BinaryWriter::writeDouble, BinaryReader::readDouble);
+    private static final BinaryCodec<byte[]> BYTE_ARRAY = createCodec("byte[]", BinaryWriter::writeBytes, BinaryReader::readBytes);
+
+    private static final Map<Class<?>, BinaryCodec<?>> STANDARD_CODECS;
+
+    static {
+        Map<Class<?>, BinaryCodec<?>> codecs = new HashMap<>();
+        codecs.put(String.class, STRING);
+        codecs.put(Boolean.class, BOOLEAN);
+        codecs.put(boolean.class, BOOLEAN);
+        codecs.put(Byte.class, BYTE);
+        codecs.put(byte.class, BYTE);
+        codecs.put(Short.class, SHORT);
+        codecs.put(short.class, SHORT);
+        codecs.put(Character.class, CHARACTER);
+        codecs.put(char.class, CHARACTER);
+        codecs.put(Integer.class, INTEGER);
+        codecs.put(int.class, INTEGER);
+        codecs.put(Long.class, LONG);
+        codecs.put(long.class, LONG);
+        codecs.put(Float.class, FLOAT);
+        codecs.put(float.class, FLOAT);
+        codecs.put(Double.class, DOUBLE);
+        codecs.put(double.class, DOUBLE);
+        codecs.put(byte[].class, BYTE_ARRAY);
+        STANDARD_CODECS = Map.copyOf(codecs);
+    }
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<BinaryCodec<?>> DERIVED_CODECS = new ClassValue<>() {
+        @Override
+        protected BinaryCodec<?> computeValue(Class<?> cls) {
+            return createDerivedCodec(cls, LOOKUP);
+        }
+    };
+
+    private BinaryCodecs() {
+        // utility class
+    }
+
+    /**
+     * Functional interface for the encoding part of a {@link BinaryCodec}.
+     *
+     * @param <T> the object type
+     */
+    @FunctionalInterface
+    public interface BinaryEncoder<T> {
+        /**
+         * Write an instance to a writer.
+         *
+         * @param out   the writer
+         * @param value the instance to write
+         */
+        void encode(BinaryWriter out, T value);
+    }
+
+    /**
+     * Functional interface for the decoding part of a {@link BinaryCodec}.
+     *
+     * @param <T> the object type
+     */
+    @FunctionalInterface
+    public interface BinaryDecoder<T> {
+        /**
+         * Read an instance from a reader.
+         *
+         * @param in the reader
+         * @return the instance read
+         * @throws IOException if the data is truncated or invalid
+         */
+        T decode(BinaryReader in) throws IOException;
+    }
+
+    /**
+     * Create a new codec from an encoder and a decoder.
+     *
+     * @param name the codec name
+     * @param enc  the encoder
+     * @param dec  the decoder
+     * @param <T>  the object type
+     * @return the new codec
+     */
+    public static <T> BinaryCodec<T> createCodec(String name, BinaryEncoder<? super T> enc, BinaryDecoder<? extends T> dec) {
+        return new BinaryCodec<>() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void encode(BinaryWriter out, T value) {
+                enc.encode(out, value);
+            }
+
+            @Override
+            public T decode(BinaryReader in) throws IOException {
+                return dec.decode(in);
+            }
+
+            @Override
+            public String toString() {
+                return "BinaryCodec(" + name + ")";
+            }
+        };
+    }
+
+    /**
+     * Get the codec for a class.
+     * <p>
+     * Codecs are available for primitive types and their wrappers, {@link String}, {@code byte[]}, enums, and
+     * records whose components have supported types. Codecs for records are created using reflection on first use
+     * and cached; the record class and its canonical constructor must be accessible to this module. Use
+     * {@link #recordCodec(Class, MethodHandles.Lookup)} for records that are not.
+     *
+     * @param cls the class
+     * @param <T> the object type
+     * @return the codec
+     * @throws IllegalArgumentException if no codec can be provided for the class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BinaryCodec<T> forClass(Class<T> cls) {
+        BinaryCodec<?> codec = STANDARD_CODECS.get(cls);
+        return (BinaryCodec<T>) (codec != null ? codec : DERIVED_CODECS.get(cls));
+    }
+
+    /**
+     * Create a codec for a record class, using the given lookup to access the record's accessors and canonical
+     * constructor.
+     * <p>
+     * Use this method for records that are not accessible to this module, passing {@code MethodHandles.lookup()}
+     * from the module that declares the record.
+     *
+     * @param cls    the record class
+     * @param lookup the lookup used to access the record class
+     * @param <R>    the record type
+     * @return the codec
+     * @throws IllegalArgumentException if the record has components of unsupported types
+     */
+    public static <R extends Record> BinaryCodec<R> recordCodec(Class<R> cls, MethodHandles.Lookup lookup) {
+        return new RecordCodec<>(cls, lookup);
+    }
+
+    /**
+     * Create a codec for a collection. Collection elements must not be {@code null}.
+     *
+     * @param <T>       the type of collection elements
+     * @param <C>       the collection type
+     * @param name      the codec name
+     * @param codec     the element codec
+     * @param construct collection factory method that is passed the number of elements
+     * @return collection codec
+     */
+    public static <T, C extends Collection<T>> BinaryCodec<C> collectionCodec(String name, BinaryCodec<T> codec, IntFunction<? extends C> construct) {
+        return createCodec(
+                name,
+                (BinaryWriter out, C collection) -> {
+                    out.writeUnsignedVarInt(collection.size());
+                    for (T item : collection) {
+                        codec.encode(out, Objects.requireNonNull(item, "null values in collections are not supported"));
+                    }
+                },
+                (BinaryReader in) -> {
+                    int n = in.readLength(1);
+                    C collection = construct.apply(n);
+                    for (int i = 0; i < n; i++) {
+                        collection.add(codec.decode(in));
+                    }
+                    return collection;
+                }
+        );
+    }
+
+    /**
+     * Create a codec for a map. Keys and values must not be {@code null}.
+     *
+     * @param <K>       the key type
+     * @param <V>       the value type
+     * @param <M>       the map type
+     * @param codecK    the key codec
+     * @param codecV    the value codec
+     * @param construct map factory method that is passed the number of entries
+     * @return map codec
+     */
+    public static <K, V, M extends Map<K, V>> BinaryCodec<M> mapCodec(BinaryCodec<K> codecK, BinaryCodec<V> codecV, IntFunction<? extends M> construct) {
+        return createCodec(
+                Map.class.getCanonicalName() + "<" + codecK.name() + "," + codecV.name() + ">",
+                (BinaryWriter out, M map) -> {
+                    out.writeUnsignedVarInt(map.size());
+                    for (Map.Entry<K, V> entry : map.entrySet()) {
+                        codecK.encode(out, Objects.requireNonNull(entry.getKey(), "null keys in maps are not supported"));
+                        codecV.encode(out, Objects.requireNonNull(entry.getValue(), "null values in maps are not supported"));
+                    }
+                },
+                (BinaryReader in) -> {
+                    int n = in.readLength(2);
+                    M map = construct.apply(n);
+                    for (int i = 0; i < n; i++) {
+                        map.put(codecK.decode(in), codecV.decode(in));
+                    }
+                    return map;
+                }
+        );
+    }
+
+    /**
+     * Create a codec for values that may be {@code null}, prefixing each value with a presence flag.
+     *
+     * @param codec the codec for non-null values
+     * @param <T>   the object type
+     * @return a codec accepting {@code null} values
+     */
+    public static <T> BinaryCodec<@Nullable T> nullable(BinaryCodec<T> codec) {
+        return createCodec(
+                codec.name() + "?",
+                (BinaryWriter out, @Nullable T value) -> {
+                    out.writeBoolean(value != null);
+                    if (value != null) {
+                        codec.encode(out, value);
+                    }
+                },
+                (BinaryReader in) -> in.readBoolean() ? codec.decode(in) : null
+        );
+    }
+
+    /**
+     * Create a codec for {@link Optional} values.
+     *
+     * @param codec the codec for present values
+     * @param <T>   the object type
+     * @return the codec
+     */
+    public static <T> BinaryCodec<Optional<T>> optionalCodec(BinaryCodec<T> codec) {
+        return createCodec(
+                Optional.class.getCanonicalName() + "<" + codec.name() + ">",
+                (BinaryWriter out, Optional<T> value) -> {
+                    out.writeBoolean(value.isPresent());
+                    value.ifPresent(v -> codec.encode(out, v));
+                },
+                (BinaryReader in) -> in.readBoolean() ? Optional.of(codec.decode(in)) : Optional.empty()
+        );
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static BinaryCodec<?> createDerivedCodec(Class<?> cls, MethodHandles.Lookup lookup) {
+        if (cls.isEnum()) {
+            return enumCodec((Class) cls);
+        }
+        if (cls.isRecord()) {
+            return new RecordCodec<>((Class) cls, lookup);
+        }
+        throw new IllegalArgumentException("no binary codec available for " + cls.getName());
+    }
+
+    private static <E extends Enum<E>> BinaryCodec<E> enumCodec(Class<E> cls) {
+        E[] constants = cls.getEnumConstants();
+        return createCodec(
+                cls.getName(),
+                (BinaryWriter out, E value) -> out.writeUnsignedVarInt(value.ordinal()),
+                (BinaryReader in) -> {
+                    int ordinal = in.readUnsignedVarInt();
+                    if (ordinal < 0 || ordinal >= constants.length) {
+                        throw new IOException("invalid ordinal for " + cls.getName() + ": " + ordinal);
+                    }
+                    return constants[ordinal];
+                }
+        );
+    }
+
+    /**
+     * Get the codec for a generic type as it appears in a record component declaration.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static BinaryCodec<?> forType(Type type, MethodHandles.Lookup lookup) {
+        if (type instanceof Class<?> cls) {
+            BinaryCodec<?> codec = STANDARD_CODECS.get(cls);
+            if (codec != null) {
+                return codec;
+            }
+            return lookup == LOOKUP ? DERIVED_CODECS.get(cls) : createDerivedCodec(cls, lookup);
+        }
+
+        if (type instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> raw) {
+            Type[] args = pt.getActualTypeArguments();
+            String name = type.getTypeName();
+            if (raw == Optional.class) {
+                return optionalCodec(forType(args[0], lookup));
+            }
+            if (raw == List.class || raw == Collection.class) {
+                return collectionCodec(name, forType(args[0], lookup), ArrayList::new);
+            }
+            if (raw == Set.class) {
+                return collectionCodec(name, forType(args[0], lookup), n -> LinkedHashSet.newLinkedHashSet(n));
+            }
+            if (raw == SortedSet.class || raw == NavigableSet.class) {
+                return collectionCodec(name, forType(args[0], lookup), n -> new TreeSet());
+            }
+            if (raw == Map.class) {
+                return mapCodec(forType(args[0], lookup), forType(args[1], lookup), n -> LinkedHashMap.newLinkedHashMap(n));
+            }
+            if (raw == SortedMap.class || raw == NavigableMap.class) {
+                return mapCodec(forType(args[0], lookup), forType(args[1], lookup), n -> new TreeMap());
+            }
+        }
+
+        throw new IllegalArgumentException("no binary codec available for " + type.getTypeName());
+    }
+
+    /**
+     * A codec for records that encodes the record components in declaration order.
+     * <p>
+     * The component codecs are resolved on first use so that records can refer to themselves.
+     *
+     * @param <R> the record type
+     */
+    private static final class RecordCodec<R extends Record> implements BinaryCodec<R> {
+        private final Class<R> cls;
+        private final MethodHandles.Lookup lookup;
+        private volatile @Nullable Components components;
+
+        private record Components(MethodHandle[] accessors, BinaryCodec<Object>[] codecs, MethodHandle constructor) {}
+
+        RecordCodec(Class<R> cls, MethodHandles.Lookup lookup) {
+            LangUtil.checkArg(cls.isRecord(), "not a record class: %s", cls.getName());
+            this.cls = cls;
+            this.lookup = lookup;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Components components() {
+            Components c = components;
+            if (c == null) {
+                RecordComponent[] recordComponents = cls.getRecordComponents();
+                int n = recordComponents.length;
+                MethodHandle[] accessors = new MethodHandle[n];
+                BinaryCodec<Object>[] codecs = new BinaryCodec[n];
+                Class<?>[] types = new Class<?>[n];
+                try {
+                    for (int i = 0; i < n; i++) {
+                        RecordComponent rc = recordComponents[i];
+                        types[i] = rc.getType();
+                        accessors[i] = lookup.unreflect(rc.getAccessor())
+                                .asType(MethodType.methodType(Object.class, Object.class));
+                        BinaryCodec<Object> codec = (BinaryCodec<Object>) (rc.getGenericType() == cls ? this : forType(rc.getGenericType(), lookup));
+                        codecs[i] = rc.getType().isPrimitive() ? codec : (BinaryCodec<Object>) (BinaryCodec<?>) nullable(codec);
+                    }
+                    MethodHandle constructor = lookup.findConstructor(cls, MethodType.methodType(void.class, types))
+                            .asSpreader(Object[].class, n)
+                            .asType(MethodType.methodType(Object.class, Object[].class));
+                    c = new Components(accessors, codecs, constructor);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalArgumentException("cannot access record class " + cls.getName(), e);
+                }
+                components = c;
+            }
+            return c;
+        }
+
+        @Override
+        public String name() {
+            return cls.getName();
+        }
+
+        @Override
+        public void encode(BinaryWriter out, R value) {
+            Components c = components();
+            MethodHandle[] accessors = c.accessors();
+            BinaryCodec<Object>[] codecs = c.codecs();
+            for (int i = 0; i < accessors.length; i++) {
+                Object componentValue;
+                try {
+                    componentValue = accessors[i].invokeExact((Object) value);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException("record accessor failed", t);
+                }
+                codecs[i].encode(out, componentValue);
+            }
+        }
+
+        @Override
+        public R decode(BinaryReader in) throws IOException {
+            Components c = components();
+            BinaryCodec<Object>[] codecs = c.codecs();
+            Object[] args = new Object[codecs.length];
+            for (int i = 0; i < codecs.length; i++) {
+                args[i] = codecs[i].decode(in);
+            }
+            try {
+                return cls.cast(c.constructor().invokeExact(args));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IOException("invalid data for record " + cls.getName(), e);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("record constructor failed", t);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "BinaryCodec(" + cls.getName() + ")";
+        }
+    }
+}
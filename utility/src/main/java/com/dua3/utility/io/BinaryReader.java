@@ -0,0 +1,221 @@
+package com.dua3.utility.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads data written by a {@link BinaryWriter} from a {@link ByteBuffer}.
+ * <p>
+ * Reading starts at the buffer's position. The buffer itself is not modified; {@link BinaryCodec#decode(ByteBuffer)}
+ * advances its position past the decoded data.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class BinaryReader {
+    private final ByteBuffer source;
+    private final ByteBuffer buffer;
+
+    /**
+     * Constructs a reader for the remaining data of a buffer.
+     *
+     * @param buffer the buffer
+     */
+    public BinaryReader(ByteBuffer buffer) {
+        this.source = buffer;
+        this.buffer = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Constructs a reader for an array.
+     *
+     * @param data the data
+     */
+    public BinaryReader(byte[] data) {
+        this(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Get the number of bytes that have not been read yet.
+     *
+     * @return the number of remaining bytes
+     */
+    public int remaining() {
+        return buffer.remaining();
+    }
+
+    /**
+     * Advance the position of the buffer passed to the constructor to the current read position.
+     */
+    void commitPosition() {
+        source.position(source.position() + buffer.position());
+    }
+
+    private void require(int n) throws EOFException {
+        if (buffer.remaining() < n) {
+            throw new EOFException("unexpected end of data: " + n + " bytes required, " + buffer.remaining() + " available");
+        }
+    }
+
+    /**
+     * Read a single byte.
+     *
+     * @return the byte
+     * @throws IOException if no data is available
+     */
+    public byte readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    /**
+     * Read a boolean value.
+     *
+     * @return the value
+     * @throws IOException if no data is available or the data is invalid
+     */
+    public boolean readBoolean() throws IOException {
+        return switch (readByte()) {
+            case 0 -> false;
+            case 1 -> true;
+            default -> throw new IOException("invalid boolean value");
+        };
+    }
+
+    /**
+     * Read an unsigned variable-length int value.
+     *
+     * @return the value
+     * @throws IOException if no data is available or the data is invalid
+     */
+    public int readUnsignedVarInt() throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = readByte();
+            v |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+        throw new IOException("malformed variable-length int");
+    }
+
+    /**
+     * Read an unsigned variable-length long value.
+     *
+     * @return the value
+     * @throws IOException if no data is available or the data is invalid
+     */
+    public long readUnsignedVarLong() throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = readByte();
+            v |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+        throw new IOException("malformed variable-length long");
+    }
+
+    /**
+     * Read a zigzag-encoded variable-length int value.
+     *
+     * @return the value
+     * @throws IOException if no data is available or the data is invalid
+     */
+    public int readVarInt() throws IOException {
+        int v = readUnsignedVarInt();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Read a zigzag-encoded variable-length long value.
+     *
+     * @return the value
+     * @throws IOException if no data is available or the data is invalid
+     */
+    public long readVarLong() throws IOException {
+        long v = readUnsignedVarLong();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Read a length written by {@link BinaryWriter#writeUnsignedVarInt(int)} and check it against the remaining data.
+     *
+     * @param minBytesPerElement the minimum number of bytes each element takes
+     * @return the length
+     * @throws IOException if the length is negative or larger than the remaining data allows
+     */
+    public int readLength(int minBytesPerElement) throws IOException {
+        int n = readUnsignedVarInt();
+        if (n < 0) {
+            throw new IOException("invalid length: " + n);
+        }
+        if ((long) n * minBytesPerElement > buffer.remaining()) {
+            throw new EOFException("unexpected end of data: length " + n + " exceeds remaining data");
+        }
+        return n;
+    }
+
+    /**
+     * Read a float value.
+     *
+     * @return the value
+     * @throws IOException if no data is available
+     */
+    public float readFloat() throws IOException {
+        require(4);
+        return buffer.getFloat();
+    }
+
+    /**
+     * Read a double value.
+     *
+     * @return the value
+     * @throws IOException if no data is available
+     */
+    public double readDouble() throws IOException {
+        require(8);
+        return buffer.getDouble();
+    }
+
+    /**
+     * Read length-prefixed UTF-8 text.
+     *
+     * @return the text
+     * @throws IOException if no data is available or the data is invalid
+     */
+    public String readString() throws IOException {
+        int n = readLength(1);
+        String s;
+        if (buffer.hasArray()) {
+            s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), n, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + n);
+        } else {
+            byte[] b = new byte[n];
+            buffer.get(b);
+            s = new String(b, StandardCharsets.UTF_8);
+        }
+        return s;
+    }
+
+    /**
+     * Read a length-prefixed byte array.
+     *
+     * @return the data
+     * @throws IOException if no data is available or the data is invalid
+     */
+    public byte[] readBytes() throws IOException {
+        byte[] b = new byte[readLength(1)];
+        buffer.get(b);
+        return b;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(remaining=" + buffer.remaining() + ")";
+    }
+}
@@ -0,0 +1,282 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.lang.ResourcePool;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable in-memory buffer that {@link BinaryCodec} instances encode into.
+ * <p>
+ * Integers and lengths are written as variable-length integers (LEB128, signed values zigzag-encoded), text is written
+ * as length-prefixed UTF-8, and floating point values are written in big-endian byte order.
+ * <p>
+ * Writers used by {@link BinaryCodec#encode(Object)} and {@link BinaryCodec#encode(Object, WritableByteChannel)} are
+ * taken from a shared pool so that their buffers are reused between calls.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class BinaryWriter {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+    private static final int MAX_POOLED_WRITERS = 4 * Runtime.getRuntime().availableProcessors();
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final ResourcePool<BinaryWriter> POOL = ResourcePool.newFixedSizeResourcePool(
+            BinaryWriter::new, BinaryWriter::release, MAX_POOLED_WRITERS
+    );
+
+    private byte[] buf;
+    private int pos;
+
+    /**
+     * Constructs a new, empty writer.
+     */
+    public BinaryWriter() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty writer.
+     *
+     * @param initialCapacity the initial capacity of the buffer in bytes
+     */
+    public BinaryWriter(int initialCapacity) {
+        this.buf = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Acquire a pooled writer. The returned lease may be {@code null} when all pooled writers are in use.
+     *
+     * @return a lease for a pooled writer, or {@code null}
+     */
+    static ResourcePool.@Nullable Lease<BinaryWriter> acquire() {
+        return POOL.tryAcquire();
+    }
+
+    private void release() {
+        pos = 0;
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Discard the data written so far.
+     */
+    public void reset() {
+        pos = 0;
+    }
+
+    /**
+     * Get the number of bytes written.
+     *
+     * @return the number of bytes written since construction or the last {@link #reset()}
+     */
+    public int size() {
+        return pos;
+    }
+
+    private void ensureCapacity(int n) {
+        if (buf.length - pos < n) {
+            int required = Math.addExact(pos, n);
+            buf = Arrays.copyOf(buf, Math.max(required, buf.length < (1 << 30) ? 2 * buf.length : Integer.MAX_VALUE - 8));
+        }
+    }
+
+    /**
+     * Write a single byte.
+     *
+     * @param b the byte
+     */
+    public void writeByte(int b) {
+        ensureCapacity(1);
+        buf[pos++] = (byte) b;
+    }
+
+    /**
+     * Write a boolean value as a single byte.
+     *
+     * @param b the value
+     */
+    public void writeBoolean(boolean b) {
+        writeByte(b ? 1 : 0);
+    }
+
+    /**
+     * Write a non-negative int value, for example a length, as a variable-length integer.
+     * <p>
+     * Values are treated as unsigned; negative values always take five bytes.
+     *
+     * @param v the value
+     */
+    public void writeUnsignedVarInt(int v) {
+        ensureCapacity(5);
+        while ((v & ~0x7f) != 0) {
+            buf[pos++] = (byte) ((v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte) v;
+    }
+
+    /**
+     * Write a non-negative long value as a variable-length integer.
+     * <p>
+     * Values are treated as unsigned; negative values always take ten bytes.
+     *
+     * @param v the value
+     */
+    public void writeUnsignedVarLong(long v) {
+        ensureCapacity(10);
+        while ((v & ~0x7fL) != 0) {
+            buf[pos++] = (byte) ((v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte) v;
+    }
+
+    /**
+     * Write an int value as a zigzag-encoded variable-length integer, so that values with a small magnitude take
+     * few bytes regardless of their sign.
+     *
+     * @param v the value
+     */
+    public void writeVarInt(int v) {
+        writeUnsignedVarInt((v << 1) ^ (v >> 31));
+    }
+
+    /**
+     * Write a long value as a zigzag-encoded variable-length integer.
+     *
+     * @param v the value
+     */
+    public void writeVarLong(long v) {
+        writeUnsignedVarLong((v << 1) ^ (v >> 63));
+    }
+
+    /**
+     * Write a float value as four bytes.
+     *
+     * @param v the value
+     */
+    public void writeFloat(float v) {
+        ensureCapacity(4);
+        INT.set(buf, pos, Float.floatToRawIntBits(v));
+        pos += 4;
+    }
+
+    /**
+     * Write a double value as eight bytes.
+     *
+     * @param v the value
+     */
+    public void writeDouble(double v) {
+        ensureCapacity(8);
+        LONG.set(buf, pos, Double.doubleToRawLongBits(v));
+        pos += 8;
+    }
+
+    /**
+     * Write text as UTF-8, prefixed with the encoded length in bytes.
+     *
+     * @param s the text
+     */
+    public void writeString(String s) {
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            if (s.charAt(i) >= 0x80) {
+                writeBytes(s.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+        }
+
+        // ASCII only: one byte per character, no intermediate array needed
+        writeUnsignedVarInt(n);
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            buf[pos + i] = (byte) s.charAt(i);
+        }
+        pos += n;
+    }
+
+    /**
+     * Write a byte array, prefixed with its length.
+     *
+     * @param b the data
+     */
+    public void writeBytes(byte[] b) {
+        writeUnsignedVarInt(b.length);
+        writeRaw(b, 0, b.length);
+    }
+
+    /**
+     * Write bytes without a length prefix.
+     *
+     * @param b   the array holding the data
+     * @param off the offset of the data
+     * @param len the number of bytes to write
+     */
+    public void writeRaw(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, buf, pos, len);
+        pos += len;
+    }
+
+    /**
+     * Get a copy of the data written.
+     *
+     * @return a new array containing the data
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    /**
+     * Get a read-only view of the data written.
+     * <p>
+     * The view is only valid until the writer is modified.
+     *
+     * @return a read-only buffer containing the data
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(buf, 0, pos).asReadOnlyBuffer();
+    }
+
+    /**
+     * Write the data to a channel.
+     *
+     * @param channel the channel
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(buf, 0, pos);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Write the data to an output stream.
+     *
+     * @param out the output stream
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, pos);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(size=" + pos + ")";
+    }
+}
@@ -0,0 +1,486 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.data.Cache;
+import com.dua3.utility.lang.LangUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * A read-through caching view of a {@link ReadableObjectStore}.
+ * <p>
+ * The store keeps the bytes of recently read data objects and the results of {@link #getInfo(URI)} and
+ * {@link #list(URI)} in bounded caches. Concurrent requests for an object that is not cached result in a single
+ * request to the delegate. Objects larger than the configured maximum object size are not cached and are always read
+ * from the delegate.
+ * <p>
+ * Cached entries can be invalidated in two ways:
+ * <ul>
+ *     <li>a time-to-live ({@link Builder#expireAfterWrite(Duration)}) after which all entries are reloaded, and
+ *     <li>last-modified validation ({@link Builder#validateLastModified(Duration)}) that compares cached data and
+ *     folder listings against the last modification time reported by the delegate before they are used.
+ * </ul>
+ * Note that a folder listing is only validated against the last modification time of the folder itself. Many stores
+ * do not update that time when an existing child object is overwritten, so a cached listing may report outdated
+ * sizes and modification times of its children until it expires or is invalidated.
+ * <p>
+ * Entries can also be invalidated explicitly by calling {@link #invalidate(URI)} or {@link #invalidateAll()}.
+ * <p>
+ * Use {@link #getStats()} to determine hit rates and evictions when sizing the cache.
+ * <p>
+ * Closing this store releases the cached data but does not close the delegate.
+ */
+public final class CachingObjectStore implements ReadableObjectStore {
+
+    private final ReadableObjectStore delegate;
+    private final long maximumObjectSize;
+    private final long validationIntervalNanos;
+    private final LongSupplier ticker;
+    private final Cache<URI, Content> dataCache;
+    private final @Nullable Cache<URI, Optional<ObjectStore.ObjectInfo>> infoCache;
+    private final Cache<URI, Listing> listCache;
+    private final LongAdder validationCount = new LongAdder();
+    private final LongAdder staleCount = new LongAdder();
+
+    private CachingObjectStore(ReadableObjectStore delegate, Builder builder) {
+        this.delegate = delegate;
+        this.maximumObjectSize = builder.maximumObjectSize;
+        this.validationIntervalNanos = builder.validationInterval == null ? -1 : builder.validationInterval.toNanos();
+        this.ticker = builder.ticker;
+
+        Cache.Builder<URI, Content> dataBuilder = Cache.<URI, Content>builder()
+                .maximumWeight(builder.maximumWeight, (uri, content) -> content.weight())
+                .ticker(ticker);
+        Cache.Builder<URI, Listing> listBuilder = Cache.<URI, Listing>builder()
+                .maximumSize(builder.maximumMetadataEntries)
+                .ticker(ticker);
+        Cache.Builder<URI, Optional<ObjectStore.ObjectInfo>> infoBuilder = Cache.<URI, Optional<ObjectStore.ObjectInfo>>builder()
+                .maximumSize(builder.maximumMetadataEntries)
+                .ticker(ticker);
+
+        if (builder.timeToLive != null) {
+            dataBuilder.expireAfterWrite(builder.timeToLive);
+            listBuilder.expireAfterWrite(builder.timeToLive);
+        }
+
+        // object info cannot be validated without querying the delegate, so with last-modified validation
+        // info entries are kept for the validation interval
+        Duration infoTimeToLive = builder.validationInterval == null
+                ? builder.timeToLive
+                : builder.timeToLive == null || builder.validationInterval.compareTo(builder.timeToLive) < 0
+                ? builder.validationInterval
+                : builder.timeToLive;
+        if (infoTimeToLive == null) {
+            this.infoCache = infoBuilder.build(this::loadInfo);
+        } else if (infoTimeToLive.isPositive()) {
+            this.infoCache = infoBuilder.expireAfterWrite(infoTimeToLive).build(this::loadInfo);
+        } else {
+            this.infoCache = null;
+        }
+
+        this.dataCache = dataBuilder.build(this::loadContent);
+        this.listCache = listBuilder.build(this::loadListing);
+    }
+
+    /**
+     * Create a new {@link Builder}.
+     *
+     * @return a new builder instance
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public URI getRoot() {
+        return delegate.getRoot();
+    }
+
+    @Override
+    public Stream<ObjectStore.ObjectInfo> list(URI path) throws IOException {
+        URI key = key(path);
+        Listing listing = get(listCache, key);
+        if (isValidationDue(listing.validated)) {
+            validationCount.increment();
+            Optional<ObjectStore.ObjectInfo> info = delegate.getInfo(key);
+            if (info.isEmpty() || !info.get().lastModified().equals(listing.lastModified)) {
+                staleCount.increment();
+                listCache.invalidate(key);
+                listing = get(listCache, key);
+            } else {
+                listing.validated = ticker.getAsLong();
+            }
+        }
+        return listing.entries.stream();
+    }
+
+    @Override
+    public Optional<ObjectStore.ObjectInfo> getInfo(URI path) throws IOException {
+        URI key = key(path);
+        return infoCache == null ? delegate.getInfo(key) : get(infoCache, key);
+    }
+
+    @Override
+    public InputStream openInputStream(URI path) throws IOException {
+        URI key = key(path);
+        byte[] data = getContent(key).data;
+        return data == null ? delegate.openInputStream(key) : new ByteArrayInputStream(data);
+    }
+
+    @Override
+    public ReadableByteChannel openReadableByteChannel(URI path) throws IOException {
+        URI key = key(path);
+        byte[] data = getContent(key).data;
+        return data == null ? delegate.openReadableByteChannel(key) : Channels.newChannel(new ByteArrayInputStream(data));
+    }
+
+    @Override
+    public byte[] readAllBytes(URI path) throws IOException {
+        URI key = key(path);
+        byte[] data = getContent(key).data;
+        return data == null ? delegate.readAllBytes(key) : data.clone();
+    }
+
+    @Override
+    public long transferTo(URI path, OutputStream out) throws IOException {
+        URI key = key(path);
+        byte[] data = getContent(key).data;
+        if (data == null) {
+            return delegate.transferTo(key, out);
+        }
+        out.write(data);
+        return data.length;
+    }
+
+    @Override
+    public long transferTo(URI path, WritableByteChannel out) throws IOException {
+        URI key = key(path);
+        byte[] data = getContent(key).data;
+        if (data == null) {
+            return delegate.transferTo(key, out);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        return data.length;
+    }
+
+    @Override
+    public ByteBuffer map(URI path) throws IOException {
+        URI key = key(path);
+        byte[] data = getContent(key).data;
+        return data == null ? delegate.map(key) : ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    /**
+     * Remove all cached data for the given path.
+     *
+     * @param path the path
+     */
+    public void invalidate(URI path) {
+        URI key = path.normalize();
+        dataCache.invalidate(key);
+        listCache.invalidate(key);
+        if (infoCache != null) {
+            infoCache.invalidate(key);
+        }
+    }
+
+    /**
+     * Remove all cached data.
+     */
+    public void invalidateAll() {
+        dataCache.invalidateAll();
+        listCache.invalidateAll();
+        if (infoCache != null) {
+            infoCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Get the cache statistics.
+     *
+     * @return snapshot of the statistics for this store
+     */
+    public Stats getStats() {
+        return new Stats(
+                dataCache.getStats(),
+                infoCache == null ? new Cache.Stats(0, 0, 0, 0, 0) : infoCache.getStats(),
+                listCache.getStats(),
+                validationCount.sum(),
+                staleCount.sum(),
+                dataCache.size()
+        );
+    }
+
+    /**
+     * Closes this store and releases the cached data. The delegate is not closed.
+     */
+    @Override
+    public void close() {
+        invalidateAll();
+    }
+
+    @Override
+    public String toString() {
+        return "CachingObjectStore(" + delegate + ")";
+    }
+
+    private static URI key(URI path) throws IllegalPathException {
+        if (path.isAbsolute()) {
+            throw new AbsolutePathException("absolute path not allowed: " + path);
+        }
+        return path.normalize();
+    }
+
+    private Content getContent(URI key) throws IOException {
+        Content content = get(dataCache, key);
+        if (content.data == null) {
+            // the object is too large to be cached, do not keep the placeholder
+            dataCache.invalidate(key);
+            return content;
+        }
+        if (isValidationDue(content.validated)) {
+            validationCount.increment();
+            Optional<ObjectStore.ObjectInfo> info = delegate.getInfo(key);
+            if (info.isEmpty() || !info.get().lastModified().equals(content.lastModified) || info.get().size() != content.size) {
+                staleCount.increment();
+                invalidate(key);
+                content = get(dataCache, key);
+            } else {
+                content.validated = ticker.getAsLong();
+            }
+        }
+        return content;
+    }
+
+    private boolean isValidationDue(long validated) {
+        return validationIntervalNanos >= 0 && ticker.getAsLong() - validated >= validationIntervalNanos;
+    }
+
+    private static <V> V get(Cache<URI, V> cache, URI key) throws IOException {
+        try {
+            return cache.get(key);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Content loadContent(URI key) {
+        try {
+            ObjectStore.ObjectInfo info = delegate.getInfo(key)
+                    .orElseThrow(() -> new ObjectNotFoundException(key.toString()));
+            if (info.type() != ObjectStore.ObjectType.DATA) {
+                throw new IOException("Not a data object: " + key);
+            }
+
+            long now = ticker.getAsLong();
+            if (info.size() > maximumObjectSize) {
+                return new Content(null, info.lastModified(), info.size(), now);
+            }
+
+            byte[] data;
+            try (InputStream in = delegate.openInputStream(key)) {
+                data = in.readNBytes((int) Math.min(maximumObjectSize + 1, Integer.MAX_VALUE - 8));
+            }
+            if (data.length > maximumObjectSize) {
+                return new Content(null, info.lastModified(), info.size(), now);
+            }
+            return new Content(data, info.lastModified(), info.size(), now);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Optional<ObjectStore.ObjectInfo> loadInfo(URI key) {
+        try {
+            return delegate.getInfo(key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Listing loadListing(URI key) {
+        try {
+            long now = ticker.getAsLong();
+            Instant lastModified = delegate.getInfo(key).map(ObjectStore.ObjectInfo::lastModified).orElse(Instant.MIN);
+            List<ObjectStore.ObjectInfo> entries;
+            try (Stream<ObjectStore.ObjectInfo> stream = delegate.list(key)) {
+                entries = stream.toList();
+            }
+            return new Listing(entries, lastModified, now);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A cached data object; {@code data} is {@code null} if the object is too large to be cached.
+     */
+    private static final class Content {
+        final byte @Nullable [] data;
+        final Instant lastModified;
+        final long size;
+        volatile long validated;
+
+        Content(byte @Nullable [] data, Instant lastModified, long size, long validated) {
+            this.data = data;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.validated = validated;
+        }
+
+        long weight() {
+            return data == null ? 0 : data.length;
+        }
+    }
+
+    /**
+     * A cached folder listing.
+     */
+    private static final class Listing {
+        final List<ObjectStore.ObjectInfo> entries;
+        final Instant lastModified;
+        volatile long validated;
+
+        Listing(List<ObjectStore.ObjectInfo> entries, Instant lastModified, long validated) {
+            this.entries = entries;
+            this.lastModified = lastModified;
+            this.validated = validated;
+        }
+    }
+
+    /**
+     * Cache statistics.
+     *
+     * @param data            statistics of the cache holding object data
+     * @param info            statistics of the cache holding the results of {@link #getInfo(URI)}
+     * @param list            statistics of the cache holding folder listings
+     * @param validationCount the number of times a cached entry was validated against the delegate
+     * @param staleCount      the number of validations that found a cached entry to be out of date
+     * @param dataEntries     the number of data objects currently cached
+     */
+    public record Stats(Cache.Stats data, Cache.Stats info, Cache.Stats list,
+                        long validationCount, long staleCount, int dataEntries) {}
+
+    /**
+     * Builder for {@link CachingObjectStore} instances.
+     */
+    public static final class Builder {
+        private long maximumWeight = 64L * 1024 * 1024;
+        private long maximumObjectSize = 1024L * 1024;
+        private long maximumMetadataEntries = 10_000;
+        private @Nullable Duration timeToLive;
+        private @Nullable Duration validationInterval;
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder() {}
+
+        /**
+         * Limit the total size of the cached object data. The default is 64 MiB.
+         *
+         * @param maximumBytes the maximum number of bytes to cache
+         * @return this builder
+         */
+        public Builder maximumBytes(long maximumBytes) {
+            LangUtil.checkArg(maximumBytes > 0, "maximumBytes must be positive: %d", maximumBytes);
+            this.maximumWeight = maximumBytes;
+            return this;
+        }
+
+        /**
+         * Set the size of the largest object to cache. Larger objects are always read from the delegate.
+         * The default is 1 MiB.
+         *
+         * @param maximumObjectSize the maximum object size in bytes
+         * @return this builder
+         */
+        public Builder maximumObjectSize(long maximumObjectSize) {
+            LangUtil.checkArg(maximumObjectSize >= 0, "maximumObjectSize must not be negative: %d", maximumObjectSize);
+            this.maximumObjectSize = maximumObjectSize;
+            return this;
+        }
+
+        /**
+         * Limit the number of cached {@code getInfo()} results and the number of cached folder listings.
+         * The default is 10,000 each.
+         *
+         * @param maximumMetadataEntries the maximum number of entries
+         * @return this builder
+         */
+        public Builder maximumMetadataEntries(long maximumMetadataEntries) {
+            LangUtil.checkArg(maximumMetadataEntries > 0, "maximumMetadataEntries must be positive: %d", maximumMetadataEntries);
+            this.maximumMetadataEntries = maximumMetadataEntries;
+            return this;
+        }
+
+        /**
+         * Discard cached entries a fixed time after they have been loaded.
+         *
+         * @param timeToLive the time after which entries are reloaded from the delegate
+         * @return this builder
+         */
+        public Builder expireAfterWrite(Duration timeToLive) {
+            LangUtil.checkArg(timeToLive.isPositive(), "timeToLive must be positive: %s", timeToLive);
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * Validate cached data and folder listings against the last modification time reported by the delegate.
+         * <p>
+         * An entry is validated before it is used if it has not been validated within the given interval. Use
+         * {@link Duration#ZERO} to validate on every access. Results of {@code getInfo()} are kept for the
+         * validation interval.
+         * <p>
+         * Folder listings are compared against the last modification time of the folder only; changes to the
+         * metadata of existing children are not detected if the delegate does not update the folder's time.
+         *
+         * @param interval the validation interval
+         * @return this builder
+         */
+        public Builder validateLastModified(Duration interval) {
+            LangUtil.checkArg(!interval.isNegative(), "interval must not be negative: %s", interval);
+            this.validationInterval = interval;
+            return this;
+        }
+
+        /**
+         * Set the time source, in nanoseconds, used for expiration and validation. Intended for testing.
+         *
+         * @param ticker the time source
+         * @return this builder
+         */
+        public Builder ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Create a caching view of a store.
+         *
+         * @param delegate the store to read from
+         * @return the caching store
+         */
+        public CachingObjectStore build(ReadableObjectStore delegate) {
+            return new CachingObjectStore(delegate, this);
+        }
+    }
+}
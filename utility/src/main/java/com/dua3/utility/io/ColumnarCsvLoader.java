@@ -0,0 +1,504 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.io.CsvColumns.Column;
+import com.dua3.utility.io.CsvColumns.ColumnType;
+import com.dua3.utility.lang.LangUtil;
+import com.dua3.utility.options.Arguments;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link CsvReader.FieldRowBuilder} that loads CSV data into column oriented storage.
+ * <p>
+ * The loader is configured with a schema that maps column names to {@link ColumnType column types}. Values are
+ * parsed directly from the reader's buffer and stored in primitive arrays, so that no {@code String} instances are
+ * created for numeric, boolean, and date columns. Text columns are dictionary encoded until the number of distinct
+ * values exceeds a limit.
+ * <p>
+ * Numbers are parsed in the locale independent format accepted by {@link Long#parseLong(String)} and
+ * {@link Double#parseDouble(String)}. Empty fields are treated as missing values, except in text columns.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * CsvColumns data = ColumnarCsvLoader.load(path, arguments, Map.of(
+ *         "id", ColumnType.LONG,
+ *         "price", ColumnType.DOUBLE,
+ *         "category", ColumnType.STRING
+ * ));
+ * double[] prices = data.getColumn("price", CsvColumns.DoubleColumn.class).toArray();
+ * }</pre>
+ */
+public final class ColumnarCsvLoader implements CsvReader.FieldRowBuilder {
+
+    /**
+     * The default maximum number of distinct values in a dictionary encoded text column.
+     */
+    public static final int DEFAULT_MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<String, ColumnType> schema;
+    private final DateTimeFormatter dateFormatter;
+    private final int maxDictionarySize;
+    private final List<ColumnBuilder> builders = new ArrayList<>();
+    /** The column builder for each column index in the input, or null if the column is not part of the schema. */
+    private @Nullable ColumnBuilder[] mapping = new ColumnBuilder[0];
+    private boolean bound = false;
+    private int column = 0;
+    private int rowCount = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param schema            map of column names to column types; the iteration order determines the column order
+     * @param dateFormatter     the formatter used to parse dates
+     * @param maxDictionarySize the maximum number of distinct values in a dictionary encoded text column
+     */
+    public ColumnarCsvLoader(Map<String, ColumnType> schema, DateTimeFormatter dateFormatter, int maxDictionarySize) {
+        LangUtil.checkArg(!schema.isEmpty(), "schema is empty");
+        LangUtil.checkArg(maxDictionarySize >= 0, "maxDictionarySize must not be negative: %d", maxDictionarySize);
+
+        this.schema = new LinkedHashMap<>(schema);
+        this.dateFormatter = dateFormatter;
+        this.maxDictionarySize = maxDictionarySize;
+    }
+
+    /**
+     * Constructor. Dates are expected in ISO format.
+     *
+     * @param schema map of column names to column types; the iteration order determines the column order
+     */
+    public ColumnarCsvLoader(Map<String, ColumnType> schema) {
+        this(schema, DateTimeFormatter.ISO_LOCAL_DATE, DEFAULT_MAX_DICTIONARY_SIZE);
+    }
+
+    /**
+     * Load a CSV file into column oriented storage.
+     * <p>
+     * If {@link CsvReader#READ_COLUMN_NAMES} is set, schema columns are matched by name against the column names read
+     * from the file, and columns not contained in the schema are skipped. Otherwise, the schema columns are assigned
+     * to the columns of the file in order. Dates are parsed using the date format configured in the arguments.
+     *
+     * @param path      the path to the CSV file
+     * @param arguments the arguments for configuring the CSV reader
+     * @param schema    map of column names to column types; the iteration order determines the column order
+     * @return the loaded data
+     * @throws IOException if an I/O error occurs, the data is not valid CSV, or a value cannot be parsed
+     * @throws IllegalArgumentException if a schema column is not contained in the column names read from the file
+     */
+    public static CsvColumns load(Path path, Arguments arguments, Map<String, ColumnType> schema) throws IOException {
+        DateTimeFormatter dateFormatter = arguments.getOrThrow(IoOptions.OPTION_DATE_TIME_FORMAT)
+                .getDateFormatter(arguments.getOrThrow(IoOptions.OPTION_LOCALE));
+        ColumnarCsvLoader loader = new ColumnarCsvLoader(schema, dateFormatter, DEFAULT_MAX_DICTIONARY_SIZE);
+        try (CsvReader reader = CsvReader.create(loader, path, arguments)) {
+            if (arguments.isSet(CsvReader.READ_COLUMN_NAMES)) {
+                loader.bind(reader.getColumnNames());
+            }
+            try {
+                reader.readAll();
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw new CsvFormatException("invalid value: " + e.getMessage(), path.toUri(), reader.getLineNumber());
+            }
+        }
+        return loader.build();
+    }
+
+    /**
+     * Assign the schema columns to the input columns by name. This method must be called before the first row is
+     * read; if it is not called, the schema columns are assigned to the input columns in order.
+     *
+     * @param columnNames the column names of the input
+     * @throws IllegalArgumentException if a column of the schema is not contained in {@code columnNames}
+     * @throws IllegalStateException    if columns have already been assigned
+     */
+    public void bind(List<String> columnNames) {
+        LangUtil.check(!bound, "columns have already been assigned");
+
+        mapping = new ColumnBuilder[columnNames.size()];
+        schema.forEach((name, type) -> {
+            int index = columnNames.indexOf(name);
+            LangUtil.checkArg(index >= 0, "column not found: %s", name);
+            ColumnBuilder builder = createBuilder(name, type, index);
+            builders.add(builder);
+            mapping[index] = builder;
+        });
+        bound = true;
+    }
+
+    /**
+     * Assign the schema columns to the input columns in order.
+     */
+    private void bindByPosition() {
+        mapping = new ColumnBuilder[schema.size()];
+        schema.forEach((name, type) -> {
+            int index = builders.size();
+            ColumnBuilder builder = createBuilder(name, type, index);
+            builders.add(builder);
+            mapping[index] = builder;
+        });
+        bound = true;
+    }
+
+    private ColumnBuilder createBuilder(String name, ColumnType type, int index) {
+        return switch (type) {
+            case INT -> new IntColumnBuilder(name, index);
+            case LONG -> new LongColumnBuilder(name, index);
+            case DOUBLE -> new DoubleColumnBuilder(name, index);
+            case BOOLEAN -> new BooleanColumnBuilder(name, index);
+            case DATE -> new DateColumnBuilder(name, index, dateFormatter);
+            case STRING -> new StringColumnBuilder(name, index, maxDictionarySize);
+        };
+    }
+
+    @Override
+    public void startRow() {
+        if (!bound) {
+            bindByPosition();
+        }
+        column = 0;
+    }
+
+    @Override
+    public void add(CsvField field) {
+        if (column < mapping.length) {
+            ColumnBuilder builder = mapping[column];
+            if (builder != null) {
+                builder.add(field);
+            }
+        }
+        column++;
+    }
+
+    @Override
+    public void endRow() {
+        for (ColumnBuilder builder : builders) {
+            if (builder.index >= column) {
+                builder.addMissing();
+            }
+        }
+        rowCount++;
+    }
+
+    /**
+     * Create the column storage from the data read so far.
+     *
+     * @return the column storage
+     */
+    public CsvColumns build() {
+        if (!bound) {
+            bindByPosition();
+        }
+        List<Column> columns = new ArrayList<>(builders.size());
+        for (ColumnBuilder builder : builders) {
+            columns.add(builder.build());
+        }
+        return new CsvColumns(rowCount, columns);
+    }
+
+    /**
+     * Base class for column builders.
+     */
+    private abstract static class ColumnBuilder {
+        final String name;
+        final int index;
+        final BitSet missing = new BitSet();
+        int size = 0;
+
+        ColumnBuilder(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        final void add(CsvField field) {
+            if (field.isEmpty() && isEmptyMissing()) {
+                addMissing();
+            } else {
+                ensureCapacity(size + 1);
+                set(size++, field);
+            }
+        }
+
+        final void addMissing() {
+            ensureCapacity(size + 1);
+            missing.set(size++);
+        }
+
+        boolean isEmptyMissing() {
+            return true;
+        }
+
+        static int grow(int capacity, int required) {
+            return Math.max(required, capacity + (capacity >> 1) + 16);
+        }
+
+        abstract void ensureCapacity(int capacity);
+
+        abstract void set(int row, CsvField field);
+
+        abstract Column build();
+    }
+
+    private static final class IntColumnBuilder extends ColumnBuilder {
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        IntColumnBuilder(String name, int index) {
+            super(name, index);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        void set(int row, CsvField field) {
+            values[row] = field.parseInt();
+        }
+
+        @Override
+        Column build() {
+            return new CsvColumns.IntColumn(name, Arrays.copyOf(values, size), size, missing);
+        }
+    }
+
+    private static final class LongColumnBuilder extends ColumnBuilder {
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        LongColumnBuilder(String name, int index) {
+            super(name, index);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        void set(int row, CsvField field) {
+            values[row] = field.parseLong();
+        }
+
+        @Override
+        Column build() {
+            return new CsvColumns.LongColumn(name, Arrays.copyOf(values, size), size, missing);
+        }
+    }
+
+    private static final class DoubleColumnBuilder extends ColumnBuilder {
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        DoubleColumnBuilder(String name, int index) {
+            super(name, index);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        void set(int row, CsvField field) {
+            values[row] = field.parseDouble();
+        }
+
+        @Override
+        Column build() {
+            return new CsvColumns.DoubleColumn(name, Arrays.copyOf(values, size), size, missing);
+        }
+    }
+
+    private static final class BooleanColumnBuilder extends ColumnBuilder {
+        private final BitSet values = new BitSet();
+
+        BooleanColumnBuilder(String name, int index) {
+            super(name, index);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            // BitSet grows automatically
+        }
+
+        @Override
+        void set(int row, CsvField field) {
+            values.set(row, field.parseBoolean());
+        }
+
+        @Override
+        Column build() {
+            return new CsvColumns.BooleanColumn(name, values, size, missing);
+        }
+    }
+
+    private static final class DateColumnBuilder extends ColumnBuilder {
+        private final DateTimeFormatter formatter;
+        private final boolean iso;
+        private int[] epochDays = new int[INITIAL_CAPACITY];
+
+        DateColumnBuilder(String name, int index, DateTimeFormatter formatter) {
+            super(name, index);
+            this.formatter = formatter;
+            this.iso = formatter == DateTimeFormatter.ISO_LOCAL_DATE;
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, grow(epochDays.length, capacity));
+            }
+        }
+
+        @Override
+        void set(int row, CsvField field) {
+            epochDays[row] = Math.toIntExact((iso ? field.parseLocalDate() : field.parseLocalDate(formatter)).toEpochDay());
+        }
+
+        @Override
+        Column build() {
+            return new CsvColumns.DateColumn(name, Arrays.copyOf(epochDays, size), size, missing);
+        }
+    }
+
+    /**
+     * Builder for text columns.
+     * <p>
+     * Values are looked up in an open addressing hash table that compares the field content directly, so that
+     * a {@code String} is only created for each distinct value. When the number of distinct values exceeds the
+     * maximum dictionary size, the column switches to storing one {@code String} per row.
+     */
+    private static final class StringColumnBuilder extends ColumnBuilder {
+        private final int maxDictionarySize;
+
+        // dictionary mode
+        private int[] codes = new int[INITIAL_CAPACITY];
+        private List<String> dictionary = new ArrayList<>();
+        private int[] hashes = new int[0];
+        /** The hash table slots, holding dictionary index + 1, or 0 for an empty slot. */
+        private int[] slots = new int[64];
+
+        // plain mode
+        private String @Nullable [] values = null;
+
+        StringColumnBuilder(String name, int index, int maxDictionarySize) {
+            super(name, index);
+            this.maxDictionarySize = maxDictionarySize;
+        }
+
+        @Override
+        boolean isEmptyMissing() {
+            return false;
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (values != null) {
+                if (capacity > values.length) {
+                    values = Arrays.copyOf(values, grow(values.length, capacity));
+                }
+            } else if (capacity > codes.length) {
+                codes = Arrays.copyOf(codes, grow(codes.length, capacity));
+            }
+        }
+
+        @Override
+        void set(int row, CsvField field) {
+            if (values != null) {
+                values[row] = field.toString();
+                return;
+            }
+
+            int hash = hash(field);
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                int slot = slots[i];
+                if (slot == 0) {
+                    if (dictionary.size() >= maxDictionarySize) {
+                        switchToPlainMode();
+                        values[row] = field.toString();
+                        return;
+                    }
+                    int code = addToDictionary(field.toString(), hash);
+                    slots[i] = code + 1;
+                    codes[row] = code;
+                    if (2 * dictionary.size() > slots.length) {
+                        rehash();
+                    }
+                    return;
+                }
+                int code = slot - 1;
+                if (hashes[code] == hash && field.contentEquals(dictionary.get(code))) {
+                    codes[row] = code;
+                    return;
+                }
+            }
+        }
+
+        private int addToDictionary(String value, int hash) {
+            int code = dictionary.size();
+            dictionary.add(value);
+            if (code == hashes.length) {
+                hashes = Arrays.copyOf(hashes, grow(hashes.length, code + 1));
+            }
+            hashes[code] = hash;
+            return code;
+        }
+
+        private void rehash() {
+            int[] newSlots = new int[2 * slots.length];
+            int mask = newSlots.length - 1;
+            for (int code = 0; code < dictionary.size(); code++) {
+                int i = hashes[code] & mask;
+                while (newSlots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                newSlots[i] = code + 1;
+            }
+            slots = newSlots;
+        }
+
+        private void switchToPlainMode() {
+            String[] v = new String[Math.max(codes.length, size + 1)];
+            for (int row = 0; row < size; row++) {
+                v[row] = missing.get(row) ? null : dictionary.get(codes[row]);
+            }
+            values = v;
+            codes = new int[0];
+            dictionary = new ArrayList<>();
+            hashes = new int[0];
+            slots = new int[0];
+        }
+
+        private static int hash(CharSequence cs) {
+            int h = 0;
+            for (int i = 0; i < cs.length(); i++) {
+                h = 31 * h + cs.charAt(i);
+            }
+            // spread the bits as the table uses the lower bits only
+            return h ^ (h >>> 16);
+        }
+
+        @Override
+        Column build() {
+            if (values != null) {
+                return new CsvColumns.StringColumn(name, Arrays.copyOf(values, size), size, missing);
+            }
+            return new CsvColumns.StringColumn(name, List.copyOf(dictionary), Arrays.copyOf(codes, size), size, missing);
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.lang.LangUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Column oriented storage for CSV data, created by {@link ColumnarCsvLoader}.
+ * <p>
+ * Each column stores its values in a primitive array. Text columns use dictionary encoding as long as the number of
+ * distinct values is small, so that each distinct value is stored only once. Fields that are empty or missing are
+ * marked as missing in numeric, boolean, and date columns.
+ */
+public final class CsvColumns {
+
+    /**
+     * The supported column types.
+     */
+    public enum ColumnType {
+        /** Integer values, stored as {@code int}. */
+        INT,
+        /** Integer values, stored as {@code long}. */
+        LONG,
+        /** Floating point values, stored as {@code double}. */
+        DOUBLE,
+        /** Boolean values. */
+        BOOLEAN,
+        /** Dates, stored as epoch day. */
+        DATE,
+        /** Text. */
+        STRING
+    }
+
+    private final int rowCount;
+    private final Map<String, Column> columns;
+
+    /**
+     * Constructor.
+     *
+     * @param rowCount the number of rows
+     * @param columns  the columns
+     */
+    CsvColumns(int rowCount, List<Column> columns) {
+        this.rowCount = rowCount;
+        Map<String, Column> map = new LinkedHashMap<>();
+        columns.forEach(c -> map.put(c.name(), c));
+        this.columns = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Get the column names.
+     *
+     * @return the column names in schema order
+     */
+    public List<String> getColumnNames() {
+        return List.copyOf(columns.keySet());
+    }
+
+    /**
+     * Get a column by name.
+     *
+     * @param name the column name
+     * @return the column
+     * @throws IllegalArgumentException if there is no column with the given name
+     */
+    public Column getColumn(String name) {
+        Column column = columns.get(name);
+        LangUtil.checkArg(column != null, "no column named '%s'", name);
+        return column;
+    }
+
+    /**
+     * Get a column by name and type.
+     *
+     * @param <C>  the column class
+     * @param name the column name
+     * @param cls  the column class
+     * @return the column
+     * @throws IllegalArgumentException if there is no column with the given name and class
+     */
+    public <C extends Column> C getColumn(String name, Class<C> cls) {
+        Column column = getColumn(name);
+        LangUtil.checkArg(cls.isInstance(column), "column '%s' is of type %s", name, column.type());
+        return cls.cast(column);
+    }
+
+    /**
+     * A single column.
+     */
+    public sealed interface Column permits IntColumn, LongColumn, DoubleColumn, BooleanColumn, DateColumn, StringColumn {
+        /**
+         * Get the column name.
+         *
+         * @return the column name
+         */
+        String name();
+
+        /**
+         * Get the column type.
+         *
+         * @return the column type
+         */
+        ColumnType type();
+
+        /**
+         * Get the number of values.
+         *
+         * @return the number of values
+         */
+        int size();
+
+        /**
+         * Test if the value in a row is missing.
+         *
+         * @param row the row index
+         * @return true, if the value is missing
+         */
+        boolean isMissing(int row);
+
+        /**
+         * Get the value in a row as an object.
+         *
+         * @param row the row index
+         * @return the value or {@code null} if missing
+         */
+        @Nullable Object get(int row);
+    }
+
+    /**
+     * Base class for column implementations.
+     */
+    private abstract static sealed class ColumnBase
+            permits IntColumn, LongColumn, DoubleColumn, BooleanColumn, DateColumn, StringColumn {
+        private final String name;
+        private final int size;
+        private final BitSet missing;
+
+        ColumnBase(String name, int size, BitSet missing) {
+            this.name = name;
+            this.size = size;
+            this.missing = missing;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isMissing(int row) {
+            return missing.get(checkIndex(row));
+        }
+
+        int checkIndex(int row) {
+            return Objects.checkIndex(row, size);
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "[" + name + ", " + size + " values]";
+        }
+    }
+
+    /**
+     * A column of {@code int} values.
+     */
+    public static final class IntColumn extends ColumnBase implements Column {
+        private final int[] values;
+
+        IntColumn(String name, int[] values, int size, BitSet missing) {
+            super(name, size, missing);
+            this.values = values;
+        }
+
+        @Override
+        public ColumnType type() {
+            return ColumnType.INT;
+        }
+
+        /**
+         * Get the value in a row; the result is undefined for missing values.
+         *
+         * @param row the row index
+         * @return the value
+         */
+        public int getInt(int row) {
+            return values[checkIndex(row)];
+        }
+
+        /**
+         * Get a copy of the values.
+         *
+         * @return array containing the values
+         */
+        public int[] toArray() {
+            return Arrays.copyOf(values, size());
+        }
+
+        @Override
+        public @Nullable Integer get(int row) {
+            return isMissing(row) ? null : values[row];
+        }
+    }
+
+    /**
+     * A column of {@code long} values.
+     */
+    public static final class LongColumn extends ColumnBase implements Column {
+        private final long[] values;
+
+        LongColumn(String name, long[] values, int size, BitSet missing) {
+            super(name, size, missing);
+            this.values = values;
+        }
+
+        @Override
+        public ColumnType type() {
+            return ColumnType.LONG;
+        }
+
+        /**
+         * Get the value in a row; the result is undefined for missing values.
+         *
+         * @param row the row index
+         * @return the value
+         */
+        public long getLong(int row) {
+            return values[checkIndex(row)];
+        }
+
+        /**
+         * Get a copy of the values.
+         *
+         * @return array containing the values
+         */
+        public long[] toArray() {
+            return Arrays.copyOf(values, size());
+        }
+
+        @Override
+        public @Nullable Long get(int row) {
+            return isMissing(row) ? null : values[row];
+        }
+    }
+
+    /**
+     * A column of {@code double} values.
+     */
+    public static final class DoubleColumn extends ColumnBase implements Column {
+        private final double[] values;
+
+        DoubleColumn(String name, double[] values, int size, BitSet missing) {
+            super(name, size, missing);
+            this.values = values;
+        }
+
+        @Override
+        public ColumnType type() {
+            return ColumnType.DOUBLE;
+        }
+
+        /**
+         * Get the value in a row; the result is undefined for missing values.
+         *
+         * @param row the row index
+         * @return the value
+         */
+        public double getDouble(int row) {
+            return values[checkIndex(row)];
+        }
+
+        /**
+         * Get a copy of the values.
+         *
+         * @return array containing the values
+         */
+        public double[] toArray() {
+            return Arrays.copyOf(values, size());
+        }
+
+        @Override
+        public @Nullable Double get(int row) {
+            return isMissing(row) ? null : values[row];
+        }
+    }
+
+    /**
+     * A column of {@code boolean} values.
+     */
+    public static final class BooleanColumn extends ColumnBase implements Column {
+        private final BitSet values;
+
+        BooleanColumn(String name, BitSet values, int size, BitSet missing) {
+            super(name, size, missing);
+            this.values = values;
+        }
+
+        @Override
+        public ColumnType type() {
+            return ColumnType.BOOLEAN;
+        }
+
+        /**
+         * Get the value in a row; returns {@code false} for missing values.
+         *
+         * @param row the row index
+         * @return the value
+         */
+        public boolean getBoolean(int row) {
+            return values.get(checkIndex(row));
+        }
+
+        @Override
+        public @Nullable Boolean get(int row) {
+            return isMissing(row) ? null : values.get(row);
+        }
+    }
+
+    /**
+     * A column of {@link LocalDate} values, stored as epoch days.
+     */
+    public static final class DateColumn extends ColumnBase implements Column {
+        private final int[] epochDays;
+
+        DateColumn(String name, int[] epochDays, int size, BitSet missing) {
+            super(name, size, missing);
+            this.epochDays = epochDays;
+        }
+
+        @Override
+        public ColumnType type() {
+            return ColumnType.DATE;
+        }
+
+        /**
+         * Get the value in a row as epoch day; the result is undefined for missing values.
+         *
+         * @param row the row index
+         * @return the epoch day
+         * @see LocalDate#toEpochDay()
+         */
+        public int getEpochDay(int row) {
+            return epochDays[checkIndex(row)];
+        }
+
+        @Override
+        public @Nullable LocalDate get(int row) {
+            return isMissing(row) ? null : LocalDate.ofEpochDay(epochDays[row]);
+        }
+    }
+
+    /**
+     * A column of text values.
+     * <p>
+     * If the column is dictionary encoded, each row stores an index into the list of distinct values.
+     */
+    public static final class StringColumn extends ColumnBase implements Column {
+        private final @Nullable List<String> dictionary;
+        private final int @Nullable [] codes;
+        private final String @Nullable [] values;
+
+        StringColumn(String name, List<String> dictionary, int[] codes, int size, BitSet missing) {
+            super(name, size, missing);
+            this.dictionary = dictionary;
+            this.codes = codes;
+            this.values = null;
+        }
+
+        StringColumn(String name, String[] values, int size, BitSet missing) {
+            super(name, size, missing);
+            this.dictionary = null;
+            this.codes = null;
+            this.values = values;
+        }
+
+        @Override
+        public ColumnType type() {
+            return ColumnType.STRING;
+        }
+
+        /**
+         * Test if this column is dictionary encoded.
+         *
+         * @return true, if this column is dictionary encoded
+         */
+        public boolean isDictionaryEncoded() {
+            return dictionary != null;
+        }
+
+        /**
+         * Get the distinct values of a dictionary encoded column.
+         *
+         * @return the list of distinct values, or an empty list if the column is not dictionary encoded
+         */
+        public List<String> getDictionary() {
+            return dictionary != null ? dictionary : Collections.emptyList();
+        }
+
+        /**
+         * Get the dictionary index of the value in a row.
+         *
+         * @param row the row index
+         * @return the index of the value in {@link #getDictionary()}
+         * @throws IllegalStateException if the column is not dictionary encoded
+         */
+        public int getCode(int row) {
+            LangUtil.check(codes != null, "column '%s' is not dictionary encoded", name());
+            return codes[checkIndex(row)];
+        }
+
+        /**
+         * Get the value in a row.
+         *
+         * @param row the row index
+         * @return the value, or {@code null} if missing
+         */
+        public @Nullable String getString(int row) {
+            checkIndex(row);
+            if (isMissing(row)) {
+                return null;
+            }
+            if (values != null) {
+                return values[row];
+            }
+            assert dictionary != null && codes != null : "internal error: neither values nor dictionary set";
+            return dictionary.get(codes[row]);
+        }
+
+        @Override
+        public @Nullable String get(int row) {
+            return getString(row);
+        }
+    }
+}
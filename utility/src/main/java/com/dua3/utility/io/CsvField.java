@@ -0,0 +1,332 @@
+package com.dua3.utility.io;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A {@link CharSequence} view of a single CSV field.
+ * <p>
+ * Instances passed to a {@link CsvReader.FieldRowBuilder} do not copy the field data but refer to the internal buffer
+ * of the {@link CsvReader}. The content of an instance is only valid until the next row is read; call
+ * {@link #toString()} to obtain a value that can be stored.
+ * <p>
+ * The parsing methods work directly on the field content without creating intermediate objects. Numbers are expected
+ * in the locale independent format also accepted by {@link Long#parseLong(String)} and
+ * {@link Double#parseDouble(String)}.
+ */
+@SuppressWarnings("MagicCharacter")
+public final class CsvField implements CharSequence {
+
+    /**
+     * Powers of ten that can be represented exactly as double values.
+     */
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1.0e0, 1.0e1, 1.0e2, 1.0e3, 1.0e4, 1.0e5, 1.0e6, 1.0e7, 1.0e8, 1.0e9, 1.0e10, 1.0e11,
+            1.0e12, 1.0e13, 1.0e14, 1.0e15, 1.0e16, 1.0e17, 1.0e18, 1.0e19, 1.0e20, 1.0e21, 1.0e22
+    };
+
+    /**
+     * Mantissa values up to this limit can be converted to double without loss of precision.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private char[] chars;
+    private int start;
+    private int end;
+
+    /**
+     * Constructor.
+     *
+     * @param chars the character array
+     * @param start the start index of the field (inclusive)
+     * @param end   the end index of the field (exclusive)
+     */
+    CsvField(char[] chars, int start, int end) {
+        this.chars = chars;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Create a new {@code CsvField} instance holding a copy of the given text.
+     *
+     * @param text the field content
+     * @return new {@code CsvField} instance
+     */
+    public static CsvField of(CharSequence text) {
+        char[] chars = text.toString().toCharArray();
+        return new CsvField(chars, 0, chars.length);
+    }
+
+    /**
+     * Point this instance to a new location.
+     *
+     * @param chars the character array
+     * @param start the start index of the field (inclusive)
+     * @param end   the end index of the field (exclusive)
+     * @return this instance
+     */
+    CsvField set(char[] chars, int start, int end) {
+        this.chars = chars;
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return end == start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + (end - start));
+        }
+        return chars[start + index];
+    }
+
+    /**
+     * Returns a subsequence of this field. The returned value is a copy of the data and stays valid after the next
+     * row has been read.
+     *
+     * @param start the start index, inclusive
+     * @param end   the end index, exclusive
+     * @return the subsequence
+     */
+    @Override
+    public String subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length()) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length());
+        }
+        return new String(chars, this.start + start, end - start);
+    }
+
+    /**
+     * Returns the field content as a {@link String}. The returned value is a copy of the data and stays valid after
+     * the next row has been read.
+     *
+     * @return the field content
+     */
+    @Override
+    public String toString() {
+        return new String(chars, start, end - start);
+    }
+
+    /**
+     * Compare the content of this field to a {@link CharSequence}.
+     *
+     * @param cs the character sequence to compare to
+     * @return true, if the field content is equal to {@code cs}
+     */
+    public boolean contentEquals(CharSequence cs) {
+        int n = end - start;
+        if (cs.length() != n) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (chars[start + i] != cs.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse the field content as an {@code int} value.
+     *
+     * @return the parsed value
+     * @throws NumberFormatException if the field does not contain a parsable {@code int} value
+     * @see Integer#parseInt(CharSequence, int, int, int)
+     */
+    public int parseInt() {
+        return Integer.parseInt(this, 0, length(), 10);
+    }
+
+    /**
+     * Parse the field content as a {@code long} value.
+     *
+     * @return the parsed value
+     * @throws NumberFormatException if the field does not contain a parsable {@code long} value
+     * @see Long#parseLong(CharSequence, int, int, int)
+     */
+    public long parseLong() {
+        return Long.parseLong(this, 0, length(), 10);
+    }
+
+    /**
+     * Parse the field content as a {@code boolean} value. The text {@code true} or {@code false} is expected; case
+     * is ignored.
+     *
+     * @return the parsed value
+     * @throws IllegalArgumentException if the field does not contain a {@code boolean} value
+     */
+    public boolean parseBoolean() {
+        if (equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException("not a boolean value: " + this);
+    }
+
+    private boolean equalsIgnoreCase(String s) {
+        int n = end - start;
+        if (n != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (Character.toLowerCase(chars[start + i]) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse the field content as a {@code double} value.
+     * <p>
+     * Plain decimal numbers with up to 15 significant digits and a moderate exponent are converted directly, all
+     * other input is handed to {@link Double#parseDouble(String)}. The result is the same in both cases.
+     *
+     * @return the parsed value
+     * @throws NumberFormatException if the field does not contain a parsable {@code double} value
+     */
+    public double parseDouble() {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+
+        // integer part
+        for (; i < end && isDigit(chars[i]); i++) {
+            mantissa = 10 * mantissa + (chars[i] - '0');
+            digits++;
+            if (mantissa != 0) {
+                significantDigits++;
+            }
+        }
+
+        // fractional part
+        if (i < end && chars[i] == '.') {
+            i++;
+            for (; i < end && isDigit(chars[i]); i++) {
+                mantissa = 10 * mantissa + (chars[i] - '0');
+                digits++;
+                exponent--;
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+            }
+        }
+
+        // exponent
+        if (digits > 0 && i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            int exponentDigits = 0;
+            int explicitExponent = 0;
+            for (; i < end && isDigit(chars[i]) && exponentDigits < 4; i++, exponentDigits++) {
+                explicitExponent = 10 * explicitExponent + (chars[i] - '0');
+            }
+            if (exponentDigits == 0) {
+                return parseDoubleSlow();
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (i != end || digits == 0 || significantDigits > 15 || mantissa >= MAX_EXACT_MANTISSA) {
+            return parseDoubleSlow();
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (exponent >= 0 && exponent < EXACT_POWERS_OF_TEN.length) {
+            value = mantissa * EXACT_POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < EXACT_POWERS_OF_TEN.length) {
+            value = mantissa / EXACT_POWERS_OF_TEN[-exponent];
+        } else {
+            return parseDoubleSlow();
+        }
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlow() {
+        return Double.parseDouble(toString());
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Parse the field content as a {@link LocalDate} in ISO format ({@code yyyy-MM-dd}).
+     *
+     * @return the parsed date
+     * @throws DateTimeParseException if the field does not contain a valid date
+     */
+    public LocalDate parseLocalDate() {
+        if (end - start == 10 && chars[start + 4] == '-' && chars[start + 7] == '-') {
+            int year = parseDigits(start, 4);
+            int month = parseDigits(start + 5, 2);
+            int day = parseDigits(start + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (RuntimeException e) {
+                    throw new DateTimeParseException("invalid date: " + e.getMessage(), this, 0, e);
+                }
+            }
+        }
+        return LocalDate.parse(this, DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+
+    /**
+     * Parse the field content as a {@link LocalDate} using the given formatter.
+     *
+     * @param formatter the formatter to use
+     * @return the parsed date
+     * @throws DateTimeParseException if the field does not contain a valid date
+     */
+    public LocalDate parseLocalDate(DateTimeFormatter formatter) {
+        return LocalDate.parse(this, formatter);
+    }
+
+    /**
+     * Parse a fixed number of decimal digits.
+     *
+     * @param from  the start index in the character array
+     * @param count the number of digits
+     * @return the value, or -1 if a non-digit character was encountered
+     */
+    private int parseDigits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = chars[i];
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = 10 * value + (c - '0');
+        }
+        return value;
+    }
+}
@@ -36,6 +36,16 @@ public abstract class CsvIo implements AutoCloseable {
      * in unquoted fields.
      */
     private static final String UNQUOTED_CONTENT_ALLOWED_CHARS = "!§$%&/()=?`°^'.,:;-_#'+~*<>|@ \t";
+    /**
+     * Lookup table for ASCII characters that are allowed in unquoted fields.
+     */
+    private static final boolean[] UNQUOTED_ASCII = new boolean[128];
+
+    static {
+        for (char c = 0; c < UNQUOTED_ASCII.length; c++) {
+            UNQUOTED_ASCII[c] = Character.isLetterOrDigit(c) || UNQUOTED_CONTENT_ALLOWED_CHARS.indexOf(c) != -1;
+        }
+    }
     /**
      * The line delimiter used when writing CSV files.
      */
@@ -130,14 +140,29 @@ public abstract class CsvIo implements AutoCloseable {
     protected boolean isQuoteNeeded(CharSequence text) {
         // also quote if unusual characters are present
         for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            if (c == separator || c == delimiter || !Character.isLetterOrDigit(c) && UNQUOTED_CONTENT_ALLOWED_CHARS.indexOf(c) == -1) {
+            if (isQuoteNeeded(text.charAt(i))) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Checks if a field containing the given character needs to be surrounded by quotes.
+     *
+     * @param c the character to be checked
+     * @return true if quotes are needed, false otherwise
+     */
+    protected final boolean isQuoteNeeded(char c) {
+        if (c == separator || c == delimiter) {
+            return true;
+        }
+        if (c < UNQUOTED_ASCII.length) {
+            return !UNQUOTED_ASCII[c];
+        }
+        return !Character.isLetterOrDigit(c) && UNQUOTED_CONTENT_ALLOWED_CHARS.indexOf(c) == -1;
+    }
+
     /**
      * Surrounds a string with quotes.
      *
@@ -0,0 +1,400 @@
+package com.dua3.utility.io;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.util.Arrays;
+
+/**
+ * A single-pass CSV parser implemented as a state machine over a character buffer.
+ * <p>
+ * The parser reads one record at a time from a {@link Reader}. It handles field separators, text delimiters,
+ * doubled delimiters inside delimited fields, and line breaks embedded in delimited fields. The characters of all
+ * fields of the current record are collected in a single reusable array; the parser does not allocate any
+ * objects per field while parsing.
+ * <p>
+ * Line breaks ({@code \n}, {@code \r}, and {@code \r\n}) are accepted as record terminators. Line breaks embedded in
+ * delimited fields are normalized to {@code \n}.
+ */
+@SuppressWarnings("MagicCharacter")
+final class CsvParser {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_ROW_CAPACITY = 1024;
+    private static final int INITIAL_FIELD_CAPACITY = 32;
+
+    private final Reader reader;
+    private final char separator;
+    private final char delimiter;
+    private final @Nullable URI source;
+
+    /** The input buffer. */
+    private final char[] buf;
+    /** The current read position in the input buffer. */
+    private int pos = 0;
+    /** The number of valid characters in the input buffer. */
+    private int limit = 0;
+    /** Set when the end of input has been reached. */
+    private boolean eof = false;
+
+    /** The characters of all fields of the current row. */
+    private char[] rowChars = new char[INITIAL_ROW_CAPACITY];
+    /** The number of characters used in {@link #rowChars}. */
+    private int rowLength = 0;
+    /** The end offsets (exclusive) of the fields of the current row in {@link #rowChars}. */
+    private int[] fieldEnds = new int[INITIAL_FIELD_CAPACITY];
+    /** The number of fields in the current row. */
+    private int fieldCount = 0;
+    /** The number of physical lines consumed. */
+    private int lineNumber = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param reader    the reader to read CSV data from
+     * @param separator the field separator
+     * @param delimiter the text delimiter
+     * @param source    the source of the data, used in error messages; may be {@code null}
+     */
+    CsvParser(Reader reader, char separator, char delimiter, @Nullable URI source) {
+        this(reader, separator, delimiter, source, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param reader     the reader to read CSV data from
+     * @param separator  the field separator
+     * @param delimiter  the text delimiter
+     * @param source     the source of the data, used in error messages; may be {@code null}
+     * @param bufferSize the size of the input buffer
+     */
+    CsvParser(Reader reader, char separator, char delimiter, @Nullable URI source, int bufferSize) {
+        this.reader = reader;
+        this.separator = separator;
+        this.delimiter = delimiter;
+        this.source = source;
+        this.buf = new char[bufferSize];
+    }
+
+    /**
+     * Get the number of physical lines consumed so far.
+     *
+     * @return the line number of the last line consumed
+     */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Set the line number, used when parsing starts in the middle of the input.
+     *
+     * @param lineNumber the number of lines preceding the data read by this parser
+     */
+    void setLineNumber(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Get the number of fields in the current row.
+     *
+     * @return the number of fields
+     */
+    int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Get the start offset of a field of the current row in the array returned by {@link #getRowChars()}.
+     *
+     * @param i the field index
+     * @return the start offset of the field
+     */
+    int getFieldStart(int i) {
+        return i == 0 ? 0 : fieldEnds[i - 1];
+    }
+
+    /**
+     * Get the end offset (exclusive) of a field of the current row in the array returned by {@link #getRowChars()}.
+     *
+     * @param i the field index
+     * @return the end offset of the field
+     */
+    int getFieldEnd(int i) {
+        return fieldEnds[i];
+    }
+
+    /**
+     * Get the array holding the characters of the current row. The content is only valid until the next row is read.
+     *
+     * @return the character array of the current row
+     */
+    char[] getRowChars() {
+        return rowChars;
+    }
+
+    /**
+     * Get the value of a field of the current row as a {@link String}.
+     *
+     * @param i the field index
+     * @return the field value
+     */
+    String getField(int i) {
+        int start = getFieldStart(i);
+        return new String(rowChars, start, fieldEnds[i] - start);
+    }
+
+    /**
+     * Skip the current physical line without interpreting its content.
+     *
+     * @return {@code true} if a line was skipped, {@code false} if the end of input was reached
+     * @throws IOException if an I/O error occurs
+     */
+    boolean skipLine() throws IOException {
+        if (!ensureAvailable()) {
+            return false;
+        }
+
+        lineNumber++;
+        while (ensureAvailable()) {
+            char c = buf[pos];
+            if (c == '\n' || c == '\r') {
+                consumeLineBreak(c);
+                break;
+            }
+            pos++;
+        }
+        return true;
+    }
+
+    /**
+     * Parse the next row.
+     *
+     * @return {@code true} if a row was read, {@code false} if the end of input was reached
+     * @throws IOException if an I/O error occurs or the input is not valid CSV data
+     */
+    boolean parseRow() throws IOException {
+        rowLength = 0;
+        fieldCount = 0;
+
+        if (!ensureAvailable()) {
+            return false;
+        }
+
+        lineNumber++;
+        while (true) {
+            // parse a single field; returns the terminating character or -1 at end of input
+            int terminator = parseField();
+            endField();
+
+            if (terminator != separator) {
+                // line break or end of input
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Parse a single field, starting at the current position.
+     *
+     * @return the character that terminated the field (separator or line break), or -1 if the end of input was reached
+     * @throws IOException if an I/O error occurs or the input is not valid CSV data
+     */
+    private int parseField() throws IOException {
+        // skip leading blanks; they are part of the value unless the field turns out to be delimited
+        int blanks = 0;
+        while (ensureAvailable() && buf[pos] == ' ' && separator != ' ') {
+            pos++;
+            blanks++;
+        }
+
+        if (ensureAvailable() && buf[pos] == delimiter) {
+            pos++;
+            return parseDelimitedField();
+        }
+
+        for (int i = 0; i < blanks; i++) {
+            append(' ');
+        }
+        return parseUndelimitedField();
+    }
+
+    /**
+     * Parse the remainder of a field that is not enclosed in delimiters.
+     *
+     * @return the terminating character, or -1 if the end of input was reached
+     * @throws IOException if an I/O error occurs
+     */
+    private int parseUndelimitedField() throws IOException {
+        while (ensureAvailable()) {
+            int start = pos;
+            int end = start;
+            while (end < limit) {
+                char c = buf[end];
+                if (c == separator || c == '\n' || c == '\r') {
+                    break;
+                }
+                end++;
+            }
+            append(buf, start, end - start);
+            pos = end;
+
+            if (end < limit) {
+                char c = buf[end];
+                if (c == separator) {
+                    pos++;
+                } else {
+                    consumeLineBreak(c);
+                }
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parse the remainder of a delimited field; the opening delimiter has already been consumed.
+     *
+     * @return the terminating character, or -1 if the end of input was reached
+     * @throws IOException if an I/O error occurs or the input is not valid CSV data
+     */
+    private int parseDelimitedField() throws IOException {
+        while (true) {
+            if (!ensureAvailable()) {
+                throw new CsvFormatException("Unexpected end of input while looking for matching delimiter.", source, lineNumber);
+            }
+
+            int start = pos;
+            int end = start;
+            while (end < limit) {
+                char c = buf[end];
+                if (c == delimiter || c == '\n' || c == '\r') {
+                    break;
+                }
+                end++;
+            }
+            append(buf, start, end - start);
+            pos = end;
+
+            if (end == limit) {
+                continue;
+            }
+
+            char c = buf[end];
+            if (c == delimiter) {
+                pos++;
+                if (ensureAvailable() && buf[pos] == delimiter) {
+                    // doubled delimiter
+                    pos++;
+                    append(delimiter);
+                    continue;
+                }
+                return endDelimitedField();
+            }
+
+            // embedded line break
+            consumeLineBreak(c);
+            append('\n');
+            if (!ensureAvailable()) {
+                throw new CsvFormatException("Unexpected end of input while looking for matching delimiter.", source, lineNumber);
+            }
+            lineNumber++;
+        }
+    }
+
+    /**
+     * Consume the input following the closing delimiter of a delimited field.
+     *
+     * @return the terminating character, or -1 if the end of input was reached
+     * @throws IOException if an I/O error occurs or the input is not valid CSV data
+     */
+    private int endDelimitedField() throws IOException {
+        while (ensureAvailable()) {
+            char c = buf[pos];
+            if (c == separator) {
+                pos++;
+                return c;
+            }
+            if (c == '\n' || c == '\r') {
+                consumeLineBreak(c);
+                return c;
+            }
+            if (c != ' ') {
+                throw new CsvFormatException("invalid csv data.", source, lineNumber);
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    /**
+     * Consume a line break at the current position. A {@code \r} followed by {@code \n} is consumed as a single line
+     * break.
+     *
+     * @param c the character at the current position
+     * @throws IOException if an I/O error occurs
+     */
+    private void consumeLineBreak(char c) throws IOException {
+        pos++;
+        if (c == '\r' && ensureAvailable() && buf[pos] == '\n') {
+            pos++;
+        }
+    }
+
+    /**
+     * Make sure at least one character is available in the buffer.
+     *
+     * @return {@code true} if data is available, {@code false} if the end of input has been reached
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean ensureAvailable() throws IOException {
+        if (pos < limit) {
+            return true;
+        }
+        if (eof) {
+            return false;
+        }
+
+        int n;
+        do {
+            n = reader.read(buf, 0, buf.length);
+        } while (n == 0);
+
+        pos = 0;
+        if (n < 0) {
+            limit = 0;
+            eof = true;
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    /**
+     * Mark the end of the current field.
+     */
+    private void endField() {
+        if (fieldCount == fieldEnds.length) {
+            fieldEnds = Arrays.copyOf(fieldEnds, 2 * fieldEnds.length);
+        }
+        fieldEnds[fieldCount++] = rowLength;
+    }
+
+    private void append(char c) {
+        if (rowLength == rowChars.length) {
+            rowChars = Arrays.copyOf(rowChars, 2 * rowChars.length);
+        }
+        rowChars[rowLength++] = c;
+    }
+
+    private void append(char[] chars, int offset, int length) {
+        int required = rowLength + length;
+        if (required > rowChars.length) {
+            rowChars = Arrays.copyOf(rowChars, Math.max(required, 2 * rowChars.length));
+        }
+        System.arraycopy(chars, offset, rowChars, rowLength, length);
+        rowLength = required;
+    }
+}
@@ -31,8 +31,6 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * A class that reads data from CSV files.
@@ -47,12 +45,12 @@ public final class CsvReader extends CsvIo {
     @SuppressWarnings("NumericCastThatLosesPrecision")
     private static final byte[] UTF8_BOM_BYTES = {(byte) 0xef, (byte) 0xbb, (byte) 0xbf};
     private final RowBuilder rowBuilder;
-    private final Pattern patternField;
     private final BufferedReader reader;
+    private final CsvParser parser;
+    private CsvField[] fields = new CsvField[0];
     private final @Nullable URI source;
     private int rowNumber;
     private int rowsRead;
-    private int lineNumber;
     private @Nullable List<String> columnNames;
     private boolean ignoreExcessFields;
     private boolean ignoreMissingFields;
@@ -129,29 +127,36 @@ public final class CsvReader extends CsvIo {
             reader.reset();
         }
 
-        String sep = Pattern.quote(Character.toString(separator));
-        String del = Pattern.quote(Character.toString(delimiter));
-
-        // create a pattern for matching of csv fields
-        patternField = Pattern.compile(generateFieldRegex(sep, del));
+        this.parser = new CsvParser(reader, separator, delimiter, source);
 
         if (options.isSet(READ_COLUMN_NAMES)) {
             readColumnNames();
         }
     }
 
-    private static String generateFieldRegex(String sep, String del) {
-        String regexEnd = "(?:" + sep + "|$)";
-        // pattern group1: unquoted field
-        String regexUnquotedField = "(?:((?:[^" + del + sep + "][^" + sep + "]*)?)" + regexEnd + ")";
-        // pattern group2: quoted field
-        String regexQuotedField = " *(?:" + del + "((?:[^" + del + "]|" + del + del + ")*)" + del + " *" + regexEnd
-                + ")";
-        // pattern group3: start of quoted field with embedded newline (group
-        // must contain delimiter!)
-        String regexStartQuotedFieldWithLineBreak = "(" + del + "(?:[^" + del + "]*(?:" + del + del + ")?)*$)";
-
-        return "^(?:" + regexQuotedField + "|" + regexUnquotedField + "|" + regexStartQuotedFieldWithLineBreak + ")";
+    /**
+     * Constructor used for reading a part of a CSV file that consists of complete records and does not start at the
+     * beginning of the file. No BOM detection is done, and column names are never read from the input.
+     *
+     * @param rowBuilder  the row builder for creating CSV rows
+     * @param reader      the buffered reader for reading the CSV data
+     * @param source      the optional URI of the CSV file
+     * @param options     the arguments for configuring the CSV reader
+     * @param firstLine   the number of lines in the file preceding the data
+     * @param columnNames the column names, or {@code null}
+     */
+    CsvReader(RowBuilder rowBuilder, BufferedReader reader, @Nullable URI source, Arguments options,
+              int firstLine, @Nullable List<String> columnNames) {
+        super(options);
+
+        this.rowBuilder = rowBuilder;
+        this.reader = reader;
+        this.columnNames = columnNames;
+        this.ignoreExcessFields = options.isSet(IGNORE_EXCESSIVE_FIELDS);
+        this.ignoreMissingFields = options.isSet(IGNORE_MISSING_FIELDS);
+        this.source = source;
+        this.parser = new CsvParser(reader, separator, delimiter, source);
+        parser.setLineNumber(firstLine);
     }
 
     /**
@@ -284,7 +289,7 @@ public final class CsvReader extends CsvIo {
      * @return the line number
      */
     public int getLineNumber() {
-        return lineNumber;
+        return parser.getLineNumber();
     }
 
     /**
@@ -323,9 +328,7 @@ public final class CsvReader extends CsvIo {
      */
     public int ignoreRows(int rowsToIgnore) throws IOException {
         int ignored = 0;
-        while (ignored < rowsToIgnore) {
-            LangUtil.ignore(reader.readLine());
-            lineNumber++;
+        while (ignored < rowsToIgnore && parser.skipLine()) {
             ignored++;
         }
         return ignored;
@@ -360,64 +363,24 @@ public final class CsvReader extends CsvIo {
      * @throws IOException if an error occurs during reading
      */
     private int readRow(RowBuilder rb) throws IOException {
-        String line = reader.readLine();
-
-        if (line == null) {
+        if (!parser.parseRow()) {
             return -1;
         }
 
-        lineNumber++;
-
-        rb.startRow();
-        int columnNr = 0;
-        Matcher matcher = patternField.matcher(line);
-        while (matcher.lookingAt()) {
-            // group 1 refers to a quoted field, group 2 to an unquoted field
-            // since we have a match, either group 1 or group 2 matches and
-            // contains the field's value.
-            String field = matcher.group(1);
-            if (field != null) {
-                field = field.replace("\"\"", "\"");
-            } else {
-                field = matcher.group(2);
-            }
-
-            // check for linebreak in quoted field
-            int currentLine = lineNumber;
-            if (field == null && matcher.group(3) != null) {
-                String nextLine = reader.readLine();
-
-                LangUtil.check(
-                        nextLine != null,
-                        () -> new CsvFormatException("Unexpected end of input while looking for matching delimiter.",
-                                getSource(), currentLine));
-
-                lineNumber++;
-                line = matcher.group(3) + "\n" + nextLine;
-                matcher = patternField.matcher(line);
-                continue;
-            }
-
-            assert field != null : "field must not be null";
-            rb.add(field);
-            columnNr++;
-
-            // check for end of line
-            if (matcher.hitEnd()) {
-                break;
-            }
-
-            // move region behind end of last match
-            matcher.region(matcher.end(), matcher.regionEnd());
-        }
-
-        // if unparsed input remains, the input line is not in csv-format
-        LangUtil.check(matcher.hitEnd(), () -> new CsvFormatException("invalid csv data.", getSource(), getLineNumber()));
+        int columnNr = parser.getFieldCount();
 
         // check number of fields
         LangUtil.check(ignoreMissingFields || columnNames == null || columnNr >= columnNames.size(),
                 () -> new CsvFormatException("not enough fields.", getSource(), getLineNumber()));
 
+        rb.startRow();
+        if (rb instanceof FieldRowBuilder frb) {
+            addFields(frb, columnNr);
+        } else {
+            for (int i = 0; i < columnNr; i++) {
+                rb.add(parser.getField(i));
+            }
+        }
         rowNumber++;
         rowsRead++;
         rb.endRow();
@@ -425,6 +388,27 @@ public final class CsvReader extends CsvIo {
         return columnNr;
     }
 
+    /**
+     * Pass the fields of the current row as views into the parser's row buffer to a {@link FieldRowBuilder}.
+     *
+     * @param frb        the row builder
+     * @param nrOfFields the number of fields in the current row
+     */
+    private void addFields(FieldRowBuilder frb, int nrOfFields) {
+        if (fields.length < nrOfFields) {
+            int oldLength = fields.length;
+            fields = Arrays.copyOf(fields, Math.max(nrOfFields, 2 * oldLength));
+            for (int i = oldLength; i < fields.length; i++) {
+                fields[i] = new CsvField(parser.getRowChars(), 0, 0);
+            }
+        }
+
+        char[] chars = parser.getRowChars();
+        for (int i = 0; i < nrOfFields; i++) {
+            frb.add(fields[i].set(chars, parser.getFieldStart(i), parser.getFieldEnd(i)));
+        }
+    }
+
     /**
      * Read some rows of CSV data.
      *
@@ -487,6 +471,27 @@ public final class CsvReader extends CsvIo {
         void startRow();
     }
 
+    /**
+     * A {@link RowBuilder} that receives the fields of each row as {@link CsvField} instances instead of Strings.
+     * <p>
+     * The {@link CsvField} instances passed to {@link #add(CsvField)} are views into the internal buffer of the
+     * {@link CsvReader} and are reused for subsequent rows. They must not be stored; their content is only valid until
+     * {@link #endRow()} has returned. Use {@link CsvField#toString()} to obtain a copy of the field value.
+     */
+    public interface FieldRowBuilder extends RowBuilder {
+        /**
+         * Add a field.
+         *
+         * @param field the field; only valid until the end of the current row
+         */
+        void add(CsvField field);
+
+        @Override
+        default void add(String value) {
+            add(CsvField.of(value));
+        }
+    }
+
     /**
      * A {@link RowBuilder} implementation that creates a list of Strings for the cells contained in each row read.
      */
@@ -23,13 +23,40 @@ import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 
 /**
  * A class that writes data in CSV format.
+ * <p>
+ * Values of type {@code int}, {@code long}, {@code double}, and {@link CharSequence} are formatted into an internal
+ * buffer that is reused for all fields, so that writing these values does not create temporary objects. The output
+ * is the same as that produced by {@link #format(Object)}.
  */
 public class CsvWriter extends CsvIo implements Flushable {
+    /**
+     * Powers of ten that can be represented exactly as double values.
+     */
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1.0e0, 1.0e1, 1.0e2, 1.0e3, 1.0e4, 1.0e5, 1.0e6, 1.0e7, 1.0e8, 1.0e9, 1.0e10, 1.0e11,
+            1.0e12, 1.0e13, 1.0e14, 1.0e15
+    };
+    /**
+     * Doubles that need more significant digits than this limit are formatted using the {@link #numberFormat}.
+     */
+    private static final double MAX_FAST_PATH_MANTISSA = 1.0e15;
+
     private final BufferedWriter out;
     private int fieldsInRow;
+    /**
+     * Reusable buffer; index 0 is reserved for the opening delimiter.
+     */
+    private char[] buffer = new char[64];
+    /**
+     * Set if the {@link #numberFormat} formats numbers using ASCII digits and a plain minus sign.
+     */
+    private final boolean plainNumberFormat;
+    private final char decimalSeparator;
 
     /**
      * Constructs a new CsvWriter.
@@ -40,6 +67,26 @@ public class CsvWriter extends CsvIo implements Flushable {
     public CsvWriter(BufferedWriter out, Arguments options) {
         super(options);
         this.out = out;
+
+        if (numberFormat instanceof DecimalFormat df) {
+            DecimalFormatSymbols symbols = df.getDecimalFormatSymbols();
+            this.plainNumberFormat = symbols.getZeroDigit() == '0'
+                    && df.getPositivePrefix().isEmpty()
+                    && df.getPositiveSuffix().isEmpty()
+                    && df.getNegativePrefix().equals("-")
+                    && df.getNegativeSuffix().isEmpty()
+                    && df.getMultiplier() == 1
+                    && !df.isGroupingUsed()
+                    && !df.isDecimalSeparatorAlwaysShown()
+                    && df.getMinimumIntegerDigits() <= 1
+                    && df.getMaximumIntegerDigits() >= 20
+                    && df.getMinimumFractionDigits() == 0
+                    && df.getMaximumFractionDigits() >= EXACT_POWERS_OF_TEN.length - 1;
+            this.decimalSeparator = symbols.getDecimalSeparator();
+        } else {
+            this.plainNumberFormat = false;
+            this.decimalSeparator = '.';
+        }
     }
 
     /**
@@ -91,11 +138,244 @@ public class CsvWriter extends CsvIo implements Flushable {
      * @throws IOException if an I/O error occurs while writing the field to the CSV writer.
      */
     public void addField(@Nullable Object obj) throws IOException {
-        if (fieldsInRow > 0) {
+        switch (obj) {
+            case null -> addField((CharSequence) null);
+            case CharSequence cs -> addField(cs);
+            case Integer i -> addField(i.longValue());
+            case Long l -> addField(l.longValue());
+            case Short sh -> addField(sh.longValue());
+            case Byte b -> addField(b.longValue());
+            case Double d -> addField(d.doubleValue());
+            case Float f -> addField(f.doubleValue());
+            default -> {
+                startField();
+                out.write(format(obj));
+            }
+        }
+    }
+
+    /**
+     * Adds a text field to the current row in the CSV writer.
+     * If this is not the first field in the row, a separator is added before the new field.
+     *
+     * @param text the text, {@code null} is written as an empty field
+     * @throws IOException if an I/O error occurs while writing the field to the CSV writer.
+     */
+    public void addField(@Nullable CharSequence text) throws IOException {
+        startField();
+        if (text == null) {
+            return;
+        }
+
+        int n = text.length();
+        char[] buf = ensureCapacity(2 * n + 2);
+
+        // copy the text and determine if quoting is needed in a single pass; quotes can only be
+        // encountered after quoting has been switched on because they always need quoting
+        int pos = 1;
+        boolean quoted = false;
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            quoted = quoted || isQuoteNeeded(c);
+            buf[pos++] = c;
+            if (c == '"') {
+                buf[pos++] = c;
+            }
+        }
+
+        writeBuffer(pos, quoted);
+    }
+
+    /**
+     * Adds a {@code char} field to the current row in the CSV writer.
+     * If this is not the first field in the row, a separator is added before the new field.
+     * <p>
+     * This overload makes sure that characters are written as text and not as their numeric value, which would
+     * otherwise be the case because {@code char} widens to {@code int}.
+     *
+     * @param c the character
+     * @throws IOException if an I/O error occurs while writing the field to the CSV writer.
+     */
+    public void addField(char c) throws IOException {
+        addField(String.valueOf(c));
+    }
+
+    /**
+     * Adds an {@code int} field to the current row in the CSV writer.
+     * If this is not the first field in the row, a separator is added before the new field.
+     *
+     * @param value the value
+     * @throws IOException if an I/O error occurs while writing the field to the CSV writer.
+     */
+    public void addField(int value) throws IOException {
+        addField((long) value);
+    }
+
+    /**
+     * Adds a {@code long} field to the current row in the CSV writer.
+     * If this is not the first field in the row, a separator is added before the new field.
+     *
+     * @param value the value
+     * @throws IOException if an I/O error occurs while writing the field to the CSV writer.
+     */
+    public void addField(long value) throws IOException {
+        startField();
+        if (!plainNumberFormat) {
+            out.write(quoteIfNeeded(numberFormat.format(value)));
+            return;
+        }
+
+        int pos = 1;
+        if (value < 0) {
+            buffer[pos++] = '-';
+        }
+        writeNumber(appendDigits(pos, value < 0 ? value : -value, 0));
+    }
+
+    /**
+     * Adds a {@code double} field to the current row in the CSV writer.
+     * If this is not the first field in the row, a separator is added before the new field.
+     *
+     * @param value the value
+     * @throws IOException if an I/O error occurs while writing the field to the CSV writer.
+     */
+    public void addField(double value) throws IOException {
+        startField();
+        if (!plainNumberFormat || !Double.isFinite(value)) {
+            out.write(quoteIfNeeded(numberFormat.format(value)));
+            return;
+        }
+
+        // find the shortest decimal representation with up to 15 fraction digits that converts back to
+        // the same value; with at most 15 significant digits, it is the same representation that
+        // NumberFormat produces.
+        double abs = Math.abs(value);
+        for (int scale = 0; scale < EXACT_POWERS_OF_TEN.length; scale++) {
+            double scaled = abs * EXACT_POWERS_OF_TEN[scale];
+            if (scaled >= MAX_FAST_PATH_MANTISSA) {
+                break;
+            }
+            long mantissa = Math.round(scaled);
+            if (mantissa / EXACT_POWERS_OF_TEN[scale] == abs) {
+                int pos = 1;
+                if (Double.doubleToRawLongBits(value) < 0) {
+                    buffer[pos++] = '-';
+                }
+                writeNumber(appendDigits(pos, -mantissa, scale));
+                return;
+            }
+        }
+
+        out.write(quoteIfNeeded(numberFormat.format(value)));
+    }
+
+    /**
+     * Writes a complete row.
+     * <p>
+     * The values are added to the current row as if by calling {@link #addField(Object)} for each value, then
+     * {@link #nextRow()} is called.
+     *
+     * @param values the field values
+     * @throws IOException if an I/O error occurs while writing the row to the CSV writer.
+     */
+    public void writeRow(@Nullable Object[] values) throws IOException {
+        for (Object value : values) {
+            addField(value);
+        }
+        nextRow();
+    }
+
+    /**
+     * Write the separator if this is not the first field in the row and increment the field count.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void startField() throws IOException {
+        if (fieldsInRow++ > 0) {
             out.write(separator);
         }
-        out.write(format(obj));
-        fieldsInRow++;
+    }
+
+    /**
+     * Make sure the buffer can hold at least the given number of characters.
+     *
+     * @param capacity the required capacity
+     * @return the buffer
+     */
+    private char[] ensureCapacity(int capacity) {
+        if (buffer.length < capacity) {
+            buffer = new char[Math.max(capacity, 2 * buffer.length)];
+        }
+        return buffer;
+    }
+
+    /**
+     * Append the decimal digits of a number to the buffer.
+     *
+     * @param pos      the buffer position
+     * @param negValue the negated value, using the negative range so that {@link Long#MIN_VALUE} is handled correctly
+     * @param scale    the number of fraction digits; trailing zeros in the fraction are omitted
+     * @return the buffer position after the last character written
+     */
+    private int appendDigits(int pos, long negValue, int scale) {
+        int digits = 1;
+        for (long v = negValue; v <= -10; v /= 10) {
+            digits++;
+        }
+        int integerDigits = Math.max(digits - scale, 1);
+        int end = pos + integerDigits + (scale > 0 ? scale + 1 : 0);
+
+        char[] buf = ensureCapacity(end + 1);
+        long v = negValue;
+        int p = end;
+        for (int i = 0; i < scale; i++) {
+            buf[--p] = (char) ('0' - v % 10);
+            v /= 10;
+        }
+        if (scale > 0) {
+            buf[--p] = decimalSeparator;
+        }
+        do {
+            buf[--p] = (char) ('0' - v % 10);
+            v /= 10;
+        } while (v != 0);
+        while (p > pos) {
+            buf[--p] = '0';
+        }
+
+        return end;
+    }
+
+    /**
+     * Write a formatted number from the buffer, quoting it if needed.
+     *
+     * @param end the buffer position after the last character of the number
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeNumber(int end) throws IOException {
+        boolean quoted = false;
+        for (int i = 1; i < end && !quoted; i++) {
+            quoted = isQuoteNeeded(buffer[i]);
+        }
+        writeBuffer(end, quoted);
+    }
+
+    /**
+     * Write the buffer content starting at index 1.
+     *
+     * @param end    the buffer position after the last character to write
+     * @param quoted whether to surround the text with delimiters
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeBuffer(int end, boolean quoted) throws IOException {
+        if (quoted) {
+            char[] buf = ensureCapacity(end + 1);
+            buf[0] = delimiter;
+            buf[end] = delimiter;
+            out.write(buf, 0, end + 1);
+        } else {
+            out.write(buffer, 1, end - 1);
+        }
     }
 
     @Override
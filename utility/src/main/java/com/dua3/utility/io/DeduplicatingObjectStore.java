@@ -0,0 +1,863 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.lang.LangUtil;
+import com.dua3.utility.text.TextUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * An {@link ObjectStore} that stores each distinct content only once.
+ * <p>
+ * The content of data objects is hashed using SHA-256 when it is written and stored as a blob in the delegate store,
+ * using the hash as its name. Logical paths are mapped to blobs through an index that is kept in memory. Writing
+ * content that is already present in the store does not write any data, and {@link #copy(URI, URI, OutputOption...)}
+ * and {@link #move(URI, URI, OutputOption...)} only update the index.
+ * <p>
+ * The delegate store contains the following objects:
+ * <ul>
+ *     <li>{@code blobs/}: the blobs, named by the hex encoded hash of their content,
+ *     <li>{@code index}: the persisted index in a compact binary format,
+ *     <li>{@code tmp/}: temporary objects used while data is written through streams and channels.
+ * </ul>
+ * The index is written to the delegate by {@link #flush()} and {@link #close()}. Blobs that are no longer referenced
+ * are only deleted after the index has been written, so that the persisted index always refers to existing blobs.
+ * Changes since the last call to {@code flush()} are lost if the application terminates without closing the store.
+ * <p>
+ * The delegate must not be modified while it is in use by this store. Closing this store does not close the
+ * delegate.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class DeduplicatingObjectStore implements ObjectStore {
+    private static final Logger LOG = LogManager.getLogger(DeduplicatingObjectStore.class);
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int HASH_LENGTH = 32;
+    private static final int INDEX_MAGIC = 0x44445831; // "DDX1"
+    private static final URI INDEX = URI.create("index");
+    private static final URI INDEX_TMP = URI.create("index.tmp");
+    private static final URI BLOBS = URI.create("blobs");
+    private static final URI TMP = URI.create("tmp");
+    private static final byte TYPE_FOLDER = 0;
+    private static final byte TYPE_DATA = 1;
+
+    private sealed interface Entry permits Folder, Data {
+        Instant created();
+
+        Instant lastModified();
+    }
+
+    private record Folder(Instant created, Instant lastModified) implements Entry {}
+
+    private record Data(String hash, long size, Instant created, Instant lastModified) implements Entry {}
+
+    private static final class Blob {
+        final long size;
+        int references;
+
+        Blob(long size) {
+            this.size = size;
+        }
+    }
+
+    private final ObjectStore delegate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Entry> entries = new TreeMap<>();
+    private final Map<String, Blob> blobs = new HashMap<>();
+    private final Set<String> unreferencedBlobs = new HashSet<>();
+    private final LongAdder deduplicatedWrites = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private boolean modified;
+    private boolean closed;
+
+    private DeduplicatingObjectStore(ObjectStore delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Opens a deduplicating store that keeps its data in the given delegate store.
+     * <p>
+     * If the delegate contains an index written by a previous instance, it is loaded. Temporary objects left over
+     * from an earlier session are removed.
+     *
+     * @param delegate the store used to hold the blobs and the index
+     * @return the deduplicating store
+     * @throws IOException if the index cannot be read
+     */
+    public static DeduplicatingObjectStore open(ObjectStore delegate) throws IOException {
+        delegate.assertReadable();
+        delegate.assertWritable();
+
+        DeduplicatingObjectStore store = new DeduplicatingObjectStore(delegate);
+        store.load();
+        return store;
+    }
+
+    @Override
+    public URI getRoot() {
+        return delegate.getRoot();
+    }
+
+    @Override
+    public AccessMode getAccessMode() {
+        return AccessMode.READ_AND_WRITE;
+    }
+
+    @Override
+    public Stream<ObjectInfo> list(URI path) throws IOException {
+        String key = toKey(path);
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            switch (entries.get(key)) {
+                case null -> throw new ObjectNotFoundException(path.toString());
+                case Data ignored -> throw new NotAFolderException(path.toString());
+                case Folder ignored -> { /* nothing to do */ }
+            }
+
+            String prefix = key.isEmpty() ? "" : key + "/";
+            List<ObjectInfo> children = new ArrayList<>();
+            String child = key.isEmpty() ? entries.higherKey("") : entries.ceilingKey(prefix);
+            while (child != null && child.startsWith(prefix)) {
+                int slash = child.indexOf('/', prefix.length());
+                if (slash < 0) {
+                    children.add(toObjectInfo(child, entries.get(child)));
+                    child = entries.higherKey(child);
+                } else {
+                    // skip the descendants of a child folder
+                    child = entries.ceilingKey(child.substring(0, slash) + "0");
+                }
+            }
+            return children.stream();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<ObjectInfo> getInfo(URI path) throws IOException {
+        String key = toKey(path);
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            Entry entry = entries.get(key);
+            return entry == null ? Optional.empty() : Optional.of(toObjectInfo(key, entry));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public InputStream openInputStream(URI path) throws IOException {
+        return withBlob(path, delegate::openInputStream);
+    }
+
+    @Override
+    public ReadableByteChannel openReadableByteChannel(URI path) throws IOException {
+        return withBlob(path, delegate::openReadableByteChannel);
+    }
+
+    @Override
+    public byte[] readAllBytes(URI path) throws IOException {
+        return withBlob(path, delegate::readAllBytes);
+    }
+
+    @Override
+    public long transferTo(URI path, OutputStream out) throws IOException {
+        // do not hold the lock while writing to the caller's stream
+        try (InputStream in = openInputStream(path)) {
+            return in.transferTo(out);
+        }
+    }
+
+    @Override
+    public long transferTo(URI path, WritableByteChannel out) throws IOException {
+        // the stream returned by Channels.newOutputStream() must not be closed because that would close the channel
+        try (InputStream in = openInputStream(path)) {
+            return in.transferTo(Channels.newOutputStream(out));
+        }
+    }
+
+    @Override
+    public ByteBuffer map(URI path) throws IOException {
+        return withBlob(path, delegate::map);
+    }
+
+    /**
+     * Writes data to an object.
+     * <p>
+     * The data is hashed before anything is written. If a blob with the same content already exists, no data is
+     * written to the delegate.
+     */
+    @Override
+    public long write(URI path, byte[] data, int from, int to, OutputOption... options) throws IOException {
+        int length = to - from;
+        if (from < 0 || to < from || to > data.length) {
+            throw new IndexOutOfBoundsException("invalid bounds: from=" + from + ", to=" + to + ", length=" + data.length);
+        }
+
+        String key = toKey(path);
+        OutputOption option = getOutputOption(options);
+
+        byte[] content = from == 0 && to == data.length ? data : Arrays.copyOfRange(data, from, to);
+        String hash;
+        try {
+            hash = TextUtil.getDigestString(HASH_ALGORITHM, content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            checkCanWrite(key, path, option);
+            if (!reuseBlob(hash)) {
+                delegate.write(blobPath(hash), content, OutputOption.CREATE_OR_REPLACE);
+                blobs.put(hash, new Blob(length));
+                bytesWritten.add(length);
+            }
+            putData(key, path, hash);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return length;
+    }
+
+    @Override
+    public long write(URI path, InputStream in, OutputOption... options) throws IOException {
+        try (OutputStream out = openOutputStream(path, options)) {
+            return in.transferTo(out);
+        }
+    }
+
+    /**
+     * Opens an output stream to write data to an object.
+     * <p>
+     * The data is written to a temporary object in the delegate store and hashed while it is written. When the
+     * stream is closed, the temporary object either becomes a new blob or is discarded if a blob with the same
+     * content already exists.
+     */
+    @Override
+    public OutputStream openOutputStream(URI path, OutputOption... options) throws IOException {
+        String key = toKey(path);
+        OutputOption option = getOutputOption(options);
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            checkCanWrite(key, path, option);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        URI tmp = URI.create(TMP + "/" + UUID.randomUUID());
+        return new FilterOutputStream(new DigestOutputStream(delegate.openOutputStream(tmp, OutputOption.CREATE_NEW), digest)) {
+            private long size;
+            private boolean done;
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                size++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                size += len;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (done) {
+                    return;
+                }
+                done = true;
+                try {
+                    super.close();
+                    commitTemporary(tmp, HexFormat.of().formatHex(digest.digest()), size, key, path, option);
+                } finally {
+                    if (delegate.getInfo(tmp).isPresent()) {
+                        delegate.delete(tmp);
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public WritableByteChannel openWritableByteChannel(URI path, OutputOption... options) throws IOException {
+        return Channels.newChannel(openOutputStream(path, options));
+    }
+
+    private void commitTemporary(URI tmp, String hash, long size, String key, URI path, OutputOption option) throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            checkCanWrite(key, path, option);
+            if (!reuseBlob(hash)) {
+                delegate.move(tmp, blobPath(hash), OutputOption.CREATE_OR_REPLACE);
+                blobs.put(hash, new Blob(size));
+                bytesWritten.add(size);
+            }
+            putData(key, path, hash);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void createFolder(URI path) throws IOException {
+        String key = toKey(path);
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            Entry entry = entries.get(key);
+            if (entry instanceof Data) {
+                throw new NotAFolderException(path.toString());
+            }
+            if (entry == null) {
+                Instant now = Instant.now();
+                createParents(key, path, now);
+                entries.put(key, new Folder(now, now));
+                modified = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copies an object by adding a new index entry that refers to the same blob; no data is copied.
+     */
+    @Override
+    public void copy(URI source, URI target, OutputOption... options) throws IOException {
+        String sourceKey = toKey(source);
+        String targetKey = toKey(target);
+        OutputOption option = getOutputOption(options);
+
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            Data data = getData(sourceKey, source);
+            checkCanWrite(targetKey, target, option);
+            reuseBlob(data.hash());
+            putData(targetKey, target, data.hash());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves an object by updating the index; no data is copied.
+     */
+    @Override
+    public void move(URI source, URI target, OutputOption... options) throws IOException {
+        String sourceKey = toKey(source);
+        String targetKey = toKey(target);
+        OutputOption option = getOutputOption(options);
+
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            Data data = getData(sourceKey, source);
+            if (sourceKey.equals(targetKey)) {
+                if (option == OutputOption.CREATE_NEW) {
+                    throw new ObjectExistsException(target.toString());
+                }
+                return;
+            }
+            checkCanWrite(targetKey, target, option);
+            reuseBlob(data.hash());
+            putData(targetKey, target, data.hash());
+            remove(sourceKey);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeFolder(URI path) throws IOException {
+        String key = toKey(path);
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            switch (entries.get(key)) {
+                case null -> throw new ObjectNotFoundException(path.toString());
+                case Data ignored -> throw new NotAFolderException(path.toString());
+                case Folder ignored -> deleteEntry(key, path);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(URI path) throws IOException {
+        String key = toKey(path);
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            if (!entries.containsKey(key)) {
+                throw new ObjectNotFoundException(path.toString());
+            }
+            deleteEntry(key, path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteRecursively(URI path) throws IOException {
+        String key = toKey(path);
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            if (!entries.containsKey(key)) {
+                throw new ObjectNotFoundException(path.toString());
+            }
+
+            Map<String, Entry> descendants = key.isEmpty() ? entries.tailMap("", false) : entries.subMap(key + "/", key + "0");
+            for (Entry entry : descendants.values()) {
+                if (entry instanceof Data data) {
+                    release(data.hash());
+                }
+            }
+            descendants.clear();
+            if (!key.isEmpty()) {
+                remove(key);
+            }
+            modified = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the index to the delegate store and deletes blobs that are no longer referenced.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            if (modified) {
+                writeIndex();
+                modified = false;
+            }
+            for (String hash : unreferencedBlobs) {
+                blobs.remove(hash);
+                URI blob = blobPath(hash);
+                if (delegate.getInfo(blob).isPresent()) {
+                    delegate.delete(blob);
+                }
+            }
+            unreferencedBlobs.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes blobs in the delegate store that are not referenced by the index, e.g., blobs left over when the
+     * application terminated without writing the index.
+     *
+     * @return the number of blobs deleted
+     * @throws IOException if an I/O error occurs
+     */
+    public int collectGarbage() throws IOException {
+        lock.writeLock().lock();
+        try {
+            flush();
+            if (delegate.getInfo(BLOBS).isEmpty()) {
+                return 0;
+            }
+
+            List<URI> garbage;
+            try (Stream<ObjectInfo> objects = delegate.walk(BLOBS)) {
+                garbage = objects.filter(info -> info.type() == ObjectType.DATA)
+                        .map(ObjectInfo::uri)
+                        .filter(uri -> !blobs.containsKey(lastSegment(uri)))
+                        .toList();
+            }
+            for (URI uri : garbage) {
+                delegate.delete(uri);
+            }
+            return garbage.size();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get statistics about the deduplication achieved by this store.
+     *
+     * @return snapshot of the statistics for this store
+     */
+    public Stats getStats() {
+        lock.readLock().lock();
+        try {
+            int objects = 0;
+            long logicalBytes = 0;
+            for (Entry entry : entries.values()) {
+                if (entry instanceof Data data) {
+                    objects++;
+                    logicalBytes += data.size();
+                }
+            }
+            long storedBytes = blobs.values().stream().mapToLong(blob -> blob.size).sum();
+            return new Stats(objects, blobs.size(), logicalBytes, storedBytes, deduplicatedWrites.sum(), bytesWritten.sum());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Deduplication statistics.
+     *
+     * @param objects            the number of data objects
+     * @param blobs              the number of distinct blobs
+     * @param logicalBytes       the total size of all data objects
+     * @param storedBytes        the total size of all blobs
+     * @param deduplicatedWrites the number of writes, copies, and moves that reused an existing blob
+     * @param bytesWritten       the number of bytes written to new blobs
+     */
+    public record Stats(int objects, int blobs, long logicalBytes, long storedBytes, long deduplicatedWrites, long bytesWritten) {}
+
+    /**
+     * Writes the index and releases the memory used by this store. The delegate is not closed.
+     *
+     * @throws IOException if the index cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            flush();
+            entries.clear();
+            blobs.clear();
+            closed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(delegate=" + delegate + ")";
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("store is closed");
+        }
+    }
+
+    /**
+     * Access the blob of a data object. The operation is performed while holding the read lock, so that
+     * {@link #flush()} cannot delete the blob before it has been opened.
+     */
+    private <T> T withBlob(URI path, LangUtil.FunctionThrows<URI, T, IOException> operation) throws IOException {
+        String key = toKey(path);
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            return operation.apply(blobPath(getData(key, path).hash()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Data getData(String key, URI path) throws IOException {
+        return switch (entries.get(key)) {
+            case null -> throw new ObjectNotFoundException(path.toString());
+            case Folder ignored -> throw new IOException("not a data object: " + path);
+            case Data data -> data;
+        };
+    }
+
+    private void checkCanWrite(String key, URI path, OutputOption option) throws IOException {
+        if (key.isEmpty()) {
+            throw new IOException("cannot write data to the root folder");
+        }
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (option == OutputOption.CREATE_NEW) {
+                throw new ObjectExistsException(path.toString());
+            }
+            if (entry instanceof Folder) {
+                throw new IOException("Cannot write data directly to folder: " + path);
+            }
+        }
+        for (String parent = parentKey(key); parent != null; parent = parentKey(parent)) {
+            Entry parentEntry = entries.get(parent);
+            if (parentEntry instanceof Data) {
+                throw new NotAFolderException(path.toString());
+            }
+            if (parentEntry != null) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Adds a reference to a blob if it exists.
+     *
+     * @param hash the blob hash
+     * @return {@code true} if the blob exists
+     */
+    private boolean reuseBlob(String hash) {
+        Blob blob = blobs.get(hash);
+        if (blob == null) {
+            return false;
+        }
+        unreferencedBlobs.remove(hash);
+        deduplicatedWrites.increment();
+        return true;
+    }
+
+    private void putData(String key, URI path, String hash) throws IOException {
+        Instant now = Instant.now();
+        createParents(key, path, now);
+
+        Blob blob = blobs.get(hash);
+        blob.references++;
+
+        Entry old = entries.get(key);
+        entries.put(key, new Data(hash, blob.size, old == null ? now : old.created(), now));
+        if (old instanceof Data data) {
+            release(data.hash());
+        }
+        modified = true;
+    }
+
+    private void deleteEntry(String key, URI path) throws IOException {
+        if (key.isEmpty()) {
+            throw new IOException("cannot delete the root folder");
+        }
+        String child = entries.ceilingKey(key + "/");
+        if (child != null && child.startsWith(key + "/")) {
+            throw new FolderNotEmptyException(path.toString());
+        }
+        remove(key);
+    }
+
+    private void remove(String key) {
+        if (entries.remove(key) instanceof Data data) {
+            release(data.hash());
+        }
+        touchParent(key, Instant.now());
+        modified = true;
+    }
+
+    private void release(String hash) {
+        Blob blob = blobs.get(hash);
+        if (blob != null && --blob.references == 0) {
+            unreferencedBlobs.add(hash);
+        }
+    }
+
+    private void createParents(String key, URI path, Instant now) throws NotAFolderException {
+        String parent = parentKey(key);
+        if (parent == null) {
+            return;
+        }
+        switch (entries.get(parent)) {
+            case null -> {
+                createParents(parent, path, now);
+                entries.put(parent, new Folder(now, now));
+            }
+            case Data ignored -> throw new NotAFolderException(path.toString());
+            case Folder folder -> entries.put(parent, new Folder(folder.created(), now));
+        }
+    }
+
+    private void touchParent(String key, Instant now) {
+        String parent = parentKey(key);
+        if (parent != null && entries.get(parent) instanceof Folder folder) {
+            entries.put(parent, new Folder(folder.created(), now));
+        }
+    }
+
+    private void load() throws IOException {
+        Instant now = Instant.now();
+        entries.put("", new Folder(now, now));
+
+        if (delegate.getInfo(INDEX).isPresent()) {
+            readIndex();
+        }
+        for (Entry entry : entries.values()) {
+            if (entry instanceof Data data) {
+                blobs.computeIfAbsent(data.hash(), h -> new Blob(data.size())).references++;
+            }
+        }
+
+        if (delegate.getInfo(TMP).isPresent()) {
+            delegate.deleteRecursively(TMP);
+        }
+        LOG.debug("opened deduplicating store with {} entries and {} blobs", entries.size(), blobs.size());
+    }
+
+    private void readIndex() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(delegate.openInputStream(INDEX)))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                throw new IOException("invalid index in " + delegate);
+            }
+            int n = in.readInt();
+            byte[] hash = new byte[HASH_LENGTH];
+            for (int i = 0; i < n; i++) {
+                String key = in.readUTF();
+                byte type = in.readByte();
+                Instant created = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                Instant lastModified = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                switch (type) {
+                    case TYPE_FOLDER -> entries.put(key, new Folder(created, lastModified));
+                    case TYPE_DATA -> {
+                        in.readFully(hash);
+                        long size = in.readLong();
+                        entries.put(key, new Data(HexFormat.of().formatHex(hash), size, created, lastModified));
+                    }
+                    default -> throw new IOException("invalid entry type in index: " + type);
+                }
+            }
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(delegate.openOutputStream(INDEX_TMP, OutputOption.CREATE_OR_REPLACE)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeByte(entry instanceof Data ? TYPE_DATA : TYPE_FOLDER);
+                out.writeLong(entry.created().getEpochSecond());
+                out.writeInt(entry.created().getNano());
+                out.writeLong(entry.lastModified().getEpochSecond());
+                out.writeInt(entry.lastModified().getNano());
+                if (entry instanceof Data data) {
+                    out.write(HexFormat.of().parseHex(data.hash()));
+                    out.writeLong(data.size());
+                }
+            }
+        }
+        delegate.move(INDEX_TMP, INDEX, OutputOption.CREATE_OR_REPLACE);
+    }
+
+    private ObjectInfo toObjectInfo(String key, Entry entry) throws IOException {
+        boolean folder = entry instanceof Folder;
+        String path = folder && !key.isEmpty() ? key + "/" : key;
+        URI uri;
+        try {
+            uri = new URI(null, null, path, null);
+        } catch (URISyntaxException e) {
+            throw new IOException("could not create URI for path: " + path, e);
+        }
+        return switch (entry) {
+            case Folder f -> new ObjectInfo(uri, ObjectType.FOLDER, ObjectInfo.UNKNOWN_SIZE, f.created(), f.lastModified());
+            case Data d -> new ObjectInfo(uri, ObjectType.DATA, d.size(), d.created(), d.lastModified());
+        };
+    }
+
+    /**
+     * Converts a path to the key used in the index: the normalized path without leading or trailing slashes.
+     */
+    private static String toKey(URI path) throws IllegalPathException {
+        if (path.isAbsolute()) {
+            throw new AbsolutePathException("absolute path not allowed: " + path);
+        }
+        String p = path.getPath();
+        if (p == null || p.startsWith("/") || path.getRawAuthority() != null) {
+            throw new IllegalPathException("invalid path: " + path);
+        }
+
+        List<String> names = new ArrayList<>();
+        for (String name : p.split("/")) {
+            switch (name) {
+                case "", "." -> { /* nothing to do */ }
+                case ".." -> {
+                    if (names.isEmpty()) {
+                        throw new IllegalPathException("path points outside root: " + path);
+                    }
+                    names.removeLast();
+                }
+                default -> names.add(name);
+            }
+        }
+        return String.join("/", names);
+    }
+
+    private static @Nullable String parentKey(String key) {
+        if (key.isEmpty()) {
+            return null;
+        }
+        int slash = key.lastIndexOf('/');
+        return slash < 0 ? "" : key.substring(0, slash);
+    }
+
+    private static URI blobPath(String hash) {
+        return URI.create(BLOBS + "/" + hash.substring(0, 2) + "/" + hash);
+    }
+
+    private static String lastSegment(URI uri) {
+        String s = uri.getPath();
+        return s.substring(s.lastIndexOf('/') + 1);
+    }
+
+    private static OutputOption getOutputOption(OutputOption... options) {
+        Set<OutputOption> optionSet = Set.of(options);
+        return switch (optionSet.size()) {
+            case 0 -> OutputOption.CREATE_NEW;
+            case 1 -> optionSet.iterator().next();
+            default -> throw new IllegalArgumentException("Multiple incompatible output options specified: " + Arrays.toString(options));
+        };
+    }
+}
@@ -403,6 +403,76 @@ public abstract class FileType<T> implements Comparable<FileType<?>> {
         return Optional.empty();
     }
 
+    /**
+     * Read many documents concurrently.
+     * <p>
+     * The file type of each resource is determined in parallel using the file name and the first bytes of its content,
+     * see {@link #matches(String, long)}. Resources are then read grouped by file type with at most
+     * {@code parallelism} resources being processed at the same time.
+     * <p>
+     * Results are streamed in the order reading completes. Resources for which no file type can be determined or
+     * that cannot be read are reported as {@link LoadResult.Failure}; the other resources are not affected.
+     * The returned stream should be closed when not all results are consumed to cancel pending work.
+     *
+     * @param uris        the URIs to read from
+     * @param cls         the class
+     * @param parallelism the maximum number of resources to read concurrently
+     * @param <T>         the generic class parameter
+     * @return a stream containing one {@link LoadResult} per URI
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public static <T> Stream<LoadResult<T>> readAll(Collection<URI> uris, Class<T> cls, int parallelism) {
+        return readAll(uris, cls, parallelism, t -> Arguments.empty());
+    }
+
+    /**
+     * Read many documents concurrently.
+     * <p>
+     * See {@link #readAll(Collection, Class, int)} for details.
+     *
+     * @param uris        the URIs to read from
+     * @param cls         the class
+     * @param parallelism the maximum number of resources to read concurrently
+     * @param options     the options to use
+     * @param <T>         the generic class parameter
+     * @return a stream containing one {@link LoadResult} per URI
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public static <T> Stream<LoadResult<T>> readAll(Collection<URI> uris, Class<T> cls, int parallelism, Function<FileType<? extends T>, Arguments> options) {
+        return BatchLoader.<FileType<T>, T>loadAll(
+                uris,
+                parallelism,
+                (uri, magic) -> forFileName(uri.getSchemeSpecificPart(), magic, cls)
+                        .orElseThrow(() -> new IOException("no file type for " + cls.getName() + " matches " + uri)),
+                (type, uri) -> type.read(uri, options)
+        );
+    }
+
+    /**
+     * Read many documents from files concurrently.
+     * <p>
+     * See {@link #readAll(Collection, Class, int)} for details.
+     *
+     * @param paths       the paths to read from
+     * @param cls         the class
+     * @param parallelism the maximum number of files to read concurrently
+     * @param <T>         the generic class parameter
+     * @return a stream containing one {@link LoadResult} per path
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public static <T> Stream<LoadResult<T>> readAllFiles(Collection<Path> paths, Class<T> cls, int parallelism) {
+        return readAll(paths.stream().map(Path::toUri).toList(), cls, parallelism);
+    }
+
+    private static <T> Optional<FileType<T>> forFileName(String fileName, long magic, Class<T> cls) {
+        for (FileType<?> t : FILE_TYPES) {
+            if (t.isSupported(OpenMode.READ) && t.matches(fileName, magic) && cls.isAssignableFrom(t.getDocumentClass())) {
+                return Optional.of((FileType<T>) t);
+            }
+        }
+        return Optional.empty();
+    }
+
     /**
      * Get file types supporting mode.
      *
@@ -518,6 +588,21 @@ public abstract class FileType<T> implements Comparable<FileType<?>> {
         return extensions.stream().anyMatch(ext2 -> ext2.equals(ext1));
     }
 
+    /**
+     * Check if a file matches this type, taking into account the first bytes of its content.
+     * <p>
+     * This method is used when reading many files at once, see {@link #readAll(Collection, Class, int)}. The default
+     * implementation only checks the filename; file types with a well-known signature should override this method to
+     * recognize files by content.
+     *
+     * @param filename the filename
+     * @param magic    the first eight bytes of the file in big-endian order, padded with zeros for shorter files
+     * @return true, if the file matches this type
+     */
+    public boolean matches(String filename, long magic) {
+        return matches(filename);
+    }
+
     /**
      * Read a document from a {@link URI}.
      *
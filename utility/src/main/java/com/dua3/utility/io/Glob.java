@@ -52,7 +52,7 @@ final class Glob<T> {
         Predicate<T> matcher = adapter.matcherFactory().apply(fixedBase, globPart);
 
         // The caller owns the returned stream and must close it.
-        return adapter.walk().apply(fixedBase)
+        return adapter.walk().apply(fixedBase, globPart)
                 .filter(matcher)
                 .map(object -> adapter.normalize().apply(base, object));
     }
@@ -106,7 +106,7 @@ record GlobAdapter<T>(
         String separator,
         LangUtil.BiFunctionThrows<T, String, T, IOException> resolve,
         LangUtil.PredicateThrows<T, IOException> exists,
-        LangUtil.FunctionThrows<T, Stream<T>, IOException> walk,
+        LangUtil.BiFunctionThrows<T, String, Stream<T>, IOException> walk,
         GlobMatcherFactory<T> matcherFactory,
         BiFunction<T, T, T> normalize
 ) {
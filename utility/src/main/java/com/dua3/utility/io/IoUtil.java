@@ -1289,7 +1289,7 @@ public final class IoUtil {
                             : globBase.resolve(resolved).toAbsolutePath().normalize();
                 },
                 Files::exists,
-                Files::walk,
+                (fixedBase, globPart) -> Files.walk(fixedBase),
                 (fixedBase, globPart) -> {
                     String globPattern = (fixedBase + globPart).replace(fs.getSeparator(), "/");
                     PathMatcher pathMatcher = fs.getPathMatcher("glob:" + globPattern);
@@ -0,0 +1,62 @@
+package com.dua3.utility.io;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * The result of loading a single resource as part of a batch, see {@link FileType#readAll(java.util.Collection, Class, int)}
+ * and {@link Loader#loadAll(Class, java.util.Collection, int, Object...)}.
+ * <p>
+ * A failure to load one resource does not abort the batch; instead, a {@link Failure} is reported for that resource.
+ *
+ * @param <T> the type of the loaded objects
+ */
+public sealed interface LoadResult<T> permits LoadResult.Success, LoadResult.Failure {
+
+    /**
+     * Get the URI of the resource.
+     *
+     * @return the URI of the resource this result belongs to
+     */
+    URI uri();
+
+    /**
+     * A successfully loaded resource.
+     *
+     * @param uri   the URI of the resource
+     * @param value the loaded object
+     * @param <T>   the type of the loaded object
+     */
+    record Success<T>(URI uri, T value) implements LoadResult<T> {}
+
+    /**
+     * A resource that could not be loaded.
+     *
+     * @param uri   the URI of the resource
+     * @param error the exception describing the failure
+     * @param <T>   the type of the object that was to be loaded
+     */
+    record Failure<T>(URI uri, IOException error) implements LoadResult<T> {}
+
+    /**
+     * Check whether the resource was loaded successfully.
+     *
+     * @return {@code true} if this is a {@link Success}
+     */
+    default boolean isSuccess() {
+        return this instanceof Success;
+    }
+
+    /**
+     * Get the loaded object.
+     *
+     * @return the loaded object
+     * @throws IOException the exception that caused the failure if the resource could not be loaded
+     */
+    default T getOrThrow() throws IOException {
+        return switch (this) {
+            case Success<T> s -> s.value();
+            case Failure<T> f -> throw f.error();
+        };
+    }
+}
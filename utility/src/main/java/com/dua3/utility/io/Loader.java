@@ -4,7 +4,9 @@ import org.apache.logging.log4j.LogManager;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -88,12 +90,92 @@ public interface Loader<T> {
      */
     @SuppressWarnings({"unchecked", "rawtypes"})
     static <T> Optional<T> tryLoad(Class<? extends T> cls, Payload payload, Object... options) throws IOException {
-        List[] ex = {null};
-        Optional<T> loaded = Stream.of(Thread.currentThread().getContextClassLoader(), Loader.class.getClassLoader(), ClassLoader.getSystemClassLoader())
+        Stream<Loader> loaders = Stream.of(Thread.currentThread().getContextClassLoader(), Loader.class.getClassLoader(), ClassLoader.getSystemClassLoader())
+                .distinct()
+                .flatMap(cl -> ServiceLoader.load(Loader.class, cl).stream())
+                .map(ServiceLoader.Provider::get);
+        return tryLoad(loaders.filter(current -> current.isSupported(cls, payload.magic8Bytes(), options)), payload, options);
+    }
+
+    /**
+     * Loads many objects concurrently.
+     * <p>
+     * The first bytes of all resources are read in parallel to determine the {@link Loader} implementations that
+     * support each resource. Resources are then loaded grouped by the supporting loaders with at most
+     * {@code parallelism} resources being processed at the same time.
+     * <p>
+     * Results are streamed in the order loading completes. Resources that no loader supports or that cannot be loaded
+     * are reported as {@link LoadResult.Failure}; the other resources are not affected. The returned stream should be
+     * closed when not all results are consumed to cancel pending work.
+     *
+     * @param <T>         the type of the objects to be loaded
+     * @param cls         the class of the objects to be loaded
+     * @param uris        the URIs pointing to the resources to be loaded
+     * @param parallelism the maximum number of resources to load concurrently
+     * @param options     an array of options for configuring the loading process
+     * @return a stream containing one {@link LoadResult} per URI
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> Stream<LoadResult<T>> loadAll(Class<? extends T> cls, Collection<URI> uris, int parallelism, Object... options) {
+        List<Loader> loaders = Stream.of(Thread.currentThread().getContextClassLoader(), Loader.class.getClassLoader(), ClassLoader.getSystemClassLoader())
                 .distinct()
                 .flatMap(cl -> ServiceLoader.load(Loader.class, cl).stream())
                 .map(ServiceLoader.Provider::get)
-                .filter(current -> current.isSupported(cls, payload.magic8Bytes(), options))
+                .map(loader -> (Loader) loader)
+                .toList();
+
+        return BatchLoader.<List<Loader>, T>loadAll(
+                uris,
+                parallelism,
+                (uri, magic) -> {
+                    List<Loader> supported = loaders.stream()
+                            .filter(loader -> loader.isSupported(cls, magic, options))
+                            .toList();
+                    if (supported.isEmpty()) {
+                        throw new IOException("no Loader implementation supports " + cls.getName() + " for " + uri);
+                    }
+                    return supported;
+                },
+                (supported, uri) -> {
+                    try (Payload payload = Payload.fromUri(uri)) {
+                        return (T) tryLoad(supported.stream(), payload, options)
+                                .orElseThrow(() -> new IOException("no Loader implementation supports " + cls.getName()));
+                    }
+                }
+        );
+    }
+
+    /**
+     * Loads many objects from files concurrently.
+     * <p>
+     * See {@link #loadAll(Class, Collection, int, Object...)} for details.
+     *
+     * @param <T>         the type of the objects to be loaded
+     * @param cls         the class of the objects to be loaded
+     * @param paths       the paths of the files to be loaded
+     * @param parallelism the maximum number of files to load concurrently
+     * @param options     an array of options for configuring the loading process
+     * @return a stream containing one {@link LoadResult} per path
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    static <T> Stream<LoadResult<T>> loadAllFiles(Class<? extends T> cls, Collection<Path> paths, int parallelism, Object... options) {
+        return loadAll(cls, paths.stream().map(Path::toUri).toList(), parallelism, options);
+    }
+
+    /**
+     * Try the given loaders in order and return the first object loaded successfully.
+     *
+     * @param loaders the loaders supporting the payload
+     * @param payload the payload
+     * @param options the options
+     * @return the loaded object, or an empty optional if no loader was given
+     * @throws IOException if all loaders fail with an I/O error
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Optional<T> tryLoad(Stream<Loader> loaders, Payload payload, Object[] options) throws IOException {
+        List[] ex = {null};
+        Optional<T> loaded = loaders
                 .map(loader -> {
                     try {
                         return (T) loader.load(payload, options);
@@ -0,0 +1,376 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.lang.LangUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Traverses the folder structure of a {@link ReadableObjectStore}, either sequentially or by listing
+ * folders concurrently on virtual threads.
+ */
+final class ObjectStoreWalker {
+
+    /**
+     * The number of entries buffered by a parallel walk before the listing threads block.
+     */
+    static final int QUEUE_CAPACITY = 1024;
+
+    private ObjectStoreWalker() {
+        // utility class
+    }
+
+    /**
+     * Walks the store sequentially in depth-first order.
+     *
+     * @param store the store
+     * @param start the starting point
+     * @param maxDepth the maximum depth
+     * @param descend predicate that decides whether a folder's children are listed
+     * @return stream of the entries encountered
+     * @throws IOException if the starting point cannot be accessed
+     */
+    static Stream<ObjectStore.ObjectInfo> walk(
+            ReadableObjectStore store,
+            URI start,
+            int maxDepth,
+            Predicate<? super ObjectStore.ObjectInfo> descend
+    ) throws IOException {
+        LangUtil.checkArg(maxDepth >= 0, "maxDepth < 0");
+
+        record Node(ObjectStore.ObjectInfo info, int depth) {}
+
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(new Node(getRoot(store, start), 0));
+
+        Iterator<ObjectStore.ObjectInfo> iterator = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            @SuppressWarnings("java:S2272") // NoSuchElementException is thrown in stack.pop()
+            public ObjectStore.ObjectInfo next() throws NoSuchElementException, UncheckedIOException {
+                Node node = stack.pop();
+                ObjectStore.ObjectInfo info = node.info();
+
+                if (isExpanded(info, node.depth(), maxDepth, descend)) {
+                    try (Stream<ObjectStore.ObjectInfo> children = store.list(info.uri())) {
+                        List<ObjectStore.ObjectInfo> entries = children.toList();
+
+                        // Reverse so traversal order matches list()
+                        for (int i = entries.size() - 1; i >= 0; i--) {
+                            stack.push(new Node(entries.get(i), node.depth() + 1));
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                return info;
+            }
+        };
+
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL),
+                false
+        );
+    }
+
+    /**
+     * Walks the store listing up to {@code parallelism} folders concurrently.
+     * <p>
+     * The entries are returned in no particular order. At most {@link #QUEUE_CAPACITY} entries are buffered;
+     * when the consumer falls behind, the listing threads block. Closing the stream stops the walk.
+     *
+     * @param store the store
+     * @param start the starting point
+     * @param maxDepth the maximum depth
+     * @param parallelism the maximum number of concurrent {@code list()} calls
+     * @param descend predicate that decides whether a folder's children are listed
+     * @return stream of the entries encountered
+     * @throws IOException if the starting point cannot be accessed
+     */
+    static Stream<ObjectStore.ObjectInfo> walkParallel(
+            ReadableObjectStore store,
+            URI start,
+            int maxDepth,
+            int parallelism,
+            Predicate<? super ObjectStore.ObjectInfo> descend
+    ) throws IOException {
+        LangUtil.checkArg(maxDepth >= 0, "maxDepth < 0");
+        LangUtil.checkArg(parallelism > 0, "parallelism must be positive: %d", parallelism);
+
+        ParallelWalk walk = new ParallelWalk(store, maxDepth, parallelism, descend);
+        walk.start(getRoot(store, start));
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(walk, Spliterator.NONNULL),
+                false
+        ).onClose(walk::close);
+    }
+
+    /**
+     * Creates a predicate that only accepts folders below {@code fixedBase} that can contain matches for
+     * {@code globPart}.
+     * <p>
+     * Each path segment of a candidate folder is matched against the corresponding segment of the glob
+     * pattern. Once a segment containing {@code **} is reached, all subfolders are accepted. Patterns where a
+     * group or character class spans several segments are not pruned.
+     *
+     * @param fixedBase the fixed part of the glob
+     * @param globPart the glob suffix, including its leading separator
+     * @return predicate to pass as {@code descend} argument to the walk methods
+     */
+    static Predicate<ObjectStore.ObjectInfo> globDescendFilter(URI fixedBase, String globPart) {
+        List<String> segments = splitGlobSegments(globPart.substring(1));
+        if (segments == null) {
+            return info -> true;
+        }
+
+        List<PathMatcher> matchers = new ArrayList<>(segments.size());
+        int unbounded = segments.size();
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+            if (segment.contains("**")) {
+                unbounded = i;
+                break;
+            }
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + segment));
+        }
+
+        String basePath = stripTrailingSlash(fixedBase.toString());
+        int maxSegments = segments.size();
+        int firstUnbounded = unbounded;
+        return info -> {
+            String path = stripTrailingSlash(info.uri().toString());
+            String relative;
+            if (basePath.isEmpty()) {
+                relative = path;
+            } else if (path.equals(basePath)) {
+                relative = "";
+            } else if (path.startsWith(basePath + "/")) {
+                relative = path.substring(basePath.length() + 1);
+            } else {
+                return true;
+            }
+
+            String[] names = relative.isEmpty() ? new String[0] : relative.split("/", -1);
+            for (int i = 0; i < names.length; i++) {
+                if (i >= firstUnbounded) {
+                    return true;
+                }
+                if (i >= maxSegments || !matchers.get(i).matches(Path.of(names[i]))) {
+                    return false;
+                }
+            }
+            return names.length < maxSegments;
+        };
+    }
+
+    private static ObjectStore.ObjectInfo getRoot(ReadableObjectStore store, URI start) throws IOException {
+        return store.getInfo(start)
+                .orElseThrow(() -> new ObjectNotFoundException("object does not exist in the object store: " + start));
+    }
+
+    private static boolean isExpanded(ObjectStore.ObjectInfo info, int depth, int maxDepth, Predicate<? super ObjectStore.ObjectInfo> descend) {
+        return info.type() == ObjectStore.ObjectType.FOLDER && depth < maxDepth && descend.test(info);
+    }
+
+    private static String stripTrailingSlash(String s) {
+        return s.endsWith("/") ? s.substring(0, s.length() - 1) : s;
+    }
+
+    /**
+     * Splits a glob pattern into its path segments.
+     *
+     * @param pattern the pattern
+     * @return the segments, or {@code null} if a group or character class contains a separator
+     */
+    @SuppressWarnings("java:S127") // accepted
+    private static @Nullable List<String> splitGlobSegments(String pattern) {
+        List<String> segments = new ArrayList<>();
+        int groupLevel = 0;
+        boolean inClass = false;
+        int start = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            switch (pattern.charAt(i)) {
+                case '\\' -> i++; // Skip the escaped character.
+                case '{' -> groupLevel += inClass ? 0 : 1;
+                case '}' -> groupLevel -= inClass || groupLevel == 0 ? 0 : 1;
+                case '[' -> inClass = true;
+                case ']' -> inClass = false;
+                case '/' -> {
+                    if (groupLevel > 0 || inClass) {
+                        return null;
+                    }
+                    segments.add(pattern.substring(start, i));
+                    start = i + 1;
+                }
+                default -> {
+                    // nothing to do
+                }
+            }
+        }
+        segments.add(pattern.substring(start));
+        return segments;
+    }
+
+    /**
+     * The state of a parallel walk. Folders waiting to be listed are kept in a LIFO deque so that the walk
+     * proceeds depth-first and the number of pending folders stays small.
+     */
+    private static final class ParallelWalk implements Iterator<ObjectStore.ObjectInfo> {
+        private record Folder(ObjectStore.ObjectInfo info, int depth) {}
+
+        private record Entry(ObjectStore.@Nullable ObjectInfo info, @Nullable Throwable error) {}
+
+        private static final Folder STOP = new Folder(new ObjectStore.ObjectInfo(URI.create(""), ObjectStore.ObjectType.FOLDER, 0,
+                Instant.EPOCH, Instant.EPOCH), -1);
+        private static final Entry END = new Entry(null, null);
+
+        private final ReadableObjectStore store;
+        private final int maxDepth;
+        private final int parallelism;
+        private final Predicate<? super ObjectStore.ObjectInfo> descend;
+        private final BlockingQueue<Entry> results = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final BlockingDeque<Folder> folders = new LinkedBlockingDeque<>();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final List<Thread> workers = new ArrayList<>();
+        private volatile boolean closed;
+        private @Nullable Entry next;
+
+        ParallelWalk(ReadableObjectStore store, int maxDepth, int parallelism, Predicate<? super ObjectStore.ObjectInfo> descend) {
+            this.store = store;
+            this.maxDepth = maxDepth;
+            this.parallelism = parallelism;
+            this.descend = descend;
+        }
+
+        void start(ObjectStore.ObjectInfo root) {
+            results.add(new Entry(root, null));
+            if (!isExpanded(root, 0, maxDepth, descend)) {
+                results.add(END);
+                return;
+            }
+
+            outstanding.set(1);
+            folders.add(new Folder(root, 0));
+            for (int i = 0; i < parallelism; i++) {
+                workers.add(Thread.ofVirtual().name("ObjectStore-walker-" + i).start(this::work));
+            }
+        }
+
+        private void work() {
+            try {
+                while (!closed) {
+                    Folder folder = folders.takeFirst();
+                    if (folder == STOP) {
+                        return;
+                    }
+
+                    try {
+                        list(folder);
+                    } catch (IOException e) {
+                        results.put(new Entry(null, e));
+                    } catch (UncheckedIOException e) {
+                        results.put(new Entry(null, e.getCause()));
+                    } catch (RuntimeException | Error e) {
+                        // also thrown by the descend predicate; pass on to the consumer instead of losing the worker
+                        results.put(new Entry(null, e));
+                    } finally {
+                        if (outstanding.decrementAndGet() == 0 && !closed) {
+                            results.put(END);
+                            for (int i = 0; i < parallelism; i++) {
+                                folders.add(STOP);
+                            }
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void list(Folder folder) throws IOException, InterruptedException {
+            try (Stream<ObjectStore.ObjectInfo> children = store.list(folder.info().uri())) {
+                Iterator<ObjectStore.ObjectInfo> iterator = children.iterator();
+                while (iterator.hasNext() && !closed) {
+                    ObjectStore.ObjectInfo child = iterator.next();
+                    results.put(new Entry(child, null));
+                    if (isExpanded(child, folder.depth() + 1, maxDepth, descend)) {
+                        // increment before the parent is marked as done so that the count never drops to zero early
+                        outstanding.incrementAndGet();
+                        folders.addFirst(new Folder(child, folder.depth() + 1));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = results.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    throw new UncheckedIOException(new InterruptedIOException("interrupted while walking the object store"));
+                }
+            }
+
+            Entry entry = next;
+            Throwable error = entry.error();
+            if (error != null) {
+                next = null;
+                switch (error) {
+                    case IOException e -> throw new UncheckedIOException(e);
+                    case RuntimeException e -> throw e;
+                    case Error e -> throw e;
+                    default -> throw new IllegalStateException(error);
+                }
+            }
+            return entry != END;
+        }
+
+        @Override
+        public ObjectStore.ObjectInfo next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ObjectStore.ObjectInfo info = Objects.requireNonNull(next).info();
+            next = null;
+            return Objects.requireNonNull(info);
+        }
+
+        void close() {
+            closed = true;
+            workers.forEach(Thread::interrupt);
+            results.clear();
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.dua3.utility.io;
 
 import com.dua3.utility.io.imp.FileObjectStore;
+import com.dua3.utility.io.imp.MemoryObjectStore;
+import com.dua3.utility.io.imp.ZipObjectStore;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 
 /**
@@ -50,11 +54,62 @@ public final class ObjectStores {
         return FileObjectStore.newObjectStore(root);
     }
 
+    /**
+     * Creates an empty read-write object store that keeps its objects in memory.
+     * <p>
+     * Object data is stored in direct buffers outside the Java heap. All data is released when the store is closed.
+     *
+     * @return the object store
+     */
+    public static ObjectStore memoryStore() {
+        return MemoryObjectStore.newObjectStore();
+    }
+
+    /**
+     * Opens a zip file as a read-only object store.
+     * <p>
+     * The central directory is read once when the store is opened; entries are read by seeking directly to their
+     * data. Stored entries are memory-mapped.
+     *
+     * @param zipFile the path to the zip file
+     * @return the readable store
+     * @throws IOException if the file cannot be opened or is not a valid zip file
+     */
+    public static ReadableObjectStore zipStore(Path zipFile) throws IOException {
+        return ZipObjectStore.open(zipFile);
+    }
+
+    /**
+     * Creates a read-through caching view of a store using the default cache limits.
+     * <p>
+     * Use {@link CachingObjectStore#builder()} to configure cache sizes and invalidation.
+     *
+     * @param delegate the store to read from
+     * @return the caching store
+     */
+    public static CachingObjectStore cachingStore(ReadableObjectStore delegate) {
+        return CachingObjectStore.builder().build(delegate);
+    }
+
+    /**
+     * Opens a store that keeps each distinct content only once in the given delegate store.
+     * <p>
+     * See {@link DeduplicatingObjectStore} for the layout of the delegate store and when the index is persisted.
+     *
+     * @param delegate the store used to hold the deduplicated data and the index
+     * @return the deduplicating store
+     * @throws IOException if the index in the delegate store cannot be read
+     */
+    public static DeduplicatingObjectStore deduplicatingStore(ObjectStore delegate) throws IOException {
+        return DeduplicatingObjectStore.open(delegate);
+    }
+
     /**
      * Copies an object between object stores.
      * <p>
-     * File-backed stores use the file-system copy operation directly. Other
-     * store combinations copy through streams.
+     * File-backed stores, including prefixed views of file-backed stores, use the file-system copy operation
+     * directly. Other store combinations copy through channels; when reading from a file-backed store, the data
+     * is transferred using {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
      *
      * @param sourceStore the readable source store
      * @param source the source path relative to {@code sourceStore}
@@ -70,24 +125,25 @@ public final class ObjectStores {
             URI target,
             ObjectStore.OutputOption... options
     ) throws IOException {
-        if (sourceStore instanceof FileObjectStore sourceFileStore
-                && targetStore instanceof FileObjectStore targetFileStore) {
-            sourceFileStore.copyTo(targetFileStore, source, target, options);
+        PrefixedObjectStores.Location from = PrefixedObjectStores.unwrap(sourceStore, source);
+        PrefixedObjectStores.Location to = PrefixedObjectStores.unwrap(targetStore, target);
+        if (from.store() instanceof FileObjectStore sourceFileStore
+                && to.store() instanceof FileObjectStore targetFileStore) {
+            sourceFileStore.copyTo(targetFileStore, from.path(), to.path(), options);
             return;
         }
 
-        try (InputStream in = sourceStore.openInputStream(source);
-             OutputStream out = targetStore.openOutputStream(target, options)) {
-            in.transferTo(out);
+        try (ReadableByteChannel in = sourceStore.openReadableByteChannel(source);
+             WritableByteChannel out = targetStore.openWritableByteChannel(target, options)) {
+            transfer(in, out);
         }
     }
 
     /**
      * Moves an object between object stores.
      * <p>
-     * File-backed stores use the file-system move operation directly. Other
-     * store combinations copy through streams and delete the source after a
-     * successful copy.
+     * File-backed stores, including prefixed views of file-backed stores, use the file-system move operation
+     * directly. Other store combinations copy through channels and delete the source after a successful copy.
      *
      * @param sourceStore the readable and writable source store
      * @param source the source path relative to {@code sourceStore}
@@ -103,13 +159,50 @@ public final class ObjectStores {
             URI target,
             ObjectStore.OutputOption... options
     ) throws IOException {
-        if (sourceStore instanceof FileObjectStore sourceFileStore
-                && targetStore instanceof FileObjectStore targetFileStore) {
-            sourceFileStore.moveTo(targetFileStore, source, target, options);
+        PrefixedObjectStores.Location from = PrefixedObjectStores.unwrap(sourceStore, source);
+        PrefixedObjectStores.Location to = PrefixedObjectStores.unwrap(targetStore, target);
+        if (from.store() instanceof FileObjectStore sourceFileStore
+                && to.store() instanceof FileObjectStore targetFileStore) {
+            sourceFileStore.moveTo(targetFileStore, from.path(), to.path(), options);
             return;
         }
 
         copy(sourceStore, source, targetStore, target, options);
         sourceStore.delete(source);
     }
+
+    /**
+     * Transfer all data between channels, avoiding user-space copies when one of the channels is a file channel.
+     *
+     * @param in  the channel to read from
+     * @param out the channel to write to
+     * @return the number of bytes transferred
+     * @throws IOException if an I/O error occurs
+     */
+    private static long transfer(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        if (in instanceof FileChannel fc) {
+            long position = fc.position();
+            long start = position;
+            long size = fc.size();
+            while (position < size) {
+                long n = fc.transferTo(position, size - position, out);
+                if (n <= 0) {
+                    break;
+                }
+                position += n;
+            }
+            return position - start;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long n = 0;
+        while (in.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                n += out.write(buffer);
+            }
+            buffer.clear();
+        }
+        return n;
+    }
 }
@@ -0,0 +1,528 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.lang.LangUtil;
+import com.dua3.utility.options.Arguments;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A reader for CSV files on a local file system that parses the file in chunks on multiple threads.
+ * <p>
+ * The file is split into chunks of approximately equal size. Chunk boundaries are always placed at record
+ * boundaries, taking line breaks inside delimited fields into account. Each chunk is memory-mapped, decoded, and
+ * parsed by a {@link CsvReader} on one of the threads of the {@link Executor} passed at creation. Rows are returned
+ * in their original order, either as a {@link Stream} or through one {@link CsvReader.RowBuilder} per chunk.
+ * <p>
+ * The options supported by {@link CsvReader} are honored, i.e., separator, delimiter, charset,
+ * {@link CsvReader#READ_COLUMN_NAMES}, and {@link CsvReader#IGNORE_MISSING_FIELDS}. Splitting the file requires a
+ * charset where the separator, delimiter, blank, and line break characters are each encoded as a single byte that
+ * cannot be part of the encoding of any other character, which is true for UTF-8 and single-byte charsets like
+ * ISO-8859-1. For other charsets, the file is read sequentially as a single chunk.
+ */
+@SuppressWarnings("MagicCharacter")
+public final class ParallelCsvReader extends CsvIo {
+    private static final Logger LOG = LogManager.getLogger(ParallelCsvReader.class);
+
+    /**
+     * The default chunk size in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * The size of the window used to scan for chunk boundaries.
+     */
+    private static final int SCAN_WINDOW_SIZE = 16 * 1024 * 1024;
+
+    // the bytes sequence the UTF-8 BOM
+    @SuppressWarnings("NumericCastThatLosesPrecision")
+    private static final byte[] UTF8_BOM_BYTES = {(byte) 0xef, (byte) 0xbb, (byte) 0xbf};
+
+    private final Path path;
+    private final URI source;
+    private final Arguments arguments;
+    private final Charset charset;
+    private final FileChannel channel;
+    private final long size;
+    private final Executor executor;
+    private final int parallelism;
+    private final int chunkSize;
+    private final boolean splittable;
+    private final @Nullable List<String> columnNames;
+    private long dataStart;
+    private int dataStartLine;
+
+    /**
+     * A chunk of a CSV file consisting of complete records.
+     *
+     * @param start     the start position in the file (inclusive)
+     * @param end       the end position in the file (exclusive)
+     * @param firstLine the number of lines in the file preceding the chunk
+     */
+    private record Chunk(long start, long end, int firstLine) {}
+
+    private ParallelCsvReader(Path path, Arguments arguments, Executor executor, int parallelism, int chunkSize)
+            throws IOException {
+        super(arguments);
+
+        LangUtil.checkArg(parallelism > 0, "parallelism must be positive: %d", parallelism);
+        LangUtil.checkArg(chunkSize > 0, "chunk size must be positive: %d", chunkSize);
+
+        this.path = path;
+        this.source = path.toUri();
+        this.arguments = arguments;
+        this.charset = arguments.getOrThrow(IoOptions.OPTION_CHARSET);
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.splittable = isSplittable(charset, separator, delimiter);
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            this.size = channel.size();
+            this.dataStart = 0;
+            this.dataStartLine = 0;
+
+            if (!splittable) {
+                LOG.debug("charset {} does not support splitting, file will be read sequentially", charset);
+                this.columnNames = arguments.isSet(CsvReader.READ_COLUMN_NAMES) ? readColumnNamesSequential() : null;
+                return;
+            }
+
+            // skip the UTF-8 BOM like CsvReader does
+            if (charset.equals(StandardCharsets.UTF_8) && size >= UTF8_BOM_BYTES.length) {
+                MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, UTF8_BOM_BYTES.length);
+                boolean bom = true;
+                for (int i = 0; i < UTF8_BOM_BYTES.length; i++) {
+                    bom = bom && head.get(i) == UTF8_BOM_BYTES[i];
+                }
+                if (bom) {
+                    dataStart = UTF8_BOM_BYTES.length;
+                }
+            }
+
+            if (arguments.isSet(CsvReader.READ_COLUMN_NAMES)) {
+                ChunkScanner scanner = new ChunkScanner(dataStart, 0);
+                Chunk header = scanner.next(1);
+                List<String> names = Collections.emptyList();
+                if (header != null) {
+                    CsvReader.ListRowBuilder rb = new CsvReader.ListRowBuilder();
+                    try (CsvReader reader = chunkReader(header, rb, null)) {
+                        reader.readSome(1);
+                    }
+                    names = List.copyOf(rb.getRow());
+                    dataStart = header.end();
+                    dataStartLine = scanner.line;
+                }
+                this.columnNames = names;
+            } else {
+                this.columnNames = null;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create a new instance that uses the common {@link ForkJoinPool} and the default chunk size.
+     *
+     * @param path      the path to the CSV file
+     * @param arguments the arguments for configuring the CSV reader
+     * @return a new instance
+     * @throws IOException if an I/O error occurs
+     */
+    public static ParallelCsvReader create(Path path, Arguments arguments) throws IOException {
+        return create(path, arguments, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param path        the path to the CSV file
+     * @param arguments   the arguments for configuring the CSV reader
+     * @param executor    the executor used to parse chunks
+     * @param parallelism the maximum number of chunks parsed concurrently when streaming
+     * @param chunkSize   the approximate chunk size in bytes
+     * @return a new instance
+     * @throws IOException if an I/O error occurs
+     */
+    public static ParallelCsvReader create(Path path, Arguments arguments, Executor executor, int parallelism, int chunkSize)
+            throws IOException {
+        return new ParallelCsvReader(path, arguments, executor, parallelism, chunkSize);
+    }
+
+    /**
+     * Retrieves an unmodifiable list of column names. If no column names were read, an empty list is returned.
+     *
+     * @return an unmodifiable {@code List<String>} of column names.
+     */
+    public List<String> getColumnNames() {
+        return columnNames == null ? Collections.emptyList() : columnNames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Read all rows, using a separate {@link CsvReader.RowBuilder} for each chunk.
+     * <p>
+     * Chunks are parsed concurrently; each row builder is only used by a single thread. The returned list contains
+     * the row builders in the order of the chunks in the file, so that processing the builders in list order
+     * processes the rows in their original order.
+     *
+     * @param <B>            the row builder type
+     * @param builderFactory supplier of row builders, called once per chunk
+     * @return list of the row builders used, in file order
+     * @throws IOException if an I/O error occurs or the data is not valid CSV data
+     */
+    public <B extends CsvReader.RowBuilder> List<B> readAll(Supplier<? extends B> builderFactory) throws IOException {
+        List<B> builders = new ArrayList<>();
+        List<CompletableFuture<B>> futures = new ArrayList<>();
+
+        ChunkScanner scanner = splittable ? new ChunkScanner(dataStart, dataStartLine) : null;
+        Chunk chunk;
+        while ((chunk = nextChunk(scanner, futures.isEmpty())) != null) {
+            B builder = builderFactory.get();
+            builders.add(builder);
+            futures.add(submit(chunk, builder));
+        }
+
+        for (CompletableFuture<B> future : futures) {
+            join(future);
+        }
+        return builders;
+    }
+
+    /**
+     * Get a stream of all rows in the order they appear in the file.
+     * <p>
+     * Chunks are parsed ahead on the executor's threads while the stream is consumed. The stream should be closed
+     * after use to cancel pending work if not all rows are consumed.
+     *
+     * @return stream of rows
+     * @throws UncheckedIOException if an I/O error occurs or the data is not valid CSV data while streaming
+     */
+    public Stream<List<String>> rows() {
+        RowIterator iterator = new RowIterator();
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                false
+        ).onClose(iterator::cancel);
+    }
+
+    /**
+     * An iterator over the rows of the file that keeps up to two chunks per thread in flight.
+     */
+    private final class RowIterator implements Iterator<List<String>> {
+        private final Deque<CompletableFuture<List<List<String>>>> pending = new ArrayDeque<>();
+        private final @Nullable ChunkScanner scanner;
+        private Iterator<List<String>> current = Collections.emptyIterator();
+        private boolean exhausted = false;
+        private boolean first = true;
+
+        RowIterator() {
+            this.scanner = splittable ? new ChunkScanner(dataStart, dataStartLine) : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                fill();
+                CompletableFuture<List<List<String>>> next = pending.poll();
+                if (next == null) {
+                    return false;
+                }
+                try {
+                    current = join(next).iterator();
+                } catch (IOException e) {
+                    cancel();
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public List<String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private void fill() {
+            try {
+                while (!exhausted && pending.size() < 2 * parallelism) {
+                    Chunk chunk = nextChunk(scanner, first);
+                    first = false;
+                    if (chunk == null) {
+                        exhausted = true;
+                    } else {
+                        List<List<String>> rows = new ArrayList<>();
+                        pending.add(submit(chunk, new CsvReader.ListRowBuilder(rows::add)).thenApply(rb -> rows));
+                    }
+                }
+            } catch (IOException e) {
+                cancel();
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void cancel() {
+            exhausted = true;
+            pending.forEach(f -> f.cancel(false));
+            pending.clear();
+        }
+    }
+
+    /**
+     * Get the next chunk to process.
+     *
+     * @param scanner the scanner, {@code null} if the file cannot be split
+     * @param first   {@code true} if this is the first call
+     * @return the next chunk or {@code null} if no data remains
+     * @throws IOException if an I/O error occurs
+     */
+    private @Nullable Chunk nextChunk(@Nullable ChunkScanner scanner, boolean first) throws IOException {
+        if (scanner == null) {
+            // the whole file is processed as a single chunk
+            return first ? new Chunk(0, size, 0) : null;
+        }
+        return scanner.next(chunkSize);
+    }
+
+    /**
+     * Submit a chunk for parsing.
+     *
+     * @param chunk   the chunk
+     * @param builder the row builder
+     * @param <B>     the row builder type
+     * @return future that completes with the row builder after the chunk has been parsed
+     */
+    private <B extends CsvReader.RowBuilder> CompletableFuture<B> submit(Chunk chunk, B builder) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (splittable) {
+                    try (CsvReader reader = chunkReader(chunk, builder, columnNames)) {
+                        reader.readAll();
+                    }
+                } else {
+                    try (CsvReader reader = CsvReader.create(builder, path, arguments)) {
+                        reader.readAll();
+                    }
+                }
+                return builder;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Wait for a future to complete and unwrap exceptions.
+     *
+     * @param future the future
+     * @param <T>    the result type
+     * @return the result
+     * @throws IOException if the task failed with an I/O error
+     */
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException uioe) {
+                throw uioe.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Create a {@link CsvReader} for a chunk.
+     *
+     * @param chunk       the chunk
+     * @param builder     the row builder
+     * @param columnNames the column names
+     * @return the reader
+     * @throws IOException if an I/O error occurs
+     */
+    private CsvReader chunkReader(Chunk chunk, CsvReader.RowBuilder builder, @Nullable List<String> columnNames)
+            throws IOException {
+        long length = chunk.end() - chunk.start();
+        LangUtil.check(length <= Integer.MAX_VALUE,
+                () -> new CsvFormatException("record too large", source, chunk.firstLine()));
+
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), length);
+        CharBuffer chars;
+        try {
+            chars = charset.newDecoder().decode(bytes);
+        } catch (CharacterCodingException e) {
+            throw new CsvFormatException("invalid data for charset " + charset + ": " + e.getMessage(), source, chunk.firstLine());
+        }
+
+        CharArrayReader in = new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        return new CsvReader(builder, new BufferedReader(in), source, arguments, chunk.firstLine(), columnNames);
+    }
+
+    /**
+     * Read the column names when the file cannot be split.
+     *
+     * @return the column names
+     * @throws IOException if an I/O error occurs
+     */
+    private List<String> readColumnNamesSequential() throws IOException {
+        try (CsvReader reader = CsvReader.create(new CsvReader.ListRowBuilder(), path, arguments)) {
+            return List.copyOf(reader.getColumnNames());
+        }
+    }
+
+    /**
+     * Check whether files using the given charset can be split by inspecting bytes.
+     *
+     * @param cs    the charset
+     * @param chars the characters that must be encoded as single bytes
+     * @return true, if the file can be split
+     */
+    private static boolean isSplittable(Charset cs, char... chars) {
+        boolean utf8 = cs.equals(StandardCharsets.UTF_8);
+        CharsetEncoder encoder = cs.newEncoder();
+        if (!utf8 && encoder.maxBytesPerChar() != 1.0f) {
+            return false;
+        }
+        for (char c : chars) {
+            if (utf8 ? c >= 0x80 : !encoder.canEncode(c)) {
+                return false;
+            }
+        }
+        return utf8 || (encoder.canEncode(' ') && encoder.canEncode('\n') && encoder.canEncode('\r'));
+    }
+
+    /**
+     * Scans the file for record boundaries.
+     * <p>
+     * The scanner implements a simplified version of the {@link CsvParser} state machine on the byte level that only
+     * tracks whether the current position is inside a delimited field.
+     */
+    private final class ChunkScanner {
+        private static final int FIELD_START = 0;
+        private static final int UNDELIMITED = 1;
+        private static final int DELIMITED = 2;
+        private static final int DELIMITER_IN_DELIMITED = 3;
+
+        private final byte bSep;
+        private final byte bDel;
+        private final byte bSpace;
+        private final byte bLf;
+        private final byte bCr;
+
+        private long pos;
+        private int line;
+        private int state = FIELD_START;
+        private @Nullable MappedByteBuffer window;
+        private long windowStart;
+
+        ChunkScanner(long start, int line) {
+            this.pos = start;
+            this.line = line;
+            this.bSep = encode(separator);
+            this.bDel = encode(delimiter);
+            this.bSpace = encode(' ');
+            this.bLf = encode('\n');
+            this.bCr = encode('\r');
+        }
+
+        private byte encode(char c) {
+            return String.valueOf(c).getBytes(charset)[0];
+        }
+
+        /**
+         * Get the next chunk.
+         *
+         * @param minSize the minimum chunk size; the chunk ends at the first record boundary after this size is reached
+         * @return the next chunk or {@code null} if the end of the file has been reached
+         * @throws IOException if an I/O error occurs
+         */
+        @Nullable Chunk next(long minSize) throws IOException {
+            if (pos >= size) {
+                return null;
+            }
+
+            long start = pos;
+            int firstLine = line;
+            while (pos < size) {
+                byte b = byteAt(pos++);
+
+                if (b == bLf || b == bCr) {
+                    line++;
+                    boolean boundary = state != DELIMITED;
+                    if (b == bCr && pos < size && byteAt(pos) == bLf) {
+                        pos++;
+                    }
+                    if (boundary) {
+                        state = FIELD_START;
+                        if (pos - start >= minSize) {
+                            return new Chunk(start, pos, firstLine);
+                        }
+                    }
+                    continue;
+                }
+
+                state = switch (state) {
+                    case FIELD_START -> b == bDel ? DELIMITED : b == bSep || (b == bSpace && bSep != bSpace) ? FIELD_START : UNDELIMITED;
+                    case UNDELIMITED -> b == bSep ? FIELD_START : UNDELIMITED;
+                    case DELIMITED -> b == bDel ? DELIMITER_IN_DELIMITED : DELIMITED;
+                    case DELIMITER_IN_DELIMITED -> b == bDel ? DELIMITED : b == bSep ? FIELD_START : UNDELIMITED;
+                    default -> throw new IllegalStateException("invalid state: " + state);
+                };
+            }
+            return new Chunk(start, pos, firstLine);
+        }
+
+        private byte byteAt(long p) throws IOException {
+            MappedByteBuffer w = window;
+            if (w == null || p < windowStart || p >= windowStart + w.limit()) {
+                windowStart = p;
+                w = channel.map(FileChannel.MapMode.READ_ONLY, p, Math.min(SCAN_WINDOW_SIZE, size - p));
+                window = w;
+            }
+            return w.get((int) (p - windowStart));
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.dua3.utility.io;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the contents of an object store folder as a zip archive, compressing entries in parallel.
+ * <p>
+ * Objects up to {@link #MAX_BUFFERED_SIZE} bytes are read and deflated concurrently by a pool of worker threads and
+ * written to the output in walk order. Larger objects are streamed by the calling thread using a data descriptor so
+ * that they never have to be held in memory. Because their size is not known in advance, streamed entries always use
+ * ZIP64 sizes in the local header and data descriptor. Otherwise, ZIP64 extensions are written when sizes or offsets
+ * require them.
+ */
+final class ParallelZipWriter {
+    private static final Logger LOG = LogManager.getLogger(ParallelZipWriter.class);
+
+    /**
+     * The maximum size of objects that are compressed in parallel; larger objects are streamed.
+     */
+    static final int MAX_BUFFERED_SIZE = 8 << 20;
+
+    private static final int LOC_SIG = 0x04034b50;
+    private static final int CEN_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int EXT_SIG = 0x08074b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final long ZIP64_MAGIC = 0xffffffffL;
+    private static final int ZIP64_MAGIC_COUNT = 0xffff;
+    private static final int VERSION_DEFAULT = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+    private static final int FLAG_UTF8 = 0x800;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int ATTR_DIRECTORY = 0x10;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * An entry whose data has been prepared for writing.
+     */
+    private record Prepared(String name, boolean directory, Instant lastModified,
+                            int method, long crc, long size, byte[] data, int dataLength) {}
+
+    /**
+     * The central directory information for a written entry.
+     */
+    private record CentralEntry(byte[] name, int flags, int method, int dosTime,
+                                long crc, long compressedSize, long size, long offset, boolean directory) {}
+
+    private final ReadableObjectStore store;
+    private final int parallelism;
+    private final int level;
+    private final CountingOutputStream out;
+    private final List<CentralEntry> entries = new ArrayList<>();
+
+    ParallelZipWriter(ReadableObjectStore store, OutputStream out, int parallelism, int level) {
+        this.store = store;
+        this.parallelism = parallelism;
+        this.level = level;
+        this.out = new CountingOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+    }
+
+    /**
+     * Writes all objects below a folder to the output.
+     *
+     * @param folder the folder whose contents are written; entry names are relative to this folder
+     * @throws IOException if an object cannot be read or the output cannot be written
+     */
+    void write(URI folder) throws IOException {
+        String prefix = folder.getPath().replaceAll("/+$", "");
+        prefix = prefix.isEmpty() ? "" : prefix + "/";
+
+        Deque<Future<Prepared>> pending = new ArrayDeque<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try (Stream<ObjectStore.ObjectInfo> objects = store.walk(folder)) {
+            Iterator<ObjectStore.ObjectInfo> iterator = objects.iterator();
+            while (iterator.hasNext()) {
+                ObjectStore.ObjectInfo info = iterator.next();
+                String path = info.uri().getPath();
+                if (!path.startsWith(prefix) || path.length() == prefix.length()) {
+                    continue;
+                }
+                String name = path.substring(prefix.length());
+
+                if (info.type() == ObjectStore.ObjectType.FOLDER) {
+                    Prepared directory = new Prepared(name.endsWith("/") ? name : name + "/", true, info.lastModified(),
+                            METHOD_STORED, 0, 0, new byte[0], 0);
+                    pending.addLast(executor.submit(() -> directory));
+                } else if (info.size() >= 0 && info.size() <= MAX_BUFFERED_SIZE) {
+                    pending.addLast(executor.submit(() -> prepare(info.uri(), name, info.lastModified())));
+                } else {
+                    // keep entries in walk order: write everything before streaming a large object
+                    while (!pending.isEmpty()) {
+                        writePrepared(await(pending.removeFirst()));
+                    }
+                    writeStreamed(info.uri(), name, info.lastModified());
+                }
+
+                while (pending.size() >= 2 * parallelism) {
+                    writePrepared(await(pending.removeFirst()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                writePrepared(await(pending.removeFirst()));
+            }
+            writeCentralDirectory();
+            out.flush();
+            LOG.debug("wrote {} zip entries ({} bytes)", entries.size(), out.count);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            executor.shutdownNow();
+            pending.forEach(f -> f.cancel(true));
+        }
+    }
+
+    private static Prepared await(Future<Prepared> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while writing zip data");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioe) {
+                throw ioe;
+            }
+            throw new IOException("could not compress zip entry", e.getCause());
+        }
+    }
+
+    /**
+     * Reads and compresses a single object; called on a worker thread.
+     */
+    private Prepared prepare(URI uri, String name, Instant lastModified) throws IOException {
+        byte[] data = store.readAllBytes(uri);
+
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] compressed = new byte[Math.max(64, data.length + (data.length >> 12) + 64)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+
+            // store data that does not compress
+            if (length >= data.length) {
+                return new Prepared(name, false, lastModified, METHOD_STORED, crc.getValue(), data.length, data, data.length);
+            }
+            return new Prepared(name, false, lastModified, METHOD_DEFLATED, crc.getValue(), data.length, compressed, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writePrepared(Prepared p) throws IOException {
+        byte[] name = p.name().getBytes(StandardCharsets.UTF_8);
+        int dosTime = toDosTime(p.lastModified());
+        long offset = out.count;
+
+        ByteBuffer loc = header(30);
+        loc.putInt(LOC_SIG)
+                .putShort((short) VERSION_DEFAULT)
+                .putShort((short) FLAG_UTF8)
+                .putShort((short) p.method())
+                .putInt(dosTime)
+                .putInt((int) p.crc())
+                .putInt(p.dataLength())
+                .putInt((int) p.size())
+                .putShort((short) name.length)
+                .putShort((short) 0);
+        out.write(loc.array());
+        out.write(name);
+        out.write(p.data(), 0, p.dataLength());
+
+        entries.add(new CentralEntry(name, FLAG_UTF8, p.method(), dosTime, p.crc(), p.dataLength(), p.size(), offset, p.directory()));
+    }
+
+    /**
+     * Compresses a large object on the calling thread, writing sizes and checksum in a trailing data descriptor.
+     */
+    private void writeStreamed(URI uri, String name, Instant lastModified) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int dosTime = toDosTime(lastModified);
+        int flags = FLAG_UTF8 | FLAG_DATA_DESCRIPTOR;
+        long offset = out.count;
+
+        // the size is not known in advance, so always announce ZIP64 sizes in the local header and data descriptor
+        ByteBuffer loc = header(30 + 20);
+        loc.putInt(LOC_SIG)
+                .putShort((short) VERSION_ZIP64)
+                .putShort((short) flags)
+                .putShort((short) METHOD_DEFLATED)
+                .putInt(dosTime)
+                .putInt(0)
+                .putInt((int) ZIP64_MAGIC)
+                .putInt((int) ZIP64_MAGIC)
+                .putShort((short) nameBytes.length)
+                .putShort((short) 20);
+        loc.putShort((short) ZIP64_EXTRA_ID)
+                .putShort((short) 16)
+                .putLong(0)
+                .putLong(0);
+        out.write(loc.array(), 0, 30);
+        out.write(nameBytes);
+        out.write(loc.array(), 30, 20);
+
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(level, true);
+        long size = 0;
+        long start = out.count;
+        try (InputStream in = store.openInputStream(uri)) {
+            byte[] input = new byte[BUFFER_SIZE];
+            byte[] output = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(input)) >= 0) {
+                crc.update(input, 0, n);
+                size += n;
+                deflater.setInput(input, 0, n);
+                while (!deflater.needsInput()) {
+                    out.write(output, 0, deflater.deflate(output));
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                out.write(output, 0, deflater.deflate(output));
+            }
+        } finally {
+            deflater.end();
+        }
+        long compressedSize = out.count - start;
+
+        ByteBuffer ext = header(24);
+        ext.putInt(EXT_SIG)
+                .putInt((int) crc.getValue())
+                .putLong(compressedSize)
+                .putLong(size);
+        out.write(ext.array());
+
+        entries.add(new CentralEntry(nameBytes, flags, METHOD_DEFLATED, dosTime, crc.getValue(), compressedSize, size, offset, false));
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long cenOffset = out.count;
+        for (CentralEntry e : entries) {
+            boolean zip64Size = e.size() >= ZIP64_MAGIC || e.compressedSize() >= ZIP64_MAGIC;
+            boolean zip64Offset = e.offset() >= ZIP64_MAGIC;
+            int extraLength = (zip64Size ? 16 : 0) + (zip64Offset ? 8 : 0);
+            int version = extraLength > 0 ? VERSION_ZIP64 : VERSION_DEFAULT;
+
+            ByteBuffer cen = header(46 + (extraLength > 0 ? 4 + extraLength : 0));
+            cen.putInt(CEN_SIG)
+                    .putShort((short) version)
+                    .putShort((short) version)
+                    .putShort((short) e.flags())
+                    .putShort((short) e.method())
+                    .putInt(e.dosTime())
+                    .putInt((int) e.crc())
+                    .putInt(zip64Size ? (int) ZIP64_MAGIC : (int) e.compressedSize())
+                    .putInt(zip64Size ? (int) ZIP64_MAGIC : (int) e.size())
+                    .putShort((short) e.name().length)
+                    .putShort((short) (extraLength > 0 ? 4 + extraLength : 0))
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putInt(e.directory() ? ATTR_DIRECTORY : 0)
+                    .putInt(zip64Offset ? (int) ZIP64_MAGIC : (int) e.offset());
+            if (extraLength > 0) {
+                cen.putShort((short) ZIP64_EXTRA_ID).putShort((short) extraLength);
+                if (zip64Size) {
+                    cen.putLong(e.size()).putLong(e.compressedSize());
+                }
+                if (zip64Offset) {
+                    cen.putLong(e.offset());
+                }
+            }
+            out.write(cen.array(), 0, 46);
+            out.write(e.name());
+            out.write(cen.array(), 46, cen.capacity() - 46);
+        }
+        long cenEnd = out.count;
+        long cenSize = cenEnd - cenOffset;
+
+        boolean zip64 = entries.size() >= ZIP64_MAGIC_COUNT || cenOffset >= ZIP64_MAGIC || cenSize >= ZIP64_MAGIC;
+        if (zip64) {
+            ByteBuffer end64 = header(56 + 20);
+            end64.putInt(ZIP64_END_SIG)
+                    .putLong(44)
+                    .putShort((short) VERSION_ZIP64)
+                    .putShort((short) VERSION_ZIP64)
+                    .putInt(0)
+                    .putInt(0)
+                    .putLong(entries.size())
+                    .putLong(entries.size())
+                    .putLong(cenSize)
+                    .putLong(cenOffset);
+            end64.putInt(ZIP64_LOCATOR_SIG)
+                    .putInt(0)
+                    .putLong(cenEnd)
+                    .putInt(1);
+            out.write(end64.array());
+        }
+
+        ByteBuffer end = header(22);
+        end.putInt(END_SIG)
+                .putShort((short) 0)
+                .putShort((short) 0)
+                .putShort((short) Math.min(entries.size(), ZIP64_MAGIC_COUNT))
+                .putShort((short) Math.min(entries.size(), ZIP64_MAGIC_COUNT))
+                .putInt((int) Math.min(cenSize, ZIP64_MAGIC))
+                .putInt((int) Math.min(cenOffset, ZIP64_MAGIC))
+                .putShort((short) 0);
+        out.write(end.array());
+    }
+
+    private static ByteBuffer header(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int toDosTime(Instant instant) {
+        LocalDateTime t = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        if (t.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return ((t.getYear() - 1980) << 25)
+                | (t.getMonthValue() << 21)
+                | (t.getDayOfMonth() << 16)
+                | (t.getHour() << 11)
+                | (t.getMinute() << 5)
+                | (t.getSecond() >> 1);
+    }
+
+    /**
+     * An output stream that keeps track of the number of bytes written.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
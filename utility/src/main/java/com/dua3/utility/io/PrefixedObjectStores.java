@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.Optional;
@@ -67,6 +68,26 @@ final class PrefixedObjectStores {
             return delegate.openReadableByteChannel(prefix.resolve(path));
         }
 
+        @Override
+        public long transferTo(URI path, OutputStream out) throws IOException {
+            return delegate.transferTo(prefix.resolve(path), out);
+        }
+
+        @Override
+        public long transferTo(URI path, WritableByteChannel out) throws IOException {
+            return delegate.transferTo(prefix.resolve(path), out);
+        }
+
+        @Override
+        public byte[] readAllBytes(URI path) throws IOException {
+            return delegate.readAllBytes(prefix.resolve(path));
+        }
+
+        @Override
+        public ByteBuffer map(URI path) throws IOException {
+            return delegate.map(prefix.resolve(path));
+        }
+
         @Override
         public void close() {
             // This view does not own the delegate.
@@ -107,6 +128,11 @@ final class PrefixedObjectStores {
             delegate.createFolder(prefix.resolve(path));
         }
 
+        @Override
+        public void commit(WriteBatch batch) throws IOException {
+            delegate.commit(batch.mapPaths(prefix::resolve));
+        }
+
         @Override
         public WritableByteChannel openWritableByteChannel(URI path, ObjectStore.OutputOption... options) throws IOException {
             return delegate.openWritableByteChannel(prefix.resolve(path), options);
@@ -152,6 +178,26 @@ final class PrefixedObjectStores {
             return delegate.openReadableByteChannel(prefix.resolve(path));
         }
 
+        @Override
+        public long transferTo(URI path, OutputStream out) throws IOException {
+            return delegate.transferTo(prefix.resolve(path), out);
+        }
+
+        @Override
+        public long transferTo(URI path, WritableByteChannel out) throws IOException {
+            return delegate.transferTo(prefix.resolve(path), out);
+        }
+
+        @Override
+        public byte[] readAllBytes(URI path) throws IOException {
+            return delegate.readAllBytes(prefix.resolve(path));
+        }
+
+        @Override
+        public ByteBuffer map(URI path) throws IOException {
+            return delegate.map(prefix.resolve(path));
+        }
+
         @Override
         public long write(URI path, InputStream in, OutputOption... options) throws IOException {
             return delegate.write(prefix.resolve(path), in, options);
@@ -172,6 +218,11 @@ final class PrefixedObjectStores {
             delegate.createFolder(prefix.resolve(path));
         }
 
+        @Override
+        public void commit(WriteBatch batch) throws IOException {
+            delegate.commit(batch.mapPaths(prefix::resolve));
+        }
+
         @Override
         public WritableByteChannel openWritableByteChannel(URI path, ObjectStore.OutputOption... options) throws IOException {
             return delegate.openWritableByteChannel(prefix.resolve(path), options);
@@ -203,6 +254,44 @@ final class PrefixedObjectStores {
         }
     }
 
+    /**
+     * A store and a path in that store.
+     *
+     * @param store the store
+     * @param path  the path
+     */
+    record Location(Object store, URI path) {}
+
+    /**
+     * Resolve a path in a store through any number of prefixed views to the underlying store.
+     *
+     * @param store the store, possibly a prefixed view
+     * @param path  the path relative to {@code store}
+     * @return the underlying store and the path relative to that store
+     * @throws IllegalPathException if the path is not valid for a prefixed view
+     */
+    static Location unwrap(Object store, URI path) throws IllegalPathException {
+        while (true) {
+            switch (store) {
+                case PrefixedReadableObjectStore s -> {
+                    path = s.prefix.resolve(path);
+                    store = s.delegate;
+                }
+                case PrefixedWritableObjectStore s -> {
+                    path = s.prefix.resolve(path);
+                    store = s.delegate;
+                }
+                case PrefixedObjectStore s -> {
+                    path = s.prefix.resolve(path);
+                    store = s.delegate;
+                }
+                default -> {
+                    return new Location(store, path);
+                }
+            }
+        }
+    }
+
     private record Prefix(URI path, URI root) {
         private static Prefix create(URI delegateRoot, URI prefix) {
             if (prefix.isAbsolute() || prefix.getPath() == null || prefix.getPath().startsWith("/")
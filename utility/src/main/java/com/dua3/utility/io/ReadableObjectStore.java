@@ -1,5 +1,7 @@
 package com.dua3.utility.io;
 
+import com.dua3.utility.lang.LangUtil;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -7,23 +9,17 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Iterator;
-import java.util.List;
-import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.Spliterator;
-import java.util.Spliterators;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
  * Represents a generic object storage interface for managing and interacting
@@ -100,11 +96,43 @@ public interface ReadableObjectStore extends AutoCloseable {
      * @throws IOException if an I/O error occurs while accessing the store
      */
     default Stream<URI> glob(URI relativeUri, String pattern) throws IOException {
+        return glob(relativeUri, pattern, (fixedBase, descend) -> ObjectStoreWalker.walk(this, fixedBase, Integer.MAX_VALUE, descend));
+    }
+
+    /**
+     * Returns the objects matching a glob pattern relative to a path in this store, listing up to
+     * {@code parallelism} folders concurrently.
+     * <p>
+     * This method works like {@link #glob(URI, String)}, but uses {@link #walkParallel(URI, int, int)} to
+     * traverse the store. The matching URIs are returned in no particular order. The caller must close the
+     * returned stream after use; closing the stream stops the traversal.
+     *
+     * @param relativeUri the relative path used as the search base
+     * @param pattern the glob pattern relative to {@code relativeUri}
+     * @param parallelism the maximum number of concurrent {@link #list(URI)} calls
+     * @return a stream of root-relative URIs matching {@code pattern}
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     * @throws AbsolutePathException if {@code relativeUri} is absolute
+     * @throws IllegalPathException if {@code relativeUri} or {@code pattern} does not identify a path within this store
+     * @throws IOException if an I/O error occurs while accessing the store
+     */
+    default Stream<URI> globParallel(URI relativeUri, String pattern, int parallelism) throws IOException {
+        LangUtil.checkArg(parallelism > 0, "parallelism must be positive: %d", parallelism);
+        return glob(relativeUri, pattern, (fixedBase, descend) -> ObjectStoreWalker.walkParallel(this, fixedBase, Integer.MAX_VALUE, parallelism, descend));
+    }
+
+    private Stream<URI> glob(
+            URI relativeUri,
+            String pattern,
+            LangUtil.BiFunctionThrows<URI, Predicate<ObjectStore.ObjectInfo>, Stream<ObjectStore.ObjectInfo>, IOException> walker
+    ) throws IOException {
+        // Only folders that can contain matches are listed.
         GlobAdapter<URI> adapter = new GlobAdapter<>(
                 "/",
                 ReadableObjectStore::resolveGlobPath,
                 uri -> getInfo(uri).isPresent(),
-                uri -> walk(uri).map(ObjectStore.ObjectInfo::uri),
+                (fixedBase, globPart) -> walker.apply(fixedBase, ObjectStoreWalker.globDescendFilter(fixedBase, globPart))
+                        .map(ObjectStore.ObjectInfo::uri),
                 ReadableObjectStore::uriGlobMatcher,
                 (ignored, uri) -> uri
         );
@@ -244,51 +272,38 @@ public interface ReadableObjectStore extends AutoCloseable {
         if (maxDepth < 0) {
             throw new IllegalArgumentException("maxDepth < 0");
         }
+        return ObjectStoreWalker.walk(this, start, maxDepth, info -> true);
+    }
 
-        record Node(ObjectStore.ObjectInfo info, int depth) {}
-
-        Deque<Node> stack = new ArrayDeque<>();
-
-        Optional<ObjectStore.ObjectInfo> root = getInfo(start);
-        if (root.isEmpty()) {
-            throw new ObjectNotFoundException("object does not exist in the object store: " + start);
+    /**
+     * Traverses a structure starting from the given {@link URI}, listing up to {@code parallelism} folders
+     * concurrently.
+     * <p>
+     * Folders are listed on virtual threads, which speeds up traversal of large trees and of stores where
+     * {@link #list(URI)} has a high latency. The entries are returned in no particular order, but each folder
+     * is returned before its children. Only a bounded number of entries is buffered; the listing threads wait when
+     * the consumer falls behind.
+     * <p>
+     * I/O errors that occur while listing a folder are rethrown as {@link UncheckedIOException} by the stream.
+     * <p>
+     * <strong>Note:</strong> The caller must close the returned stream! Closing the stream stops the traversal.
+     *
+     * @param start the {@code URI} representing the starting point of the structure to be traversed
+     * @param maxDepth the maximum depth to which the traversal should occur
+     * @param parallelism the maximum number of concurrent {@link #list(URI)} calls
+     * @return a stream of {@link ObjectStore.ObjectInfo} instances representing the elements encountered during traversal
+     *
+     * @throws IllegalArgumentException if {@code maxDepth} is less than 0 or {@code parallelism} is not positive
+     * @throws AbsolutePathException if the path is {@link URI#isAbsolute() absolute}
+     * @throws IllegalPathException if the path points outside the root of the storage
+     * @throws ObjectNotFoundException if the starting point does not point to an existing object
+     * @throws IOException if an I/O error occurs during the traversal
+     */
+    default Stream<ObjectStore.ObjectInfo> walkParallel(URI start, int maxDepth, int parallelism) throws IOException {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth < 0");
         }
-
-        stack.push(new Node(root.get(), 0));
-
-        Iterator<ObjectStore.ObjectInfo> iterator = new Iterator<>() {
-            @Override
-            public boolean hasNext() {
-                return !stack.isEmpty();
-            }
-
-            @Override
-            @SuppressWarnings("java:S2272") // NoSuchElementException is thrown in stack.pop()
-            public ObjectStore.ObjectInfo next() throws NoSuchElementException, UncheckedIOException {
-                Node node = stack.pop();
-                ObjectStore.ObjectInfo info = node.info();
-
-                if (info.type() == ObjectStore.ObjectType.FOLDER && node.depth() < maxDepth) {
-                    try (Stream<ObjectStore.ObjectInfo> children = list(info.uri())) {
-                        List<ObjectStore.ObjectInfo> entries = children.toList();
-
-                        // Reverse so traversal order matches list()
-                        for (int i = entries.size() - 1; i >= 0; i--) {
-                            stack.push(new Node(entries.get(i), node.depth() + 1));
-                        }
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
-                    }
-                }
-
-                return info;
-            }
-        };
-
-        return StreamSupport.stream(
-                Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL),
-                false
-        );
+        return ObjectStoreWalker.walkParallel(this, start, maxDepth, parallelism, info -> true);
     }
 
     /**
@@ -342,6 +357,52 @@ public interface ReadableObjectStore extends AutoCloseable {
         }
     }
 
+    /**
+     * Transfers data from the specified URI to the given {@link WritableByteChannel}.
+     * <p>
+     * Implementations can override this method to avoid copying the data through user-space buffers, e.g.,
+     * file-based stores transfer the data using {@link java.nio.channels.FileChannel#transferTo(long, long, WritableByteChannel)}.
+     *
+     * @param path the {@link URI} of the object to be transferred
+     * @param out the {@link WritableByteChannel} to which data should be written
+     * @return the number of bytes transferred
+     * @throws IOException if an I/O error occurs while reading from the URI or writing to the channel
+     */
+    default long transferTo(URI path, WritableByteChannel out) throws IOException {
+        try (ReadableByteChannel in = openReadableByteChannel(path)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            long n = 0;
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    n += out.write(buffer);
+                }
+                buffer.clear();
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Returns a read-only {@link ByteBuffer} containing the data of an object.
+     * <p>
+     * Implementations avoid copying the data where possible; file-based stores return a read-only
+     * {@link java.nio.MappedByteBuffer} for the file. The content of the returned buffer is unspecified if the
+     * object is modified while the buffer is in use. The default implementation reads all bytes of the object
+     * into a heap buffer.
+     *
+     * @param path the URI of the data object
+     * @return a read-only buffer containing the object data, positioned at the start of the data
+     * @throws AbsolutePathException if the path is {@link URI#isAbsolute() absolute}
+     * @throws IllegalPathException if the path points outside the root of the storage
+     * @throws ObjectNotFoundException if the path does not point to an existing object
+     * @throws IOException if the object is not a data object, is too large to be mapped into a single buffer,
+     *                     or an I/O error occurs
+     */
+    default ByteBuffer map(URI path) throws IOException {
+        return ByteBuffer.wrap(readAllBytes(path)).asReadOnlyBuffer();
+    }
+
     /**
      * Reads all bytes from a URI and returns them in a byte array.
      *
@@ -186,4 +186,38 @@ public interface WritableObjectStore extends AutoCloseable {
      * @throws IOException if an I/O error occurs while opening the writable byte channel
      */
     WritableByteChannel openWritableByteChannel(URI path, ObjectStore.OutputOption... options) throws IOException;
+
+    /**
+     * Commits a batch of write operations to this store.
+     * <p>
+     * The operations are applied in the order they were added to the batch. Implementations may apply the batch
+     * all-or-nothing; {@link com.dua3.utility.io.imp.FileObjectStore} writes the data to temporary files first and
+     * renames them into place once all data has been written, rolling back the changes if an operation fails.
+     * <p>
+     * The default implementation applies the operations one at a time. If an operation fails, the operations
+     * before it remain applied.
+     *
+     * @param batch the batch to commit
+     * @throws AbsolutePathException if a path in the batch is {@link URI#isAbsolute() absolute}
+     * @throws IllegalPathException if a path in the batch points outside the root of the storage
+     * @throws ObjectExistsException if a write with {@link ObjectStore.OutputOption#CREATE_NEW} targets an existing object
+     * @throws ObjectNotFoundException if a deletion targets an object that does not exist
+     * @throws NotAFolderException if a path in the batch has a parent that is not a folder
+     * @throws UnsupportedOperationException if the batch contains deletions and this store does not support deleting objects
+     * @throws IOException if an I/O error occurs
+     */
+    default void commit(WriteBatch batch) throws IOException {
+        for (WriteBatch.Operation operation : batch.operations()) {
+            switch (operation) {
+                case WriteBatch.Write w -> write(w.path(), w.data(), w.option());
+                case WriteBatch.CreateFolder f -> createFolder(f.path());
+                case WriteBatch.Delete d -> {
+                    if (!(this instanceof ObjectStore store)) {
+                        throw new UnsupportedOperationException("store does not support deleting objects: " + this);
+                    }
+                    store.delete(d.path());
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,250 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.lang.LangUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A batch of write operations that are committed to a {@link WritableObjectStore} together by calling
+ * {@link WritableObjectStore#commit(WriteBatch)}.
+ * <p>
+ * A batch collects data writes, folder creations, and deletions. The operations are applied in the order they were
+ * added. Whether the batch is applied all-or-nothing depends on the store; see
+ * {@link WritableObjectStore#commit(WriteBatch)}.
+ * <p>
+ * Data passed to a batch is not copied, so the arrays must not be modified before the batch has been committed.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class WriteBatch {
+
+    /**
+     * An operation in a batch.
+     */
+    public sealed interface Operation permits Write, CreateFolder, Delete {
+        /**
+         * Get the path of the object this operation applies to.
+         *
+         * @return the path relative to the store root
+         */
+        URI path();
+    }
+
+    /**
+     * Writes data to an object.
+     *
+     * @param path   the path of the object
+     * @param data   the data to write
+     * @param option how to handle an existing object at the output location
+     */
+    public record Write(URI path, byte[] data, ObjectStore.OutputOption option) implements Operation {}
+
+    /**
+     * Creates a folder, including missing parent folders.
+     *
+     * @param path the path of the folder
+     */
+    public record CreateFolder(URI path) implements Operation {}
+
+    /**
+     * Deletes a data object or an empty folder.
+     *
+     * @param path the path of the object to delete
+     */
+    public record Delete(URI path) implements Operation {}
+
+    private final List<Operation> operations = new ArrayList<>();
+    private int parallelism = 1;
+    private boolean sync = true;
+
+    /**
+     * Constructs a new, empty batch.
+     */
+    public WriteBatch() {
+        // nothing to do
+    }
+
+    /**
+     * Adds a write operation to the batch.
+     *
+     * @param path the path of the object
+     * @param data the data to write
+     * @param options how to handle existing objects at the output location; when none are present,
+     *                {@link ObjectStore.OutputOption#CREATE_NEW} is used
+     * @return this batch
+     * @throws IllegalArgumentException if multiple incompatible output options are specified
+     */
+    public WriteBatch write(URI path, byte[] data, ObjectStore.OutputOption... options) {
+        operations.add(new Write(Objects.requireNonNull(path), Objects.requireNonNull(data), getOutputOption(options)));
+        return this;
+    }
+
+    /**
+     * Adds a write operation for text encoded in UTF-8 to the batch.
+     *
+     * @param path the path of the object
+     * @param s    the text to write
+     * @param options how to handle existing objects at the output location; when none are present,
+     *                {@link ObjectStore.OutputOption#CREATE_NEW} is used
+     * @return this batch
+     * @throws IllegalArgumentException if multiple incompatible output options are specified
+     */
+    public WriteBatch writeString(URI path, @Nullable CharSequence s, ObjectStore.OutputOption... options) {
+        return writeString(path, s, StandardCharsets.UTF_8, options);
+    }
+
+    /**
+     * Adds a write operation for text to the batch.
+     *
+     * @param path the path of the object
+     * @param s    the text to write
+     * @param cs   the {@link Charset} used to convert the text into bytes
+     * @param options how to handle existing objects at the output location; when none are present,
+     *                {@link ObjectStore.OutputOption#CREATE_NEW} is used
+     * @return this batch
+     * @throws IllegalArgumentException if multiple incompatible output options are specified
+     */
+    public WriteBatch writeString(URI path, @Nullable CharSequence s, Charset cs, ObjectStore.OutputOption... options) {
+        return write(path, String.valueOf(s).getBytes(cs), options);
+    }
+
+    /**
+     * Adds a folder creation to the batch.
+     *
+     * @param path the path of the folder
+     * @return this batch
+     */
+    public WriteBatch createFolder(URI path) {
+        operations.add(new CreateFolder(Objects.requireNonNull(path)));
+        return this;
+    }
+
+    /**
+     * Adds the deletion of a data object or an empty folder to the batch.
+     * <p>
+     * Deleting objects is only supported by stores that implement {@link ObjectStore}.
+     *
+     * @param path the path of the object to delete
+     * @return this batch
+     */
+    public WriteBatch delete(URI path) {
+        operations.add(new Delete(Objects.requireNonNull(path)));
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of objects that are written concurrently when the batch is committed.
+     * <p>
+     * This is a hint; stores that do not support parallel writes ignore it. The default is 1.
+     *
+     * @param parallelism the maximum number of concurrent writes
+     * @return this batch
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public WriteBatch parallelism(int parallelism) {
+        LangUtil.checkArg(parallelism > 0, "parallelism must be positive: %d", parallelism);
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Sets whether written data must be flushed to the storage device before the commit completes.
+     * <p>
+     * This is a hint; stores that do not use persistent storage ignore it. The default is {@code true}.
+     *
+     * @param sync {@code true} to flush written data to the storage device
+     * @return this batch
+     */
+    public WriteBatch sync(boolean sync) {
+        this.sync = sync;
+        return this;
+    }
+
+    /**
+     * Get the maximum number of objects that are written concurrently.
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Check whether written data is flushed to the storage device before the commit completes.
+     *
+     * @return {@code true} if data is flushed to the storage device
+     */
+    public boolean isSync() {
+        return sync;
+    }
+
+    /**
+     * Get the operations in this batch.
+     *
+     * @return an unmodifiable list of the operations in the order they were added
+     */
+    public List<Operation> operations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    /**
+     * Get the number of operations in this batch.
+     *
+     * @return the number of operations
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Check whether this batch is empty.
+     *
+     * @return {@code true} if this batch contains no operations
+     */
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * Creates a copy of this batch with all paths mapped using the given function.
+     *
+     * @param mapping the mapping applied to each path
+     * @return the new batch
+     * @throws IOException if a path cannot be mapped
+     */
+    WriteBatch mapPaths(LangUtil.FunctionThrows<URI, URI, IOException> mapping) throws IOException {
+        WriteBatch mapped = new WriteBatch().parallelism(parallelism).sync(sync);
+        for (Operation operation : operations) {
+            mapped.operations.add(switch (operation) {
+                case Write w -> new Write(mapping.apply(w.path()), w.data(), w.option());
+                case CreateFolder f -> new CreateFolder(mapping.apply(f.path()));
+                case Delete d -> new Delete(mapping.apply(d.path()));
+            });
+        }
+        return mapped;
+    }
+
+    private static ObjectStore.OutputOption getOutputOption(ObjectStore.OutputOption... options) {
+        Set<ObjectStore.OutputOption> optionSet = Set.of(options);
+        return switch (optionSet.size()) {
+            case 0 -> ObjectStore.OutputOption.CREATE_NEW;
+            case 1 -> optionSet.iterator().next();
+            default -> throw new IllegalArgumentException("Multiple incompatible output options specified: " + Arrays.toString(options));
+        };
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(operations=" + operations.size() + ", parallelism=" + parallelism + ", sync=" + sync + ")";
+    }
+}
@@ -6,8 +6,10 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -108,6 +110,41 @@ public final class Zip implements AutoCloseable, Flushable {
         path = dirname;
     }
 
+    /**
+     * Write the contents of an object store folder as a zip archive, compressing entries in parallel.
+     * <p>
+     * Entry names are relative to {@code folder}; folders are written as directory entries. Objects of moderate size
+     * are read and deflated concurrently using {@code parallelism} worker threads and written in walk order, objects
+     * that do not compress are stored. Objects larger than 8 MiB are streamed on the calling thread.
+     * <p>
+     * The output stream is flushed but not closed.
+     *
+     * @param store       the store to read from
+     * @param folder      the folder whose contents are written
+     * @param out         the {@link OutputStream} to write the zip data to
+     * @param parallelism the number of threads used for compression
+     * @throws IOException on error
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public static void write(ReadableObjectStore store, URI folder, OutputStream out, int parallelism) throws IOException {
+        LangUtil.checkArg(parallelism > 0, "parallelism must be positive: %d", parallelism);
+        new ParallelZipWriter(store, out, parallelism, Deflater.DEFAULT_COMPRESSION).write(folder);
+    }
+
+    /**
+     * Write the contents of an object store folder as a zip archive, using one compression thread per available
+     * processor.
+     *
+     * @param store  the store to read from
+     * @param folder the folder whose contents are written
+     * @param out    the {@link OutputStream} to write the zip data to
+     * @throws IOException on error
+     * @see #write(ReadableObjectStore, URI, OutputStream, int)
+     */
+    public static void write(ReadableObjectStore store, URI folder, OutputStream out) throws IOException {
+        write(store, folder, out, Runtime.getRuntime().availableProcessors());
+    }
+
     @Override
     public void close() throws IOException {
         zout.close();
@@ -10,30 +10,54 @@ import com.dua3.utility.io.ObjectNotFoundException;
 import com.dua3.utility.io.ObjectStore;
 import com.dua3.utility.io.ReadableObjectStore;
 import com.dua3.utility.io.WritableObjectStore;
+import com.dua3.utility.io.WriteBatch;
+import com.dua3.utility.lang.LangUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 /**
@@ -116,6 +140,7 @@ public final class FileObjectStore implements ObjectStore {
         assertReadable();
         try {
             return Files.list(resolveRegularFolder(path))
+                    .filter(p -> !BatchCommit.isBatchFile(p))
                     .sorted(Comparator.comparing(Path::getFileName, Comparator.comparing(Path::toString)))
                     .map(this::toObjectInfoUnchecked);
         } catch (UncheckedIOException e) {
@@ -207,6 +232,69 @@ public final class FileObjectStore implements ObjectStore {
         return Files.newInputStream(resolveRegularData(path), StandardOpenOption.READ);
     }
 
+    @Override
+    public byte[] readAllBytes(URI path) throws IOException {
+        assertReadable();
+        return Files.readAllBytes(resolveRegularData(path));
+    }
+
+    @Override
+    public long transferTo(URI path, OutputStream out) throws IOException {
+        assertReadable();
+        return Files.copy(resolveRegularData(path), out);
+    }
+
+    /**
+     * Transfers data from the specified URI to the given {@link WritableByteChannel}.
+     * <p>
+     * The data is transferred using {@link FileChannel#transferTo(long, long, WritableByteChannel)}, which lets the
+     * operating system copy the data directly to the target channel if supported, e.g., for files and sockets.
+     *
+     * @param path the {@link URI} of the object to be transferred
+     * @param out the {@link WritableByteChannel} to which data should be written
+     * @return the number of bytes transferred
+     * @throws IOException if an I/O error occurs while reading from the URI or writing to the channel
+     */
+    @Override
+    public long transferTo(URI path, WritableByteChannel out) throws IOException {
+        assertReadable();
+        try (FileChannel in = FileChannel.open(resolveRegularData(path), StandardOpenOption.READ)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                long n = in.transferTo(position, size - position, out);
+                if (n <= 0 && in.size() <= position) {
+                    // the file has been truncated
+                    break;
+                }
+                position += n;
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Returns a read-only {@link java.nio.MappedByteBuffer} that maps the file of a data object into memory.
+     * <p>
+     * The content of the returned buffer is unspecified if the file is modified while the buffer is in use.
+     *
+     * @param path the URI of the data object
+     * @return a read-only mapped buffer for the object data
+     * @throws IOException if the object is not a data object, is larger than {@link Integer#MAX_VALUE} bytes,
+     *                     or an I/O error occurs
+     */
+    @Override
+    public ByteBuffer map(URI path) throws IOException {
+        assertReadable();
+        try (FileChannel channel = FileChannel.open(resolveRegularData(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("object is too large to be mapped: " + path + " (" + size + " bytes)");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
     /**
      * Resolves the given URI to a {@code Path} and ensures it corresponds to a regular data object.
      *
@@ -318,6 +406,35 @@ public final class FileObjectStore implements ObjectStore {
         return Files.newByteChannel(resolved, soo);
     }
 
+    /**
+     * Commits a batch of write operations.
+     * <p>
+     * The batch is committed in three phases:
+     * <ol>
+     *     <li>the operations are validated against the current content of the store,
+     *     <li>all data is written to temporary files next to their targets, using up to
+     *     {@link WriteBatch#getParallelism()} virtual threads; if {@link WriteBatch#isSync()} is set, the files are
+     *     flushed to the storage device,
+     *     <li>the temporary files are renamed into place, folders are created, and deleted objects are moved aside.
+     * </ol>
+     * If an operation fails, the changes made so far are rolled back. Since publishing the batch only consists of
+     * renames, readers see either the old or the new content of an object, but they may observe a partially
+     * published batch for a short time. If the process terminates during a commit, temporary files may be left
+     * behind. Temporary files and backups use reserved names starting with {@code .~batch.} and are not returned by
+     * {@link #list(URI)}. Folders needed for the temporary files are created before the data is published.
+     * <p>
+     * Because data is staged before any operation is applied, a batch cannot write below a path that is deleted by
+     * a preceding operation of the same batch. Such batches are rejected before any change is made.
+     *
+     * @param batch the batch to commit
+     * @throws IOException if the batch cannot be committed
+     */
+    @Override
+    public void commit(WriteBatch batch) throws IOException {
+        assertWritable();
+        new BatchCommit(batch).run();
+    }
+
     @SuppressWarnings("OverlyBroadThrowsClause")
     @Override
     public void removeFolder(URI path) throws IOException {
@@ -527,6 +644,355 @@ public final class FileObjectStore implements ObjectStore {
         }
     }
 
+    /**
+     * The state of a batch commit, used to roll back the changes if an operation fails.
+     */
+    private final class BatchCommit {
+        private static final String BATCH_FILE_PREFIX = ".~batch.";
+
+        private record Step(WriteBatch.Operation operation, Path target, @Nullable Path temp) {}
+
+        private final WriteBatch batch;
+        private final List<Step> steps = new ArrayList<>();
+        private final List<Path> createdFolders = new ArrayList<>();
+        private final List<Path> backups = new ArrayList<>();
+        private final Deque<LangUtil.RunnableThrows<IOException>> undo = new ArrayDeque<>();
+        private final Set<Path> modifiedFolders = new LinkedHashSet<>();
+
+        BatchCommit(WriteBatch batch) {
+            this.batch = batch;
+        }
+
+        void run() throws IOException {
+            validate();
+            try {
+                stage();
+                publish();
+            } catch (IOException | RuntimeException e) {
+                rollback(e);
+                throw e;
+            }
+            finish();
+        }
+
+        /**
+         * Checks the operations against the current content of the store, taking into account the changes made by
+         * preceding operations of the batch.
+         */
+        private void validate() throws IOException {
+            Map<Path, Optional<ObjectType>> state = new HashMap<>();
+            Set<Path> deleted = new HashSet<>();
+            for (WriteBatch.Operation operation : batch.operations()) {
+                Path target = resolve(operation.path());
+                if (target.equals(root) && !(operation instanceof WriteBatch.CreateFolder)) {
+                    throw new IllegalPathException("operation not allowed on the store root: " + operation.path());
+                }
+
+                // the data is staged next to the target before the delete is applied
+                if (operation instanceof WriteBatch.Write) {
+                    for (Path parent = target.getParent(); parent != null && !parent.equals(root); parent = parent.getParent()) {
+                        if (deleted.contains(parent)) {
+                            throw new IOException("Cannot write below a path deleted earlier in the same batch: " + operation.path());
+                        }
+                    }
+                }
+
+                for (Path parent = target.getParent(); parent != null && !parent.equals(root); parent = parent.getParent()) {
+                    Optional<ObjectType> type = getType(parent, state);
+                    if (type.isPresent() && type.get() == ObjectType.DATA) {
+                        throw new NotAFolderException(operation.path().toString());
+                    }
+                    state.put(parent, Optional.of(ObjectType.FOLDER));
+                }
+
+                Optional<ObjectType> existing = getType(target, state);
+                switch (operation) {
+                    case WriteBatch.Write w -> {
+                        if (existing.isPresent() && w.option() == OutputOption.CREATE_NEW) {
+                            throw new ObjectExistsException(w.path().toString());
+                        }
+                        if (existing.isPresent() && existing.get() == ObjectType.FOLDER) {
+                            throw new IOException("Cannot write data directly to folder: " + w.path());
+                        }
+                        state.put(target, Optional.of(ObjectType.DATA));
+                    }
+                    case WriteBatch.CreateFolder f -> {
+                        if (existing.isPresent() && existing.get() == ObjectType.DATA) {
+                            throw new NotAFolderException(f.path().toString());
+                        }
+                        state.put(target, Optional.of(ObjectType.FOLDER));
+                    }
+                    case WriteBatch.Delete d -> {
+                        if (existing.isEmpty()) {
+                            throw new ObjectNotFoundException(d.path().toString());
+                        }
+                        state.put(target, Optional.empty());
+                        deleted.add(target);
+                    }
+                }
+                steps.add(new Step(operation, target, null));
+            }
+        }
+
+        private Optional<ObjectType> getType(Path path, Map<Path, Optional<ObjectType>> state) throws IOException {
+            Optional<ObjectType> type = state.get(path);
+            if (type == null) {
+                type = Optional.ofNullable(toObjectInfo(path)).map(ObjectInfo::type);
+                state.put(path, type);
+            }
+            return type;
+        }
+
+        /**
+         * Writes the data of all write operations to temporary files.
+         */
+        private void stage() throws IOException {
+            List<Step> writes = new ArrayList<>();
+            for (int i = 0; i < steps.size(); i++) {
+                Step step = steps.get(i);
+                if (step.operation() instanceof WriteBatch.Write) {
+                    createFolders(Objects.requireNonNull(step.target().getParent()));
+                    step = new Step(step.operation(), step.target(), siblingPath(step.target(), ".tmp"));
+                    steps.set(i, step);
+                    writes.add(step);
+                }
+            }
+
+            int parallelism = Math.min(batch.getParallelism(), writes.size());
+            if (parallelism <= 1) {
+                for (Step step : writes) {
+                    writeTemporaryFile(step);
+                }
+                return;
+            }
+
+            AtomicInteger next = new AtomicInteger();
+            AtomicBoolean failed = new AtomicBoolean();
+            List<Future<@Nullable Void>> futures = new ArrayList<>(parallelism);
+            try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("FileObjectStore-commit-", 0).factory())) {
+                for (int i = 0; i < parallelism; i++) {
+                    futures.add(executor.submit(() -> {
+                        try {
+                            for (int k = next.getAndIncrement(); k < writes.size() && !failed.get(); k = next.getAndIncrement()) {
+                                writeTemporaryFile(writes.get(k));
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            failed.set(true);
+                            throw e;
+                        }
+                        return null;
+                    }));
+                }
+            }
+
+            IOException error = null;
+            for (Future<@Nullable Void> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while writing batch data");
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException re) {
+                        throw re;
+                    }
+                    IOException ioe = cause instanceof IOException x ? x : new IOException(cause);
+                    if (error == null) {
+                        error = ioe;
+                    } else {
+                        error.addSuppressed(ioe);
+                    }
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+
+        private void writeTemporaryFile(Step step) throws IOException {
+            WriteBatch.Write write = (WriteBatch.Write) step.operation();
+            try (FileChannel channel = FileChannel.open(Objects.requireNonNull(step.temp()), StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+                ByteBuffer buffer = ByteBuffer.wrap(write.data());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (batch.isSync()) {
+                    channel.force(true);
+                }
+            }
+        }
+
+        /**
+         * Applies the operations by renaming the temporary files into place.
+         */
+        private void publish() throws IOException {
+            for (Step step : steps) {
+                Path target = step.target();
+                switch (step.operation()) {
+                    case WriteBatch.Write w -> publishWrite(w, target, Objects.requireNonNull(step.temp()));
+                    case WriteBatch.CreateFolder f -> createFolders(target);
+                    case WriteBatch.Delete d -> publishDelete(d, target);
+                }
+                modifiedFolders.add(Objects.requireNonNull(target.getParent()));
+            }
+        }
+
+        private void publishWrite(WriteBatch.Write write, Path target, Path temp) throws IOException {
+            if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    Files.move(temp, target);
+                } catch (FileAlreadyExistsException e) {
+                    throw new ObjectExistsException(write.path().toString(), e);
+                }
+                undo.push(() -> Files.deleteIfExists(target));
+                return;
+            }
+
+            if (write.option() == OutputOption.CREATE_NEW) {
+                throw new ObjectExistsException(write.path().toString());
+            }
+            if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+                throw new IOException("Cannot write data directly to folder: " + write.path());
+            }
+
+            // keep the old content so that it can be restored
+            Path backup = siblingPath(target, ".bak");
+            backups.add(backup);
+            try {
+                Files.createLink(backup, target);
+            } catch (UnsupportedOperationException | IOException e) {
+                LOG.trace("could not create link, copying {} instead", target, e);
+                Files.copy(target, backup, StandardCopyOption.COPY_ATTRIBUTES);
+            }
+            replace(temp, target);
+            undo.push(() -> replace(backup, target));
+        }
+
+        private void publishDelete(WriteBatch.Delete delete, Path target) throws IOException {
+            if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+                try (Stream<Path> children = Files.list(target)) {
+                    if (children.findAny().isPresent()) {
+                        throw new FolderNotEmptyException(delete.path().toString());
+                    }
+                }
+            }
+
+            Path backup = siblingPath(target, ".bak");
+            try {
+                Files.move(target, backup, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                throw new ObjectNotFoundException(delete.path().toString(), e);
+            }
+            backups.add(backup);
+            undo.push(() -> Files.move(backup, target, StandardCopyOption.ATOMIC_MOVE));
+        }
+
+        private void replace(Path source, Path target) throws IOException {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        private void createFolders(Path folder) throws IOException {
+            List<Path> missing = new ArrayList<>();
+            for (Path p = folder; !Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS); p = Objects.requireNonNull(p.getParent())) {
+                missing.add(p);
+            }
+            for (Path p : missing.reversed()) {
+                try {
+                    Files.createDirectory(p);
+                    createdFolders.add(p);
+                    modifiedFolders.add(Objects.requireNonNull(p.getParent()));
+                } catch (FileAlreadyExistsException e) {
+                    if (!Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+                        throw new NotAFolderException(root.relativize(p).toString(), e);
+                    }
+                }
+            }
+        }
+
+        private void finish() {
+            if (batch.isSync()) {
+                for (Path folder : modifiedFolders) {
+                    // make the renames durable; not supported on all platforms
+                    try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+                        channel.force(true);
+                    } catch (IOException e) {
+                        LOG.trace("could not sync folder {}", folder, e);
+                    }
+                }
+            }
+
+            for (Path backup : backups) {
+                try {
+                    Files.deleteIfExists(backup);
+                } catch (IOException e) {
+                    LOG.warn("could not delete backup {}", backup, e);
+                }
+            }
+        }
+
+        private void rollback(Exception error) {
+            LOG.debug("rolling back batch commit", error);
+
+            boolean restored = true;
+            while (!undo.isEmpty()) {
+                try {
+                    undo.pop().run();
+                } catch (IOException | RuntimeException e) {
+                    restored = false;
+                    error.addSuppressed(e);
+                }
+            }
+
+            for (Step step : steps) {
+                deleteQuietly(step.temp(), error);
+            }
+            if (restored) {
+                backups.forEach(backup -> deleteQuietly(backup, error));
+            } else {
+                LOG.warn("batch commit could not be rolled back completely, backups are kept: {}", backups);
+            }
+            for (Path folder : createdFolders.reversed()) {
+                try {
+                    Files.deleteIfExists(folder);
+                } catch (DirectoryNotEmptyException e) {
+                    LOG.trace("folder not removed because it is not empty: {}", folder, e);
+                } catch (IOException e) {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+
+        private static void deleteQuietly(@Nullable Path path, Exception error) {
+            if (path != null) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+
+        private static Path siblingPath(Path path, String suffix) {
+            return path.resolveSibling(BATCH_FILE_PREFIX + path.getFileName() + "." + UUID.randomUUID() + suffix);
+        }
+
+        /**
+         * Test whether a path is a temporary file or backup created by a batch commit.
+         *
+         * @param path the path
+         * @return true, if the path is used by a batch commit
+         */
+        static boolean isBatchFile(Path path) {
+            String name = String.valueOf(path.getFileName());
+            return name.startsWith(BATCH_FILE_PREFIX) && (name.endsWith(".tmp") || name.endsWith(".bak"));
+        }
+    }
+
     /**
      * Ensures that the parent directory of the specified path exists by creating
      * all nonexistent parent directories. If the parent directory already exists,
@@ -0,0 +1,896 @@
+package com.dua3.utility.io.imp;
+
+import com.dua3.utility.io.AbsolutePathException;
+import com.dua3.utility.io.FolderNotEmptyException;
+import com.dua3.utility.io.IllegalPathException;
+import com.dua3.utility.io.NotAFolderException;
+import com.dua3.utility.io.ObjectExistsException;
+import com.dua3.utility.io.ObjectNotFoundException;
+import com.dua3.utility.io.ObjectStore;
+import com.dua3.utility.lang.LangUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory implementation of the {@code ObjectStore} interface.
+ * <p>
+ * The store keeps a tree of folders and data objects in memory. Object bodies are stored in direct
+ * {@link ByteBuffer} segments outside the Java heap, so that large stores neither inflate the heap nor
+ * increase garbage collection pause times. When objects are deleted or replaced, or when the store is closed,
+ * the store drops its references to the buffers; the off-heap memory is reclaimed once the garbage collector
+ * has collected them.
+ * <p>
+ * The store behaves like {@link FileObjectStore}: folders are created implicitly when writing data,
+ * {@link ObjectStore.OutputOption} controls replacing existing objects, {@link ObjectStore.ObjectInfo} reports
+ * creation and modification timestamps, and channels are {@link SeekableByteChannel seekable}. Readers that
+ * opened an object before it was replaced continue to see the old content.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class MemoryObjectStore implements ObjectStore {
+    private static final Logger LOG = LogManager.getLogger(MemoryObjectStore.class);
+
+    /**
+     * The default size of the segments used to store object data.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+
+    /**
+     * The minimum size of a segment; smaller objects are stored in segments sized to the next power of two.
+     */
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final URI rootUri;
+    private final int segmentSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Folder root;
+    private boolean closed;
+
+    private MemoryObjectStore(int segmentSize) {
+        this.rootUri = URI.create("memory:/" + UUID.randomUUID() + "/");
+        this.segmentSize = segmentSize;
+        this.root = new Folder(Instant.now());
+        LOG.debug("Created MemoryObjectStore with root {}", rootUri);
+    }
+
+    /**
+     * Creates a new, empty in-memory object store using the default segment size.
+     *
+     * @return a new instance of {@code MemoryObjectStore}
+     */
+    public static MemoryObjectStore newObjectStore() {
+        return newObjectStore(DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a new, empty in-memory object store.
+     *
+     * @param segmentSize the maximum size of the direct buffers used to store object data; must be a power of two
+     * @return a new instance of {@code MemoryObjectStore}
+     */
+    public static MemoryObjectStore newObjectStore(int segmentSize) {
+        LangUtil.checkArg(segmentSize >= MIN_SEGMENT_SIZE && Integer.bitCount(segmentSize) == 1,
+                "segmentSize must be a power of two and at least %d: %d", MIN_SEGMENT_SIZE, segmentSize);
+        return new MemoryObjectStore(segmentSize);
+    }
+
+    @SuppressWarnings("SuspiciousGetterSetter")
+    @Override
+    public URI getRoot() {
+        return rootUri;
+    }
+
+    @Override
+    public AccessMode getAccessMode() {
+        return AccessMode.READ_AND_WRITE;
+    }
+
+    @Override
+    public Stream<ObjectInfo> list(URI path) throws IOException {
+        List<String> names = resolve(path);
+        lock.readLock().lock();
+        try {
+            Folder folder = getFolder(names, path);
+            List<ObjectInfo> entries = new ArrayList<>(folder.children.size());
+            for (Map.Entry<String, Node> child : folder.children.entrySet()) {
+                entries.add(toObjectInfo(append(names, child.getKey()), child.getValue()));
+            }
+            return entries.stream();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<ObjectInfo> getInfo(URI path) throws IOException {
+        List<String> names = resolve(path);
+        lock.readLock().lock();
+        try {
+            Node node = find(names);
+            return node == null ? Optional.empty() : Optional.of(toObjectInfo(names, node));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public InputStream openInputStream(URI path) throws IOException {
+        return Channels.newInputStream(openReadableByteChannel(path));
+    }
+
+    @Override
+    public SeekableByteChannel openReadableByteChannel(URI path) throws IOException {
+        List<String> names = resolve(path);
+        lock.readLock().lock();
+        try {
+            Data data = getData(names, path);
+            return new ContentChannel(data.content, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a read-only buffer containing the data of an object.
+     * <p>
+     * Objects stored in a single segment are returned without copying the data. The content of the returned buffer
+     * is unspecified if the object is written to through a channel that is still open.
+     *
+     * @param path the URI of the data object
+     * @return a read-only buffer containing the object data
+     * @throws IOException if the object is not a data object, is larger than {@link Integer#MAX_VALUE} bytes,
+     *                     or an I/O error occurs
+     */
+    @Override
+    public ByteBuffer map(URI path) throws IOException {
+        List<ByteBuffer> slices = getSlices(path);
+        if (slices.size() == 1) {
+            return slices.getFirst();
+        }
+
+        long size = slices.stream().mapToLong(ByteBuffer::remaining).sum();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("object is too large to be mapped: " + path + " (" + size + " bytes)");
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        slices.forEach(buffer::put);
+        return buffer.flip().asReadOnlyBuffer();
+    }
+
+    @Override
+    public long transferTo(URI path, WritableByteChannel out) throws IOException {
+        long n = 0;
+        for (ByteBuffer slice : getSlices(path)) {
+            while (slice.hasRemaining()) {
+                n += out.write(slice);
+            }
+        }
+        return n;
+    }
+
+    private List<ByteBuffer> getSlices(URI path) throws IOException {
+        List<String> names = resolve(path);
+        lock.readLock().lock();
+        try {
+            return getData(names, path).content.slices();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long write(URI path, InputStream in, OutputOption... options) throws IOException {
+        try (SeekableByteChannel channel = openWritableByteChannel(path, options);
+             OutputStream out = Channels.newOutputStream(channel)) {
+            return in.transferTo(out);
+        }
+    }
+
+    @Override
+    public long write(URI path, byte[] data, int from, int to, OutputOption... options) throws IOException {
+        int length = to - from;
+        if (from < 0 || to < from || to > data.length) {
+            throw new IndexOutOfBoundsException("invalid bounds: from=" + from + ", to=" + to + ", length=" + data.length);
+        }
+        try (SeekableByteChannel channel = openWritableByteChannel(path, options)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data, from, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public OutputStream openOutputStream(URI path, OutputOption... options) throws IOException {
+        return Channels.newOutputStream(openWritableByteChannel(path, options));
+    }
+
+    @Override
+    public SeekableByteChannel openWritableByteChannel(URI path, OutputOption... options) throws IOException {
+        List<String> names = resolve(path);
+        OutputOption outputOption = getOutputOption(options);
+        LangUtil.checkArg(!names.isEmpty(), "cannot write data to the root folder");
+
+        lock.writeLock().lock();
+        try {
+            Data data = createData(names, path, outputOption);
+            return new ContentChannel(data.content, data);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void createFolder(URI path) throws IOException {
+        List<String> names = resolve(path);
+        lock.writeLock().lock();
+        try {
+            createFolders(names, names.size(), path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void copy(URI source, URI target, OutputOption... options) throws IOException {
+        List<String> sourceNames = resolve(source);
+        List<String> targetNames = resolve(target);
+        OutputOption outputOption = getOutputOption(options);
+
+        lock.writeLock().lock();
+        try {
+            Content content = getData(sourceNames, source).content.copy();
+            createData(targetNames, target, outputOption).content = content;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void move(URI source, URI target, OutputOption... options) throws IOException {
+        List<String> sourceNames = resolve(source);
+        List<String> targetNames = resolve(target);
+        OutputOption outputOption = getOutputOption(options);
+
+        lock.writeLock().lock();
+        try {
+            Data data = getData(sourceNames, source);
+            if (sourceNames.equals(targetNames)) {
+                if (outputOption == OutputOption.CREATE_NEW) {
+                    throw new ObjectExistsException(target.toString());
+                }
+                return;
+            }
+            Folder targetFolder = prepareWrite(targetNames, target, outputOption);
+            Instant now = Instant.now();
+            remove(sourceNames, now);
+            targetFolder.children.put(targetNames.getLast(), data);
+            targetFolder.lastModified = now;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeFolder(URI path) throws IOException {
+        List<String> names = resolve(path);
+        lock.writeLock().lock();
+        try {
+            Folder folder = getFolder(names, path);
+            if (!folder.children.isEmpty()) {
+                throw new FolderNotEmptyException(path.toString());
+            }
+            removeNode(names, path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(URI path) throws IOException {
+        List<String> names = resolve(path);
+        lock.writeLock().lock();
+        try {
+            Node node = find(names);
+            if (node == null) {
+                throw new ObjectNotFoundException(path.toString());
+            }
+            if (node instanceof Folder folder && !folder.children.isEmpty()) {
+                throw new FolderNotEmptyException(path.toString());
+            }
+            removeNode(names, path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteRecursively(URI path) throws IOException {
+        List<String> names = resolve(path);
+        lock.writeLock().lock();
+        try {
+            Node node = find(names);
+            if (node == null) {
+                throw new ObjectNotFoundException(path.toString());
+            }
+            if (names.isEmpty()) {
+                root.children.clear();
+                root.lastModified = Instant.now();
+            } else {
+                remove(names, Instant.now());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of bytes allocated for storing object data.
+     *
+     * @return the number of bytes of direct memory used by this store
+     */
+    public long getAllocatedBytes() {
+        lock.readLock().lock();
+        try {
+            return allocatedBytes(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long allocatedBytes(Folder folder) {
+        long n = 0;
+        for (Node node : folder.children.values()) {
+            n += switch (node) {
+                case Folder f -> allocatedBytes(f);
+                case Data d -> d.content.capacity();
+            };
+        }
+        return n;
+    }
+
+    /**
+     * Closes this store and releases all objects.
+     */
+    @Override
+    public void close() {
+        LOG.debug("Closing MemoryObjectStore with root {}", rootUri);
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            closed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(root=" + rootUri + ")";
+    }
+
+    /**
+     * Resolves the given URI to the list of names of the path elements relative to the root of this store.
+     *
+     * @param path the URI to be resolved; must not be absolute and must represent a path relative to the root
+     * @return the list of path element names; the empty list represents the root folder
+     * @throws IllegalPathException if the provided URI is invalid or resolves to a path outside the root
+     * @throws AbsolutePathException if the provided URI is absolute
+     */
+    private List<String> resolve(URI path) throws IllegalPathException {
+        if (path.isAbsolute()) {
+            throw new AbsolutePathException("absolute path not allowed: " + path);
+        }
+        String p = path.getPath();
+        if (p == null || p.startsWith("/")) {
+            throw new IllegalPathException("invalid path: " + path);
+        }
+
+        List<String> names = new ArrayList<>();
+        for (String name : p.split("/")) {
+            switch (name) {
+                case "", "." -> { /* nothing to do */ }
+                case ".." -> {
+                    if (names.isEmpty()) {
+                        throw new IllegalPathException("path points outside root: " + path);
+                    }
+                    names.removeLast();
+                }
+                default -> names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private static List<String> append(List<String> names, String name) {
+        List<String> result = new ArrayList<>(names.size() + 1);
+        result.addAll(names);
+        result.add(name);
+        return result;
+    }
+
+    /**
+     * Find the node for a path. Must be called while holding the lock.
+     *
+     * @param names the path element names
+     * @return the node or {@code null} if no object exists at the path
+     */
+    private @Nullable Node find(List<String> names) {
+        if (closed) {
+            throw new IllegalStateException("object store is closed");
+        }
+        Node node = root;
+        for (String name : names) {
+            if (!(node instanceof Folder folder)) {
+                return null;
+            }
+            node = folder.children.get(name);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    private Folder getFolder(List<String> names, URI path) throws IOException {
+        return switch (find(names)) {
+            case null -> throw new ObjectNotFoundException(path.toString());
+            case Folder folder -> folder;
+            case Data ignored -> throw new NotAFolderException(path.toString());
+        };
+    }
+
+    private Data getData(List<String> names, URI path) throws IOException {
+        return switch (find(names)) {
+            case null -> throw new ObjectNotFoundException(path.toString());
+            case Data data -> data;
+            case Folder ignored -> throw new IOException("Not a data object: " + path);
+        };
+    }
+
+    /**
+     * Create the folder identified by the first {@code count} elements of {@code names}, including missing parents.
+     * Must be called while holding the write lock.
+     */
+    private Folder createFolders(List<String> names, int count, URI path) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("object store is closed");
+        }
+        Folder folder = root;
+        for (int i = 0; i < count; i++) {
+            String name = names.get(i);
+            switch (folder.children.get(name)) {
+                case null -> {
+                    Instant now = Instant.now();
+                    Folder child = new Folder(now);
+                    folder.children.put(name, child);
+                    folder.lastModified = now;
+                    folder = child;
+                }
+                case Folder child -> folder = child;
+                case Data ignored -> throw new NotAFolderException(path.toString());
+            }
+        }
+        return folder;
+    }
+
+    /**
+     * Check that data can be written to the given path and create the parent folders.
+     * Must be called while holding the write lock.
+     *
+     * @return the parent folder
+     */
+    private Folder prepareWrite(List<String> names, URI path, OutputOption outputOption) throws IOException {
+        LangUtil.checkArg(!names.isEmpty(), "cannot write data to the root folder");
+        Folder parent = createFolders(names, names.size() - 1, path);
+        Node existing = parent.children.get(names.getLast());
+        if (existing != null) {
+            if (outputOption == OutputOption.CREATE_NEW) {
+                throw new ObjectExistsException(path.toString());
+            }
+            if (existing instanceof Folder) {
+                throw new IOException("Cannot write data directly to folder: " + path);
+            }
+        }
+        return parent;
+    }
+
+    /**
+     * Create a data object with empty content, replacing the content of an existing object.
+     * Must be called while holding the write lock.
+     */
+    private Data createData(List<String> names, URI path, OutputOption outputOption) throws IOException {
+        Folder parent = prepareWrite(names, path, outputOption);
+        Instant now = Instant.now();
+        Content content = new Content(segmentSize);
+        if (parent.children.get(names.getLast()) instanceof Data existing) {
+            existing.content = content;
+            existing.lastModified = now;
+            return existing;
+        }
+
+        Data data = new Data(now, content);
+        parent.children.put(names.getLast(), data);
+        parent.lastModified = now;
+        return data;
+    }
+
+    private void removeNode(List<String> names, URI path) throws IOException {
+        if (names.isEmpty()) {
+            throw new IOException("cannot remove the root folder: " + path);
+        }
+        remove(names, Instant.now());
+    }
+
+    private void remove(List<String> names, Instant now) {
+        Folder parent = (Folder) find(names.subList(0, names.size() - 1));
+        assert parent != null : "parent folder does not exist";
+        parent.children.remove(names.getLast());
+        parent.lastModified = now;
+    }
+
+    private static ObjectInfo toObjectInfo(List<String> names, Node node) throws IOException {
+        String normalized = String.join("/", names);
+        if (node instanceof Folder && !normalized.isEmpty()) {
+            normalized += "/";
+        }
+        URI uri;
+        try {
+            uri = new URI(null, null, normalized, null);
+        } catch (URISyntaxException e) {
+            throw new IOException("could not create URI for path: " + normalized, e);
+        }
+        return switch (node) {
+            case Folder folder -> new ObjectInfo(uri, ObjectType.FOLDER, ObjectInfo.UNKNOWN_SIZE, folder.created, folder.lastModified);
+            case Data data -> new ObjectInfo(uri, ObjectType.DATA, data.content.size(), data.created, data.lastModified);
+        };
+    }
+
+    private static OutputOption getOutputOption(OutputOption... options) {
+        Set<OutputOption> optionSet = Set.of(options);
+        return switch (optionSet.size()) {
+            case 0 -> OutputOption.CREATE_NEW;
+            case 1 -> optionSet.iterator().next();
+            default -> throw new IllegalArgumentException("Multiple incompatible output options specified: " + Arrays.toString(options));
+        };
+    }
+
+    /**
+     * A node in the object tree.
+     */
+    private abstract static sealed class Node permits Folder, Data {
+        final Instant created;
+        volatile Instant lastModified;
+
+        Node(Instant created) {
+            this.created = created;
+            this.lastModified = created;
+        }
+    }
+
+    /**
+     * A folder; its children are sorted by name.
+     */
+    private static final class Folder extends Node {
+        final TreeMap<String, Node> children = new TreeMap<>();
+
+        Folder(Instant created) {
+            super(created);
+        }
+    }
+
+    /**
+     * A data object.
+     */
+    private static final class Data extends Node {
+        volatile Content content;
+
+        Data(Instant created, Content content) {
+            super(created);
+            this.content = content;
+        }
+    }
+
+    /**
+     * The body of a data object, stored in direct buffers of a fixed segment size. Only the last segment can be
+     * smaller than the segment size. Bytes past the end of the content are always zero.
+     */
+    private static final class Content {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int segmentSize;
+        private final int segmentShift;
+        private final List<ByteBuffer> segments = new ArrayList<>();
+        private long size;
+
+        Content(int segmentSize) {
+            this.segmentSize = segmentSize;
+            this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        }
+
+        long size() {
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long capacity() {
+            lock.lock();
+            try {
+                return capacityUnlocked();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long capacityUnlocked() {
+            return segments.isEmpty() ? 0 : (long) (segments.size() - 1) * segmentSize + segments.getLast().capacity();
+        }
+
+        int read(long position, ByteBuffer dst) {
+            lock.lock();
+            try {
+                if (position >= size) {
+                    return dst.hasRemaining() ? -1 : 0;
+                }
+                int n = (int) Math.min(dst.remaining(), size - position);
+                int done = 0;
+                while (done < n) {
+                    long pos = position + done;
+                    ByteBuffer segment = segments.get((int) (pos >>> segmentShift));
+                    int offset = (int) (pos & (segmentSize - 1));
+                    int length = Math.min(n - done, segment.capacity() - offset);
+                    dst.put(dst.position(), segment, offset, length);
+                    dst.position(dst.position() + length);
+                    done += length;
+                }
+                return n;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int write(long position, ByteBuffer src) {
+            lock.lock();
+            try {
+                int n = src.remaining();
+                ensureCapacity(position + n);
+                int done = 0;
+                while (done < n) {
+                    long pos = position + done;
+                    ByteBuffer segment = segments.get((int) (pos >>> segmentShift));
+                    int offset = (int) (pos & (segmentSize - 1));
+                    int length = Math.min(n - done, segment.capacity() - offset);
+                    segment.put(offset, src, src.position(), length);
+                    src.position(src.position() + length);
+                    done += length;
+                }
+                size = Math.max(size, position + n);
+                return n;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void truncate(long newSize) {
+            lock.lock();
+            try {
+                if (newSize >= size) {
+                    return;
+                }
+
+                // drop segments that are not needed anymore and clear the remaining bytes past the end
+                int keep = (int) ((newSize + segmentSize - 1) >>> segmentShift);
+                while (segments.size() > keep) {
+                    segments.removeLast();
+                }
+                if (keep > 0) {
+                    ByteBuffer last = segments.getLast();
+                    int from = (int) (newSize - (long) (keep - 1) * segmentSize);
+                    int to = (int) Math.min(last.capacity(), size - (long) (keep - 1) * segmentSize);
+                    for (int i = from; i < to; i++) {
+                        last.put(i, (byte) 0);
+                    }
+                }
+                size = newSize;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Get read-only views of the segments covering the content.
+         *
+         * @return list of buffers that together contain the content; never empty
+         */
+        List<ByteBuffer> slices() {
+            lock.lock();
+            try {
+                if (size == 0) {
+                    return List.of(ByteBuffer.allocate(0).asReadOnlyBuffer());
+                }
+                List<ByteBuffer> slices = new ArrayList<>(segments.size());
+                long remaining = size;
+                for (ByteBuffer segment : segments) {
+                    int length = (int) Math.min(remaining, segment.capacity());
+                    slices.add(segment.slice(0, length).asReadOnlyBuffer());
+                    remaining -= length;
+                    if (remaining == 0) {
+                        break;
+                    }
+                }
+                return slices;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Content copy() {
+            Content copy = new Content(segmentSize);
+            lock.lock();
+            try {
+                for (ByteBuffer segment : segments) {
+                    ByteBuffer s = ByteBuffer.allocateDirect(segment.capacity());
+                    s.put(0, segment, 0, segment.capacity());
+                    copy.segments.add(s);
+                }
+                copy.size = size;
+            } finally {
+                lock.unlock();
+            }
+            return copy;
+        }
+
+        private void ensureCapacity(long required) {
+            while (capacityUnlocked() < required) {
+                if (segments.isEmpty() || segments.getLast().capacity() == segmentSize) {
+                    long needed = required - capacityUnlocked();
+                    segments.add(ByteBuffer.allocateDirect(segmentCapacity(needed)));
+                } else {
+                    // grow the last segment
+                    ByteBuffer last = segments.getLast();
+                    long needed = required - (long) (segments.size() - 1) * segmentSize;
+                    ByteBuffer grown = ByteBuffer.allocateDirect(segmentCapacity(Math.max(needed, 2L * last.capacity())));
+                    grown.put(0, last, 0, last.capacity());
+                    segments.set(segments.size() - 1, grown);
+                }
+            }
+        }
+
+        private int segmentCapacity(long needed) {
+            if (needed >= segmentSize) {
+                return segmentSize;
+            }
+            return Math.max(MIN_SEGMENT_SIZE, Integer.highestOneBit((int) needed - 1) << 1);
+        }
+    }
+
+    /**
+     * A seekable channel for reading or writing the content of a data object.
+     */
+    private static final class ContentChannel implements SeekableByteChannel {
+        private final Content content;
+        private final @Nullable Data data;
+        private long position;
+        private volatile boolean open = true;
+
+        /**
+         * Constructor.
+         *
+         * @param content the content
+         * @param data    the data object to update the modification time of when writing,
+         *                or {@code null} to create a read-only channel
+         */
+        ContentChannel(Content content, @Nullable Data data) {
+            this.content = content;
+            this.data = data;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            if (data != null) {
+                throw new NonReadableChannelException();
+            }
+            int n = content.read(position, dst);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            Data d = ensureWritable();
+            int n = content.write(position, src);
+            position += n;
+            d.lastModified = Instant.now();
+            return n;
+        }
+
+        @Override
+        public long position() throws IOException {
+            ensureOpen();
+            return position;
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            LangUtil.checkArg(newPosition >= 0, "negative position: %d", newPosition);
+            position = newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            ensureOpen();
+            return content.size();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) throws IOException {
+            Data d = ensureWritable();
+            LangUtil.checkArg(size >= 0, "negative size: %d", size);
+            if (size < content.size()) {
+                content.truncate(size);
+                d.lastModified = Instant.now();
+            }
+            position = Math.min(position, size);
+            return this;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        private void ensureOpen() throws ClosedChannelException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+        }
+
+        private Data ensureWritable() throws ClosedChannelException {
+            ensureOpen();
+            if (data == null) {
+                throw new NonWritableChannelException();
+            }
+            return data;
+        }
+    }
+}
@@ -0,0 +1,618 @@
+package com.dua3.utility.io.imp;
+
+import com.dua3.utility.io.AbsolutePathException;
+import com.dua3.utility.io.IllegalPathException;
+import com.dua3.utility.io.NotAFolderException;
+import com.dua3.utility.io.ObjectNotFoundException;
+import com.dua3.utility.io.ObjectStore;
+import com.dua3.utility.io.ReadableObjectStore;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A read-only {@link ReadableObjectStore} that provides access to the entries of a zip file.
+ * <p>
+ * The central directory of the archive is parsed once when the store is opened. Entries are then read by seeking
+ * directly to their data, so that reading an entry does not require scanning the archive. Stored (uncompressed)
+ * entries are memory-mapped; compressed entries are inflated while they are read. ZIP64 archives are supported,
+ * encrypted entries and compression methods other than stored and deflated are not.
+ * <p>
+ * Folders that are not explicitly present in the archive are created implicitly for the parents of all entries.
+ * Entries with names that point outside the archive root (i.e., absolute names or names containing {@code ..}
+ * segments) are ignored.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class ZipObjectStore implements ReadableObjectStore {
+    private static final Logger LOG = LogManager.getLogger(ZipObjectStore.class);
+
+    private static final int LOC_SIG = 0x04034b50;
+    private static final int CEN_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int LOC_HEADER_SIZE = 30;
+    private static final int CEN_HEADER_SIZE = 46;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int MAX_COMMENT_SIZE = 0xffff;
+    private static final long ZIP64_MAGIC = 0xffffffffL;
+    private static final int FLAG_ENCRYPTED = 0x01;
+    private static final int FLAG_UTF8 = 0x800;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    private sealed interface Node permits Folder, Entry {
+        Instant lastModified();
+    }
+
+    private record Folder(Instant lastModified) implements Node {}
+
+    private static final class Entry implements Node {
+        final int method;
+        final int flags;
+        final long compressedSize;
+        final long size;
+        final long localHeaderOffset;
+        final Instant lastModified;
+        volatile long dataOffset = -1;
+        volatile @Nullable MappedByteBuffer mapped;
+
+        Entry(int method, int flags, long compressedSize, long size, long localHeaderOffset, Instant lastModified) {
+            this.method = method;
+            this.flags = flags;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public Instant lastModified() {
+            return lastModified;
+        }
+    }
+
+    private final Path zipFile;
+    private final URI rootUri;
+    private final FileChannel channel;
+    private final NavigableMap<String, Node> index = new TreeMap<>();
+
+    private ZipObjectStore(Path zipFile, FileChannel channel) {
+        this.zipFile = zipFile;
+        this.rootUri = URI.create("jar:" + zipFile.toUri() + "!/");
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a zip file as a readable object store.
+     *
+     * @param zipFile the path to the zip file
+     * @return a new instance of {@code ZipObjectStore} for the given file
+     * @throws IOException if the file cannot be opened or is not a valid zip file
+     */
+    public static ZipObjectStore open(Path zipFile) throws IOException {
+        Path path = zipFile.toAbsolutePath().normalize();
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ZipObjectStore store = new ZipObjectStore(path, channel);
+            store.readCentralDirectory(Files.getLastModifiedTime(path).toInstant());
+            LOG.debug("opened zip file {} with {} entries", path, store.index.size());
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("SuspiciousGetterSetter")
+    @Override
+    public URI getRoot() {
+        return rootUri;
+    }
+
+    @Override
+    public Stream<ObjectStore.ObjectInfo> list(URI path) throws IOException {
+        String key = toKey(path);
+        switch (index.get(key)) {
+            case null -> throw new ObjectNotFoundException(path.toString());
+            case Entry ignored -> throw new NotAFolderException(path.toString());
+            case Folder ignored -> { /* nothing to do */ }
+        }
+
+        String prefix = key.isEmpty() ? "" : key + "/";
+        List<ObjectStore.ObjectInfo> children = new ArrayList<>();
+        String child = key.isEmpty() ? index.higherKey("") : index.ceilingKey(prefix);
+        while (child != null && child.startsWith(prefix)) {
+            int slash = child.indexOf('/', prefix.length());
+            if (slash < 0) {
+                children.add(toObjectInfo(child, index.get(child)));
+                child = index.higherKey(child);
+            } else {
+                // skip the descendants of a child folder
+                child = index.ceilingKey(child.substring(0, slash) + "0");
+            }
+        }
+        return children.stream();
+    }
+
+    @Override
+    public Optional<ObjectStore.ObjectInfo> getInfo(URI path) throws IOException {
+        String key = toKey(path);
+        Node node = index.get(key);
+        return node == null ? Optional.empty() : Optional.of(toObjectInfo(key, node));
+    }
+
+    @Override
+    public InputStream openInputStream(URI path) throws IOException {
+        Entry entry = getEntry(path);
+        if (entry.method == METHOD_STORED) {
+            return Channels.newInputStream(new BufferChannel(map(entry)));
+        }
+
+        Inflater inflater = new Inflater(true);
+        return new InflaterInputStream(new RegionInputStream(dataOffset(entry), entry.compressedSize), inflater, 8192) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    super.close();
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    @Override
+    public ReadableByteChannel openReadableByteChannel(URI path) throws IOException {
+        Entry entry = getEntry(path);
+        if (entry.method == METHOD_STORED) {
+            return new BufferChannel(map(entry));
+        }
+        return Channels.newChannel(openInputStream(path));
+    }
+
+    /**
+     * Returns a read-only buffer containing the data of an entry.
+     * <p>
+     * Stored entries are memory-mapped without copying the data; compressed entries are inflated into a heap
+     * buffer.
+     */
+    @Override
+    public ByteBuffer map(URI path) throws IOException {
+        Entry entry = getEntry(path);
+        if (entry.method == METHOD_STORED) {
+            return map(entry);
+        }
+        return ByteBuffer.wrap(readAllBytes(path)).asReadOnlyBuffer();
+    }
+
+    @Override
+    public byte[] readAllBytes(URI path) throws IOException {
+        Entry entry = getEntry(path);
+        if (entry.size > Integer.MAX_VALUE - 8) {
+            throw new IOException("entry is too large to be read into an array: " + path);
+        }
+        try (InputStream in = openInputStream(path)) {
+            byte[] data = in.readNBytes((int) entry.size);
+            if (data.length != entry.size || in.read() >= 0) {
+                throw new IOException("entry size does not match central directory: " + path);
+            }
+            return data;
+        }
+    }
+
+    /**
+     * Get the path of the zip file.
+     *
+     * @return the path of the zip file backing this store
+     */
+    public Path getZipFile() {
+        return zipFile;
+    }
+
+    @Override
+    public void close() throws IOException {
+        LOG.debug("closing zip file {}", zipFile);
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(zipFile=" + zipFile + ")";
+    }
+
+    private Entry getEntry(URI path) throws IOException {
+        return switch (index.get(toKey(path))) {
+            case null -> throw new ObjectNotFoundException(path.toString());
+            case Folder ignored -> throw new IOException("not a data object: " + path);
+            case Entry entry -> {
+                if ((entry.flags & FLAG_ENCRYPTED) != 0) {
+                    throw new IOException("encrypted entries are not supported: " + path);
+                }
+                if (entry.method != METHOD_STORED && entry.method != METHOD_DEFLATED) {
+                    throw new IOException("unsupported compression method " + entry.method + ": " + path);
+                }
+                yield entry;
+            }
+        };
+    }
+
+    private ByteBuffer map(Entry entry) throws IOException {
+        MappedByteBuffer buffer = entry.mapped;
+        if (buffer == null) {
+            if (entry.size > Integer.MAX_VALUE) {
+                throw new IOException("entry is too large to be mapped: " + entry.size + " bytes");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset(entry), entry.size);
+            entry.mapped = buffer;
+        }
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Get the offset of an entry's data, reading the entry's local header on first access.
+     */
+    private long dataOffset(Entry entry) throws IOException {
+        long offset = entry.dataOffset;
+        if (offset < 0) {
+            ByteBuffer header = read(entry.localHeaderOffset, LOC_HEADER_SIZE);
+            if (header.getInt(0) != LOC_SIG) {
+                throw new IOException("invalid local header in " + zipFile + " at offset " + entry.localHeaderOffset);
+            }
+            int nameLength = Short.toUnsignedInt(header.getShort(26));
+            int extraLength = Short.toUnsignedInt(header.getShort(28));
+            offset = entry.localHeaderOffset + LOC_HEADER_SIZE + nameLength + extraLength;
+            if (offset + entry.compressedSize > channel.size()) {
+                throw new IOException("entry data exceeds the size of " + zipFile);
+            }
+            entry.dataOffset = offset;
+        }
+        return offset;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("unexpected end of file: " + zipFile);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private void readCentralDirectory(Instant fileTime) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < END_HEADER_SIZE) {
+            throw new IOException("not a zip file: " + zipFile);
+        }
+
+        // locate the end of central directory record, which is followed by an optional comment
+        int tailLength = (int) Math.min(fileSize, END_HEADER_SIZE + MAX_COMMENT_SIZE);
+        long tailStart = fileSize - tailLength;
+        ByteBuffer tail = read(tailStart, tailLength);
+        int end = -1;
+        for (int i = tailLength - END_HEADER_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIG && i + END_HEADER_SIZE + Short.toUnsignedInt(tail.getShort(i + 20)) <= tailLength) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            throw new IOException("not a zip file: " + zipFile);
+        }
+
+        long entryCount = Short.toUnsignedInt(tail.getShort(end + 10));
+        long cenSize = Integer.toUnsignedLong(tail.getInt(end + 12));
+        long cenOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+
+        long endPosition = tailStart + end;
+        if (endPosition >= ZIP64_LOCATOR_SIZE) {
+            ByteBuffer locator = read(endPosition - ZIP64_LOCATOR_SIZE, ZIP64_LOCATOR_SIZE);
+            if (locator.getInt(0) == ZIP64_LOCATOR_SIG) {
+                ByteBuffer end64 = read(locator.getLong(8), 56);
+                if (end64.getInt(0) != ZIP64_END_SIG) {
+                    throw new IOException("invalid ZIP64 end of central directory in " + zipFile);
+                }
+                entryCount = end64.getLong(32);
+                cenSize = end64.getLong(40);
+                cenOffset = end64.getLong(48);
+            }
+        }
+
+        if (cenSize > Integer.MAX_VALUE || cenOffset + cenSize > fileSize) {
+            throw new IOException("invalid central directory in " + zipFile);
+        }
+
+        index.put("", new Folder(fileTime));
+        ByteBuffer cen = read(cenOffset, (int) cenSize);
+        int pos = 0;
+        for (long i = 0; i < entryCount; i++) {
+            if (pos + CEN_HEADER_SIZE > cen.limit() || cen.getInt(pos) != CEN_SIG) {
+                throw new IOException("invalid central directory entry in " + zipFile);
+            }
+            int flags = Short.toUnsignedInt(cen.getShort(pos + 8));
+            int method = Short.toUnsignedInt(cen.getShort(pos + 10));
+            int dosTime = cen.getInt(pos + 12);
+            long compressedSize = Integer.toUnsignedLong(cen.getInt(pos + 20));
+            long size = Integer.toUnsignedLong(cen.getInt(pos + 24));
+            int nameLength = Short.toUnsignedInt(cen.getShort(pos + 28));
+            int extraLength = Short.toUnsignedInt(cen.getShort(pos + 30));
+            int commentLength = Short.toUnsignedInt(cen.getShort(pos + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(cen.getInt(pos + 42));
+
+            int nameStart = pos + CEN_HEADER_SIZE;
+            int extraStart = nameStart + nameLength;
+            pos = extraStart + extraLength + commentLength;
+            if (pos > cen.limit()) {
+                throw new IOException("invalid central directory entry in " + zipFile);
+            }
+
+            byte[] nameBytes = new byte[nameLength];
+            cen.get(nameStart, nameBytes);
+            String name = new String(nameBytes, (flags & FLAG_UTF8) != 0 ? StandardCharsets.UTF_8 : legacyCharset());
+
+            // read the ZIP64 extended information if present
+            for (int p = extraStart; p + 4 <= extraStart + extraLength; ) {
+                int id = Short.toUnsignedInt(cen.getShort(p));
+                int length = Short.toUnsignedInt(cen.getShort(p + 2));
+                if (id == ZIP64_EXTRA_ID) {
+                    int q = p + 4;
+                    if (size == ZIP64_MAGIC) {
+                        size = cen.getLong(q);
+                        q += 8;
+                    }
+                    if (compressedSize == ZIP64_MAGIC) {
+                        compressedSize = cen.getLong(q);
+                        q += 8;
+                    }
+                    if (localHeaderOffset == ZIP64_MAGIC) {
+                        localHeaderOffset = cen.getLong(q);
+                    }
+                    break;
+                }
+                p += 4 + length;
+            }
+
+            addEntry(name, new Entry(method, flags, compressedSize, size, localHeaderOffset, fromDosTime(dosTime)));
+        }
+    }
+
+    private void addEntry(String name, Entry entry) {
+        boolean isFolder = name.endsWith("/");
+        String key = name.replaceAll("/+$", "");
+        if (key.isEmpty() || key.startsWith("/") || key.contains("\\") || key.contains("//")
+                || Stream.of(key.split("/")).anyMatch(s -> s.equals("..") || s.equals("."))) {
+            LOG.warn("ignoring zip entry with invalid name: {}", name);
+            return;
+        }
+
+        Node existing = index.get(key);
+        if (existing != null && !(existing instanceof Folder && isFolder)) {
+            LOG.warn("ignoring duplicate or conflicting zip entry: {}", name);
+            return;
+        }
+        index.put(key, isFolder ? new Folder(entry.lastModified) : entry);
+
+        for (int slash = key.lastIndexOf('/'); slash > 0; slash = key.lastIndexOf('/', slash - 1)) {
+            String parent = key.substring(0, slash);
+            Node node = index.get(parent);
+            if (node instanceof Entry) {
+                LOG.warn("zip entry {} is used as a folder", parent);
+                index.put(parent, new Folder(node.lastModified()));
+            } else if (node == null) {
+                index.put(parent, new Folder(entry.lastModified));
+            }
+        }
+    }
+
+    private static Charset legacyCharset() {
+        try {
+            return Charset.forName("IBM437");
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.ISO_8859_1;
+        }
+    }
+
+    private static Instant fromDosTime(int dosTime) {
+        int date = dosTime >>> 16;
+        try {
+            LocalDateTime dateTime = LocalDateTime.of(
+                    1980 + ((date >> 9) & 0x7f),
+                    (date >> 5) & 0x0f,
+                    date & 0x1f,
+                    (dosTime >> 11) & 0x1f,
+                    (dosTime >> 5) & 0x3f,
+                    (dosTime << 1) & 0x3e
+            );
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        } catch (RuntimeException e) {
+            return Instant.EPOCH;
+        }
+    }
+
+    private ObjectStore.ObjectInfo toObjectInfo(String key, Node node) throws IOException {
+        boolean folder = node instanceof Folder;
+        String path = folder && !key.isEmpty() ? key + "/" : key;
+        URI uri;
+        try {
+            uri = new URI(null, null, path, null);
+        } catch (URISyntaxException e) {
+            throw new IOException("could not create URI for path: " + path, e);
+        }
+        return switch (node) {
+            case Folder f -> new ObjectStore.ObjectInfo(uri, ObjectStore.ObjectType.FOLDER, ObjectStore.ObjectInfo.UNKNOWN_SIZE, f.lastModified(), f.lastModified());
+            case Entry e -> new ObjectStore.ObjectInfo(uri, ObjectStore.ObjectType.DATA, e.size, e.lastModified, e.lastModified);
+        };
+    }
+
+    /**
+     * Converts a path to the key used in the index: the normalized path without leading or trailing slashes.
+     */
+    private static String toKey(URI path) throws IllegalPathException {
+        if (path.isAbsolute()) {
+            throw new AbsolutePathException("absolute path not allowed: " + path);
+        }
+        String p = path.getPath();
+        if (p == null || p.startsWith("/") || path.getRawAuthority() != null) {
+            throw new IllegalPathException("invalid path: " + path);
+        }
+
+        List<String> names = new ArrayList<>();
+        for (String name : p.split("/")) {
+            switch (name) {
+                case "", "." -> { /* nothing to do */ }
+                case ".." -> {
+                    if (names.isEmpty()) {
+                        throw new IllegalPathException("path points outside root: " + path);
+                    }
+                    names.removeLast();
+                }
+                default -> names.add(name);
+            }
+        }
+        return String.join("/", names);
+    }
+
+    /**
+     * An input stream reading a region of the zip file using positional reads.
+     */
+    private final class RegionInputStream extends InputStream {
+        private long position;
+        private final long end;
+
+        RegionInputStream(long start, long length) {
+            this.position = start;
+            this.end = start + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if (n < 0) {
+                throw new EOFException("unexpected end of file: " + zipFile);
+            }
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+
+    /**
+     * A read-only seekable channel over a buffer.
+     */
+    private static final class BufferChannel implements SeekableByteChannel {
+        private final ByteBuffer buffer;
+        private boolean open = true;
+
+        BufferChannel(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(dst.remaining(), buffer.remaining());
+            dst.put(dst.position(), buffer, buffer.position(), n);
+            dst.position(dst.position() + n);
+            buffer.position(buffer.position() + n);
+            return n;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            ensureOpen();
+            return buffer.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            buffer.position((int) Math.min(newPosition, buffer.limit()));
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            ensureOpen();
+            return buffer.limit();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+
+        private void ensureOpen() throws ClosedChannelException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+        }
+    }
+}
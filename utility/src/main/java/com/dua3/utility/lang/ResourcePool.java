@@ -4,13 +4,23 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jspecify.annotations.Nullable;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -47,6 +57,26 @@ public interface ResourcePool<T> extends AutoCloseable {
         void close();
     }
 
+    /**
+     * Usage statistics of a resource pool.
+     *
+     * @param acquired         the number of leases handed out
+     * @param created          the number of resources created
+     * @param waited           the number of calls to {@link #acquire()} that had to wait for a resource to be returned
+     * @param totalAcquireTime the total time spent in {@link #acquire()} and {@link #tryAcquire()}
+     * @param maxAcquireTime   the longest time spent in a single call to {@link #acquire()} or {@link #tryAcquire()}
+     */
+    record Stats(long acquired, long created, long waited, Duration totalAcquireTime, Duration maxAcquireTime) {
+        /**
+         * Get the mean time spent acquiring a lease.
+         *
+         * @return the mean acquire time, or {@link Duration#ZERO} if no lease was acquired
+         */
+        public Duration meanAcquireTime() {
+            return acquired == 0 ? Duration.ZERO : totalAcquireTime.dividedBy(acquired);
+        }
+    }
+
     /**
      * Creates a new resource pool where resources are managed on a per-thread basis.
      * <p>
@@ -157,6 +187,31 @@ public interface ResourcePool<T> extends AutoCloseable {
         return new ListBackedResourcePool<>(factory, releaser, destructor, minCapacity, maxCapacity);
     }
 
+    /**
+     * Creates a resource pool that does not use locks when acquiring and returning resources.
+     * <p>
+     * Use this instead of {@link #newResourcePool(Supplier, Consumer, Consumer, int, int)} when many threads acquire
+     * and return resources at a high rate. Idle resources are claimed using atomic operations, and platform threads
+     * first try the resources they returned most recently. The pool is safe to use from virtual threads; acquiring
+     * a resource never pins the carrier thread.
+     * <p>
+     * Resources are created on demand up to {@code maxCapacity} and are kept until the pool is closed.
+     * Usage statistics are available through {@link #getStats()}.
+     *
+     * @param <T>          the type of resource managed by the pool
+     * @param factory      a {@code Supplier} to create new resource instances as needed
+     * @param releaser     a {@code Consumer} to handle the cleanup or release of the resources
+     * @param destructor   a {@code Consumer} that performs final cleanup of resources when the pool is closed
+     * @param minCapacity  the number of resources to be pre-created in the pool
+     * @param maxCapacity  the maximum number of resources allowed in the pool
+     * @return             a {@code ResourcePool} instance configured with the specified minimum and maximum capacities
+     * @throws IllegalArgumentException if {@code minCapacity} is negative, {@code maxCapacity} is not positive,
+     *                                  or {@code maxCapacity} is less than {@code minCapacity}
+     */
+    static <T> ResourcePool<T> newLockFreeResourcePool(Supplier<T> factory, Consumer<T> releaser, Consumer<T> destructor, int minCapacity, int maxCapacity) {
+        return new LockFreeResourcePool<>(factory, releaser, destructor, minCapacity, maxCapacity);
+    }
+
     /**
      * Acquires a resource handle from the pool.
      * <p>
@@ -191,6 +246,16 @@ public interface ResourcePool<T> extends AutoCloseable {
      */
     @Nullable Lease<T> tryAcquire();
 
+    /**
+     * Get the usage statistics of this pool.
+     *
+     * @return an {@link Optional} holding the statistics, or an empty {@code Optional} if this pool does not
+     *         collect statistics
+     */
+    default Optional<Stats> getStats() {
+        return Optional.empty();
+    }
+
     @Override
     void close();
 }
@@ -572,3 +637,342 @@ final class ListBackedResourcePool<T> implements ResourcePool<T> {
         closeLock.release();
     }
 }
+
+/**
+ * A {@link ResourcePool} implementation that claims and returns resources using atomic operations only.
+ * <p>
+ * All resources are kept in a fixed-size array of slots. Each lease carries its own state that is changed using
+ * compare-and-set, so acquiring a resource never blocks other threads. To reduce contention, threads start scanning
+ * the slots at different offsets, and platform threads keep a small stash of the leases they returned last and try
+ * these first. Virtual threads do not use the stash because the carrier thread is not accessible and a stash per
+ * virtual thread would rarely be reused. Threads waiting for a resource are handed returned leases through a
+ * {@link LinkedTransferQueue}.
+ *
+ * @param <T> the type of resource managed by the pool
+ */
+final class LockFreeResourcePool<T> implements ResourcePool<T> {
+    private static final Logger LOG = LogManager.getLogger(LockFreeResourcePool.class);
+
+    private static final int IDLE = 0;
+    private static final int LEASED = 1;
+    private static final int REMOVED = 2;
+
+    private static final int STASH_SIZE = 4;
+    private static final long WAIT_SLICE_MILLIS = 50;
+
+    private final Supplier<T> factory;
+    private final Consumer<T> releaser;
+    private final Consumer<T> destructor;
+    private final AtomicReferenceArray<PooledLeaseImpl> slots;
+    private final AtomicInteger highWaterMark = new AtomicInteger();
+    private final AtomicInteger resourceCount = new AtomicInteger();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final LinkedTransferQueue<PooledLeaseImpl> handoff = new LinkedTransferQueue<>();
+    private final ThreadLocal<ArrayDeque<PooledLeaseImpl>> stash = ThreadLocal.withInitial(() -> new ArrayDeque<>(STASH_SIZE));
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private final CountDownLatch allDestroyed = new CountDownLatch(1);
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder totalAcquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * A lease whose state is managed by compare-and-set so that it can be claimed without locking.
+     */
+    private final class PooledLeaseImpl extends LeaseImpl<T> {
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+
+        PooledLeaseImpl(T resource, Consumer<T> releaser) {
+            super(resource, releaser);
+        }
+
+        boolean claim() {
+            return state.get() == IDLE && state.compareAndSet(IDLE, LEASED);
+        }
+
+        @Override
+        public void close() {
+            // do not return the lease when super.close() throws because the lease was not leased
+            super.close();
+            release(this);
+        }
+    }
+
+    /**
+     * Constructs a LockFreeResourcePool with the specified factory, releaser, destructor, and capacities.
+     *
+     * @param factory     the supplier responsible for creating new resource instances
+     * @param releaser    the consumer responsible for cleaning up or releasing resources
+     * @param destructor  the consumer responsible for the final cleanup of resources when the pool is closed
+     * @param minCapacity the number of resources to be pre-allocated in the pool
+     * @param maxCapacity the maximum number of resources allowed in the pool
+     * @throws IllegalArgumentException if minCapacity is negative, maxCapacity is not positive, or maxCapacity is
+     *                                  less than minCapacity
+     */
+    LockFreeResourcePool(Supplier<T> factory, Consumer<T> releaser, Consumer<T> destructor, int minCapacity, int maxCapacity) {
+        LangUtil.checkArg(minCapacity >= 0, "minCapacity must be >= 0");
+        LangUtil.checkArg(maxCapacity > 0, "maxCapacity must be > 0: %d", maxCapacity);
+        LangUtil.checkArg(maxCapacity >= minCapacity, "maxCapacity must be >= minCapacity %d: %d", minCapacity, maxCapacity);
+
+        this.factory = factory;
+        this.releaser = releaser;
+        this.destructor = destructor;
+        this.slots = new AtomicReferenceArray<>(maxCapacity);
+
+        for (int i = 0; i < minCapacity; i++) {
+            PooledLeaseImpl lease = new PooledLeaseImpl(factory.get(), releaser);
+            slots.set(i, lease);
+            created.increment();
+        }
+        this.resourceCount.set(minCapacity);
+        this.highWaterMark.set(minCapacity);
+    }
+
+    @Override
+    public Optional<Stats> getStats() {
+        return Optional.of(new Stats(
+                acquired.sum(),
+                created.sum(),
+                waited.sum(),
+                Duration.ofNanos(totalAcquireNanos.sum()),
+                Duration.ofNanos(maxAcquireNanos.get())
+        ));
+    }
+
+    // resource is returned to the caller; closing it is the responsibility of the caller
+    @SuppressWarnings({"resource", "java:S2095"})
+    @Override
+    public Lease<T> acquire() {
+        if (closed.get()) {
+            throw new IllegalStateException("pool is closed");
+        }
+
+        long start = System.nanoTime();
+        PooledLeaseImpl lease = claimOrCreate(false);
+        if (lease == null) {
+            lease = await();
+        }
+        return leased(lease, start);
+    }
+
+    // resource is returned to the caller; closing it is the responsibility of the caller
+    @SuppressWarnings({"resource", "java:S2095"})
+    @Override
+    public @Nullable Lease<T> tryAcquire() {
+        if (closed.get()) {
+            throw new IllegalStateException("pool is closed");
+        }
+
+        long start = System.nanoTime();
+        PooledLeaseImpl lease = claimOrCreate(false);
+        return lease == null ? null : leased(lease, start);
+    }
+
+    private Lease<T> leased(PooledLeaseImpl lease, long start) {
+        long nanos = System.nanoTime() - start;
+        acquired.increment();
+        totalAcquireNanos.add(nanos);
+        maxAcquireNanos.accumulate(nanos);
+        return lease.acquire();
+    }
+
+    /**
+     * Claim an idle lease, or create a new one if the maximum capacity has not been reached.
+     * <p>
+     * Once the pool is closed, only threads that were already waiting are served, so that they do not wait forever.
+     *
+     * @param waiting true, if called by a thread waiting for a lease
+     * @return the claimed lease, or {@code null} if no lease is available
+     * @throws IllegalStateException if the pool has been closed concurrently and the caller is not waiting
+     */
+    private @Nullable PooledLeaseImpl claimOrCreate(boolean waiting) {
+        PooledLeaseImpl lease = claimIdle();
+        if (lease == null) {
+            lease = create();
+        }
+        if (!waiting && closed.get()) {
+            if (lease != null) {
+                release(lease);
+            }
+            throw new IllegalStateException("pool is closed");
+        }
+        return lease;
+    }
+
+    private @Nullable PooledLeaseImpl claimIdle() {
+        Thread thread = Thread.currentThread();
+
+        // first try the leases most recently returned by this thread
+        if (!thread.isVirtual()) {
+            for (PooledLeaseImpl lease : stash.get()) {
+                if (lease.claim()) {
+                    return lease;
+                }
+            }
+        }
+
+        // then scan all slots, starting at a thread dependent offset to spread contention
+        int n = highWaterMark.get();
+        if (n == 0) {
+            return null;
+        }
+        int offset = (int) (thread.threadId() % n);
+        for (int i = 0; i < n; i++) {
+            PooledLeaseImpl lease = slots.get((offset + i) % n);
+            if (lease != null && lease.claim()) {
+                return lease;
+            }
+        }
+        return null;
+    }
+
+    private @Nullable PooledLeaseImpl create() {
+        int count;
+        do {
+            count = resourceCount.get();
+            if (count >= slots.length()) {
+                return null;
+            }
+        } while (!resourceCount.compareAndSet(count, count + 1));
+
+        // close() sets the flag before reading resourceCount, so either close() waits for this resource or the
+        // closed flag is seen here
+        if (closed.get()) {
+            if (resourceCount.decrementAndGet() == 0) {
+                allDestroyed.countDown();
+            }
+            return null;
+        }
+
+        PooledLeaseImpl lease;
+        try {
+            lease = new PooledLeaseImpl(factory.get(), releaser);
+        } catch (RuntimeException e) {
+            resourceCount.decrementAndGet();
+            throw e;
+        }
+        lease.state.set(LEASED);
+        created.increment();
+
+        // slots are never cleared, but resourceCount is only decremented after the pool has been closed, so a free
+        // slot exists because the pool was open after resourceCount had been incremented
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, lease)) {
+                highWaterMark.accumulateAndGet(i + 1, Math::max);
+                return lease;
+            }
+        }
+
+        lease.state.set(REMOVED);
+        destroy(lease);
+        throw new IllegalStateException("internal error: create() - no free slot");
+    }
+
+    private PooledLeaseImpl await() {
+        waitingCount.incrementAndGet();
+        waited.increment();
+        try {
+            while (true) {
+                // a lease returned after waitingCount was incremented is either found here or passed via handoff
+                PooledLeaseImpl lease = claimOrCreate(true);
+                if (lease != null) {
+                    return lease;
+                }
+                if (closed.get() && resourceCount.get() == 0) {
+                    throw new IllegalStateException("pool is closed");
+                }
+                lease = handoff.poll(WAIT_SLICE_MILLIS, TimeUnit.MILLISECONDS);
+                if (lease != null && lease.claim()) {
+                    return lease;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WrappedException(e);
+        } finally {
+            waitingCount.decrementAndGet();
+            destroyIdleIfClosed();
+        }
+    }
+
+    private void release(PooledLeaseImpl lease) {
+        if (closed.get() && waitingCount.get() == 0) {
+            if (lease.state.compareAndSet(LEASED, REMOVED)) {
+                destroy(lease);
+            }
+            return;
+        }
+
+        lease.state.set(IDLE);
+
+        if (!Thread.currentThread().isVirtual()) {
+            ArrayDeque<PooledLeaseImpl> recent = stash.get();
+            recent.remove(lease);
+            recent.addFirst(lease);
+            if (recent.size() > STASH_SIZE) {
+                recent.removeLast();
+            }
+        }
+
+        if (waitingCount.get() > 0) {
+            handoff.offer(lease);
+        }
+
+        destroyIdleIfClosed();
+    }
+
+    private void destroyIdleIfClosed() {
+        if (!closed.get() || waitingCount.get() > 0) {
+            return;
+        }
+        for (int i = 0; i < highWaterMark.get(); i++) {
+            PooledLeaseImpl lease = slots.get(i);
+            if (lease != null && lease.state.compareAndSet(IDLE, REMOVED)) {
+                destroy(lease);
+            }
+        }
+    }
+
+    private void destroy(PooledLeaseImpl lease) {
+        try {
+            T resource = lease.get();
+            lease.dispose();
+            destructor.accept(resource);
+        } catch (RuntimeException e) {
+            LOG.warn(LeaseImpl.EXCEPTION_WHEN_DESTRUCTING_RESOURCE_IGNORED, e.getMessage(), e);
+        }
+        if (resourceCount.decrementAndGet() == 0 && closed.get()) {
+            allDestroyed.countDown();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed.getAndSet(true)) {
+            throw new IllegalStateException("pool is already closed");
+        }
+
+        destroyIdleIfClosed();
+        if (resourceCount.get() == 0) {
+            allDestroyed.countDown();
+        }
+
+        // wait until all leased resources have been returned and destroyed
+        boolean interrupted = false;
+        while (allDestroyed.getCount() > 0) {
+            try {
+                allDestroyed.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        handoff.clear();
+        stash.remove();
+    }
+}
@@ -0,0 +1,40 @@
+package com.dua3.utility.concurrent;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+class DurationHistogramTest {
+
+    @Test
+    void testEmptyHistogram() {
+        DurationHistogram.Snapshot snapshot = new DurationHistogram().snapshot();
+        Assertions.assertEquals(DurationHistogram.Snapshot.EMPTY, snapshot);
+        Assertions.assertEquals(Duration.ZERO, snapshot.mean());
+        Assertions.assertEquals(Duration.ZERO, snapshot.percentile(99));
+    }
+
+    @Test
+    void testRecordAndPercentiles() {
+        DurationHistogram histogram = new DurationHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(Duration.ofMillis(i));
+        }
+        histogram.record(-5);
+
+        DurationHistogram.Snapshot snapshot = histogram.snapshot();
+        Assertions.assertEquals(101, snapshot.count());
+        Assertions.assertEquals(Duration.ofMillis(5050), snapshot.total());
+        Assertions.assertEquals(Duration.ofMillis(100), snapshot.max());
+        Assertions.assertEquals(snapshot.count(), snapshot.buckets().stream().mapToLong(DurationHistogram.Bucket::count).sum());
+
+        // percentiles are accurate within a factor of two
+        Duration median = snapshot.percentile(50);
+        Assertions.assertTrue(median.compareTo(Duration.ofMillis(50)) >= 0 && median.compareTo(Duration.ofMillis(100)) <= 0, median.toString());
+        Assertions.assertEquals(Duration.ofMillis(100), snapshot.percentile(100));
+        Assertions.assertEquals(Duration.ZERO, snapshot.percentile(0));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> snapshot.percentile(101));
+    }
+}
@@ -4,9 +4,14 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 class TaskProcessorAsyncTest {
 
@@ -51,6 +56,21 @@ class TaskProcessorAsyncTest {
         Assertions.assertEquals("boom", ex.getCause().getMessage());
     }
 
+    @Test
+    void testFailuresAreWrappedInCompletionException() {
+        processor = new TaskProcessorAsync("async-ex-wrapped", 1);
+
+        CompletableFuture<Void> f = processor.submit(() -> {throw new IOException("boom");});
+
+        // dependent stages see the failure wrapped in a CompletionException, like with CompletableFuture.supplyAsync()
+        Throwable t = f.handle((r, e) -> e).join();
+        Assertions.assertInstanceOf(CompletionException.class, t);
+        Assertions.assertInstanceOf(IOException.class, t.getCause());
+
+        ExecutionException ex = Assertions.assertThrows(ExecutionException.class, () -> f.get(1, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(IOException.class, ex.getCause());
+    }
+
     @Test
     void testSubmitFutureReturnsResult() throws Exception {
         processor = new TaskProcessorAsync("async-future", 1);
@@ -133,4 +153,116 @@ class TaskProcessorAsyncTest {
         Assertions.assertTrue(processor.waitForCompletion(1_000, TimeUnit.MILLISECONDS));
         Assertions.assertTrue(processor.isCompleted());
     }
+
+    /**
+     * Occupy the single worker thread of the processor until the returned latch is released.
+     */
+    private CountDownLatch blockWorker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        processor.submit(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        Assertions.assertTrue(started.await(1, TimeUnit.SECONDS));
+        return release;
+    }
+
+    @Test
+    void testBoundedQueueReject() throws Exception {
+        processor = new TaskProcessorAsync("async-reject", 1, 2, TaskProcessor.OverflowPolicy.REJECT);
+        CountDownLatch release = blockWorker();
+
+        CompletableFuture<Integer> f1 = processor.submit(() -> 1);
+        CompletableFuture<Integer> f2 = processor.submit(() -> 2);
+        Assertions.assertEquals(2, processor.getQueueSize());
+        Assertions.assertThrows(TaskRejectedException.class, () -> processor.submit(() -> 3));
+        Assertions.assertEquals(1, processor.getRejectedCount());
+
+        release.countDown();
+        Assertions.assertEquals(1, f1.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, f2.get(1, TimeUnit.SECONDS));
+        // rejected tasks count as completed so that the processor can complete
+        Assertions.assertEquals(4, processor.getStats().submitted());
+        Assertions.assertEquals(4, processor.getStats().completed());
+    }
+
+    @Test
+    void testBoundedQueueBlock() throws Exception {
+        processor = new TaskProcessorAsync("async-block", 1, 1, TaskProcessor.OverflowPolicy.BLOCK);
+        CountDownLatch release = blockWorker();
+        processor.submit(() -> 1);
+
+        AtomicReference<CompletableFuture<Integer>> blocked = new AtomicReference<>();
+        Thread submitter = new Thread(() -> blocked.set(processor.submit(() -> 2)));
+        submitter.start();
+
+        long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (submitter.getState() != Thread.State.WAITING && submitter.getState() != Thread.State.TIMED_WAITING) {
+            Assertions.assertTrue(submitter.isAlive(), "submit() should block while the queue is full");
+            Assertions.assertTrue(System.nanoTime() - timeout < 0, "timeout waiting for submit() to block");
+            Thread.sleep(1);
+        }
+        Assertions.assertNull(blocked.get());
+
+        release.countDown();
+        submitter.join(1_000);
+        Assertions.assertFalse(submitter.isAlive());
+        Assertions.assertEquals(2, blocked.get().get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, processor.getRejectedCount());
+    }
+
+    @Test
+    void testBoundedQueueCallerRuns() throws Exception {
+        processor = new TaskProcessorAsync("async-caller-runs", 1, 1, TaskProcessor.OverflowPolicy.CALLER_RUNS);
+        CountDownLatch release = blockWorker();
+        processor.submit(() -> 1);
+
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Boolean> f = processor.submit(() -> Thread.currentThread() == caller);
+        Assertions.assertTrue(f.isDone(), "the task should have been run by the caller");
+        Assertions.assertTrue(f.get());
+
+        release.countDown();
+    }
+
+    @Test
+    void testBoundedQueueDropOldest() throws Exception {
+        processor = new TaskProcessorAsync("async-drop-oldest", 1, 2, TaskProcessor.OverflowPolicy.DROP_OLDEST);
+        CountDownLatch release = blockWorker();
+
+        CompletableFuture<Integer> f1 = processor.submit(() -> 1);
+        CompletableFuture<Integer> f2 = processor.submit(() -> 2);
+        CompletableFuture<Integer> f3 = processor.submit(() -> 3);
+
+        CompletionException ex = Assertions.assertThrows(CompletionException.class, f1::join);
+        Assertions.assertInstanceOf(TaskRejectedException.class, ex.getCause());
+        Assertions.assertEquals(1, processor.getDroppedCount());
+
+        release.countDown();
+        Assertions.assertEquals(2, f2.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(3, f3.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(4, processor.getStats().completed());
+    }
+
+    @Test
+    void testTrySubmitDoesNotBlock() throws Exception {
+        processor = new TaskProcessorAsync("async-try", 1, 1, TaskProcessor.OverflowPolicy.BLOCK);
+        CountDownLatch release = blockWorker();
+
+        Optional<CompletableFuture<Integer>> accepted = processor.trySubmit(() -> 1);
+        Assertions.assertTrue(accepted.isPresent());
+        Assertions.assertTrue(processor.trySubmit(() -> 2).isEmpty());
+        Assertions.assertEquals(1, processor.getRejectedCount());
+        Assertions.assertEquals(1, processor.getQueueSize());
+
+        release.countDown();
+        Assertions.assertEquals(1, accepted.get().get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testInvalidQueueCapacity() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TaskProcessorAsync("async-invalid", 1, 0, TaskProcessor.OverflowPolicy.REJECT));
+    }
 }
@@ -0,0 +1,188 @@
+package com.dua3.utility.concurrent;
+
+import com.dua3.utility.concurrent.TaskProcessorDelegatingTest.KeyedCallable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+class TaskProcessorCoalescingTest {
+
+    private final TaskProcessorAsync executor = new TaskProcessorAsync("coalescing-executor", 4);
+    private TaskProcessorCoalescing<String> processor;
+
+    @AfterEach
+    void tearDown() {
+        if (processor != null && !processor.isShutdown()) {
+            processor.shutdown();
+        }
+        if (processor != null && !processor.isCompleted()) {
+            processor.waitForCompletion(100, TimeUnit.MILLISECONDS);
+        }
+        executor.shutdown();
+        executor.waitForCompletion(100, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void testPendingSubmissionsAreMerged() throws Exception {
+        processor = new TaskProcessorCoalescing<>("coalescing", executor, task -> "key");
+
+        // block the key so that the following submissions stay pending
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = processor.submit("key", () -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "first";
+        });
+
+        List<String> executed = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String value = "value-" + i;
+            futures.add(processor.submit("key", () -> {
+                executed.add(value);
+                return value;
+            }));
+        }
+
+        // all pending submissions share one future
+        futures.forEach(f -> Assertions.assertSame(futures.getFirst(), f));
+        Assertions.assertNotSame(first, futures.getFirst());
+        Assertions.assertEquals(9, processor.getMergedCount());
+
+        release.countDown();
+        Assertions.assertEquals("first", first.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals("value-9", futures.getFirst().get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of("value-9"), executed);
+        Assertions.assertEquals(2, processor.getStats().submitted());
+    }
+
+    @Test
+    void testKeysAreIndependent() throws Exception {
+        processor = new TaskProcessorCoalescing<>("coalescing-keys", executor, task -> ((KeyedCallable<?>) task).key);
+
+        CompletableFuture<Integer> a = processor.submit(new KeyedCallable<>("A", () -> 1));
+        CompletableFuture<Integer> b = processor.submit(new KeyedCallable<>("B", () -> 2));
+
+        Assertions.assertEquals(1, a.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, b.get(1, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 100 && processor.getActiveKeyCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(0, processor.getActiveKeyCount());
+    }
+
+    @Test
+    void testDebounce() throws Exception {
+        processor = new TaskProcessorCoalescing<>("coalescing-debounce", executor, task -> "key", Duration.ofMillis(100), Duration.ZERO);
+
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Integer> f = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            f = processor.submit("key", () -> {
+                runs.incrementAndGet();
+                return n;
+            });
+            Thread.sleep(20);
+        }
+
+        Assertions.assertEquals(4, f.get(2, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - start;
+        Assertions.assertEquals(1, runs.get());
+        // the last submission happened after about 80ms and restarted the debounce window
+        Assertions.assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(180), "task started too early: " + elapsed);
+    }
+
+    @Test
+    void testThrottle() throws Exception {
+        processor = new TaskProcessorCoalescing<>("coalescing-throttle", executor, task -> "key", Duration.ZERO, Duration.ofMillis(100));
+
+        List<Long> starts = new CopyOnWriteArrayList<>();
+        // the throttle window begins when the first task is handed to the executor, not when it actually runs
+        long beforeFirst = System.nanoTime();
+        CompletableFuture<Integer> first = processor.submit("key", () -> {
+            starts.add(System.nanoTime());
+            return 1;
+        });
+        Assertions.assertEquals(1, first.get(1, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> second = processor.submit("key", () -> {
+            starts.add(System.nanoTime());
+            return 2;
+        });
+        CompletableFuture<Integer> third = processor.submit("key", () -> {
+            starts.add(System.nanoTime());
+            return 3;
+        });
+        Assertions.assertSame(second, third);
+        Assertions.assertEquals(3, third.get(1, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(2, starts.size());
+        Assertions.assertTrue(starts.get(1) - beforeFirst >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void testExceptionPropagation() {
+        processor = new TaskProcessorCoalescing<>("coalescing-ex", executor, task -> "key");
+
+        CompletableFuture<Void> f = processor.submit(() -> {throw new IllegalStateException("boom");});
+
+        CompletionException ex = Assertions.assertThrows(CompletionException.class, f::join);
+        Assertions.assertInstanceOf(IllegalStateException.class, ex.getCause());
+    }
+
+    @Test
+    void testShutdownAndAbortCancelsPendingTasks() {
+        processor = new TaskProcessorCoalescing<>("coalescing-abort", executor, task -> "key", Duration.ofSeconds(10), Duration.ZERO);
+
+        CompletableFuture<Integer> pending = processor.submit(() -> 1);
+        processor.shutdownAndAbort();
+
+        Assertions.assertThrows(CancellationException.class, pending::join);
+        Assertions.assertThrows(IllegalStateException.class, () -> processor.submit(() -> 2));
+    }
+
+    @Test
+    void testListenerMaySubmitForSameKey() throws Exception {
+        processor = new TaskProcessorCoalescing<>("coalescing-listener", executor, task -> "key");
+
+        AtomicBoolean nested = new AtomicBoolean();
+        AtomicReference<CompletableFuture<Integer>> inner = new AtomicReference<>();
+        Consumer<TaskProcessor> listener = p -> {
+            if (nested.compareAndSet(false, true)) {
+                inner.set(processor.submit("key", () -> 2));
+            }
+        };
+        processor.addListener(listener);
+
+        CompletableFuture<Integer> outer = processor.submit("key", () -> 1);
+
+        // the nested submission is merged into the pending task that is being registered
+        Assertions.assertSame(outer, inner.get());
+        Assertions.assertEquals(2, outer.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, processor.getMergedCount());
+        Reference.reachabilityFence(listener);
+    }
+
+    @Test
+    void testInvalidWindows() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TaskProcessorCoalescing<String>("coalescing-invalid", executor, task -> "key", Duration.ofMillis(-1), Duration.ZERO));
+    }
+}
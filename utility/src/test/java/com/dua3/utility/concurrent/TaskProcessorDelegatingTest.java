@@ -5,13 +5,19 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 class TaskProcessorDelegatingTest {
 
@@ -194,11 +200,81 @@ class TaskProcessorDelegatingTest {
         Assertions.assertTrue(processor.isCompleted());
     }
 
-    private static final class KeyedCallable<T> implements java.util.concurrent.Callable<T> {
-        private final String key;
-        private final java.util.concurrent.Callable<T> delegate;
+    @Test
+    void testKeyedSerialModeOrdersTasksPerKey() throws Exception {
+        processor = new TaskProcessorDelegating<>("delegating-serial", task -> ((KeyedCallable<?>) task).key, 4);
+
+        int keys = 50;
+        int tasksPerKey = 20;
+        Map<String, List<Integer>> executed = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < tasksPerKey; i++) {
+            for (int k = 0; k < keys; k++) {
+                String key = "key-" + k;
+                int n = i;
+                futures.add(processor.submit(new KeyedCallable<>(key, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    // lists are not synchronized; tasks for the same key must not overlap
+                    executed.computeIfAbsent(key, x -> new ArrayList<>()).add(n);
+                    running.decrementAndGet();
+                    return n;
+                })));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        List<Integer> expected = IntStream.range(0, tasksPerKey).boxed().toList();
+        Assertions.assertEquals(keys, executed.size());
+        executed.values().forEach(list -> Assertions.assertEquals(expected, list));
+        Assertions.assertTrue(maxRunning.get() <= 4);
+        Assertions.assertEquals(keys * tasksPerKey, processor.getStats().completed());
+    }
+
+    @Test
+    void testKeyedSerialModeRunsKeysInParallelAndRemovesIdleKeys() throws Exception {
+        processor = new TaskProcessorDelegating<>("delegating-serial-parallel", task -> ((KeyedCallable<?>) task).key, 2);
+
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        CompletableFuture<Boolean> a = processor.submit(new KeyedCallable<>("A", () -> {
+            bothRunning.countDown();
+            return bothRunning.await(1, TimeUnit.SECONDS);
+        }));
+        CompletableFuture<Boolean> b = processor.submit(new KeyedCallable<>("B", () -> {
+            bothRunning.countDown();
+            return bothRunning.await(1, TimeUnit.SECONDS);
+        }));
+        Assertions.assertTrue(a.get(2, TimeUnit.SECONDS));
+        Assertions.assertTrue(b.get(2, TimeUnit.SECONDS));
+
+        // a failing task does not stop later tasks for the same key
+        CompletableFuture<Integer> failing = processor.submit(new KeyedCallable<>("A", () -> {throw new IllegalStateException("boom");}));
+        CompletableFuture<Integer> next = processor.submit(new KeyedCallable<>("A", () -> 42));
+        Assertions.assertThrows(CompletionException.class, failing::join);
+        Assertions.assertEquals(42, next.get(1, TimeUnit.SECONDS));
+
+        // keys are removed once their tasks have completed
+        for (int i = 0; i < 100 && processor.getActiveKeyCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(0, processor.getActiveKeyCount());
+    }
+
+    @Test
+    void testKeyedSerialModeInvalidParallelism() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TaskProcessorDelegating<String>("delegating-serial-invalid", task -> "A", 0));
+    }
+
+    /**
+     * A task that carries the key used to dispatch it; also used by {@link TaskProcessorCoalescingTest}.
+     */
+    static final class KeyedCallable<T> implements Callable<T> {
+        final String key;
+        private final Callable<T> delegate;
 
-        private KeyedCallable(String key, java.util.concurrent.Callable<T> delegate) {
+        KeyedCallable(String key, Callable<T> delegate) {
             this.key = key;
             this.delegate = delegate;
         }
@@ -253,7 +329,7 @@ class TaskProcessorDelegatingTest {
         }
 
         @Override
-        public <T> CompletableFuture<T> submit(java.util.concurrent.Callable<? extends T> task) {
+        public <T> CompletableFuture<T> submit(Callable<? extends T> task) {
             return delegate.submit(task);
         }
 
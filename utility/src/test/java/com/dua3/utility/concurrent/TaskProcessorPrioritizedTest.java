@@ -0,0 +1,143 @@
+package com.dua3.utility.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class TaskProcessorPrioritizedTest {
+
+    private TaskProcessorPrioritized processor;
+
+    @AfterEach
+    void tearDown() {
+        if (processor != null && !processor.isShutdown()) {
+            processor.shutdown();
+        }
+        if (processor != null && !processor.isCompleted()) {
+            processor.waitForCompletion(100, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Submit a task that occupies the single worker thread until the returned latch is released.
+     */
+    private CountDownLatch blockWorker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        processor.submit(() -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        Assertions.assertTrue(started.await(1, TimeUnit.SECONDS));
+        return release;
+    }
+
+    @Test
+    void testSubmitReturnsResult() throws Exception {
+        processor = new TaskProcessorPrioritized("prioritized", 2);
+
+        CompletableFuture<Integer> f = processor.submit(() -> 40 + 2);
+
+        Assertions.assertEquals(42, f.get(1, TimeUnit.SECONDS));
+
+        processor.shutdown();
+        Assertions.assertTrue(processor.waitForCompletion(200, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(processor.isCompleted());
+    }
+
+    @Test
+    void testTasksAreStartedByPriority() throws Exception {
+        processor = new TaskProcessorPrioritized("prioritized-order", 1);
+        CountDownLatch release = blockWorker();
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        processor.submit(-1, () -> order.add("low"));
+        processor.submit(() -> order.add("normal 1"));
+        processor.submit(10, () -> order.add("high"));
+        processor.submit(() -> order.add("normal 2"));
+        processor.submit(0, Duration.ofSeconds(10), () -> order.add("normal with deadline"));
+        CompletableFuture<Boolean> last = processor.submit(-2, () -> order.add("lowest"));
+
+        release.countDown();
+        last.get(1, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(List.of("high", "normal with deadline", "normal 1", "normal 2", "low", "lowest"), order);
+    }
+
+    @Test
+    void testExpiredTasksAreDropped() throws Exception {
+        processor = new TaskProcessorPrioritized("prioritized-deadline", 1);
+        CountDownLatch release = blockWorker();
+
+        // the deadline has passed by the time the blocked worker picks up the task
+        CompletableFuture<String> expiring = processor.submit(0, Duration.ZERO, () -> "too late");
+        CompletableFuture<String> waiting = processor.submit(0, Duration.ofSeconds(10), () -> "in time");
+        release.countDown();
+
+        CompletionException ex = Assertions.assertThrows(CompletionException.class, expiring::join);
+        Assertions.assertInstanceOf(TimeoutException.class, ex.getCause());
+        Assertions.assertEquals("in time", waiting.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, processor.getExpiredCount());
+        Assertions.assertEquals(3, processor.getStats().completed());
+    }
+
+    @Test
+    void testStatsContainTimings() throws Exception {
+        processor = new TaskProcessorPrioritized("prioritized-stats", 2);
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[10];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = processor.submit(() -> {
+                Thread.sleep(2);
+                return null;
+            });
+        }
+        CompletableFuture.allOf(futures).get(1, TimeUnit.SECONDS);
+
+        TaskProcessorBase.Stats stats = processor.getStats();
+        Assertions.assertEquals(10, stats.submitted());
+        Assertions.assertEquals(10, stats.completed());
+        Assertions.assertEquals(10, stats.queueWait().count());
+        Assertions.assertEquals(10, stats.runTime().count());
+        Assertions.assertTrue(stats.runTime().percentile(50).compareTo(Duration.ofMillis(1)) >= 0);
+        Assertions.assertTrue(stats.runTime().max().compareTo(stats.runTime().mean()) >= 0);
+    }
+
+    @Test
+    void testExceptionPropagation() {
+        processor = new TaskProcessorPrioritized("prioritized-ex", 1);
+
+        CompletableFuture<Void> f = processor.submit(() -> {throw new IllegalStateException("boom");});
+
+        CompletionException ex = Assertions.assertThrows(CompletionException.class, f::join);
+        Assertions.assertInstanceOf(IllegalStateException.class, ex.getCause());
+        Assertions.assertEquals("boom", ex.getCause().getMessage());
+    }
+
+    @Test
+    void testInvalidParallelism() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TaskProcessorPrioritized("prioritized-invalid", 0));
+    }
+
+    @Test
+    void testShutdownAndAbortCancelsPendingTasks() throws Exception {
+        processor = new TaskProcessorPrioritized("prioritized-abort", 1);
+        blockWorker();
+
+        CompletableFuture<Integer> pending = processor.submit(() -> 1);
+        processor.shutdownAndAbort();
+
+        Assertions.assertThrows(java.util.concurrent.CancellationException.class, pending::join);
+        Assertions.assertTrue(processor.waitForCompletion(1_000, TimeUnit.MILLISECONDS));
+        Assertions.assertThrows(IllegalStateException.class, () -> processor.submit(() -> 3));
+    }
+}
@@ -0,0 +1,156 @@
+package com.dua3.utility.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TaskProcessorVirtualTest {
+
+    private TaskProcessorVirtual processor;
+
+    @AfterEach
+    void tearDown() {
+        if (processor != null && !processor.isShutdown()) {
+            processor.shutdown();
+        }
+        if (processor != null && !processor.isCompleted()) {
+            processor.waitForCompletion(100, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    void testSubmitRunsOnVirtualThread() throws Exception {
+        processor = new TaskProcessorVirtual("virtual");
+
+        CompletableFuture<Boolean> f = processor.submit(() -> Thread.currentThread().isVirtual());
+
+        Assertions.assertTrue(f.get(1, TimeUnit.SECONDS));
+
+        processor.shutdown();
+        Assertions.assertTrue(processor.waitForCompletion(200, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(processor.isCompleted());
+        Assertions.assertEquals(new TaskProcessorBase.Stats(processor, 1, 1, TaskProcessorBase.State.COMLETED), processor.getStats());
+    }
+
+    @Test
+    void testUnlimitedConcurrency() throws Exception {
+        processor = new TaskProcessorVirtual("virtual-unlimited");
+
+        // all tasks must run at the same time for the latch to open
+        int n = 1_000;
+        CountDownLatch latch = new CountDownLatch(n);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            futures.add(processor.submit(() -> {
+                latch.countDown();
+                return latch.await(5, TimeUnit.SECONDS);
+            }));
+        }
+
+        for (CompletableFuture<Boolean> f : futures) {
+            Assertions.assertTrue(f.get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testConcurrencyLimit() throws Exception {
+        processor = new TaskProcessorVirtual("virtual-limited", 3);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            futures.add(processor.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                running.decrementAndGet();
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(maxRunning.get() <= 3, "too many tasks executed in parallel: " + maxRunning.get());
+        Assertions.assertEquals(30, processor.getStats().completed());
+    }
+
+    @Test
+    void testInvalidConcurrencyLimit() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TaskProcessorVirtual("virtual-invalid", 0));
+    }
+
+    @Test
+    void testContextClassLoaderIsInherited() throws Exception {
+        processor = new TaskProcessorVirtual("virtual-classloader", 1);
+
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        ClassLoader custom = new ClassLoader(original) {};
+        Thread.currentThread().setContextClassLoader(custom);
+        try {
+            CompletableFuture<ClassLoader> f = processor.submit(() -> Thread.currentThread().getContextClassLoader());
+            Assertions.assertSame(custom, f.get(1, TimeUnit.SECONDS));
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    @Test
+    void testExceptionPropagation() {
+        processor = new TaskProcessorVirtual("virtual-ex", 1);
+
+        CompletableFuture<Void> f = processor.submit(() -> {throw new IllegalStateException("boom");});
+
+        CompletionException ex = Assertions.assertThrows(CompletionException.class, f::join);
+        Assertions.assertInstanceOf(IllegalStateException.class, ex.getCause());
+        Assertions.assertEquals("boom", ex.getCause().getMessage());
+    }
+
+    @Test
+    void testListenersAreNotified() throws Exception {
+        processor = new TaskProcessorVirtual("virtual-listener");
+
+        AtomicInteger notifications = new AtomicInteger();
+        java.util.function.Consumer<TaskProcessor> listener = p -> notifications.incrementAndGet();
+        processor.addListener(listener);
+
+        processor.submit(() -> 1).get(1, TimeUnit.SECONDS);
+        processor.shutdown();
+        Assertions.assertTrue(processor.waitForCompletion(200, TimeUnit.MILLISECONDS));
+
+        // one notification on submit, one on completion
+        Assertions.assertEquals(2, notifications.get());
+    }
+
+    @Test
+    void testSubmitAfterShutdownThrows() {
+        processor = new TaskProcessorVirtual("virtual-shutdown");
+        processor.shutdown();
+        Assertions.assertThrows(IllegalStateException.class, () -> processor.submit(() -> 1));
+    }
+
+    @Test
+    void testShutdownAndAbortWhileTasksWaiting() {
+        processor = new TaskProcessorVirtual("virtual-abort", 1);
+
+        CompletableFuture<Integer> running = processor.submit(() -> {
+            Thread.sleep(5_000);
+            return 42;
+        });
+        CompletableFuture<Integer> waiting = processor.submit(() -> 43);
+
+        Assertions.assertDoesNotThrow(() -> processor.shutdownAndAbort());
+
+        Assertions.assertThrows(CompletionException.class, running::join);
+        Assertions.assertTrue(processor.waitForCompletion(1_000, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(processor.isCompleted());
+        // the waiting task is either interrupted or runs once the permit is released, but it must not hang
+        Assertions.assertDoesNotThrow(() -> waiting.handle((v, e) -> v).get(1, TimeUnit.SECONDS));
+    }
+}
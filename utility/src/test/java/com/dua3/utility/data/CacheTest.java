@@ -0,0 +1,391 @@
+package com.dua3.utility.data;
+
+import com.dua3.utility.concurrent.TaskProcessorAsync;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the Cache class.
+ */
+class CacheTest {
+
+    @ParameterizedTest
+    @EnumSource(Cache.ReferenceType.class)
+    void testGet(Cache.ReferenceType type) {
+        AtomicInteger computed = new AtomicInteger();
+        Cache<Integer, String> cache = new Cache<>(type, k -> {
+            computed.incrementAndGet();
+            return "value " + k;
+        });
+
+        String a = cache.get(1);
+        assertEquals("value 1", a);
+        assertSame(a, cache.get(1));
+        assertEquals("value 2", cache.get(2));
+        assertEquals(2, computed.get());
+
+        Cache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(2, stats.missCount());
+        assertEquals(2, stats.loadCount());
+        assertEquals(1.0 / 3, stats.hitRate(), 1.0e-9);
+
+        cache.invalidate(1);
+        assertEquals("value 1", cache.get(1));
+        assertEquals(3, computed.get());
+    }
+
+    @Test
+    void testComputeOnceUnderConcurrentAccess() throws Exception {
+        AtomicInteger computed = new AtomicInteger();
+        Cache<Integer, Integer> cache = Cache.<Integer, Integer>builder().maximumSize(100).build(k -> {
+            computed.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return k * k;
+        });
+
+        int nThreads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < nThreads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(7);
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(49, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, computed.get());
+        // requests joining the computation of another request are not served from the cache
+        assertEquals(0, cache.getStats().hitCount());
+        assertEquals(nThreads, cache.getStats().missCount());
+        assertEquals(1, cache.getStats().loadCount());
+    }
+
+    @Test
+    void testMaximumSizeLru() {
+        List<Integer> computed = new ArrayList<>();
+        Cache<Integer, String> cache = Cache.<Integer, String>builder()
+                .maximumSize(3)
+                .evictionPolicy(Cache.EvictionPolicy.LRU)
+                .build(k -> {
+                    computed.add(k);
+                    return k.toString();
+                });
+
+        cache.get(1);
+        cache.get(2);
+        cache.get(3);
+        cache.get(1); // 2 is now least recently used
+        cache.get(4); // evicts 2
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getStats().evictionCount());
+
+        cache.get(1);
+        cache.get(3);
+        cache.get(4);
+        assertEquals(List.of(1, 2, 3, 4), computed);
+        cache.get(2);
+        assertEquals(List.of(1, 2, 3, 4, 2), computed);
+    }
+
+    @Test
+    void testMaximumSizeFrequency() {
+        AtomicInteger computed = new AtomicInteger();
+        Cache<Integer, String> cache = Cache.<Integer, String>builder()
+                .maximumSize(100)
+                .build(k -> {
+                    computed.incrementAndGet();
+                    return k.toString();
+                });
+
+        // make keys 0..49 frequently used
+        for (int round = 0; round < 5; round++) {
+            for (int k = 0; k < 50; k++) {
+                cache.get(k);
+            }
+        }
+        assertEquals(50, computed.get());
+
+        // a scan over many keys that are used only once must not flush the frequently used keys
+        for (int k = 1000; k < 2000; k++) {
+            cache.get(k);
+        }
+        assertTrue(cache.size() <= 100);
+
+        computed.set(0);
+        for (int k = 0; k < 50; k++) {
+            cache.get(k);
+        }
+        assertTrue(computed.get() < 5, "frequently used keys were evicted: " + computed.get());
+    }
+
+    @Test
+    void testMaximumWeight() {
+        Cache<Integer, String> cache = Cache.<Integer, String>builder()
+                .maximumWeight(10, (k, v) -> v.length())
+                .evictionPolicy(Cache.EvictionPolicy.LRU)
+                .build("x"::repeat);
+
+        cache.get(4);
+        cache.get(3);
+        cache.get(2);
+        assertEquals(3, cache.size());
+        cache.get(5); // evicts 4
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getStats().evictionCount());
+        cache.get(6); // evicts 3, 2, and 5
+        assertEquals(1, cache.size());
+        assertEquals(4, cache.getStats().evictionCount());
+
+        // an entry that exceeds the maximum weight on its own is not retained
+        assertEquals("x".repeat(11), cache.get(11));
+        assertEquals(0, cache.size());
+
+        assertThrows(IllegalArgumentException.class, () -> Cache.<Integer, String>builder()
+                .maximumWeight(10, (k, v) -> -1)
+                .build(String::valueOf)
+                .get(1));
+    }
+
+    @Test
+    void testExpireAfterWrite() {
+        AtomicLong time = new AtomicLong();
+        AtomicInteger computed = new AtomicInteger();
+        Cache<Integer, String> cache = Cache.<Integer, String>builder()
+                .expireAfterWrite(Duration.ofSeconds(10))
+                .ticker(time::get)
+                .build(k -> k + "/" + computed.incrementAndGet());
+
+        assertEquals("1/1", cache.get(1));
+        time.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals("1/1", cache.get(1));
+        time.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals("1/2", cache.get(1));
+        assertEquals(1, cache.getStats().evictionCount());
+
+        cache.get(2);
+        time.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(2, cache.size());
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testExpiredEntryIsRemovedOnAccess() {
+        AtomicLong time = new AtomicLong();
+        AtomicInteger computed = new AtomicInteger();
+        Cache<Integer, String> cache = Cache.<Integer, String>builder()
+                .expireAfterWrite(Duration.ofSeconds(10))
+                .ticker(time::get)
+                .build(k -> {
+                    if (computed.incrementAndGet() > 1) {
+                        throw new IllegalStateException("compute failed");
+                    }
+                    return String.valueOf(k);
+                });
+
+        assertEquals("1", cache.get(1));
+        time.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // the expired entry is removed even though the new value cannot be computed
+        assertThrows(IllegalStateException.class, () -> cache.get(1));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getStats().evictionCount());
+    }
+
+    @Test
+    void testExpireAfterAccess() {
+        AtomicLong time = new AtomicLong();
+        AtomicInteger computed = new AtomicInteger();
+        Cache<Integer, String> cache = Cache.<Integer, String>builder()
+                .maximumSize(10)
+                .expireAfterAccess(Duration.ofSeconds(10))
+                .ticker(time::get)
+                .build(k -> k + "/" + computed.incrementAndGet());
+
+        assertEquals("1/1", cache.get(1));
+        for (int i = 0; i < 5; i++) {
+            time.addAndGet(Duration.ofSeconds(5).toNanos());
+            assertEquals("1/1", cache.get(1));
+        }
+        time.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals("1/2", cache.get(1));
+
+        // expired entries are removed when new entries are added
+        time.addAndGet(Duration.ofSeconds(10).toNanos());
+        cache.get(2);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> Cache.builder().maximumSize(0));
+        assertThrows(IllegalArgumentException.class, () -> Cache.builder().expireAfterWrite(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> Cache.builder().expireAfterAccess(Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    void testGetAsync() throws Exception {
+        AtomicInteger computed = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Cache<Integer, String> cache = Cache.<Integer, String>builder().build(k -> {
+            computed.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return k.toString();
+        });
+
+        CompletableFuture<String> f1 = cache.getAsync(1);
+        CompletableFuture<String> f2 = cache.getAsync(1);
+        assertFalse(f1.isDone());
+        release.countDown();
+        assertEquals("1", f1.get(10, TimeUnit.SECONDS));
+        assertEquals("1", f2.get(10, TimeUnit.SECONDS));
+        assertEquals("1", cache.get(1));
+        assertTrue(cache.getAsync(1).isDone());
+        assertEquals(1, computed.get());
+    }
+
+    @Test
+    void testGetAsyncWithTaskProcessor() throws Exception {
+        TaskProcessorAsync taskProcessor = new TaskProcessorAsync("CacheTest", 2);
+        try {
+            Cache<Integer, String> cache = Cache.<Integer, String>builder()
+                    .executor(taskProcessor)
+                    .build(k -> Thread.currentThread().getName());
+            assertTrue(cache.getAsync(1).get(10, TimeUnit.SECONDS).endsWith("[CacheTest]"));
+        } finally {
+            taskProcessor.shutdown();
+        }
+    }
+
+    @Test
+    void testSlowComputationDoesNotBlockOtherKeys() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Cache<Integer, String> cache = Cache.<Integer, String>builder().build(k -> {
+            if (k == 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return k.toString();
+        });
+
+        CompletableFuture<String> slow = cache.getAsync(0);
+        try {
+            // keys 0 and 16 share the same bin of the underlying hash table
+            assertEquals("16", CompletableFuture.supplyAsync(() -> cache.get(16)).get(10, TimeUnit.SECONDS));
+            assertFalse(slow.isDone());
+        } finally {
+            release.countDown();
+        }
+        assertEquals("0", slow.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testComputeException() {
+        Cache<Integer, String> cache = Cache.<Integer, String>builder().build(k -> {
+            throw new IllegalStateException("failed to compute " + k);
+        });
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> cache.get(1));
+        assertEquals("failed to compute 1", e.getMessage());
+        ExecutionException ee = assertThrows(ExecutionException.class, () -> cache.getAsync(2).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ee.getCause());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testGetAll() {
+        List<Set<Integer>> bulkRequests = new ArrayList<>();
+        AtomicInteger computed = new AtomicInteger();
+        Cache<Integer, String> cache = Cache.<Integer, String>builder()
+                .bulkCompute(keys -> {
+                    bulkRequests.add(Set.copyOf(keys));
+                    Map<Integer, String> result = new HashMap<>();
+                    keys.stream().filter(k -> k != 5).forEach(k -> result.put(k, "bulk " + k));
+                    return result;
+                })
+                .build(k -> {
+                    computed.incrementAndGet();
+                    return "single " + k;
+                });
+
+        assertEquals("single 1", cache.get(1));
+        Map<Integer, String> result = cache.getAll(List.of(3, 1, 2, 5, 3));
+        assertEquals(List.of(3, 1, 2, 5), List.copyOf(result.keySet()));
+        assertEquals(List.of("bulk 3", "single 1", "bulk 2", "single 5"), List.copyOf(result.values()));
+        assertEquals(List.of(Set.of(2, 3, 5)), bulkRequests);
+        assertEquals(2, computed.get());
+
+        assertEquals(Map.of(1, "single 1", 2, "bulk 2"), cache.getAll(Set.of(1, 2)));
+        assertEquals(1, bulkRequests.size());
+        assertEquals(4, cache.getStats().loadCount());
+    }
+
+    @Test
+    void testGetAllAsync() throws Exception {
+        Cache<Integer, Integer> cache = Cache.<Integer, Integer>builder().build(k -> 2 * k);
+        assertEquals(Map.of(1, 2, 2, 4), cache.getAllAsync(List.of(1, 2)).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCollectedValuesAreRemoved() throws InterruptedException {
+        Cache<Integer, Object> cache = new Cache<>(Cache.ReferenceType.WEAK_REFERENCES, k -> new Object());
+        Object retained = cache.get(0);
+        for (int k = 1; k <= 100; k++) {
+            cache.get(k);
+        }
+
+        for (int i = 0; i < 50 && cache.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, cache.size());
+        assertSame(retained, cache.get(0));
+        assertEquals(100, cache.getStats().evictionCount());
+    }
+}
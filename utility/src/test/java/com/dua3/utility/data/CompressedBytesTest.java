@@ -2,6 +2,9 @@ package com.dua3.utility.data;
 
 import com.dua3.utility.lang.LangUtil;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -9,6 +12,7 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.zip.Deflater;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -186,4 +190,121 @@ class CompressedBytesTest {
         assertTrue(compressedData[0] == 0 || compressedData[0] == 1,
                 "First byte should be 0 (uncompressed) or 1 (compressed)");
     }
+
+    private static byte[] sampleText(int lines) {
+        StringBuilder sb = new StringBuilder();
+        Random random = new Random(42);
+        for (int i = 0; i < lines; i++) {
+            sb.append("{\"id\": ").append(i)
+                    .append(", \"name\": \"item").append(random.nextInt(100))
+                    .append("\", \"value\": ").append(random.nextDouble())
+                    .append("}\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static CompressionCodec codec(String name) {
+        return switch (name) {
+            case "none" -> CompressionCodec.none();
+            case "deflate" -> CompressionCodec.deflate();
+            case "deflate-fast" -> CompressionCodec.deflate(Deflater.BEST_SPEED);
+            case "deflate-best" -> CompressionCodec.deflate(Deflater.BEST_COMPRESSION);
+            case "lz" -> CompressionCodec.lz();
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"none", "deflate", "deflate-fast", "deflate-best", "lz"})
+    void testCodecRoundTrip(String name) throws IOException {
+        CompressionCodec codec = codec(name);
+
+        Random random = new Random(7);
+        byte[] randomData = new byte[1000];
+        random.nextBytes(randomData);
+        byte[] repeated = new byte[100_000];
+        Arrays.fill(repeated, (byte) 'x');
+
+        for (byte[] data : new byte[][]{LangUtil.EMPTY_BYTE_ARRAY, "abc".getBytes(StandardCharsets.UTF_8), sampleText(2000), randomData, repeated}) {
+            CompressedBytes compressed = CompressedBytes.compress(data, codec);
+            assertArrayEquals(data, compressed.toByteArray(), "round trip failed for codec " + codec);
+            assertArrayEquals(data, CompressedBytes.compress(new ByteArrayInputStream(data), codec).toByteArray(), "round trip failed for codec " + codec);
+
+            CompressedBytes loaded = CompressedBytes.loadCompressedData(compressed.getCompressedData());
+            try (InputStream in = loaded.inputStream()) {
+                assertArrayEquals(data, in.readAllBytes(), "loading failed for codec " + codec);
+            }
+        }
+
+        if (!name.equals("none")) {
+            byte[] text = sampleText(2000);
+            assertTrue(CompressedBytes.compress(text, codec).getCompressedData().length < text.length / 2);
+        }
+    }
+
+    @Test
+    void testDefaultCodecMarkers() {
+        byte[] text = sampleText(100);
+        assertEquals(1, CompressedBytes.compress(text).getCompressedData()[0]);
+        assertEquals(1, CompressedBytes.compress(text, CompressionCodec.deflate(Deflater.BEST_SPEED)).getCompressedData()[0]);
+        assertEquals(2, CompressedBytes.compress(text, CompressionCodec.lz()).getCompressedData()[0]);
+        assertEquals(0, CompressedBytes.compress(text, CompressionCodec.none()).getCompressedData()[0]);
+    }
+
+    @Test
+    void testLoadLegacyData() {
+        byte[] originalData = "legacy".getBytes(StandardCharsets.UTF_8);
+
+        // uncompressed data written by older versions
+        byte[] stored = new byte[originalData.length + 1];
+        System.arraycopy(originalData, 0, stored, 1, originalData.length);
+        assertArrayEquals(originalData, CompressedBytes.loadCompressedData(stored).toByteArray());
+
+        // deflated data written by older versions
+        byte[] deflated = {1, 120, -100, -53, 73, 77, 79, 76, -82, 4, 0, 8, -123, 2, 118};
+        assertArrayEquals(originalData, CompressedBytes.loadCompressedData(deflated).toByteArray());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"deflate", "lz"})
+    void testDictionary(String name) {
+        byte[] dictionary = sampleText(50);
+        CompressionCodec codec = name.equals("lz")
+                ? CompressionCodec.lz(dictionary)
+                : CompressionCodec.deflate(Deflater.DEFAULT_COMPRESSION, dictionary);
+        assertTrue(codec.hasDictionary());
+
+        byte[] data = Arrays.copyOfRange(dictionary, 100, 400);
+        CompressedBytes compressed = CompressedBytes.compress(data, codec);
+        CompressedBytes withoutDictionary = CompressedBytes.compress(data, codec(name));
+        assertTrue(compressed.getCompressedData().length < withoutDictionary.getCompressedData().length,
+                "dictionary should improve compression");
+        assertArrayEquals(data, compressed.toByteArray());
+
+        byte[] compressedData = compressed.getCompressedData();
+        assertArrayEquals(data, CompressedBytes.loadCompressedData(compressedData, codec).toByteArray());
+
+        // loading without or with a different dictionary must fail
+        assertInvalid(() -> CompressedBytes.loadCompressedData(compressedData, codec(name)).toByteArray());
+        CompressionCodec other = name.equals("lz")
+                ? CompressionCodec.lz(sampleText(40))
+                : CompressionCodec.deflate(Deflater.DEFAULT_COMPRESSION, sampleText(40));
+        assertInvalid(() -> CompressedBytes.loadCompressedData(compressedData, other).toByteArray());
+    }
+
+    @Test
+    void testInvalidData() {
+        assertThrows(IllegalArgumentException.class, () -> CompressionCodec.deflate(10));
+        assertInvalid(() -> CompressedBytes.loadCompressedData(new byte[]{9, 1, 2}).inputStream());
+        assertInvalid(() -> CompressedBytes.loadCompressedData(new byte[]{2, 10, 0x10, 'a'}).inputStream());
+    }
+
+    /**
+     * Assert that loading invalid data fails. When assertions are enabled, the failure is already detected
+     * in {@code loadCompressedData()}.
+     */
+    private static void assertInvalid(Executable executable) {
+        Throwable t = assertThrows(Throwable.class, executable);
+        assertTrue(t instanceof IllegalStateException || t instanceof AssertionError, "unexpected exception: " + t);
+    }
 }
@@ -77,4 +77,18 @@ class CompressedCharactersTest {
         String decompressed = compressed.toString();
         assertEquals(input, decompressed, "toString() should return the original input string.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests compressing with the different codecs.
+     */
+    @Test
+    void testCompressWithCodec() throws IOException {
+        String input = "Testing codecs. ".repeat(100) + "\u00e4\u00f6\u00fc\u20ac";
+        for (CompressionCodec codec : new CompressionCodec[]{CompressionCodec.none(), CompressionCodec.deflate(1), CompressionCodec.lz()}) {
+            assertEquals(input, CompressedCharacters.compress(input, codec).toString(), "round trip failed for codec " + codec);
+            try (Reader reader = new StringReader(input)) {
+                assertEquals(input, CompressedCharacters.compress(reader, codec).toString(), "round trip failed for codec " + codec);
+            }
+        }
+    }
+}
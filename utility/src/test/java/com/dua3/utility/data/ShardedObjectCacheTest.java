@@ -0,0 +1,133 @@
+package com.dua3.utility.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the ShardedObjectCache class.
+ */
+class ShardedObjectCacheTest {
+
+    private record Key(int value) {}
+
+    @Test
+    void testWeak() {
+        ShardedObjectCache cache = ShardedObjectCache.create(5);
+        assertEquals(8, cache.getShardCount());
+
+        List<String> canonical = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String s = "item " + i;
+            assertSame(s, cache.get(s));
+            canonical.add(s);
+        }
+        for (int i = 0; i < 1000; i++) {
+            String s = new String("item " + i);
+            assertNotSame(s, canonical.get(i));
+            assertSame(canonical.get(i), cache.get(s));
+        }
+
+        ShardedObjectCache.Stats stats = cache.getStats();
+        assertEquals(2000, stats.requests());
+        assertEquals(1000, stats.hits());
+        assertEquals(1000, stats.size());
+        assertEquals(0.5, stats.dedupRatio());
+    }
+
+    @Test
+    void testShardCountIsRoundedUpToPowerOfTwo() {
+        assertEquals(1, ShardedObjectCache.create(1).getShardCount());
+        assertEquals(2, ShardedObjectCache.create(2).getShardCount());
+        assertEquals(4, ShardedObjectCache.create(3).getShardCount());
+        assertEquals(16, ShardedObjectCache.create(16).getShardCount());
+
+        ShardedObjectCache cache = ShardedObjectCache.createFixedCapacity(1, 64);
+        assertEquals(1, cache.getShardCount());
+        Key value = new Key(1);
+        assertSame(value, cache.get(value));
+        assertSame(value, cache.get(new Key(1)));
+    }
+
+    @Test
+    void testWeakEntriesAreRemoved() throws InterruptedException {
+        ShardedObjectCache cache = ShardedObjectCache.create(2);
+        String retained = new String("retained");
+        cache.get(retained);
+        for (int i = 0; i < 100; i++) {
+            cache.get(new String("garbage " + i));
+        }
+
+        for (int i = 0; i < 50 && cache.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(1, cache.size());
+        assertSame(retained, cache.get(new String("retained")));
+    }
+
+    @Test
+    void testFixedCapacity() {
+        ShardedObjectCache cache = ShardedObjectCache.createFixedCapacity(4, 64);
+
+        List<Key> canonical = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            Key value = new Key(1000 + i);
+            canonical.add(value);
+            assertSame(value, cache.get(value));
+        }
+        for (int i = 0; i < 32; i++) {
+            assertSame(canonical.get(i), cache.get(new Key(1000 + i)));
+        }
+
+        // exceeding the capacity replaces instances but never fails
+        for (int i = 0; i < 10_000; i++) {
+            Key value = new Key(i);
+            assertEquals(value, cache.get(value));
+        }
+        assertTrue(cache.size() <= 64);
+        assertThrows(IllegalArgumentException.class, () -> ShardedObjectCache.createFixedCapacity(0));
+    }
+
+    @Test
+    void testConcurrentAccess() throws Exception {
+        for (ShardedObjectCache cache : List.of(ShardedObjectCache.create(), ShardedObjectCache.createFixedCapacity(1 << 12))) {
+            int nThreads = 8;
+            ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+            try {
+                List<Future<List<String>>> results = new ArrayList<>();
+                for (int t = 0; t < nThreads; t++) {
+                    results.add(executor.submit(() -> {
+                        List<String> interned = new ArrayList<>();
+                        for (int i = 0; i < 1000; i++) {
+                            interned.add(cache.get(new String("value " + i)));
+                        }
+                        return interned;
+                    }));
+                }
+
+                List<String> first = results.getFirst().get();
+                for (Future<List<String>> result : results) {
+                    List<String> interned = result.get();
+                    for (int i = 0; i < interned.size(); i++) {
+                        assertSame(first.get(i), interned.get(i));
+                    }
+                }
+                assertEquals(nThreads * 1000L, cache.getStats().requests());
+                assertEquals((nThreads - 1) * 1000L, cache.getStats().hits());
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
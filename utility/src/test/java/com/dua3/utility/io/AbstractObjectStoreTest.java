@@ -12,10 +12,13 @@ import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -167,6 +170,48 @@ abstract class AbstractObjectStoreTest {
         }
     }
 
+    @Test
+    void transferToChannelCopiesBytesAndReturnsByteCount() throws Exception {
+        try (ObjectStore store = createStore(tempDir.resolve("store"))) {
+            URI path = URI.create("data.bin");
+            byte[] expected = new byte[100_000];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = (byte) (i * 31);
+            }
+            store.write(path, expected);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (WritableByteChannel channel = Channels.newChannel(out)) {
+                assertEquals(expected.length, store.transferTo(path, channel));
+            }
+            assertArrayEquals(expected, out.toByteArray());
+        }
+    }
+
+    @Test
+    void map_returnsReadOnlyBufferWithObjectData() throws Exception {
+        try (ObjectStore store = createStore(tempDir.resolve("store"))) {
+            URI path = URI.create("folder/data.bin");
+            byte[] expected = new byte[200_000];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = (byte) (i * 7);
+            }
+            store.write(path, expected);
+            store.writeString(URI.create("empty.txt"), "");
+
+            ByteBuffer buffer = store.map(path);
+            assertTrue(buffer.isReadOnly());
+            assertEquals(expected.length, buffer.remaining());
+            byte[] actual = new byte[buffer.remaining()];
+            buffer.get(actual);
+            assertArrayEquals(expected, actual);
+
+            assertEquals(0, store.map(URI.create("empty.txt")).remaining());
+            assertThrows(ObjectNotFoundException.class, () -> store.map(URI.create("missing.bin")));
+            assertThrows(IOException.class, () -> store.map(URI.create("folder")));
+        }
+    }
+
     @Test
     void readConvenienceMethods_propagateMissingObject() throws Exception {
         try (ObjectStore store = createStore(tempDir.resolve("store"))) {
@@ -411,6 +456,92 @@ abstract class AbstractObjectStoreTest {
         }
     }
 
+    @Test
+    void walkParallel_returnsTheSameEntriesAsWalk() throws Exception {
+        try (ObjectStore store = createStore(tempDir.resolve("store"))) {
+            for (int i = 0; i < 20; i++) {
+                for (int j = 0; j < 60; j++) {
+                    store.writeString(URI.create("tree/f" + i + "/sub/d" + j + ".txt"), "x");
+                }
+                store.writeString(URI.create("tree/f" + i + "/top.txt"), "x");
+            }
+
+            for (int depth : new int[]{0, 1, 2, Integer.MAX_VALUE}) {
+                Set<URI> expected;
+                try (var s = store.walk(URI.create("tree"), depth)) {
+                    expected = s.map(ObjectStore.ObjectInfo::uri).collect(Collectors.toSet());
+                }
+                try (var s = store.walkParallel(URI.create("tree"), depth, 4)) {
+                    List<URI> actual = s.map(ObjectStore.ObjectInfo::uri).toList();
+                    assertEquals(expected.size(), actual.size());
+                    assertEquals(expected, Set.copyOf(actual));
+                }
+            }
+
+            // closing the stream early stops the traversal
+            try (var s = store.walkParallel(URI.create("tree"), Integer.MAX_VALUE, 2)) {
+                assertEquals(5, s.limit(5).count());
+            }
+
+            assertThrows(ObjectNotFoundException.class, () -> store.walkParallel(URI.create("missing"), 1, 2));
+            assertThrows(IllegalArgumentException.class, () -> store.walkParallel(URI.create("tree"), 1, 0));
+        }
+    }
+
+    @Test
+    void globParallel_findsTheSameMatchesAsGlob() throws Exception {
+        try (ObjectStore store = createStore(tempDir.resolve("store"))) {
+            store.writeString(URI.create("reports/2024/q1/result.txt"), "1");
+            store.writeString(URI.create("reports/2024/q2/result.json"), "2");
+            store.writeString(URI.create("reports/2025/q1/result.txt"), "3");
+            store.writeString(URI.create("logs/2024/q1/result.txt"), "4");
+
+            for (String pattern : List.of("*/2024/*/result.txt", "reports/**/result.*", "reports/*/q1/*", "{logs,reports}/2024/*")) {
+                List<URI> expected;
+                try (Stream<URI> matches = store.glob(pattern)) {
+                    expected = matches.sorted().toList();
+                }
+                try (Stream<URI> matches = store.globParallel(URI.create(""), pattern, 3)) {
+                    assertEquals(expected, matches.sorted().toList(), pattern);
+                }
+            }
+
+            try (Stream<URI> matches = store.glob("*/2024/*/result.txt")) {
+                assertEquals(List.of(URI.create("logs/2024/q1/result.txt"), URI.create("reports/2024/q1/result.txt")), matches.sorted().toList());
+            }
+        }
+    }
+
+    @Test
+    void commit_appliesBatchOperationsInOrder() throws Exception {
+        try (ObjectStore store = createStore(tempDir.resolve("store"))) {
+            store.writeString(URI.create("existing.txt"), "old");
+            store.writeString(URI.create("obsolete.txt"), "obsolete");
+
+            WriteBatch batch = new WriteBatch()
+                    .writeString(URI.create("a/b/new.txt"), "new")
+                    .write(URI.create("a/data.bin"), new byte[]{1, 2, 3})
+                    .writeString(URI.create("existing.txt"), "replaced", ObjectStore.OutputOption.CREATE_OR_REPLACE)
+                    .createFolder(URI.create("empty/folder"))
+                    .delete(URI.create("obsolete.txt"))
+                    .writeString(URI.create("obsolete.txt"), "recreated");
+            assertEquals(6, batch.size());
+            store.commit(batch);
+
+            assertEquals("new", store.readString(URI.create("a/b/new.txt")));
+            assertArrayEquals(new byte[]{1, 2, 3}, store.readAllBytes(URI.create("a/data.bin")));
+            assertEquals("replaced", store.readString(URI.create("existing.txt")));
+            assertEquals(ObjectStore.ObjectType.FOLDER, store.getInfo(URI.create("empty/folder")).orElseThrow().type());
+            assertEquals("recreated", store.readString(URI.create("obsolete.txt")));
+
+            assertThrows(ObjectExistsException.class, () -> store.commit(new WriteBatch().writeString(URI.create("existing.txt"), "x")));
+            assertThrows(ObjectNotFoundException.class, () -> store.commit(new WriteBatch().delete(URI.create("missing.txt"))));
+            assertThrows(NotAFolderException.class, () -> store.commit(new WriteBatch().writeString(URI.create("existing.txt/child.txt"), "x")));
+            assertThrows(IllegalArgumentException.class, () -> new WriteBatch().writeString(URI.create("x"), "x",
+                    ObjectStore.OutputOption.CREATE_NEW, ObjectStore.OutputOption.CREATE_OR_REPLACE));
+        }
+    }
+
     @Test
     void glob_rejectsPathsOutsideTheStore() throws Exception {
         try (ObjectStore store = createStore(tempDir.resolve("store"))) {
@@ -0,0 +1,63 @@
+package com.dua3.utility.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLoaderTest {
+
+    @Test
+    void errorsAreReportedAsFailures(@TempDir Path tempDir) throws IOException {
+        List<URI> uris = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Path path = tempDir.resolve("file" + i + ".txt");
+            Files.writeString(path, "content " + i);
+            uris.add(path.toUri());
+        }
+        URI classifierError = uris.get(1);
+        URI readerError = uris.get(4);
+
+        Map<URI, LoadResult<String>> results;
+        try (Stream<LoadResult<String>> stream = BatchLoader.<String, String>loadAll(
+                uris,
+                2,
+                (uri, magic) -> {
+                    if (uri.equals(classifierError)) {
+                        throw new AssertionError("classifier error");
+                    }
+                    return "text";
+                },
+                (key, uri) -> {
+                    if (uri.equals(readerError)) {
+                        throw new StackOverflowError("reader error");
+                    }
+                    return Files.readString(Path.of(uri));
+                })) {
+            results = stream.collect(Collectors.toMap(LoadResult::uri, r -> r));
+        }
+
+        assertEquals(uris.size(), results.size());
+        LoadResult.Failure<String> classifierFailure = assertInstanceOf(LoadResult.Failure.class, results.get(classifierError));
+        assertInstanceOf(AssertionError.class, classifierFailure.error().getCause());
+        LoadResult.Failure<String> readerFailure = assertInstanceOf(LoadResult.Failure.class, results.get(readerError));
+        assertInstanceOf(StackOverflowError.class, readerFailure.error().getCause());
+        for (URI uri : uris) {
+            if (!uri.equals(classifierError) && !uri.equals(readerError)) {
+                assertTrue(results.get(uri).isSuccess());
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.dua3.utility.io;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryCodecsTest {
+
+    enum Color {RED, GREEN, BLUE}
+
+    record Address(String street, int zip) {}
+
+    record Person(
+            String name,
+            int age,
+            long id,
+            double score,
+            boolean active,
+            Color color,
+            @Nullable Address address,
+            List<String> tags,
+            Map<String, Integer> counts,
+            SortedMap<Integer, List<Address>> history,
+            Optional<String> nickname,
+            byte[] avatar
+    ) {}
+
+    record Node(String value, List<Node> children) {}
+
+    private static Person samplePerson() {
+        return new Person(
+                "Jörg Müller 😀",
+                42,
+                -123_456_789_012L,
+                3.25,
+                true,
+                Color.BLUE,
+                null,
+                List.of("a", "bb", "ccc"),
+                Map.of("x", 1, "y", -1),
+                new TreeMap<>(Map.of(2020, List.of(new Address("Main St", 12345)), 2021, List.of())),
+                Optional.of("JM"),
+                new byte[]{1, 2, 3}
+        );
+    }
+
+    @Test
+    void testVarIntEncoding() throws IOException {
+        BinaryWriter out = new BinaryWriter();
+        out.writeVarInt(0);
+        out.writeVarInt(-1);
+        out.writeVarInt(63);
+        out.writeVarInt(-64);
+        assertEquals(4, out.size());
+        out.writeVarInt(Integer.MIN_VALUE);
+        out.writeVarLong(Long.MAX_VALUE);
+        out.writeUnsignedVarInt(300);
+
+        BinaryReader in = new BinaryReader(out.toByteArray());
+        assertEquals(0, in.readVarInt());
+        assertEquals(-1, in.readVarInt());
+        assertEquals(63, in.readVarInt());
+        assertEquals(-64, in.readVarInt());
+        assertEquals(Integer.MIN_VALUE, in.readVarInt());
+        assertEquals(Long.MAX_VALUE, in.readVarLong());
+        assertEquals(300, in.readUnsignedVarInt());
+        assertEquals(0, in.remaining());
+    }
+
+    @Test
+    void testStringEncoding() throws IOException {
+        BinaryCodec<String> codec = BinaryCodecs.forClass(String.class);
+        for (String s : List.of("", "ascii", "äöü", "😀 emoji", "x".repeat(1000))) {
+            byte[] data = codec.encode(s);
+            assertEquals(s, codec.decode(data));
+        }
+        // length prefix of one byte, one byte per ASCII character
+        assertEquals(6, codec.encode("hello").length);
+    }
+
+    @Test
+    void testRecordCodec() throws IOException {
+        BinaryCodec<Person> codec = BinaryCodecs.forClass(Person.class);
+        Person person = samplePerson();
+
+        Person decoded = codec.decode(codec.encode(person));
+        assertEquals(person.name(), decoded.name());
+        assertEquals(person.id(), decoded.id());
+        assertEquals(person.color(), decoded.color());
+        assertEquals(person.tags(), decoded.tags());
+        assertEquals(person.counts(), decoded.counts());
+        assertEquals(person.history(), decoded.history());
+        assertEquals(person.nickname(), decoded.nickname());
+        assertArrayEquals(person.avatar(), decoded.avatar());
+        assertEquals(null, decoded.address());
+
+        // the codec is cached
+        assertEquals(codec, BinaryCodecs.forClass(Person.class));
+    }
+
+    @Test
+    void testRecursiveRecord() throws IOException {
+        BinaryCodec<Node> codec = BinaryCodecs.recordCodec(Node.class, MethodHandles.lookup());
+        Node tree = new Node("root", List.of(new Node("a", List.of()), new Node("b", List.of(new Node("c", List.of())))));
+        assertEquals(tree, codec.decode(codec.encode(tree)));
+    }
+
+    @Test
+    void testCollectionAndMapCodecs() throws IOException {
+        BinaryCodec<List<Long>> listCodec = BinaryCodecs.collectionCodec("List<Long>", BinaryCodecs.forClass(Long.class), ArrayList::new);
+        List<Long> list = List.of(1L, -2L, Long.MIN_VALUE);
+        assertEquals(list, listCodec.decode(listCodec.encode(list)));
+        assertThrows(NullPointerException.class, () -> listCodec.encode(new ArrayList<>(java.util.Arrays.asList(1L, null))));
+
+        BinaryCodec<Map<String, Set<Long>>> mapCodec = BinaryCodecs.mapCodec(
+                BinaryCodecs.forClass(String.class),
+                BinaryCodecs.collectionCodec("Set<Long>", BinaryCodecs.forClass(Long.class), java.util.HashSet::new),
+                java.util.HashMap::newHashMap
+        );
+        Map<String, Set<Long>> map = Map.of("a", Set.of(1L, 2L), "b", Set.of());
+        assertEquals(map, mapCodec.decode(mapCodec.encode(map)));
+    }
+
+    @Test
+    void testDecodeAdvancesBufferPosition() throws IOException {
+        BinaryCodec<Integer> codec = BinaryCodecs.forClass(int.class);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        codec.encode(1, Channels.newChannel(baos));
+        codec.encode(1000, Channels.newChannel(baos));
+
+        ByteBuffer buffer = ByteBuffer.wrap(baos.toByteArray());
+        assertEquals(1, codec.decode(buffer));
+        assertEquals(1, buffer.position());
+        assertEquals(1000, codec.decode(buffer));
+        assertEquals(3, buffer.position());
+    }
+
+    @Test
+    void testInvalidData() {
+        BinaryCodec<Person> codec = BinaryCodecs.forClass(Person.class);
+        byte[] data = codec.encode(samplePerson());
+        assertThrows(IOException.class, () -> codec.decode(java.util.Arrays.copyOf(data, data.length / 2)));
+        assertThrows(EOFException.class, () -> codec.decode(java.util.Arrays.copyOf(data, 3)));
+        assertThrows(IOException.class, () -> BinaryCodecs.forClass(Color.class).decode(new byte[]{5}));
+        assertThrows(IOException.class, () -> BinaryCodecs.forClass(String.class).decode(new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0}));
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodecs.forClass(Object.class));
+    }
+
+    @Test
+    void testAsCodec() throws IOException {
+        Codec<Person> codec = BinaryCodecs.forClass(Person.class).asCodec();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream os = new DataOutputStream(baos)) {
+            codec.encode(os, samplePerson());
+            codec.encode(os, samplePerson());
+        }
+        try (DataInputStream is = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            assertEquals(samplePerson().name(), codec.decode(is).name());
+            assertEquals(samplePerson().history(), codec.decode(is).history());
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.dua3.utility.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingObjectStoreTest {
+
+    /**
+     * A store that counts the calls to its delegate.
+     */
+    private static final class CountingStore implements ReadableObjectStore {
+        final ReadableObjectStore delegate;
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger lists = new AtomicInteger();
+        final AtomicInteger infos = new AtomicInteger();
+        volatile long readDelayMillis;
+
+        CountingStore(ReadableObjectStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public URI getRoot() {
+            return delegate.getRoot();
+        }
+
+        @Override
+        public Stream<ObjectStore.ObjectInfo> list(URI path) throws IOException {
+            lists.incrementAndGet();
+            return delegate.list(path);
+        }
+
+        @Override
+        public InputStream openInputStream(URI path) throws IOException {
+            reads.incrementAndGet();
+            if (readDelayMillis > 0) {
+                try {
+                    Thread.sleep(readDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return delegate.openInputStream(path);
+        }
+
+        @Override
+        public Optional<ObjectStore.ObjectInfo> getInfo(URI path) throws IOException {
+            infos.incrementAndGet();
+            return delegate.getInfo(path);
+        }
+
+        @Override
+        public ReadableByteChannel openReadableByteChannel(URI path) throws IOException {
+            reads.incrementAndGet();
+            return delegate.openReadableByteChannel(path);
+        }
+
+        @Override
+        public void close() {
+            // nothing to do
+        }
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            URI path = URI.create("config/app.properties");
+            backing.writeString(path, "key=value");
+
+            CountingStore counting = new CountingStore(backing);
+            try (CachingObjectStore store = ObjectStores.cachingStore(counting)) {
+                for (int i = 0; i < 10; i++) {
+                    assertEquals("key=value", store.readString(path));
+                }
+                assertArrayEquals("key=value".getBytes(StandardCharsets.UTF_8), store.readAllBytes(path));
+                assertEquals(1, counting.reads.get());
+
+                CachingObjectStore.Stats stats = store.getStats();
+                assertEquals(1, stats.data().loadCount());
+                assertEquals(10, stats.data().hitCount());
+                assertEquals(1, stats.dataEntries());
+            }
+        }
+    }
+
+    @Test
+    void concurrentReadersTriggerASingleFetch() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            URI path = URI.create("template.txt");
+            backing.writeString(path, "template");
+
+            CountingStore counting = new CountingStore(backing);
+            counting.readDelayMillis = 100;
+            try (CachingObjectStore store = ObjectStores.cachingStore(counting)) {
+                int n = 16;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Thread> threads = new ArrayList<>();
+                List<String> results = Collections.synchronizedList(new ArrayList<>());
+                for (int i = 0; i < n; i++) {
+                    threads.add(Thread.ofVirtual().start(() -> {
+                        try {
+                            start.await();
+                            results.add(store.readString(path));
+                        } catch (Exception e) {
+                            results.add(e.toString());
+                        }
+                    }));
+                }
+                start.countDown();
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+
+                assertEquals(n, results.size());
+                assertTrue(results.stream().allMatch("template"::equals), results.toString());
+                assertEquals(1, counting.reads.get());
+            }
+        }
+    }
+
+    @Test
+    void entriesExpireAfterTimeToLive() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            URI path = URI.create("data.txt");
+            backing.writeString(path, "old");
+
+            AtomicLong time = new AtomicLong();
+            CountingStore counting = new CountingStore(backing);
+            try (CachingObjectStore store = CachingObjectStore.builder()
+                    .expireAfterWrite(Duration.ofSeconds(10))
+                    .ticker(time::get)
+                    .build(counting)) {
+                assertEquals("old", store.readString(path));
+                backing.writeString(path, "new", ObjectStore.OutputOption.CREATE_OR_REPLACE);
+
+                time.addAndGet(Duration.ofSeconds(5).toNanos());
+                assertEquals("old", store.readString(path));
+
+                time.addAndGet(Duration.ofSeconds(6).toNanos());
+                assertEquals("new", store.readString(path));
+                assertEquals(2, counting.reads.get());
+            }
+        }
+    }
+
+    @Test
+    void lastModifiedValidationDetectsChanges() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            URI path = URI.create("folder/data.txt");
+            backing.writeString(path, "old");
+
+            CountingStore counting = new CountingStore(backing);
+            try (CachingObjectStore store = CachingObjectStore.builder()
+                    .validateLastModified(Duration.ZERO)
+                    .build(counting)) {
+                assertEquals("old", store.readString(path));
+                assertEquals("old", store.readString(path));
+                assertEquals(1, counting.reads.get());
+
+                try (Stream<ObjectStore.ObjectInfo> entries = store.list(URI.create("folder"))) {
+                    assertEquals(1, entries.count());
+                }
+
+                Thread.sleep(5);
+                backing.writeString(path, "changed", ObjectStore.OutputOption.CREATE_OR_REPLACE);
+                backing.writeString(URI.create("folder/other.txt"), "other");
+
+                assertEquals("changed", store.readString(path));
+                assertEquals(2, counting.reads.get());
+                try (Stream<ObjectStore.ObjectInfo> entries = store.list(URI.create("folder"))) {
+                    assertEquals(2, entries.count());
+                }
+
+                CachingObjectStore.Stats stats = store.getStats();
+                assertTrue(stats.validationCount() >= 3);
+                assertEquals(2, stats.staleCount());
+            }
+        }
+    }
+
+    @Test
+    void metadataIsCached() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            backing.writeString(URI.create("a/b.txt"), "b");
+            backing.writeString(URI.create("a/c.txt"), "c");
+
+            CountingStore counting = new CountingStore(backing);
+            try (CachingObjectStore store = ObjectStores.cachingStore(counting)) {
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(3, store.getInfo(URI.create("a/b.txt")).orElseThrow().size() + 2);
+                    assertTrue(store.getInfo(URI.create("missing")).isEmpty());
+                    try (Stream<URI> matches = store.glob("a/*.txt")) {
+                        assertEquals(List.of(URI.create("a/b.txt"), URI.create("a/c.txt")), matches.toList());
+                    }
+                }
+                int infos = counting.infos.get();
+                int lists = counting.lists.get();
+                assertEquals(1, lists);
+
+                store.invalidateAll();
+                try (Stream<URI> matches = store.glob("a/*.txt")) {
+                    assertEquals(2, matches.count());
+                }
+                assertTrue(counting.infos.get() > infos);
+                assertEquals(2, counting.lists.get());
+            }
+        }
+    }
+
+    @Test
+    void largeObjectsAndErrorsAreNotCached() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            URI large = URI.create("large.bin");
+            backing.write(large, new byte[1000]);
+
+            CountingStore counting = new CountingStore(backing);
+            try (CachingObjectStore store = CachingObjectStore.builder()
+                    .maximumObjectSize(100)
+                    .build(counting)) {
+                assertEquals(1000, store.readAllBytes(large).length);
+                assertEquals(1000, store.readAllBytes(large).length);
+                assertEquals(2, counting.reads.get());
+                assertEquals(0, store.getStats().dataEntries(), "large objects must not be cached");
+
+                URI missing = URI.create("missing.txt");
+                assertThrows(ObjectNotFoundException.class, () -> store.readAllBytes(missing));
+                backing.writeString(missing, "now present");
+                assertEquals("now present", store.readString(missing));
+
+                assertThrows(AbsolutePathException.class, () -> store.readAllBytes(URI.create("file:///tmp/x")));
+            }
+        }
+    }
+
+    @Test
+    void cacheIsBoundedBySize() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            for (int i = 0; i < 100; i++) {
+                backing.write(URI.create("obj" + i), new byte[100]);
+            }
+
+            try (CachingObjectStore store = CachingObjectStore.builder()
+                    .maximumBytes(1000)
+                    .build(backing)) {
+                for (int i = 0; i < 100; i++) {
+                    store.readAllBytes(URI.create("obj" + i));
+                }
+                assertTrue(store.getStats().dataEntries() <= 10);
+                assertTrue(store.getStats().data().evictionCount() >= 90);
+            }
+        }
+    }
+}
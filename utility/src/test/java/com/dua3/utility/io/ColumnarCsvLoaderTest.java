@@ -0,0 +1,145 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.io.CsvColumns.ColumnType;
+import com.dua3.utility.options.Arguments;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the ColumnarCsvLoader class.
+ */
+class ColumnarCsvLoaderTest {
+
+    private static final String CSV_DATA = """
+            id,name,price,active,since,count,category
+            1,Apple,1.25,true,2020-01-15,10000000000,fruit
+            2,"Banana, yellow",0.5,FALSE,2021-02-28,,fruit
+            3,Carrot,,true,,3,vegetable
+            4,Date
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private static Map<String, ColumnType> schema() {
+        Map<String, ColumnType> schema = new LinkedHashMap<>();
+        schema.put("category", ColumnType.STRING);
+        schema.put("id", ColumnType.INT);
+        schema.put("price", ColumnType.DOUBLE);
+        schema.put("active", ColumnType.BOOLEAN);
+        schema.put("since", ColumnType.DATE);
+        schema.put("count", ColumnType.LONG);
+        return schema;
+    }
+
+    @Test
+    void testLoad() throws IOException {
+        Path path = tempDir.resolve("data.csv");
+        Files.writeString(path, CSV_DATA, StandardCharsets.UTF_8);
+        Arguments arguments = Arguments.of(
+                Arguments.createEntry(CsvReader.READ_COLUMN_NAMES, true),
+                Arguments.createEntry(CsvReader.IGNORE_MISSING_FIELDS, true)
+        );
+
+        CsvColumns data = ColumnarCsvLoader.load(path, arguments, schema());
+        assertEquals(4, data.getRowCount());
+        assertEquals(List.of("category", "id", "price", "active", "since", "count"), data.getColumnNames());
+
+        assertArrayEquals(new int[]{1, 2, 3, 4}, data.getColumn("id", CsvColumns.IntColumn.class).toArray());
+
+        CsvColumns.DoubleColumn price = data.getColumn("price", CsvColumns.DoubleColumn.class);
+        assertEquals(1.25, price.getDouble(0));
+        assertEquals(0.5, price.getDouble(1));
+        assertTrue(price.isMissing(2));
+        assertTrue(price.isMissing(3));
+        assertNull(price.get(2));
+
+        CsvColumns.BooleanColumn active = data.getColumn("active", CsvColumns.BooleanColumn.class);
+        assertTrue(active.getBoolean(0));
+        assertFalse(active.getBoolean(1));
+        assertEquals(Boolean.TRUE, active.get(2));
+        assertNull(active.get(3));
+
+        CsvColumns.DateColumn since = data.getColumn("since", CsvColumns.DateColumn.class);
+        assertEquals(LocalDate.of(2020, 1, 15), since.get(0));
+        assertEquals(LocalDate.of(2021, 2, 28).toEpochDay(), since.getEpochDay(1));
+        assertNull(since.get(2));
+
+        CsvColumns.LongColumn count = data.getColumn("count", CsvColumns.LongColumn.class);
+        assertEquals(10_000_000_000L, count.getLong(0));
+        assertTrue(count.isMissing(1));
+        assertEquals(3L, count.get(2));
+
+        CsvColumns.StringColumn category = data.getColumn("category", CsvColumns.StringColumn.class);
+        assertTrue(category.isDictionaryEncoded());
+        assertEquals(List.of("fruit", "vegetable"), category.getDictionary());
+        assertEquals(0, category.getCode(1));
+        assertEquals("vegetable", category.getString(2));
+        assertNull(category.getString(3));
+
+        assertThrows(IllegalArgumentException.class, () -> data.getColumn("name"));
+        assertThrows(IllegalArgumentException.class, () -> data.getColumn("id", CsvColumns.DoubleColumn.class));
+        assertThrows(IndexOutOfBoundsException.class, () -> price.getDouble(4));
+    }
+
+    @Test
+    void testInvalidValue() throws IOException {
+        Path path = tempDir.resolve("invalid.csv");
+        Files.writeString(path, "id\n1\n2\nx\n", StandardCharsets.UTF_8);
+        Arguments arguments = Arguments.of(Arguments.createEntry(CsvReader.READ_COLUMN_NAMES, true));
+
+        CsvFormatException e = assertThrows(CsvFormatException.class,
+                () -> ColumnarCsvLoader.load(path, arguments, Map.of("id", ColumnType.INT)));
+        assertTrue(e.getMessage().startsWith("[" + path.toUri() + ":4] invalid value"), e.getMessage());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnarCsvLoader.load(path, arguments, Map.of("nr", ColumnType.INT)));
+    }
+
+    @Test
+    void testPositionalBindingAndDictionaryLimit() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append(i % 7 == 0 ? "" : "v" + (i % 10)).append(';').append(i / 10.0).append(';').append("24.12.2023\n");
+        }
+
+        Map<String, ColumnType> schema = new LinkedHashMap<>();
+        schema.put("text", ColumnType.STRING);
+        schema.put("value", ColumnType.DOUBLE);
+        schema.put("date", ColumnType.DATE);
+        ColumnarCsvLoader loader = new ColumnarCsvLoader(schema, DateTimeFormatter.ofPattern("dd.MM.yyyy"), 5);
+        Arguments arguments = Arguments.of(Arguments.createEntry(IoOptions.OPTION_FIELD_SEPARATOR, ';'));
+        try (CsvReader reader = CsvReader.create(loader, new BufferedReader(new StringReader(sb.toString())), arguments)) {
+            reader.readAll();
+        }
+
+        CsvColumns data = loader.build();
+        assertEquals(100, data.getRowCount());
+        CsvColumns.StringColumn text = data.getColumn("text", CsvColumns.StringColumn.class);
+        assertFalse(text.isDictionaryEncoded());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 7 == 0 ? "" : "v" + (i % 10), text.getString(i));
+        }
+        assertEquals(4.2, data.getColumn("value", CsvColumns.DoubleColumn.class).getDouble(42));
+        assertEquals(LocalDate.of(2023, 12, 24), data.getColumn("date").get(99));
+    }
+}
@@ -0,0 +1,91 @@
+package com.dua3.utility.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the CsvField class.
+ */
+class CsvFieldTest {
+
+    @Test
+    void testView() {
+        char[] chars = "abc,def".toCharArray();
+        CsvField field = new CsvField(chars, 4, 7);
+        assertEquals(3, field.length());
+        assertEquals('e', field.charAt(1));
+        assertEquals("def", field.toString());
+        assertEquals("ef", field.subSequence(1, 3));
+        assertTrue(field.contentEquals("def"));
+        assertFalse(field.contentEquals("abc"));
+        assertThrows(IndexOutOfBoundsException.class, () -> field.charAt(3));
+
+        field.set(chars, 0, 0);
+        assertTrue(field.isEmpty());
+        assertEquals("", field.toString());
+    }
+
+    @Test
+    void testParseInt() {
+        assertEquals(123, CsvField.of("123").parseInt());
+        assertEquals(-42, CsvField.of("-42").parseInt());
+        assertEquals(Integer.MAX_VALUE, CsvField.of(Integer.toString(Integer.MAX_VALUE)).parseInt());
+        assertThrows(NumberFormatException.class, () -> CsvField.of("").parseInt());
+        assertThrows(NumberFormatException.class, () -> CsvField.of("12a").parseInt());
+        assertThrows(NumberFormatException.class, () -> CsvField.of("2147483648").parseInt());
+    }
+
+    @Test
+    void testParseLong() {
+        assertEquals(1234567890123L, CsvField.of("1234567890123").parseLong());
+        assertEquals(Long.MIN_VALUE, CsvField.of(Long.toString(Long.MIN_VALUE)).parseLong());
+        assertThrows(NumberFormatException.class, () -> CsvField.of("1.0").parseLong());
+    }
+
+    @Test
+    void testParseBoolean() {
+        assertTrue(CsvField.of("true").parseBoolean());
+        assertTrue(CsvField.of("TRUE").parseBoolean());
+        assertFalse(CsvField.of("False").parseBoolean());
+        assertThrows(IllegalArgumentException.class, () -> CsvField.of("yes").parseBoolean());
+        assertThrows(IllegalArgumentException.class, () -> CsvField.of("").parseBoolean());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "0", "-0", "+0.0", "1", "-1", "1.5", "3.141592653589793", "0.1", "0.3", "123456789012345",
+            "1234567890123456789", "1e10", "1.5E-5", "2.5e+3", "1e22", "1e23", "1e-22", "1e-23", "4.9e-324",
+            "1.7976931348623157e308", ".5", "5.", "0.000000000000000000000001", "12345678.9012345678",
+            " 1.5 ", "1.5d", "NaN", "-Infinity", "0x1p3"
+    })
+    void testParseDouble(String text) {
+        assertEquals(Double.parseDouble(text), CsvField.of(text).parseDouble());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "-", ".", "e5", "1e", "1e+", "1.2.3", "abc"})
+    void testParseDoubleInvalid(String text) {
+        assertThrows(NumberFormatException.class, () -> CsvField.of(text).parseDouble());
+    }
+
+    @Test
+    void testParseLocalDate() {
+        assertEquals(LocalDate.of(2024, 2, 29), CsvField.of("2024-02-29").parseLocalDate());
+        assertEquals(LocalDate.of(-1, 1, 1), CsvField.of("-0001-01-01").parseLocalDate());
+        assertThrows(DateTimeParseException.class, () -> CsvField.of("2023-02-29").parseLocalDate());
+        assertThrows(DateTimeParseException.class, () -> CsvField.of("2023-1-1").parseLocalDate());
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+        assertEquals(LocalDate.of(2023, 12, 24), CsvField.of("24.12.2023").parseLocalDate(formatter));
+    }
+}
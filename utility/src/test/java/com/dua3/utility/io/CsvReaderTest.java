@@ -8,13 +8,16 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CsvReaderTest {
 
@@ -80,4 +83,118 @@ class CsvReaderTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    void testReadCsvWithFieldRowBuilder() throws IOException {
+        Arguments arguments = Arguments.of(
+                Arguments.createEntry(CsvReader.READ_COLUMN_NAMES, true),
+                Arguments.createEntry(CsvReader.IGNORE_MISSING_FIELDS, true)
+        );
+        List<String> names = new ArrayList<>();
+        List<Integer> ages = new ArrayList<>();
+        CsvReader.FieldRowBuilder rowBuilder = new CsvReader.FieldRowBuilder() {
+            private int column;
+
+            @Override
+            public void startRow() {
+                column = 0;
+            }
+
+            @Override
+            public void add(CsvField field) {
+                switch (column++) {
+                    case 1 -> names.add(field.toString());
+                    case 2 -> ages.add(field.parseInt());
+                    default -> { /* ignore */ }
+                }
+            }
+
+            @Override
+            public void endRow() {
+                // nothing to do
+            }
+        };
+        try (BufferedReader reader = new BufferedReader(new StringReader(CSV_DATA));
+             CsvReader csvReader = CsvReader.create(rowBuilder, reader, arguments)) {
+            csvReader.readAll();
+            assertEquals(CSV_COLUMNS, csvReader.getColumnNames(), "column names differ");
+            assertEquals(List.of("John", "Jane", "Peter, aka \"Pete\"", "Jon Doe"), names);
+            assertEquals(List.of(34, 23, 17), ages);
+        }
+    }
+
+    @Test
+    void testLineAndRowNumbers() throws IOException {
+        Arguments arguments = Arguments.of(
+                Arguments.createEntry(CsvReader.READ_COLUMN_NAMES, true),
+                Arguments.createEntry(CsvReader.IGNORE_MISSING_FIELDS, true)
+        );
+        CsvReader.RowBuilder rowBuilder = new CsvReader.ListRowBuilder();
+        try (BufferedReader reader = new BufferedReader(new StringReader(CSV_DATA));
+             CsvReader csvReader = CsvReader.create(rowBuilder, reader, arguments)) {
+            assertEquals(1, csvReader.getLineNumber());
+            assertEquals(1, csvReader.getRowNumber());
+            assertEquals(2, csvReader.readSome(2));
+            assertEquals(4, csvReader.getLineNumber());
+            assertEquals(3, csvReader.getRowNumber());
+            assertEquals(2, csvReader.readAll());
+            assertEquals(6, csvReader.getLineNumber());
+            assertEquals(5, csvReader.getRowNumber());
+        }
+    }
+
+    @Test
+    void testIgnoreRows() throws IOException {
+        List<List<String>> actualRows = new ArrayList<>();
+        CsvReader.RowBuilder rowBuilder = new CsvReader.ListRowBuilder(actualRows::add);
+        try (BufferedReader reader = new BufferedReader(new StringReader("a,b\nc,d\ne,f"));
+             CsvReader csvReader = CsvReader.create(rowBuilder, reader, Arguments.empty())) {
+            assertEquals(2, csvReader.ignoreRows(2));
+            assertEquals(2, csvReader.getLineNumber());
+            csvReader.readAll();
+            assertEquals(List.of(List.of("e", "f")), actualRows);
+            assertEquals(0, csvReader.ignoreRows(1));
+        }
+    }
+
+    @Test
+    void testParserLineBreaksAndQuoting() throws IOException {
+        String data = "a,\"b\r\nc\",d\r\n\r\n\"x\"\"y\" , z ,\r\"\"\n  \"q\",r\"s";
+        List<List<String>> expected = List.of(
+                List.of("a", "b\nc", "d"),
+                List.of(""),
+                List.of("x\"y", " z ", ""),
+                List.of(""),
+                List.of("q", "r\"s")
+        );
+        // use different buffer sizes to test handling of buffer boundaries
+        for (int bufferSize = 1; bufferSize <= data.length() + 1; bufferSize++) {
+            CsvParser parser = new CsvParser(new StringReader(data), ',', '"', null, bufferSize);
+            List<List<String>> rows = new ArrayList<>();
+            while (parser.parseRow()) {
+                List<String> row = new ArrayList<>();
+                for (int i = 0; i < parser.getFieldCount(); i++) {
+                    row.add(parser.getField(i));
+                }
+                rows.add(row);
+            }
+            assertEquals(expected, rows, "buffer size " + bufferSize);
+            assertEquals(6, parser.getLineNumber(), "buffer size " + bufferSize);
+            assertFalse(parser.parseRow());
+        }
+    }
+
+    @Test
+    void testParserInvalidData() throws IOException {
+        URI source = URI.create("file:/test.csv");
+
+        CsvParser unterminated = new CsvParser(new StringReader("a,b\nc,\"d\ne"), ',', '"', source);
+        assertTrue(unterminated.parseRow());
+        CsvFormatException e1 = assertThrows(CsvFormatException.class, unterminated::parseRow);
+        assertEquals("[file:/test.csv:3] Unexpected end of input while looking for matching delimiter.", e1.getMessage());
+
+        CsvParser garbage = new CsvParser(new StringReader("\"a\"b,c"), ',', '"', source);
+        CsvFormatException e2 = assertThrows(CsvFormatException.class, garbage::parseRow);
+        assertEquals("[file:/test.csv:1] invalid csv data.", e2.getMessage());
+    }
+
+}
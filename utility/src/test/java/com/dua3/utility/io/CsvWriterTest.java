@@ -7,16 +7,22 @@ package com.dua3.utility.io;
 
 import com.dua3.utility.options.Arguments;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -229,4 +235,87 @@ class CsvWriterTest {
         // Verify output
         assertEquals(expected, outputStream.toString(StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that the primitive overloads produce the same output as formatting the boxed values.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"en-US", "de-DE", "de-CH", "fr-FR", "ar-EG", "fa"})
+    void testPrimitiveFieldsMatchFormat(String languageTag) throws IOException {
+        Arguments arguments = Arguments.of(
+                Arguments.createEntry(IoOptions.OPTION_LOCALE, Locale.forLanguageTag(languageTag))
+        );
+
+        List<Object> values = new ArrayList<>(List.of(
+                0, -1, 42, Integer.MIN_VALUE, Integer.MAX_VALUE, 0L, Long.MIN_VALUE, Long.MAX_VALUE, (short) -7, (byte) 8,
+                0.0, -0.0, 1.0, -1.5, 0.1, 0.3, 0.005, 3.14159, 1234567.125, 1.0e14, 1.0e15, 1.0e22, 123456789012345.6,
+                0.1 + 0.2, 1.0e-5, 1.0e-15, 1.0e-16, 4.9e-324, Double.MAX_VALUE, Double.NaN,
+                Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0.1f, 2.5f, -3.75f
+        ));
+        Random random = new Random(languageTag.hashCode());
+        for (int i = 0; i < 2000; i++) {
+            values.add(random.nextLong());
+            values.add(random.nextDouble());
+            values.add(Math.round(random.nextGaussian() * 1.0e6) / 100.0);
+            values.add(Math.round(random.nextDouble() * Math.pow(10, random.nextInt(16))) / Math.pow(10, random.nextInt(16)));
+        }
+
+        StringWriter stringWriter = new StringWriter();
+        StringBuilder expected = new StringBuilder();
+        try (CsvWriter csvWriter = CsvWriter.create(new BufferedWriter(stringWriter), arguments)) {
+            for (Object value : values) {
+                expected.append(csvWriter.format(value)).append("\r\n");
+                switch (value) {
+                    case Integer i -> csvWriter.addField(i.intValue());
+                    case Long l -> csvWriter.addField(l.longValue());
+                    case Double d -> csvWriter.addField(d.doubleValue());
+                    default -> csvWriter.addField(value);
+                }
+                csvWriter.nextRow();
+            }
+        }
+
+        assertEquals(expected.toString(), stringWriter.toString());
+    }
+
+    /**
+     * Test that {@code char} fields are written as text and not as their numeric value.
+     */
+    @Test
+    void testCharFields() throws IOException {
+        char[] chars = {'x', '1', ',', '"', '\n', 'ä', ' '};
+
+        StringWriter stringWriter = new StringWriter();
+        StringBuilder expected = new StringBuilder();
+        try (CsvWriter csvWriter = CsvWriter.create(new BufferedWriter(stringWriter), Arguments.of())) {
+            for (char c : chars) {
+                expected.append(csvWriter.format(Character.valueOf(c))).append("\r\n");
+                csvWriter.addField(c);
+                csvWriter.nextRow();
+            }
+        }
+
+        assertEquals(expected.toString(), stringWriter.toString());
+        assertTrue(stringWriter.toString().startsWith("x\r\n1\r\n\",\"\r\n\"\"\"\"\r\n"), stringWriter.toString());
+    }
+
+    /**
+     * Test writing complete rows and text fields that need quoting.
+     */
+    @Test
+    void testWriteRow() throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (CsvWriter csvWriter = CsvWriter.create(new BufferedWriter(stringWriter), Arguments.of())) {
+            csvWriter.writeRow(new Object[]{"Nr.", "Name", null, new StringBuilder("Remark")});
+            csvWriter.writeRow(new Object[]{1, "\"quoted\"", 1.5, "a\"b\"", "äöü", "x\u2028y"});
+            csvWriter.writeRow(new Object[]{BigDecimal.valueOf(25, 1), "", "x".repeat(100) + ",", LocalDate.of(2024, 2, 29)});
+            csvWriter.writeRow(new Object[0]);
+        }
+
+        String expected = "Nr.,Name,,Remark\r\n"
+                + "1,\"\"\"quoted\"\"\",1.5,\"a\"\"b\"\"\",äöü,\"x\u2028y\"\r\n"
+                + "2.5,,\"" + "x".repeat(100) + ",\",2024-02-29\r\n"
+                + "\r\n";
+        assertEquals(expected, stringWriter.toString());
+    }
+}
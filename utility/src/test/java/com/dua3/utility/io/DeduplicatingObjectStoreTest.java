@@ -0,0 +1,133 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.io.imp.FileObjectStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeduplicatingObjectStoreTest extends AbstractObjectStoreTest {
+    @Override
+    protected ObjectStore createStore(Path root) throws IOException {
+        return DeduplicatingObjectStore.open(FileObjectStore.newObjectStore(root));
+    }
+
+    private static long countBlobs(ObjectStore backing) throws IOException {
+        try (Stream<ObjectStore.ObjectInfo> objects = backing.walk(URI.create("blobs"))) {
+            return objects.filter(info -> info.type() == ObjectStore.ObjectType.DATA).count();
+        }
+    }
+
+    @Test
+    void identicalContentIsStoredOnce() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore();
+             DeduplicatingObjectStore store = ObjectStores.deduplicatingStore(backing)) {
+            byte[] artifact = "artifact content".getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < 10; i++) {
+                store.write(URI.create("builds/" + i + "/artifact.jar"), artifact);
+            }
+            try (OutputStream out = store.openOutputStream(URI.create("streamed/artifact.jar"))) {
+                out.write(artifact);
+            }
+            store.writeString(URI.create("other.txt"), "other");
+
+            assertEquals("artifact content", store.readString(URI.create("builds/7/artifact.jar")));
+            assertEquals("artifact content", store.readString(URI.create("streamed/artifact.jar")));
+            assertEquals(2, countBlobs(backing));
+
+            DeduplicatingObjectStore.Stats stats = store.getStats();
+            assertEquals(12, stats.objects());
+            assertEquals(2, stats.blobs());
+            assertEquals(11L * artifact.length + 5, stats.logicalBytes());
+            assertEquals(artifact.length + 5L, stats.storedBytes());
+            assertEquals(10, stats.deduplicatedWrites());
+            assertEquals(artifact.length + 5L, stats.bytesWritten());
+        }
+    }
+
+    @Test
+    void copyAndMoveOnlyUpdateTheIndex() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore();
+             DeduplicatingObjectStore store = ObjectStores.deduplicatingStore(backing)) {
+            store.writeString(URI.create("a.txt"), "data");
+            long written = store.getStats().bytesWritten();
+
+            store.copy(URI.create("a.txt"), URI.create("copies/b.txt"));
+            store.move(URI.create("a.txt"), URI.create("moved/c.txt"));
+
+            assertEquals(written, store.getStats().bytesWritten());
+            assertEquals(1, countBlobs(backing));
+            assertTrue(store.getInfo(URI.create("a.txt")).isEmpty());
+            assertEquals("data", store.readString(URI.create("copies/b.txt")));
+            assertEquals("data", store.readString(URI.create("moved/c.txt")));
+            assertThrows(ObjectExistsException.class, () -> store.copy(URI.create("copies/b.txt"), URI.create("moved/c.txt")));
+        }
+    }
+
+    @Test
+    void unreferencedBlobsAreDeletedOnFlush() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore();
+             DeduplicatingObjectStore store = ObjectStores.deduplicatingStore(backing)) {
+            store.writeString(URI.create("a.txt"), "one");
+            store.writeString(URI.create("b.txt"), "one");
+            store.writeString(URI.create("c.txt"), "two");
+
+            store.delete(URI.create("a.txt"));
+            store.writeString(URI.create("c.txt"), "three", ObjectStore.OutputOption.CREATE_OR_REPLACE);
+            assertEquals(3, countBlobs(backing));
+
+            store.flush();
+            assertEquals(2, countBlobs(backing));
+
+            // blobs without index entries are removed by collectGarbage()
+            backing.writeString(URI.create("blobs/00/00orphan"), "orphan");
+            assertEquals(1, store.collectGarbage());
+            assertEquals(2, countBlobs(backing));
+        }
+    }
+
+    @Test
+    void indexIsPersistedAcrossSessions() throws Exception {
+        Path root = tempDir.resolve("persistent");
+        try (DeduplicatingObjectStore store = DeduplicatingObjectStore.open(FileObjectStore.newObjectStore(root))) {
+            store.writeString(URI.create("docs/readme.txt"), "readme");
+            store.writeString(URI.create("docs/copy.txt"), "readme");
+            store.createFolder(URI.create("empty"));
+        }
+
+        try (DeduplicatingObjectStore store = DeduplicatingObjectStore.open(FileObjectStore.newObjectStore(root))) {
+            assertEquals("readme", store.readString(URI.create("docs/copy.txt")));
+            try (Stream<URI> entries = store.list(URI.create("")).map(ObjectStore.ObjectInfo::uri)) {
+                assertEquals(List.of(URI.create("docs/"), URI.create("empty/")), entries.toList());
+            }
+            assertEquals(1, store.getStats().blobs());
+
+            store.writeString(URI.create("docs/other.txt"), "readme");
+            assertEquals(0, store.getStats().bytesWritten());
+        }
+    }
+
+    @Test
+    void deletingNonEmptyFolderWithSiblingsFails() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore();
+             DeduplicatingObjectStore store = ObjectStores.deduplicatingStore(backing)) {
+            store.writeString(URI.create("docs/readme"), "readme");
+            // '-' and '.' sort before '/', so these keys are between "docs" and "docs/readme"
+            store.writeString(URI.create("docs.zip"), "zip");
+            store.writeString(URI.create("docs-old"), "old");
+
+            assertThrows(FolderNotEmptyException.class, () -> store.delete(URI.create("docs")));
+            assertEquals("readme", store.readString(URI.create("docs/readme")));
+            assertEquals(3, store.getStats().objects());
+        }
+    }
+}
@@ -5,9 +5,15 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.MappedByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -24,6 +30,122 @@ class FileObjectStoreTest extends AbstractObjectStoreTest {
         }
     }
 
+    @Test
+    void map_returnsMappedBuffer() throws Exception {
+        try (ObjectStore store = FileObjectStore.newObjectStore(tempDir.resolve("map"))) {
+            store.writeString(URI.create("data.txt"), "mapped");
+            assertInstanceOf(MappedByteBuffer.class, store.map(URI.create("data.txt")));
+        }
+    }
+
+    @Test
+    void commit_writesInParallelAndLeavesNoTemporaryFiles() throws Exception {
+        Path root = tempDir.resolve("batch");
+        try (ObjectStore store = FileObjectStore.newObjectStore(root)) {
+            WriteBatch batch = new WriteBatch().parallelism(8);
+            for (int i = 0; i < 500; i++) {
+                batch.writeString(URI.create("data/" + (i % 10) + "/object" + i + ".txt"), "content " + i);
+            }
+            store.commit(batch);
+
+            for (int i = 0; i < 500; i++) {
+                assertEquals("content " + i, store.readString(URI.create("data/" + (i % 10) + "/object" + i + ".txt")));
+            }
+            assertEquals(List.of(), listHiddenFiles(root));
+        }
+    }
+
+    @Test
+    void commit_rollsBackWhenAnOperationFails() throws Exception {
+        Path root = tempDir.resolve("rollback");
+        try (ObjectStore store = FileObjectStore.newObjectStore(root)) {
+            store.writeString(URI.create("existing.txt"), "old");
+            store.writeString(URI.create("delete-me.txt"), "keep");
+            store.writeString(URI.create("folder/child.txt"), "child");
+
+            WriteBatch batch = new WriteBatch()
+                    .writeString(URI.create("new/dir/new.txt"), "new")
+                    .writeString(URI.create("existing.txt"), "replaced", ObjectStore.OutputOption.CREATE_OR_REPLACE)
+                    .delete(URI.create("delete-me.txt"))
+                    .createFolder(URI.create("created"))
+                    // fails when publishing because the folder is not empty
+                    .delete(URI.create("folder"));
+            assertThrows(FolderNotEmptyException.class, () -> store.commit(batch));
+
+            assertEquals("old", store.readString(URI.create("existing.txt")));
+            assertEquals("keep", store.readString(URI.create("delete-me.txt")));
+            assertEquals("child", store.readString(URI.create("folder/child.txt")));
+            assertTrue(store.getInfo(URI.create("new")).isEmpty());
+            assertTrue(store.getInfo(URI.create("created")).isEmpty());
+            assertEquals(List.of(), listHiddenFiles(root));
+        }
+    }
+
+    @Test
+    void commit_throughPrefixedViewUsesTheUnderlyingStore() throws Exception {
+        try (ObjectStore store = FileObjectStore.newObjectStore(tempDir.resolve("prefixed-batch"))) {
+            ObjectStore view = store.prefixed(URI.create("view"));
+            view.commit(new WriteBatch().writeString(URI.create("a.txt"), "a").createFolder(URI.create("b")));
+
+            assertEquals("a", store.readString(URI.create("view/a.txt")));
+            assertTrue(store.getInfo(URI.create("view/b")).isPresent());
+            assertThrows(IllegalPathException.class, () -> view.commit(new WriteBatch().writeString(URI.create("../outside.txt"), "x")));
+        }
+    }
+
+    @Test
+    void commit_temporaryFilesAreNotListed() throws Exception {
+        Path root = tempDir.resolve("staging");
+        try (ObjectStore store = FileObjectStore.newObjectStore(root)) {
+            store.writeString(URI.create("folder/data.txt"), "data");
+            // simulate a commit in progress
+            Files.writeString(root.resolve("folder/.~batch.new.txt.0123.tmp"), "staged");
+            Files.writeString(root.resolve("folder/.~batch.data.txt.4567.bak"), "backup");
+
+            try (Stream<ObjectStore.ObjectInfo> entries = store.list(URI.create("folder"))) {
+                assertEquals(List.of(URI.create("folder/data.txt")), entries.map(ObjectStore.ObjectInfo::uri).toList());
+            }
+        }
+    }
+
+    @Test
+    void commit_rejectsWritesBelowDeletedPaths() throws Exception {
+        Path root = tempDir.resolve("delete-then-write");
+        try (ObjectStore store = FileObjectStore.newObjectStore(root)) {
+            store.createFolder(URI.create("empty"));
+            store.writeString(URI.create("file"), "data");
+
+            WriteBatch deleteFolder = new WriteBatch()
+                    .delete(URI.create("empty"))
+                    .writeString(URI.create("empty/new.txt"), "new");
+            IOException e = assertThrows(IOException.class, () -> store.commit(deleteFolder));
+            assertTrue(e.getMessage().startsWith("Cannot write below a path deleted earlier in the same batch"), e.getMessage());
+
+            WriteBatch deleteFile = new WriteBatch()
+                    .delete(URI.create("file"))
+                    .writeString(URI.create("file/new.txt"), "new");
+            assertThrows(IOException.class, () -> store.commit(deleteFile));
+
+            // nothing was changed
+            assertTrue(store.getInfo(URI.create("empty")).isPresent());
+            assertEquals("data", store.readString(URI.create("file")));
+            assertEquals(List.of(), listHiddenFiles(root));
+
+            // writing first and deleting afterwards is fine
+            store.commit(new WriteBatch()
+                    .writeString(URI.create("empty/new.txt"), "new")
+                    .delete(URI.create("file")));
+            assertEquals("new", store.readString(URI.create("empty/new.txt")));
+            assertTrue(store.getInfo(URI.create("file")).isEmpty());
+        }
+    }
+
+    private static List<Path> listHiddenFiles(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(p -> p.getFileName().toString().startsWith(".")).toList();
+        }
+    }
+
     @Test
     void readableByteChannel_enforcesReadableModeAndDataObjects() throws Exception {
         Path root = tempDir.resolve("channel-validation");
@@ -359,6 +359,61 @@ class FileTypeTest {
         assertEquals(0, textFileType.compareTo(textFileType));
     }
 
+    @Test
+    void readAllReportsResultsPerFile() throws IOException {
+        List<Path> paths = new java.util.ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            paths.add(writeFile("batch" + i + "." + (i % 2 == 0 ? TEXT_EXTENSION : ALTERNATE_TEXT_EXTENSION), "content " + i));
+        }
+        Path unknown = writeFile("batch.filetypetest-unknown", "unknown");
+        Path missing = tempDir.resolve("missing." + TEXT_EXTENSION);
+        paths.add(unknown);
+        paths.add(missing);
+
+        java.util.Map<URI, LoadResult<String>> results;
+        try (Stream<LoadResult<String>> stream = FileType.readAllFiles(paths, String.class, 4)) {
+            results = stream.collect(java.util.stream.Collectors.toMap(LoadResult::uri, r -> r));
+        }
+
+        assertEquals(paths.size(), results.size());
+        for (int i = 0; i < 20; i++) {
+            LoadResult<String> result = results.get(paths.get(i).toUri());
+            assertTrue(result.isSuccess());
+            assertEquals("content " + i, result.getOrThrow());
+        }
+        assertFalse(results.get(unknown.toUri()).isSuccess());
+        assertFalse(results.get(missing.toUri()).isSuccess());
+        assertThrows(IOException.class, () -> results.get(missing.toUri()).getOrThrow());
+
+        assertThrows(IllegalArgumentException.class, () -> FileType.readAllFiles(paths, String.class, 0));
+    }
+
+    @Test
+    void readAllUsesContentToDetermineFileType() throws IOException {
+        long magic = java.nio.ByteBuffer.wrap("FTMAGIC!".getBytes(StandardCharsets.US_ASCII)).getLong();
+        TestFileType<CharSequence> magicFileType = new TestFileType<>(
+                "FileType test magic", OpenMode.READ, CharSequence.class, "filetypetest-magic") {
+            @Override
+            public boolean matches(String filename, long m) {
+                return m == magic || super.matches(filename, m);
+            }
+        };
+        FileType.addType(magicFileType);
+
+        Path signed = writeFile("signed.unknown", "FTMAGIC! with signature");
+        Path unsigned = writeFile("unsigned.unknown", "no signature");
+
+        List<LoadResult<CharSequence>> results;
+        try (Stream<LoadResult<CharSequence>> stream = FileType.readAllFiles(List.of(signed, unsigned), CharSequence.class, 2)) {
+            results = stream.toList();
+        }
+
+        assertEquals(2, results.size());
+        for (LoadResult<CharSequence> result : results) {
+            assertEquals(result.uri().equals(signed.toUri()), result.isSuccess());
+        }
+    }
+
     private Path writeFile(String filename, String content) throws IOException {
         Path path = tempDir.resolve(filename);
         Files.writeString(path, content);
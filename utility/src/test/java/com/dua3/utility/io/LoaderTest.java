@@ -11,8 +11,13 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -62,4 +67,28 @@ class LoaderTest {
             assertEquals(1, LoaderTestSecondProvider.loadCalls);
         }
     }
+
+    @Test
+    void loadAllReportsResultsPerFile(@TempDir Path tempDir) throws IOException {
+        Path supported1 = tempDir.resolve("supported1.bin");
+        Path supported2 = tempDir.resolve("supported2.bin");
+        Path unsupported = tempDir.resolve("unsupported.bin");
+        Path missing = tempDir.resolve("missing.bin");
+        Files.write(supported1, LoaderTestSecondProvider.magicBytes());
+        Files.write(supported2, LoaderTestSecondProvider.magicBytes());
+        Files.writeString(unsupported, "something else");
+
+        List<LoadResult<String>> results;
+        try (Stream<LoadResult<String>> stream = Loader.loadAllFiles(String.class, List.of(supported1, unsupported, missing, supported2), 2)) {
+            results = stream.toList();
+        }
+
+        assertEquals(4, results.size());
+        Map<URI, LoadResult<String>> byUri = results.stream().collect(Collectors.toMap(LoadResult::uri, r -> r));
+        assertEquals("second-loader-result", byUri.get(supported1.toUri()).getOrThrow());
+        assertEquals("second-loader-result", byUri.get(supported2.toUri()).getOrThrow());
+        assertInstanceOf(LoadResult.Failure.class, byUri.get(unsupported.toUri()));
+        assertInstanceOf(LoadResult.Failure.class, byUri.get(missing.toUri()));
+        assertEquals(0, LoaderTestFirstProvider.loadCalls);
+    }
 }
@@ -0,0 +1,166 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.io.imp.MemoryObjectStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryObjectStoreTest extends AbstractObjectStoreTest {
+    @Override
+    protected ObjectStore createStore(Path root) {
+        return MemoryObjectStore.newObjectStore();
+    }
+
+    @Test
+    void publicFactoryCreatesMemoryStore() throws Exception {
+        try (ObjectStore store = ObjectStores.memoryStore()) {
+            assertInstanceOf(MemoryObjectStore.class, store);
+            assertTrue(store.getRoot().isAbsolute());
+            assertTrue(store.isReadable());
+            assertTrue(store.isWritable());
+        }
+    }
+
+    @Test
+    void largeObjectsSpanMultipleSegments() throws Exception {
+        try (MemoryObjectStore store = MemoryObjectStore.newObjectStore(64)) {
+            byte[] data = new byte[10_000];
+            new Random(1).nextBytes(data);
+            URI path = URI.create("large.bin");
+
+            try (var out = store.openOutputStream(path)) {
+                for (int i = 0; i < data.length; i += 777) {
+                    out.write(data, i, Math.min(777, data.length - i));
+                }
+            }
+
+            assertArrayEquals(data, store.readAllBytes(path));
+            assertEquals(data.length, store.getInfo(path).orElseThrow().size());
+            assertTrue(store.getAllocatedBytes() >= data.length);
+
+            store.delete(path);
+            assertEquals(0, store.getAllocatedBytes());
+        }
+    }
+
+    @Test
+    void seekableChannels_supportRandomAccessAndTruncate() throws Exception {
+        try (MemoryObjectStore store = MemoryObjectStore.newObjectStore(64)) {
+            URI path = URI.create("random.bin");
+
+            try (SeekableByteChannel out = store.openWritableByteChannel(path)) {
+                out.write(ByteBuffer.wrap("hello world".getBytes(StandardCharsets.UTF_8)));
+                out.position(6);
+                out.write(ByteBuffer.wrap("WORLD".getBytes(StandardCharsets.UTF_8)));
+
+                // writing past the end fills the gap with zeros
+                out.position(200);
+                out.write(ByteBuffer.wrap(new byte[]{1}));
+                assertEquals(201, out.size());
+
+                out.truncate(11);
+                assertEquals(11, out.size());
+                assertEquals(11, out.position());
+
+                out.position(100);
+                out.write(ByteBuffer.wrap(new byte[]{2}));
+            }
+
+            byte[] expected = new byte[101];
+            System.arraycopy("hello WORLD".getBytes(StandardCharsets.UTF_8), 0, expected, 0, 11);
+            expected[100] = 2;
+            assertArrayEquals(expected, store.readAllBytes(path));
+
+            try (SeekableByteChannel in = store.openReadableByteChannel(path)) {
+                in.position(6);
+                ByteBuffer buffer = ByteBuffer.allocate(5);
+                assertEquals(5, in.read(buffer));
+                assertEquals("WORLD", new String(buffer.array(), StandardCharsets.UTF_8));
+
+                in.position(101);
+                assertEquals(-1, in.read(ByteBuffer.allocate(1)));
+
+                assertThrows(NonWritableChannelException.class, () -> in.write(ByteBuffer.allocate(1)));
+            }
+        }
+    }
+
+    @Test
+    void replacingData_doesNotAffectOpenReaders() throws Exception {
+        try (ObjectStore store = ObjectStores.memoryStore()) {
+            URI path = URI.create("data.txt");
+            store.writeString(path, "old");
+
+            try (InputStream in = store.openInputStream(path)) {
+                store.writeString(path, "new content", ObjectStore.OutputOption.CREATE_OR_REPLACE);
+                assertEquals("old", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            assertEquals("new content", store.readString(path));
+        }
+    }
+
+    @Test
+    void timestamps_areUpdatedOnModification() throws Exception {
+        try (ObjectStore store = ObjectStores.memoryStore()) {
+            URI path = URI.create("folder/data.txt");
+            Instant before = Instant.now();
+            store.writeString(path, "1");
+
+            ObjectStore.ObjectInfo info = store.getInfo(path).orElseThrow();
+            assertFalse(info.created().isBefore(before));
+            assertFalse(info.lastModified().isBefore(info.created()));
+
+            Thread.sleep(5);
+            store.writeString(path, "22", ObjectStore.OutputOption.CREATE_OR_REPLACE);
+
+            ObjectStore.ObjectInfo updated = store.getInfo(path).orElseThrow();
+            assertEquals(info.created(), updated.created());
+            assertTrue(updated.lastModified().isAfter(info.lastModified()));
+            assertEquals(2, updated.size());
+
+            ObjectStore.ObjectInfo folder = store.getInfo(URI.create("folder")).orElseThrow();
+            assertEquals(URI.create("folder/"), folder.uri());
+        }
+    }
+
+    @Test
+    void invalidTargets_areRejected() throws Exception {
+        try (ObjectStore store = ObjectStores.memoryStore()) {
+            store.writeString(URI.create("data.txt"), "x");
+            store.createFolder(URI.create("folder"));
+
+            assertThrows(NotAFolderException.class, () -> store.createFolder(URI.create("data.txt/sub")));
+            assertThrows(NotAFolderException.class, () -> store.writeString(URI.create("data.txt/sub.txt"), "y"));
+            assertThrows(NotAFolderException.class, () -> store.list(URI.create("data.txt")));
+            assertThrows(IOException.class, () -> store.writeString(URI.create("folder"), "y", ObjectStore.OutputOption.CREATE_OR_REPLACE));
+            assertThrows(IOException.class, () -> store.openInputStream(URI.create("folder")));
+            assertThrows(ObjectNotFoundException.class, () -> store.delete(URI.create("missing")));
+        }
+    }
+
+    @Test
+    void close_releasesData() throws Exception {
+        MemoryObjectStore store = MemoryObjectStore.newObjectStore();
+        store.writeString(URI.create("data.txt"), "x");
+        store.close();
+
+        assertEquals(0, store.getAllocatedBytes());
+        assertThrows(IllegalStateException.class, () -> store.getInfo(URI.create("data.txt")));
+    }
+}
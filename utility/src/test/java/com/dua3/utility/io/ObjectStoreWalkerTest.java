@@ -0,0 +1,202 @@
+package com.dua3.utility.io;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ObjectStoreWalkerTest {
+
+    /**
+     * A store that records the folders listed and can hold back list calls until a number of them are active.
+     */
+    private static final class RecordingStore implements ReadableObjectStore {
+        final ReadableObjectStore delegate;
+        final Set<String> listed = ConcurrentHashMap.newKeySet();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        volatile @Nullable CountDownLatch rendezvous;
+        volatile String failingFolder = "";
+
+        RecordingStore(ReadableObjectStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public URI getRoot() {
+            return delegate.getRoot();
+        }
+
+        @Override
+        public Stream<ObjectStore.ObjectInfo> list(URI path) throws IOException {
+            String folder = path.toString().replaceAll("/$", "");
+            listed.add(folder);
+            if (folder.equals(failingFolder)) {
+                throw new IOException("cannot list " + folder);
+            }
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                CountDownLatch latch = rendezvous;
+                if (latch != null && !folder.equals("root")) {
+                    // wait until the expected number of list calls are active at the same time
+                    latch.countDown();
+                    latch.await(10, TimeUnit.SECONDS);
+                }
+                return delegate.list(path).toList().stream();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+
+        @Override
+        public InputStream openInputStream(URI path) throws IOException {
+            return delegate.openInputStream(path);
+        }
+
+        @Override
+        public Optional<ObjectStore.ObjectInfo> getInfo(URI path) throws IOException {
+            return delegate.getInfo(path);
+        }
+
+        @Override
+        public ReadableByteChannel openReadableByteChannel(URI path) throws IOException {
+            return delegate.openReadableByteChannel(path);
+        }
+
+        @Override
+        public void close() {
+            // nothing to do
+        }
+    }
+
+    @Test
+    void globOnlyListsFoldersThatCanContainMatches() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            for (String year : List.of("2023", "2024")) {
+                for (String part : List.of("a", "b")) {
+                    backing.writeString(URI.create("data/" + year + "/" + part + "/deep/x.txt"), "x");
+                    backing.writeString(URI.create("data/" + year + "/" + part + "/x.txt"), "x");
+                }
+            }
+
+            RecordingStore store = new RecordingStore(backing);
+            try (Stream<URI> matches = store.glob("data/2024/*/x.txt")) {
+                assertEquals(List.of(URI.create("data/2024/a/x.txt"), URI.create("data/2024/b/x.txt")), matches.sorted().toList());
+            }
+            assertEquals(Set.of("data/2024", "data/2024/a", "data/2024/b"), store.listed);
+
+            store.listed.clear();
+            try (Stream<URI> matches = store.glob("data/*/a/*.txt")) {
+                assertEquals(List.of(URI.create("data/2023/a/x.txt"), URI.create("data/2024/a/x.txt")), matches.sorted().toList());
+            }
+            assertEquals(Set.of("data", "data/2023", "data/2024", "data/2023/a", "data/2024/a"), store.listed);
+
+            store.listed.clear();
+            try (Stream<URI> matches = store.globParallel(URI.create(""), "data/*/a/**/x.txt", 4)) {
+                assertEquals(List.of(URI.create("data/2023/a/deep/x.txt"), URI.create("data/2024/a/deep/x.txt")), matches.sorted().toList());
+            }
+            assertFalse(store.listed.contains("data/2023/b"));
+            assertTrue(store.listed.contains("data/2024/a/deep"));
+        }
+    }
+
+    @Test
+    void parallelWalkListsFoldersConcurrently() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            for (int i = 0; i < 16; i++) {
+                backing.writeString(URI.create("root/f" + i + "/data.txt"), "x");
+            }
+
+            RecordingStore store = new RecordingStore(backing);
+            CountDownLatch rendezvous = new CountDownLatch(4);
+            store.rendezvous = rendezvous;
+            try (Stream<ObjectStore.ObjectInfo> entries = store.walkParallel(URI.create("root"), Integer.MAX_VALUE, 4)) {
+                assertEquals(1 + 16 + 16, entries.count());
+            }
+            // the latch only opens when four folders are listed at the same time
+            assertEquals(0, rendezvous.getCount());
+            assertEquals(4, store.maxActive.get());
+        }
+    }
+
+    @Test
+    void parallelWalkAppliesBackpressure() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            int n = 5 * ObjectStoreWalker.QUEUE_CAPACITY;
+            for (int i = 0; i < n; i++) {
+                backing.createFolder(URI.create("root/f" + i));
+            }
+
+            RecordingStore store = new RecordingStore(backing);
+            int parallelism = 8;
+            try (Stream<ObjectStore.ObjectInfo> entries = store.walkParallel(URI.create("root"), Integer.MAX_VALUE, parallelism)) {
+                Iterator<ObjectStore.ObjectInfo> iterator = entries.iterator();
+                int consumed = 0;
+                while (iterator.hasNext()) {
+                    iterator.next();
+                    consumed++;
+                    // a folder is only listed after its entry has been queued, and the producers wait for the
+                    // consumer when the queue is full; each worker may hold one more entry it is trying to queue
+                    int listed = store.listed.size();
+                    assertTrue(listed <= 1 + consumed + ObjectStoreWalker.QUEUE_CAPACITY + parallelism,
+                            "listed: " + listed + ", consumed: " + consumed);
+                }
+                assertEquals(1 + n, consumed);
+            }
+        }
+    }
+
+    @Test
+    void parallelWalkReportsListErrors() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            backing.writeString(URI.create("root/good/data.txt"), "x");
+            backing.writeString(URI.create("root/bad/data.txt"), "x");
+
+            RecordingStore store = new RecordingStore(backing);
+            store.failingFolder = "root/bad";
+            try (Stream<ObjectStore.ObjectInfo> entries = store.walkParallel(URI.create("root"), Integer.MAX_VALUE, 2)) {
+                UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> entries.forEach(info -> {}));
+                assertEquals("cannot list root/bad", e.getCause().getMessage());
+            }
+        }
+    }
+
+    @Test
+    void parallelWalkReportsPredicateErrors() throws Exception {
+        try (ObjectStore backing = ObjectStores.memoryStore()) {
+            backing.writeString(URI.create("root/good/data.txt"), "x");
+            backing.writeString(URI.create("root/bad/data.txt"), "x");
+
+            try (Stream<ObjectStore.ObjectInfo> entries = ObjectStoreWalker.walkParallel(backing, URI.create("root"), Integer.MAX_VALUE, 2, info -> {
+                if (info.uri().toString().startsWith("root/bad")) {
+                    throw new IllegalStateException("cannot descend into " + info.uri());
+                }
+                return true;
+            })) {
+                IllegalStateException e = assertThrows(IllegalStateException.class, () -> entries.forEach(info -> {}));
+                assertTrue(e.getMessage().startsWith("cannot descend into root/bad"), e.getMessage());
+            }
+        }
+    }
+}
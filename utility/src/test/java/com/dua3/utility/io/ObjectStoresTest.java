@@ -8,7 +8,9 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ObjectStoresTest {
@@ -74,4 +76,29 @@ class ObjectStoresTest {
             assertTrue(sourceStore.getInfo(URI.create("move.txt")).isEmpty());
         }
     }
+
+    @Test
+    void copyAndMoveBetweenFileAndMemoryStores() throws Exception {
+        Path root = tempDir.resolve("files");
+        byte[] data = new byte[300_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        try (ObjectStore fileStore = ObjectStores.fileStore(root);
+             ObjectStore memoryStore = ObjectStores.memoryStore()) {
+            fileStore.write(URI.create("blob.bin"), data);
+
+            ObjectStores.copy(fileStore, URI.create("blob.bin"), memoryStore, URI.create("copy/blob.bin"));
+            assertArrayEquals(data, memoryStore.readAllBytes(URI.create("copy/blob.bin")));
+
+            ObjectStores.move(memoryStore, URI.create("copy/blob.bin"), fileStore.prefixed(URI.create("back")), URI.create("blob.bin"));
+            assertArrayEquals(data, Files.readAllBytes(root.resolve("back/blob.bin")));
+            assertTrue(memoryStore.getInfo(URI.create("copy/blob.bin")).isEmpty());
+
+            assertThrows(ObjectNotFoundException.class,
+                    () -> ObjectStores.copy(fileStore, URI.create("missing.bin"), memoryStore, URI.create("missing.bin")));
+            assertTrue(memoryStore.getInfo(URI.create("missing.bin")).isEmpty());
+        }
+    }
 }
@@ -0,0 +1,158 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.options.Arguments;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test the ParallelCsvReader class.
+ */
+class ParallelCsvReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String createCsvData(int rows) {
+        StringBuilder sb = new StringBuilder("Nr.,Name,Remark\r\n");
+        for (int i = 1; i <= rows; i++) {
+            sb.append(i).append(',');
+            switch (i % 4) {
+                case 0 -> sb.append("\"Name ").append(i).append("\",\"multi\r\nline, \"\"quoted\"\"\ntext\"");
+                case 1 -> sb.append("Näme ").append(i).append(",plain");
+                case 2 -> sb.append("\"Name\n").append(i).append("\",\"\"");
+                default -> sb.append(" \"Name ").append(i).append("\" ,");
+            }
+            sb.append(i % 3 == 0 ? "\n" : "\r\n");
+        }
+        return sb.toString();
+    }
+
+    private static List<List<String>> readSequential(Path path, Arguments arguments) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (CsvReader reader = CsvReader.create(new CsvReader.ListRowBuilder(rows::add), path, arguments)) {
+            reader.readAll();
+        }
+        return rows;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 64, 1000, ParallelCsvReader.DEFAULT_CHUNK_SIZE})
+    void testRowsMatchSequentialReader(int chunkSize) throws IOException {
+        Path path = tempDir.resolve("data.csv");
+        Files.writeString(path, createCsvData(500), StandardCharsets.UTF_8);
+        Arguments arguments = Arguments.of(Arguments.createEntry(CsvReader.READ_COLUMN_NAMES, true));
+
+        List<List<String>> expected = readSequential(path, arguments);
+        assertEquals(500, expected.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (ParallelCsvReader reader = ParallelCsvReader.create(path, arguments, executor, 4, chunkSize)) {
+            assertEquals(List.of("Nr.", "Name", "Remark"), reader.getColumnNames());
+
+            try (Stream<List<String>> rows = reader.rows()) {
+                assertEquals(expected, rows.toList());
+            }
+
+            // the builder factory is called in chunk order
+            List<List<List<String>>> chunks = new ArrayList<>();
+            List<CsvReader.ListRowBuilder> builders = reader.readAll(() -> {
+                List<List<String>> chunkRows = new ArrayList<>();
+                chunks.add(chunkRows);
+                return new CsvReader.ListRowBuilder(chunkRows::add);
+            });
+            assertEquals(chunks.size(), builders.size());
+            List<List<String>> collected = new ArrayList<>();
+            chunks.forEach(collected::addAll);
+            assertEquals(expected, collected);
+            assertTrue(chunkSize > 1000 || chunks.size() > 1, "file should have been split");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testUtf8Bom() throws IOException {
+        Path path = tempDir.resolve("bom.csv");
+        byte[] data = "a,b\n1,2\n".getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[data.length + 3];
+        bytes[0] = (byte) 0xef;
+        bytes[1] = (byte) 0xbb;
+        bytes[2] = (byte) 0xbf;
+        System.arraycopy(data, 0, bytes, 3, data.length);
+        Files.write(path, bytes);
+
+        Arguments arguments = Arguments.of(Arguments.createEntry(CsvReader.READ_COLUMN_NAMES, true));
+        try (ParallelCsvReader reader = ParallelCsvReader.create(path, arguments);
+             Stream<List<String>> rows = reader.rows()) {
+            assertEquals(List.of("a", "b"), reader.getColumnNames());
+            assertEquals(List.of(List.of("1", "2")), rows.toList());
+        }
+    }
+
+    @Test
+    void testUnsplittableCharset() throws IOException {
+        Path path = tempDir.resolve("utf16.csv");
+        Charset cs = StandardCharsets.UTF_16LE;
+        Files.writeString(path, createCsvData(50), cs);
+        Arguments arguments = Arguments.of(
+                Arguments.createEntry(CsvReader.READ_COLUMN_NAMES, true),
+                Arguments.createEntry(IoOptions.OPTION_CHARSET, cs)
+        );
+
+        try (ParallelCsvReader reader = ParallelCsvReader.create(path, arguments, Runnable::run, 2, 16);
+             Stream<List<String>> rows = reader.rows()) {
+            assertEquals(List.of("Nr.", "Name", "Remark"), reader.getColumnNames());
+            assertEquals(readSequential(path, arguments), rows.toList());
+        }
+    }
+
+    @Test
+    void testSeparatorAndDelimiter() throws IOException {
+        Path path = tempDir.resolve("semicolon.csv");
+        Files.writeString(path, "a;'b;\nc'\n'd''e';f\n", StandardCharsets.ISO_8859_1);
+        Arguments arguments = Arguments.of(
+                Arguments.createEntry(IoOptions.OPTION_FIELD_SEPARATOR, ';'),
+                Arguments.createEntry(IoOptions.OPTION_TEXT_DELIMITER, '\''),
+                Arguments.createEntry(IoOptions.OPTION_CHARSET, StandardCharsets.ISO_8859_1)
+        );
+
+        try (ParallelCsvReader reader = ParallelCsvReader.create(path, arguments, Runnable::run, 1, 1);
+             Stream<List<String>> rows = reader.rows()) {
+            assertEquals(List.of(List.of("a", "b;\nc"), List.of("d'e", "f")), rows.toList());
+        }
+    }
+
+    @Test
+    void testErrorLineNumber() throws IOException {
+        Path path = tempDir.resolve("invalid.csv");
+        Files.writeString(path, "a,b\n1,2\n3,\"x\ny\"\n5,\"6\"x\n7,8\n", StandardCharsets.UTF_8);
+
+        try (ParallelCsvReader reader = ParallelCsvReader.create(path, Arguments.empty(), Runnable::run, 1, 1)) {
+            CsvFormatException e = assertThrows(CsvFormatException.class, () -> reader.readAll(CsvReader.ListRowBuilder::new));
+            assertEquals("[" + path.toUri() + ":5] invalid csv data.", e.getMessage());
+
+            try (Stream<List<String>> rows = reader.rows()) {
+                UncheckedIOException ue = assertThrows(UncheckedIOException.class, rows::toList);
+                assertEquals(CsvFormatException.class, ue.getCause().getClass());
+            }
+        }
+    }
+}
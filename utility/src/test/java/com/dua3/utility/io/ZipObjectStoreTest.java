@@ -0,0 +1,159 @@
+package com.dua3.utility.io;
+
+import com.dua3.utility.io.imp.ZipObjectStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipObjectStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path createZip() throws IOException {
+        Path zipFile = tempDir.resolve("test.zip");
+        try (ZipOutputStream zout = new ZipOutputStream(Files.newOutputStream(zipFile))) {
+            zout.putNextEntry(new ZipEntry("docs/"));
+            zout.closeEntry();
+
+            zout.putNextEntry(new ZipEntry("docs/deflated.txt"));
+            zout.write("deflated ".repeat(1000).getBytes(StandardCharsets.UTF_8));
+            zout.closeEntry();
+
+            byte[] stored = "stored content".getBytes(StandardCharsets.UTF_8);
+            CRC32 crc = new CRC32();
+            crc.update(stored);
+            ZipEntry entry = new ZipEntry("docs/stored.txt");
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(stored.length);
+            entry.setCrc(crc.getValue());
+            zout.putNextEntry(entry);
+            zout.write(stored);
+            zout.closeEntry();
+
+            // no explicit entry for the parent folders
+            zout.putNextEntry(new ZipEntry("a/b/c.txt"));
+            zout.write("c".getBytes(StandardCharsets.UTF_8));
+            zout.closeEntry();
+
+            zout.putNextEntry(new ZipEntry("../evil.txt"));
+            zout.write("evil".getBytes(StandardCharsets.UTF_8));
+            zout.closeEntry();
+        }
+        return zipFile;
+    }
+
+    @Test
+    void readsStoredAndDeflatedEntries() throws Exception {
+        try (ReadableObjectStore store = ObjectStores.zipStore(createZip())) {
+            assertEquals("deflated ".repeat(1000), store.readString(URI.create("docs/deflated.txt")));
+            assertEquals("stored content", store.readString(URI.create("docs/stored.txt")));
+            assertEquals("c", store.readString(URI.create("a/b/c.txt")));
+
+            try (InputStream in = store.openInputStream(URI.create("docs/deflated.txt"))) {
+                assertEquals("deflated deflated", new String(in.readNBytes(17), StandardCharsets.UTF_8));
+            }
+
+            try (ReadableByteChannel channel = store.openReadableByteChannel(URI.create("docs/stored.txt"))) {
+                ByteBuffer buffer = ByteBuffer.allocate(64);
+                while (channel.read(buffer) >= 0) {
+                    // read until end of data
+                }
+                assertEquals("stored content", new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    void mapsStoredEntries() throws Exception {
+        try (ReadableObjectStore store = ObjectStores.zipStore(createZip())) {
+            ByteBuffer mapped = store.map(URI.create("docs/stored.txt"));
+            assertTrue(mapped.isDirect());
+            assertTrue(mapped.isReadOnly());
+            assertEquals("stored content", StandardCharsets.UTF_8.decode(mapped).toString());
+
+            ByteBuffer inflated = store.map(URI.create("docs/deflated.txt"));
+            assertEquals(9000, inflated.remaining());
+        }
+    }
+
+    @Test
+    void listsEntriesAndImplicitFolders() throws Exception {
+        try (ReadableObjectStore store = ObjectStores.zipStore(createZip())) {
+            try (Stream<URI> entries = store.list(URI.create("")).map(ObjectStore.ObjectInfo::uri)) {
+                assertEquals(List.of(URI.create("a/"), URI.create("docs/")), entries.toList());
+            }
+            try (Stream<URI> entries = store.list(URI.create("docs")).map(ObjectStore.ObjectInfo::uri)) {
+                assertEquals(List.of(URI.create("docs/deflated.txt"), URI.create("docs/stored.txt")), entries.toList());
+            }
+            try (Stream<ObjectStore.ObjectInfo> entries = store.walk(URI.create("a"))) {
+                assertEquals(3, entries.count());
+            }
+
+            ObjectStore.ObjectInfo info = store.getInfo(URI.create("docs/deflated.txt")).orElseThrow();
+            assertEquals(ObjectStore.ObjectType.DATA, info.type());
+            assertEquals(9000, info.size());
+            assertEquals(ObjectStore.ObjectType.FOLDER, store.getInfo(URI.create("a/b")).orElseThrow().type());
+            assertFalse(store.getInfo(URI.create("evil.txt")).isPresent());
+        }
+    }
+
+    @Test
+    void reportsErrorsLikeOtherStores() throws Exception {
+        try (ReadableObjectStore store = ObjectStores.zipStore(createZip())) {
+            assertThrows(ObjectNotFoundException.class, () -> store.readAllBytes(URI.create("missing.txt")));
+            assertThrows(ObjectNotFoundException.class, () -> store.list(URI.create("missing")));
+            assertThrows(NotAFolderException.class, () -> store.list(URI.create("docs/stored.txt")));
+            assertThrows(IOException.class, () -> store.openInputStream(URI.create("docs")));
+            assertThrows(IllegalPathException.class, () -> store.getInfo(URI.create("../test.zip")));
+        }
+
+        Path notAZip = tempDir.resolve("not-a-zip.zip");
+        Files.writeString(notAZip, "this is not a zip file");
+        assertThrows(IOException.class, () -> ZipObjectStore.open(notAZip));
+    }
+
+    @Test
+    void readsArchivesWrittenInParallel() throws Exception {
+        try (ObjectStore source = ObjectStores.memoryStore()) {
+            for (int i = 0; i < 100; i++) {
+                source.writeString(URI.create("data/part" + (i % 7) + "/file" + i + ".txt"), ("content " + i + "\n").repeat(i));
+            }
+
+            Path zipFile = tempDir.resolve("parallel.zip");
+            try (OutputStream out = Files.newOutputStream(zipFile)) {
+                Zip.write(source, URI.create("data"), out, 4);
+            }
+
+            try (ReadableObjectStore store = ObjectStores.zipStore(zipFile)) {
+                try (Stream<ObjectStore.ObjectInfo> entries = store.walk(URI.create(""))) {
+                    assertEquals(1 + 7 + 100, entries.count());
+                }
+                for (int i = 0; i < 100; i++) {
+                    String path = "part" + (i % 7) + "/file" + i + ".txt";
+                    assertArrayEquals(source.readAllBytes(URI.create("data/" + path)), store.readAllBytes(URI.create(path)));
+                }
+            }
+        }
+    }
+}
@@ -6,16 +6,27 @@
 package com.dua3.utility.io;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -101,6 +112,93 @@ class ZipTest {
         assertDoesNotThrow(zip::close);
     }
 
+    @Test
+    void write_object_store_folder_roundtrips_with_ZipInputStream() throws IOException {
+        try (ObjectStore store = ObjectStores.memoryStore()) {
+            Random random = new Random(42);
+            byte[] incompressible = new byte[100_000];
+            random.nextBytes(incompressible);
+
+            store.writeString(URI.create("export/readme.txt"), "readme ".repeat(1000));
+            store.write(URI.create("export/bin/random.bin"), incompressible);
+            store.createFolder(URI.create("export/empty"));
+            for (int i = 0; i < 50; i++) {
+                store.writeString(URI.create("export/many/file" + i + ".txt"), "file " + i);
+            }
+            store.writeString(URI.create("other.txt"), "not exported");
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            Zip.write(store, URI.create("export"), baos, 4);
+
+            ZipContent zc = readZip(baos.toByteArray());
+            assertEquals(Set.of("bin/", "empty/", "many/"), zc.directories);
+            assertEquals(52, zc.files.size());
+            assertEquals("readme ".repeat(1000), new String(zc.files.get("readme.txt"), StandardCharsets.UTF_8));
+            assertArrayEquals(incompressible, zc.files.get("bin/random.bin"));
+            assertEquals("file 17", new String(zc.files.get("many/file17.txt"), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void write_object_store_folder_creates_archive_readable_by_ZipFile(@TempDir Path tempDir) throws IOException {
+        try (ObjectStore store = ObjectStores.memoryStore()) {
+            store.writeString(URI.create("a.txt"), "alpha ".repeat(100));
+            store.writeString(URI.create("sub/b.txt"), "beta");
+            store.writeString(URI.create("sub/\u00e4\u00f6\u00fc.txt"), "umlauts");
+            byte[] large = new byte[ParallelZipWriter.MAX_BUFFERED_SIZE + 1000];
+            Arrays.fill(large, (byte) 'x');
+            store.write(URI.create("large.bin"), large);
+
+            Path zipFile = tempDir.resolve("out.zip");
+            try (OutputStream out = Files.newOutputStream(zipFile)) {
+                Zip.write(store, URI.create(""), out);
+            }
+
+            try (ZipFile zf = new ZipFile(zipFile.toFile())) {
+                assertEquals(5, zf.size());
+                assertTrue(zf.getEntry("sub/").isDirectory());
+                assertEquals(ZipEntry.DEFLATED, zf.getEntry("a.txt").getMethod());
+                assertEquals(ZipEntry.STORED, zf.getEntry("sub/b.txt").getMethod());
+                try (InputStream in = zf.getInputStream(zf.getEntry("sub/\u00e4\u00f6\u00fc.txt"))) {
+                    assertEquals("umlauts", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+                try (InputStream in = zf.getInputStream(zf.getEntry("large.bin"))) {
+                    assertArrayEquals(large, in.readAllBytes());
+                }
+            }
+
+            // the streamed entry announces ZIP64 sizes in its local header because its size is not known in advance
+            byte[] data = Files.readAllBytes(zipFile);
+            byte[] name = "large.bin".getBytes(StandardCharsets.UTF_8);
+            int nameOffset = indexOf(data, name);
+            ByteBuffer loc = ByteBuffer.wrap(data, nameOffset - 30, 30 + name.length + 20).slice().order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(0x04034b50, loc.getInt(0));
+            assertEquals(45, loc.getShort(4));
+            assertEquals(0xffffffff, loc.getInt(18));
+            assertEquals(0xffffffff, loc.getInt(22));
+            assertEquals(20, loc.getShort(28));
+            assertEquals(0x0001, loc.getShort(30 + name.length));
+            assertEquals(16, loc.getShort(32 + name.length));
+        }
+    }
+
+    @Test
+    void write_object_store_folder_throws_on_invalid_parallelism() throws IOException {
+        try (ObjectStore store = ObjectStores.memoryStore()) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            assertThrows(IllegalArgumentException.class, () -> Zip.write(store, URI.create(""), baos, 0));
+        }
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        for (int i = 0; i <= data.length - pattern.length; i++) {
+            if (Arrays.equals(data, i, i + pattern.length, pattern, 0, pattern.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     // Helper structure and method to read ZIP content
     private static class ZipContent {
         final Map<String, byte[]> files = new HashMap<>();
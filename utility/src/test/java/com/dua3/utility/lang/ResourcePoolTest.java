@@ -3,7 +3,11 @@ package com.dua3.utility.lang;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -581,4 +585,184 @@ class ResourcePoolTest {
         // After pool is closed and lease is returned/destructed
         assertThrows(NullPointerException.class, lease::get, "Lease.get() should throw after resource is disposed");
     }
+
+    @Test
+    void lockFreePoolBasics() {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger released = new AtomicInteger();
+        try (ResourcePool<Object> pool = ResourcePool.newLockFreeResourcePool(
+                () -> {
+                    created.incrementAndGet();
+                    return new Object();
+                },
+                r -> released.incrementAndGet(),
+                r -> {},
+                1, 2
+        )) {
+            assertEquals(1, created.get(), "Should pre-create minCapacity resources");
+
+            Object r1;
+            try (var lease = pool.acquire()) {
+                r1 = lease.get();
+                assertNotNull(r1);
+            }
+            assertEquals(1, released.get());
+
+            try (var lease = pool.acquire()) {
+                assertSame(r1, lease.get(), "Should reuse the resource that was just returned");
+            }
+
+            ResourcePool.Lease<Object> lease1 = pool.acquire();
+            ResourcePool.Lease<Object> lease2 = pool.tryAcquire();
+            assertNotNull(lease2, "tryAcquire should grow the pool up to maxCapacity");
+            assertNotSame(lease1.get(), lease2.get());
+            assertEquals(2, created.get());
+            assertNull(pool.tryAcquire(), "tryAcquire should return null when pool is exhausted");
+
+            lease1.close();
+            lease2.close();
+            assertThrows(IllegalStateException.class, lease2::close, "Closing an already closed lease must fail");
+        }
+    }
+
+    @Test
+    void lockFreePoolStats() throws InterruptedException {
+        try (ResourcePool<Object> pool = ResourcePool.newLockFreeResourcePool(Object::new, r -> {}, r -> {}, 0, 1)) {
+            ResourcePool.Stats initial = pool.getStats().orElseThrow();
+            assertEquals(0, initial.acquired());
+            assertEquals(Duration.ZERO, initial.meanAcquireTime());
+
+            var lease1 = pool.acquire();
+
+            CountDownLatch ready = new CountDownLatch(1);
+            CountDownLatch acquired = new CountDownLatch(1);
+            Thread t = new Thread(() -> {
+                ready.countDown();
+                try (var lease2 = pool.acquire()) {
+                    acquired.countDown();
+                }
+            });
+            t.start();
+
+            assertTrue(ready.await(5, TimeUnit.SECONDS));
+            assertFalse(acquired.await(100, TimeUnit.MILLISECONDS), "Second acquire should block");
+            lease1.close();
+            assertTrue(acquired.await(1, TimeUnit.SECONDS), "Second acquire should succeed after first is closed");
+            t.join();
+
+            ResourcePool.Stats stats = pool.getStats().orElseThrow();
+            assertEquals(2, stats.acquired());
+            assertEquals(1, stats.created());
+            assertEquals(1, stats.waited());
+            // the exact waiting time depends on thread scheduling
+            assertTrue(stats.maxAcquireTime().isPositive(), "Waiting time should be included: " + stats);
+            assertTrue(stats.meanAcquireTime().compareTo(stats.maxAcquireTime()) <= 0, stats.toString());
+        }
+
+        try (ResourcePool<Object> pool = ResourcePool.newFixedSizeResourcePool(Object::new, r -> {}, 1)) {
+            assertTrue(pool.getStats().isEmpty(), "List backed pool does not collect statistics");
+        }
+    }
+
+    @Test
+    void lockFreePoolConcurrentAccessFromVirtualThreads() throws InterruptedException {
+        int taskCount = 200;
+        int poolSize = 4;
+        int iterations = 50;
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger errorCount = new AtomicInteger();
+        Set<Object> seen = ConcurrentHashMap.newKeySet();
+
+        try (ResourcePool<Object> pool = ResourcePool.newLockFreeResourcePool(() -> {
+            created.incrementAndGet();
+            return new Object();
+        }, r -> {}, r -> {}, 0, poolSize);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            CountDownLatch endLatch = new CountDownLatch(taskCount);
+            for (int i = 0; i < taskCount; i++) {
+                executor.execute(() -> {
+                    try {
+                        for (int j = 0; j < iterations; j++) {
+                            try (var lease = pool.acquire()) {
+                                if (inUse.incrementAndGet() > poolSize) {
+                                    errorCount.incrementAndGet();
+                                }
+                                seen.add(lease.get());
+                                Thread.yield();
+                                inUse.decrementAndGet();
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        errorCount.incrementAndGet();
+                    } finally {
+                        endLatch.countDown();
+                    }
+                });
+            }
+
+            assertTrue(endLatch.await(20, TimeUnit.SECONDS)); // Windows CI is slow, give it enough time
+            assertEquals(0, errorCount.get(), "No errors should occur during concurrent access");
+            assertTrue(created.get() <= poolSize, "At most poolSize resources should be created");
+            assertEquals(created.get(), seen.size());
+            assertEquals((long) taskCount * iterations, pool.getStats().orElseThrow().acquired());
+        }
+    }
+
+    @Test
+    void lockFreePoolCloseBlocksUntilAllLeasesReturned() throws InterruptedException {
+        AtomicInteger destroyed = new AtomicInteger();
+        ResourcePool<Object> pool = ResourcePool.newLockFreeResourcePool(Object::new, r -> {}, r -> destroyed.incrementAndGet(), 3, 3);
+
+        var lease = pool.acquire();
+
+        CountDownLatch closeFinished = new CountDownLatch(1);
+        new Thread(() -> {
+            pool.close();
+            closeFinished.countDown();
+        }).start();
+
+        assertFalse(closeFinished.await(200, TimeUnit.MILLISECONDS), "close() should block while leases are out");
+        assertThrows(IllegalStateException.class, pool::acquire, "Acquiring from a closed pool must fail");
+
+        lease.close();
+        assertTrue(closeFinished.await(1, TimeUnit.SECONDS), "close() should complete after final lease is returned");
+        assertEquals(3, destroyed.get(), "All resources should be destroyed exactly once");
+        assertThrows(NullPointerException.class, lease::get, "Lease.get() should throw after resource is disposed");
+    }
+
+    @Test
+    void lockFreePoolInterruptionDuringAcquire() throws InterruptedException {
+        try (ResourcePool<Object> pool = ResourcePool.newLockFreeResourcePool(Object::new, r -> {}, r -> {}, 1, 1)) {
+            var lease1 = pool.acquire();
+
+            CountDownLatch latch = new CountDownLatch(1);
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            Thread t = Thread.ofVirtual().start(() -> {
+                try {
+                    pool.acquire();
+                } catch (Throwable e) {
+                    error.set(e);
+                } finally {
+                    latch.countDown();
+                }
+            });
+
+            t.interrupt();
+
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+            assertInstanceOf(WrappedException.class, error.get());
+            assertInstanceOf(InterruptedException.class, error.get().getCause());
+
+            lease1.close();
+        }
+    }
+
+    @Test
+    void lockFreePoolInvalidCapacities() {
+        assertThrows(IllegalArgumentException.class, () -> ResourcePool.newLockFreeResourcePool(Object::new, r -> {}, r -> {}, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> ResourcePool.newLockFreeResourcePool(Object::new, r -> {}, r -> {}, 2, 1));
+        assertThrows(IllegalArgumentException.class, () -> ResourcePool.newLockFreeResourcePool(Object::new, r -> {}, r -> {}, -1, 1));
+    }
 }